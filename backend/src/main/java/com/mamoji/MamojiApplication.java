@@ -1,15 +1,20 @@
 package com.mamoji;
 
 import com.mamoji.ai.AiProperties;
+import com.mamoji.config.QuoteProperties;
+import com.mamoji.config.RecurringProperties;
+import com.mamoji.config.RollupProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Spring Boot application entrypoint for Mamoji backend.
  */
 @SpringBootApplication
-@EnableConfigurationProperties(AiProperties.class)
+@EnableScheduling
+@EnableConfigurationProperties({AiProperties.class, RollupProperties.class, RecurringProperties.class, QuoteProperties.class})
 public class MamojiApplication {
 
     /**
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mamoji.ai.AiGateway;
 import com.mamoji.ai.AiModelRouter;
+import com.mamoji.ai.AiProperties;
+import com.mamoji.ai.cache.AiResponseCache;
 import com.mamoji.ai.intent.FinanceIntentClassifier;
 import com.mamoji.ai.memory.ConversationMemoryService;
 import com.mamoji.ai.memory.ConversationTurn;
@@ -18,16 +20,25 @@ import com.mamoji.ai.tool.AiToolRouter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -43,6 +54,9 @@ public class ReActAgentService {
     private static final String TOOL_FAILED_ANSWER = "工具调用失败，请稍后重试。";
     private static final String INTERNAL_ERROR_ANSWER = "系统处理异常，请稍后重试。";
     private static final String GATEWAY_UNAVAILABLE_ANSWER = "抱歉，AI 服务暂时不可用，请稍后再试。";
+    private static final long MIN_PREPARE_DEADLINE_MS = 200L;
+    private static final Set<String> DEGRADED_WARNINGS = Set.of("schema_parse_failed", "knowledge_timeout", "memory_timeout");
+    private static final Set<String> PROCESS_WARNINGS = Set.of("schema_repair_retry", "quality_rewrite_retry");
 
     private final AiGateway aiGateway;
     private final AiToolRouter aiToolRouter;
@@ -55,6 +69,8 @@ public class ReActAgentService {
     private final FinanceIntentClassifier financeIntentClassifier;
     private final StructuredAnswerParser structuredAnswerParser;
     private final ObjectMapper objectMapper;
+    private final AiProperties aiProperties;
+    private final AiResponseCache aiResponseCache;
 
     /**
      * 兼容纯文本输出的入口（仅返回 answer 字段）。
@@ -64,125 +80,317 @@ public class ReActAgentService {
     }
 
     /**
-     * 结构化输出主入口。
+     * 结构化输出主入口（同步）。
      *
-     * <p>成功路径会附带 sources/actions/warnings/usage，异常路径保持同结构返回。
+     * <p>成功路径会附带 sources/actions/warnings/usage，异常路径保持同结构返回。与 {@link #processMessageStructuredReactive}
+     * 共用同一条流水线，只是模型调用走同步网关，调用线程阻塞等待结果。
      */
     public StructuredAiResponse processMessageStructured(Long userId, String message, String assistantType, String sessionId) {
+        ModelCall blockingCall = (systemPrompt, prompt, model, type) ->
+            Mono.fromCallable(() -> aiGateway.chat(systemPrompt, prompt, model, type));
+        return process(userId, message, assistantType, sessionId, blockingCall, Schedulers.immediate()).block();
+    }
+
+    /**
+     * 结构化输出非阻塞入口。
+     *
+     * <p>检索、工具与记忆等阻塞步骤在 bounded-elastic 线程上执行，模型调用（主回答、结构修复、质量重写）
+     * 走网关的非阻塞接口，等待上游期间不占用请求线程。
+     */
+    public Mono<StructuredAiResponse> processMessageStructuredReactive(Long userId, String message, String assistantType, String sessionId) {
+        return process(userId, message, assistantType, sessionId, aiGateway::chatReactive, Schedulers.boundedElastic());
+    }
+
+    private Mono<StructuredAiResponse> process(
+        Long userId,
+        String message,
+        String assistantType,
+        String sessionId,
+        ModelCall modelCall,
+        Scheduler blockingScheduler
+    ) {
         String safeMessage = message == null ? "" : message.trim();
         if (safeMessage.isBlank()) {
-            return buildErrorResponse(
+            return Mono.just(buildErrorResponse(
                 EMPTY_QUESTION_ANSWER,
                 List.of("empty_question"),
                 List.of(),
                 List.of(),
                 safeMessage
-            );
+            ));
         }
 
-        try {
-            String traceId = UUID.randomUUID().toString().substring(0, 8);
-            String type = normalizeAssistantType(assistantType);
-            String sessionKey = buildSessionKey(userId, type, sessionId);
-            ToolPlan plan = chooseToolPlan(type, safeMessage);
+        return Mono.defer(() -> prepare(userId, safeMessage, assistantType, sessionId))
+            .flatMap(context -> context.failure() != null
+                ? Mono.just(context.failure())
+                : answer(context, modelCall, blockingScheduler))
+            .onErrorResume(ex -> {
+                log.error("ReAct processing failed: {}", ex.getMessage(), ex);
+                return Mono.just(buildErrorResponse(INTERNAL_ERROR_ANSWER, List.of("internal_error"), List.of(), List.of(), safeMessage));
+            });
+    }
 
-            List<String> actions = new ArrayList<>();
-            List<String> warnings = new ArrayList<>();
-            List<String> sources = new ArrayList<>();
+    /**
+     * 准备阶段：知识检索、工具调用与近期对话并行执行，共享同一截止时间，再组装提示词。
+     *
+     * <p>检索或记忆超时则不带该部分继续并追加告警；工具超时按工具失败处理。各阶段耗时记入
+     * {@code ai.agent.stage.latency}。
+     */
+    private Mono<AgentContext> prepare(Long userId, String safeMessage, String assistantType, String sessionId) {
+        String traceId = UUID.randomUUID().toString().substring(0, 8);
+        String type = normalizeAssistantType(assistantType);
+        String sessionKey = buildSessionKey(userId, type, sessionId);
+        ToolPlan plan = chooseToolPlan(type, safeMessage);
+        Duration deadline = Duration.ofMillis(Math.max(MIN_PREPARE_DEADLINE_MS, aiProperties.getExecutionOps().getPrepareDeadlineMs()));
+
+        Mono<StageResult<List<KnowledgeSnippet>>> retrieval =
+            runStage("retrieval", traceId, () -> knowledgeRetriever.retrieve(type, safeMessage, 3), deadline);
+        Mono<StageResult<AiToolResult>> tool = plan == null
+            ? Mono.just(StageResult.skipped())
+            : runStage("tool", traceId, () -> aiToolRouter.route(userId, plan.domain, plan.params), deadline);
+        Mono<StageResult<List<ConversationTurn>>> memory =
+            runStage("memory", traceId, () -> memoryService.recent(sessionKey, 8), deadline);
+
+        return Mono.zip(retrieval, tool, memory)
+            .publishOn(Schedulers.boundedElastic())
+            .map(stages -> assemble(traceId, userId, type, safeMessage, sessionKey, plan, stages.getT1(), stages.getT2(), stages.getT3()));
+    }
+
+    private AgentContext assemble(
+        String traceId,
+        Long userId,
+        String type,
+        String safeMessage,
+        String sessionKey,
+        ToolPlan plan,
+        StageResult<List<KnowledgeSnippet>> retrieval,
+        StageResult<AiToolResult> tool,
+        StageResult<List<ConversationTurn>> memory
+    ) {
+        List<String> actions = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        List<String> sources = new ArrayList<>();
 
-            List<KnowledgeSnippet> snippets = knowledgeRetriever.retrieve(type, safeMessage, 3);
-            for (KnowledgeSnippet snippet : snippets) {
-                sources.add(snippet.source() + ":" + snippet.title());
-            }
+        List<KnowledgeSnippet> snippets = retrieval.timedOut() ? List.of() : safeList(retrieval.value());
+        if (retrieval.timedOut()) {
+            warnings.add("knowledge_timeout");
+        }
+        for (KnowledgeSnippet snippet : snippets) {
+            sources.add(snippet.source() + ":" + snippet.title());
+        }
 
-            String toolPayload = "";
-            if (plan != null) {
-                long toolStart = System.currentTimeMillis();
-                AiToolResult toolResult = aiToolRouter.route(userId, plan.domain, plan.params);
-                long toolElapsed = System.currentTimeMillis() - toolStart;
-                if (toolResult == null) {
-                    warnings.add("tool_call_failed");
-                    aiMetricsService.recordToolCall(plan.domain, false, toolElapsed);
-                    return buildErrorResponse(TOOL_FAILED_ANSWER, warnings, actions, sources, safeMessage);
+        String toolPayload = "";
+        if (plan != null) {
+            AiToolResult toolResult = tool.value();
+            if (tool.timedOut() || toolResult == null) {
+                warnings.add("tool_call_failed");
+                if (tool.timedOut()) {
+                    warnings.add("tool_timeout");
                 }
+                aiMetricsService.recordToolCall(plan.domain, false, tool.elapsedMs(), traceId);
+                return AgentContext.failed(buildErrorResponse(TOOL_FAILED_ANSWER, warnings, actions, sources, safeMessage));
+            }
 
-                aiMetricsService.recordToolCall(toolResult.toolName(), toolResult.success(), toolElapsed);
-                actions.add(toolResult.toolName());
-                if (!toolResult.success()) {
-                    warnings.add("tool_call_failed");
-                    return buildErrorResponse(TOOL_FAILED_ANSWER, warnings, actions, sources, safeMessage);
-                }
-                toolPayload = toolResult.payload();
-                sources.add("tool:" + toolResult.toolName());
+            aiMetricsService.recordToolCall(toolResult.toolName(), toolResult.success(), tool.elapsedMs(), traceId);
+            actions.add(toolResult.toolName());
+            if (!toolResult.success()) {
+                warnings.add("tool_call_failed");
+                return AgentContext.failed(buildErrorResponse(TOOL_FAILED_ANSWER, warnings, actions, sources, safeMessage));
             }
+            toolPayload = toolResult.payload();
+            sources.add("tool:" + toolResult.toolName());
+        }
 
-            List<ConversationTurn> recentTurns = memoryService.recent(sessionKey, 8);
-            String prompt = buildPromptWithContext(type, safeMessage, toolPayload, snippets, recentTurns);
-            PromptVariantService.PromptVariant promptVariant = promptVariantService.pick(type, sessionKey);
-            AiModelRouter.RoutingDecision routingDecision = aiModelRouter.pickPrimaryModelDecision(type, safeMessage);
-            String routedModel = routingDecision.model();
-            aiMetricsService.recordModelRouteReason(type, routedModel, routingDecision.reason());
-
-            String rawAnswer = aiGateway.chat(promptVariant.systemPrompt(), prompt, routedModel, type);
-            StructuredAnswerParser.ParsedAnswer parsed = parseOrRepairStructuredAnswer(
-                promptVariant.systemPrompt(),
-                prompt,
-                rawAnswer,
-                traceId,
-                type,
-                safeMessage,
-                toolPayload,
-                routedModel
-            );
+        List<ConversationTurn> recentTurns = memory.timedOut() ? List.of() : safeList(memory.value());
+        if (memory.timedOut()) {
+            warnings.add("memory_timeout");
+        }
+        String prompt = buildPromptWithContext(type, safeMessage, toolPayload, snippets, recentTurns);
+        PromptVariantService.PromptVariant promptVariant = promptVariantService.pick(type, sessionKey);
+        AiModelRouter.RoutingDecision routingDecision = aiModelRouter.pickPrimaryModelDecision(type, safeMessage);
+        String routedModel = routingDecision.model();
+        aiMetricsService.recordModelRouteReason(type, routedModel, routingDecision.reason());
+        String cacheKey = degraded(warnings)
+            ? null
+            : aiResponseCache.key(userId, type, promptVariant.variant(), safeMessage, toolPayload);
 
-            String answer = parsed.answer();
-            warnings.addAll(parsed.warnings());
-            sources.addAll(parsed.sources());
-            actions.addAll(parsed.actions());
-
-            List<String> qualityWarnings = List.of();
-            if (warnings.stream().noneMatch(this::isSchemaWarning)) {
-                qualityWarnings = safeList(qualityGateService.validate(type, safeMessage, answer));
-                if (!qualityWarnings.isEmpty()) {
-                    String rewritten = rewriteForQuality(
-                        type,
-                        safeMessage,
-                        answer,
-                        qualityWarnings,
-                        toolPayload,
-                        promptVariant.systemPrompt(),
-                        routedModel
-                    );
-                    if (rewritten != null && !rewritten.isBlank()) {
-                        answer = rewritten;
-                        warnings.add("quality_rewrite_retry");
-                        qualityWarnings = safeList(qualityGateService.validate(type, safeMessage, answer));
+        return new AgentContext(traceId, type, safeMessage, sessionKey, toolPayload, prompt, promptVariant, routedModel,
+            cacheKey, actions, warnings, sources, null);
+    }
+
+    /**
+     * 在弹性线程上执行一个阻塞阶段；超过截止时间返回超时结果而不是报错，其他异常照常向上传播。
+     */
+    private <T> Mono<StageResult<T>> runStage(String stage, String traceId, Callable<T> work, Duration deadline) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            AtomicBoolean abandoned = new AtomicBoolean();
+            return Mono.fromCallable(() -> {
+                    try {
+                        return Optional.ofNullable(work.call());
+                    } catch (Exception ex) {
+                        if (abandoned.get()) {
+                            // 超时后被中断的阶段结果已无人消费，避免异常落入 onErrorDropped 日志
+                            return Optional.<T>empty();
+                        }
+                        throw ex;
                     }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnCancel(() -> abandoned.set(true))
+                .map(value -> StageResult.completed(value.orElse(null), elapsedMs(start)))
+                .timeout(deadline)
+                .onErrorResume(TimeoutException.class, ex -> Mono.just(StageResult.<T>timedOut(elapsedMs(start))))
+                .doOnNext(result -> aiMetricsService.recordAgentStage(stage, result.timedOut() ? "timeout" : "ok", elapsedMs(start), traceId))
+                .doOnError(ex -> aiMetricsService.recordAgentStage(stage, "error", elapsedMs(start), traceId));
+        });
+    }
+
+    /**
+     * 模型阶段计时（llm-primary、repair、rewrite），记入 {@code ai.agent.stage.latency}；空结果记为 empty。
+     */
+    private <T> Mono<T> timedStage(String stage, String traceId, Supplier<Mono<T>> work) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return work.get()
+                .doOnSuccess(value -> aiMetricsService.recordAgentStage(stage, value == null ? "empty" : "ok", elapsedMs(start), traceId))
+                .doOnError(ex -> aiMetricsService.recordAgentStage(stage, "error", elapsedMs(start), traceId));
+        });
+    }
+
+    private long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    /**
+     * 模型阶段：命中回答缓存则直接返回；否则主回答、结构修复、质量重写，最后写入记忆、组装响应并回填缓存。
+     */
+    private Mono<StructuredAiResponse> answer(AgentContext context, ModelCall modelCall, Scheduler blockingScheduler) {
+        Optional<AiResponseCache.CachedResponse> cached = aiResponseCache.get(context.cacheKey(), context.type());
+        if (cached.isPresent()) {
+            return Mono.fromCallable(() -> finishFromCache(context, cached.get()));
+        }
+
+        String systemPrompt = context.promptVariant().systemPrompt();
+        AtomicBoolean gatewayFailed = new AtomicBoolean();
+        return timedStage("llm-primary", context.traceId(),
+                () -> modelCall.call(systemPrompt, context.prompt(), context.routedModel(), context.type()))
+            .defaultIfEmpty("")
+            .flatMap(rawAnswer -> {
+                gatewayFailed.set(isGatewayErrorLike(rawAnswer));
+                return parseOrRepairStructuredAnswer(
+                    systemPrompt,
+                    context.prompt(),
+                    rawAnswer,
+                    context.traceId(),
+                    context.type(),
+                    context.question(),
+                    context.toolPayload(),
+                    context.routedModel(),
+                    modelCall
+                );
+            })
+            .flatMap(parsed -> {
+                context.warnings().addAll(parsed.warnings());
+                context.sources().addAll(parsed.sources());
+                context.actions().addAll(parsed.actions());
+                return applyQualityGate(context, parsed.answer(), modelCall);
+            })
+            .publishOn(blockingScheduler)
+            .map(checked -> {
+                StructuredAiResponse response = finish(context, checked, false);
+                if (!gatewayFailed.get() && checked.qualityWarnings().isEmpty()) {
+                    cacheResponse(context, response);
                 }
-            }
-            warnings.addAll(qualityWarnings);
-            warnings = deduplicate(warnings);
-            sources = deduplicate(sources);
-            actions = deduplicate(actions);
-
-            memoryService.append(sessionKey, "user", safeMessage);
-            memoryService.append(sessionKey, "assistant", answer);
-            aiMetricsService.recordQualityWarnings(type, warnings.size());
-
-            Map<String, Object> usage = new HashMap<>();
-            usage.put("inputChars", prompt.length());
-            usage.put("outputChars", answer.length());
-            usage.put("estimatedTokens", estimateTokens(prompt, answer));
-            usage.put("promptVariant", promptVariant.variant());
-            usage.put("promptExperimentId", promptVariant.experimentId());
-            usage.put("promptBucket", promptVariant.bucket());
-            usage.put("qualityWarnings", qualityWarnings.size());
-
-            return new StructuredAiResponse(answer, sources, actions, warnings, usage);
-        } catch (Exception ex) {
-            log.error("ReAct processing failed: {}", ex.getMessage(), ex);
-            return buildErrorResponse(INTERNAL_ERROR_ANSWER, List.of("internal_error"), List.of(), List.of(), safeMessage);
+                return response;
+            });
+    }
+
+    /**
+     * 用缓存的回答组装响应；记忆照常写入，usage 标记 cacheHit。
+     */
+    private StructuredAiResponse finishFromCache(AgentContext context, AiResponseCache.CachedResponse cached) {
+        context.warnings().addAll(cached.warnings());
+        context.sources().addAll(cached.sources());
+        context.actions().addAll(cached.actions());
+        return finish(context, new CheckedAnswer(cached.answer(), List.of()), true);
+    }
+
+    /**
+     * 回填缓存：降级结果不缓存，修复/重写这类过程告警不随缓存返回。
+     */
+    private void cacheResponse(AgentContext context, StructuredAiResponse response) {
+        if (context.cacheKey() == null || degraded(response.warnings())) {
+            return;
         }
+        List<String> warnings = response.warnings().stream()
+            .filter(warning -> !PROCESS_WARNINGS.contains(warning))
+            .toList();
+        aiResponseCache.put(context.cacheKey(),
+            new AiResponseCache.CachedResponse(response.answer(), warnings, response.sources(), response.actions()));
+    }
+
+    private boolean degraded(List<String> warnings) {
+        return warnings.stream().anyMatch(DEGRADED_WARNINGS::contains);
+    }
+
+    /**
+     * 质量门禁：未命中结构告警时校验答案，命中质量告警则尝试重写一次。
+     */
+    private Mono<CheckedAnswer> applyQualityGate(AgentContext context, String answer, ModelCall modelCall) {
+        if (context.warnings().stream().anyMatch(this::isSchemaWarning)) {
+            return Mono.just(new CheckedAnswer(answer, List.of()));
+        }
+        String type = context.type();
+        long qualityStart = System.nanoTime();
+        List<String> qualityWarnings = safeList(qualityGateService.validate(type, context.question(), answer));
+        aiMetricsService.recordAgentStage("quality", qualityWarnings.isEmpty() ? "ok" : "warn", elapsedMs(qualityStart), context.traceId());
+        if (qualityWarnings.isEmpty()) {
+            return Mono.just(new CheckedAnswer(answer, qualityWarnings));
+        }
+        return timedStage("rewrite", context.traceId(), () -> rewriteForQuality(
+                type,
+                context.question(),
+                answer,
+                qualityWarnings,
+                context.toolPayload(),
+                context.promptVariant().systemPrompt(),
+                context.routedModel(),
+                modelCall
+            ))
+            .filter(rewritten -> !rewritten.isBlank())
+            .map(rewritten -> {
+                context.warnings().add("quality_rewrite_retry");
+                return new CheckedAnswer(rewritten, safeList(qualityGateService.validate(type, context.question(), rewritten)));
+            })
+            .defaultIfEmpty(new CheckedAnswer(answer, qualityWarnings));
+    }
+
+    private StructuredAiResponse finish(AgentContext context, CheckedAnswer checked, boolean cacheHit) {
+        String answer = checked.answer();
+        List<String> qualityWarnings = checked.qualityWarnings();
+        List<String> warnings = new ArrayList<>(context.warnings());
+        warnings.addAll(qualityWarnings);
+        warnings = deduplicate(warnings);
+        List<String> sources = deduplicate(context.sources());
+        List<String> actions = deduplicate(context.actions());
+
+        memoryService.appendExchange(context.sessionKey(), context.question(), answer);
+        aiMetricsService.recordQualityWarnings(context.type(), warnings.size());
+
+        String prompt = context.prompt();
+        PromptVariantService.PromptVariant promptVariant = context.promptVariant();
+        Map<String, Object> usage = new HashMap<>();
+        usage.put("inputChars", prompt.length());
+        usage.put("outputChars", answer.length());
+        usage.put("estimatedTokens", estimateTokens(prompt, answer));
+        usage.put("promptVariant", promptVariant.variant());
+        usage.put("promptExperimentId", promptVariant.experimentId());
+        usage.put("promptBucket", promptVariant.bucket());
+        usage.put("qualityWarnings", qualityWarnings.size());
+        usage.put("cacheHit", cacheHit);
+
+        return new StructuredAiResponse(answer, sources, actions, warnings, usage);
     }
 
     /**
@@ -261,7 +469,7 @@ public class ReActAgentService {
         return prompt.toString();
     }
 
-    private StructuredAnswerParser.ParsedAnswer parseOrRepairStructuredAnswer(
+    private Mono<StructuredAnswerParser.ParsedAnswer> parseOrRepairStructuredAnswer(
         String systemPrompt,
         String originalPrompt,
         String rawAnswer,
@@ -269,52 +477,59 @@ public class ReActAgentService {
         String assistantType,
         String question,
         String toolPayload,
-        String modelOverride
+        String modelOverride,
+        ModelCall modelCall
     ) {
         StructuredAnswerParser.ParsedAnswer parsed = structuredAnswerParser.parse(rawAnswer).orElse(null);
         if (parsed != null) {
-            return parsed;
+            return Mono.just(parsed);
         }
 
         log.warn("Structured answer parse failed traceId={} stage=primary preview={}", traceId, preview(rawAnswer));
         String repairPrompt = buildRepairPrompt(originalPrompt, rawAnswer);
-        String repairedRawAnswer = aiGateway.chat(strictJsonRepairSystemPrompt(), repairPrompt, modelOverride, assistantType);
-        StructuredAnswerParser.ParsedAnswer repaired = structuredAnswerParser.parse(repairedRawAnswer).orElse(null);
-        if (repaired != null) {
-            List<String> repairedWarnings = new ArrayList<>(repaired.warnings());
-            repairedWarnings.add("schema_repair_retry");
-            log.info("Structured answer repaired traceId={} stage=repair-success", traceId);
-            return new StructuredAnswerParser.ParsedAnswer(repaired.answer(), repairedWarnings, repaired.sources(), repaired.actions());
-        }
+        return timedStage("repair", traceId,
+                () -> modelCall.call(strictJsonRepairSystemPrompt(), repairPrompt, modelOverride, assistantType))
+            .defaultIfEmpty("")
+            .map(repairedRawAnswer -> {
+                StructuredAnswerParser.ParsedAnswer repaired = structuredAnswerParser.parse(repairedRawAnswer).orElse(null);
+                if (repaired != null) {
+                    List<String> repairedWarnings = new ArrayList<>(repaired.warnings());
+                    repairedWarnings.add("schema_repair_retry");
+                    log.info("Structured answer repaired traceId={} stage=repair-success", traceId);
+                    return new StructuredAnswerParser.ParsedAnswer(repaired.answer(), repairedWarnings, repaired.sources(), repaired.actions());
+                }
 
-        log.warn("Structured answer parse failed traceId={} stage=repair preview={}", traceId, preview(repairedRawAnswer));
-        StructuredAnswerParser.ParsedAnswer deterministicFallback = buildDeterministicFallback(rawAnswer, assistantType, question, toolPayload);
-        if (deterministicFallback != null) {
-            return deterministicFallback;
-        }
+                log.warn("Structured answer parse failed traceId={} stage=repair preview={}", traceId, preview(repairedRawAnswer));
+                StructuredAnswerParser.ParsedAnswer deterministicFallback = buildDeterministicFallback(rawAnswer, assistantType, question, toolPayload);
+                if (deterministicFallback != null) {
+                    return deterministicFallback;
+                }
 
-        String fallbackAnswer = sanitizeRawAnswer(rawAnswer, assistantType);
-        return new StructuredAnswerParser.ParsedAnswer(fallbackAnswer, List.of("schema_parse_failed"), List.of(), List.of());
+                String fallbackAnswer = sanitizeRawAnswer(rawAnswer, assistantType);
+                return new StructuredAnswerParser.ParsedAnswer(fallbackAnswer, List.of("schema_parse_failed"), List.of(), List.of());
+            });
     }
 
-    private String rewriteForQuality(
+    private Mono<String> rewriteForQuality(
         String assistantType,
         String question,
         String answer,
         List<String> qualityWarnings,
         String toolPayload,
         String systemPrompt,
-        String modelOverride
+        String modelOverride,
+        ModelCall modelCall
     ) {
-        try {
-            String rewritePrompt = buildQualityRewritePrompt(assistantType, question, answer, qualityWarnings, toolPayload);
-            String rewrittenRaw = aiGateway.chat(systemPrompt, rewritePrompt, modelOverride, assistantType);
-            StructuredAnswerParser.ParsedAnswer rewritten = structuredAnswerParser.parse(rewrittenRaw).orElse(null);
-            return rewritten != null ? rewritten.answer() : null;
-        } catch (Exception ex) {
-            log.warn("Quality rewrite failed: {}", ex.getMessage());
-            return null;
-        }
+        return Mono.defer(() -> {
+                String rewritePrompt = buildQualityRewritePrompt(assistantType, question, answer, qualityWarnings, toolPayload);
+                return modelCall.call(systemPrompt, rewritePrompt, modelOverride, assistantType);
+            })
+            .flatMap(rewrittenRaw -> Mono.justOrEmpty(structuredAnswerParser.parse(rewrittenRaw)))
+            .map(StructuredAnswerParser.ParsedAnswer::answer)
+            .onErrorResume(ex -> {
+                log.warn("Quality rewrite failed: {}", ex.getMessage());
+                return Mono.empty();
+            });
     }
 
     private String buildQualityRewritePrompt(
@@ -730,7 +945,7 @@ public class ReActAgentService {
         return map;
     }
 
-    private List<String> safeList(List<String> values) {
+    private <T> List<T> safeList(List<T> values) {
         return values == null ? List.of() : values;
     }
 
@@ -749,4 +964,55 @@ public class ReActAgentService {
 
     private record ToolPlan(String domain, Map<String, Object> params) {
     }
+
+    /**
+     * 一次模型调用；同步与非阻塞入口分别传入不同实现。
+     */
+    @FunctionalInterface
+    private interface ModelCall {
+        Mono<String> call(String systemPrompt, String prompt, String modelOverride, String assistantType);
+    }
+
+    /**
+     * 准备阶段产出的请求上下文；{@code failure} 非空时直接返回该响应。
+     */
+    private record AgentContext(
+        String traceId,
+        String type,
+        String question,
+        String sessionKey,
+        String toolPayload,
+        String prompt,
+        PromptVariantService.PromptVariant promptVariant,
+        String routedModel,
+        String cacheKey,
+        List<String> actions,
+        List<String> warnings,
+        List<String> sources,
+        StructuredAiResponse failure
+    ) {
+        static AgentContext failed(StructuredAiResponse failure) {
+            return new AgentContext(null, null, null, null, null, null, null, null, null, null, null, null, failure);
+        }
+    }
+
+    private record CheckedAnswer(String answer, List<String> qualityWarnings) {
+    }
+
+    /**
+     * 单个准备阶段的结果；{@code timedOut} 为 true 时 {@code value} 为空。
+     */
+    private record StageResult<T>(T value, boolean timedOut, long elapsedMs) {
+        static <T> StageResult<T> completed(T value, long elapsedMs) {
+            return new StageResult<>(value, false, elapsedMs);
+        }
+
+        static <T> StageResult<T> timedOut(long elapsedMs) {
+            return new StageResult<>(null, true, elapsedMs);
+        }
+
+        static <T> StageResult<T> skipped() {
+            return new StageResult<>(null, false, 0L);
+        }
+    }
 }
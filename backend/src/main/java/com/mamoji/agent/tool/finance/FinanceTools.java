@@ -3,9 +3,12 @@ package com.mamoji.agent.tool.finance;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mamoji.agent.tool.BaseTool;
 import com.mamoji.entity.Budget;
+import com.mamoji.entity.Category;
+import com.mamoji.entity.Transaction;
 import com.mamoji.repository.BudgetRepository;
-import com.mamoji.repository.CategoryRepository;
 import com.mamoji.repository.TransactionRepository;
+import com.mamoji.service.CategoryResolver;
+import com.mamoji.service.TransactionAggregationService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -26,19 +29,22 @@ import java.util.stream.Collectors;
 public class FinanceTools extends BaseTool {
 
     private final TransactionRepository transactionRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategoryResolver categoryResolver;
     private final BudgetRepository budgetRepository;
+    private final TransactionAggregationService transactionAggregationService;
 
     public FinanceTools(
         ObjectMapper objectMapper,
         TransactionRepository transactionRepository,
-        CategoryRepository categoryRepository,
-        BudgetRepository budgetRepository
+        CategoryResolver categoryResolver,
+        BudgetRepository budgetRepository,
+        TransactionAggregationService transactionAggregationService
     ) {
         super(objectMapper);
         this.transactionRepository = transactionRepository;
-        this.categoryRepository = categoryRepository;
+        this.categoryResolver = categoryResolver;
         this.budgetRepository = budgetRepository;
+        this.transactionAggregationService = transactionAggregationService;
     }
 
     /**
@@ -54,16 +60,12 @@ public class FinanceTools extends BaseTool {
             LocalDate start = startDate != null ? LocalDate.parse(startDate) : currentMonth.atDay(1);
             LocalDate end = endDate != null ? LocalDate.parse(endDate) : LocalDate.now();
 
-            BigDecimal totalIncome = transactionRepository.sumByUserIdAndTypeAndDateBetween(userId, 1, start, end);
-            totalIncome = totalIncome != null ? totalIncome : BigDecimal.ZERO;
-
-            BigDecimal totalExpense = transactionRepository.sumByUserIdAndTypeAndDateBetween(userId, 2, start, end);
-            totalExpense = totalExpense != null ? totalExpense : BigDecimal.ZERO;
-
+            BigDecimal totalIncome = transactionAggregationService.sumByType(userId, 1, start, end);
+            BigDecimal totalExpense = transactionAggregationService.sumByType(userId, 2, start, end);
             BigDecimal balance = totalIncome.subtract(totalExpense);
 
-            long incomeCount = transactionRepository.countByUserIdAndTypeAndDateBetween(userId, 1, start, end);
-            long expenseCount = transactionRepository.countByUserIdAndTypeAndDateBetween(userId, 2, start, end);
+            long incomeCount = transactionAggregationService.countByType(userId, 1, start, end);
+            long expenseCount = transactionAggregationService.countByType(userId, 2, start, end);
 
             Map<String, Object> result = new HashMap<>();
             result.put("period", start + " to " + end);
@@ -90,15 +92,19 @@ public class FinanceTools extends BaseTool {
             LocalDate start = startDate != null ? LocalDate.parse(startDate) : LocalDate.now().minusMonths(1);
             LocalDate end = endDate != null ? LocalDate.parse(endDate) : LocalDate.now();
 
-            List<Map<String, Object>> transactions = transactionRepository
-                .findByUserIdAndDateBetweenWithFilters(userId, start, end, categoryId, type)
+            List<Transaction> rows = transactionRepository.findByUserIdAndDateBetweenWithFilters(userId, start, end, categoryId, type);
+            Map<Long, Category> categories = categoryResolver.resolve(rows, Transaction::getCategoryId);
+            List<Map<String, Object>> transactions = rows
                 .stream()
                 .map(tx -> {
                     Map<String, Object> item = new HashMap<>();
                     item.put("date", tx.getDate());
                     item.put("type", tx.getType() == 1 ? "income" : "expense");
                     item.put("categoryId", tx.getCategoryId());
-                    categoryRepository.findById(tx.getCategoryId()).ifPresent(c -> item.put("category", c.getName()));
+                    Category category = tx.getCategoryId() == null ? null : categories.get(tx.getCategoryId());
+                    if (category != null) {
+                        item.put("category", category.getName());
+                    }
                     item.put("amount", tx.getAmount());
                     item.put("remark", tx.getRemark());
                     return item;
@@ -177,18 +183,18 @@ public class FinanceTools extends BaseTool {
             LocalDate end = endDate != null ? LocalDate.parse(endDate) : LocalDate.now();
             int queryType = type != null ? type : 2;
 
-            BigDecimal totalExpense = transactionRepository.sumByUserIdAndTypeAndDateBetween(userId, queryType, start, end);
-            final BigDecimal total = totalExpense != null ? totalExpense : BigDecimal.ZERO;
+            Map<Long, BigDecimal> amountsByCategory = transactionAggregationService.sumByCategory(userId, queryType, start, end);
+            final BigDecimal total = amountsByCategory.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+            Map<Long, Category> categoryById = categoryResolver.resolve(amountsByCategory.keySet());
 
-            List<Map<String, Object>> categories = transactionRepository
-                .sumByCategoryAndTypeWithCategoryName(userId, queryType, start, end)
+            List<Map<String, Object>> categories = amountsByCategory.entrySet()
                 .stream()
                 .map(row -> {
                     Map<String, Object> item = new HashMap<>();
-                    Long categoryId = row.getCategoryId();
-                    BigDecimal amount = row.getAmount();
+                    Long categoryId = row.getKey();
+                    BigDecimal amount = row.getValue();
                     item.put("categoryId", categoryId);
-                    item.put("categoryName", row.getCategoryName());
+                    item.put("categoryName", CategoryResolver.nameOf(categoryById, categoryId, "Unknown"));
                     item.put("amount", amount);
                     item.put("percentage", total.compareTo(BigDecimal.ZERO) > 0
                         ? amount.multiply(new BigDecimal("100")).divide(total, 2, RoundingMode.HALF_UP).doubleValue()
@@ -233,16 +239,14 @@ public class FinanceTools extends BaseTool {
             return BigDecimal.ZERO;
         }
         if (budget.getCategoryId() == null) {
-            BigDecimal spent = transactionRepository.sumByUserIdAndTypeAndDateBetween(userId, 2, budget.getStartDate(), budget.getEndDate());
-            return spent != null ? spent : BigDecimal.ZERO;
+            return transactionAggregationService.sumByType(userId, 2, budget.getStartDate(), budget.getEndDate());
         }
-        BigDecimal spent = transactionRepository.sumByUserIdAndTypeAndCategoryIdAndDateBetween(
+        return transactionAggregationService.sumByTypeAndCategory(
             userId,
             2,
             budget.getCategoryId(),
             budget.getStartDate(),
             budget.getEndDate()
         );
-        return spent != null ? spent : BigDecimal.ZERO;
     }
 }
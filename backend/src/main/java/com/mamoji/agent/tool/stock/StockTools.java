@@ -2,10 +2,11 @@ package com.mamoji.agent.tool.stock;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mamoji.agent.tool.BaseTool;
-import lombok.RequiredArgsConstructor;
+import com.mamoji.service.StockQuoteService;
+import com.mamoji.service.StockQuoteService.StockQuote;
+import com.mamoji.service.StockSnapshot;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.HashMap;
 import java.util.List;
@@ -22,11 +23,13 @@ import java.util.stream.Collectors;
 @Component
 public class StockTools extends BaseTool {
 
-    private final WebClient.Builder webClientBuilder;
+    private static final List<String> MARKET_INDEX_CODES = List.of("sh000001", "sz399001", "sz399006");
 
-    public StockTools(ObjectMapper objectMapper, WebClient.Builder webClientBuilder) {
+    private final StockQuoteService stockQuoteService;
+
+    public StockTools(ObjectMapper objectMapper, StockQuoteService stockQuoteService) {
         super(objectMapper);
-        this.webClientBuilder = webClientBuilder;
+        this.stockQuoteService = stockQuoteService;
     }
 
     /**
@@ -57,19 +60,13 @@ public class StockTools extends BaseTool {
     public String queryMarketIndex() {
 
         try {
+            // 上证指数、深证成指、创业板指合并为一次行情请求
             StringBuilder result = new StringBuilder();
-
-            // 上证指数
-            String shData = fetchStockData("sh000001");
-            if (shData != null) result.append(shData).append("\n");
-
-            // 深证成指
-            String szData = fetchStockData("sz399001");
-            if (szData != null) result.append(szData).append("\n");
-
-            // 创业板指
-            String cyData = fetchStockData("sz399006");
-            if (cyData != null) result.append(cyData).append("\n");
+            Map<String, StockQuote> quotes = stockQuoteService.getQuotes(MARKET_INDEX_CODES);
+            for (String code : MARKET_INDEX_CODES) {
+                String data = formatQuote(code, quotes.get(code));
+                if (data != null) result.append(data).append("\n");
+            }
 
             return result.toString();
         } catch (Exception e) {
@@ -186,66 +183,34 @@ public class StockTools extends BaseTool {
      */
     private String fetchStockData(String stockCode) {
         try {
-            String url = "https://hq.sinajs.cn/list=" + stockCode;
-
-            WebClient client = webClientBuilder
-                    .baseUrl(url)
-                    .defaultHeader("Referer", "https://finance.sina.com.cn/")
-                    .build();
-
-            String response = client.get()
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            if (response != null && response.contains("=")) {
-                String data = response.substring(response.indexOf("=") + 1);
-                data = data.replace("\"", "").replace(";", "");
-
-                String[] parts = data.split(",");
-                if (parts.length >= 32) {
-                    String name = parts[0];
-                    String open = parts[1];
-                    String close = parts[2];
-                    String current = parts[3];
-                    String high = parts[4];
-                    String low = parts[5];
-                    String volume = parts[8];
-
-                    // 计算涨跌幅
-                    double currentPrice = parseDoubleSafe(current);
-                    double closePrice = parseDoubleSafe(close);
-                    double change = 0;
-                    if (closePrice > 0) {
-                        change = ((currentPrice - closePrice) / closePrice) * 100;
-                    }
-
-                    Map<String, Object> result = new HashMap<>();
-                    result.put("name", name);
-                    result.put("code", stockCode);
-                    result.put("currentPrice", currentPrice);
-                    result.put("changePercent", String.format("%.2f%%", change));
-                    result.put("open", open);
-                    result.put("close", close);
-                    result.put("high", high);
-                    result.put("low", low);
-                    result.put("volume", formatVolume(parseDoubleSafe(volume)));
-
-                    return toJson(result);
-                }
-            }
+            return formatQuote(stockCode, stockQuoteService.getQuote(stockCode));
         } catch (Exception e) {
             log.error("获取股票数据失败: {}", stockCode, e);
         }
         return null;
     }
 
-    private double parseDoubleSafe(String value) {
-        try {
-            return value != null && !value.isEmpty() ? Double.parseDouble(value) : 0;
-        } catch (NumberFormatException e) {
-            return 0;
+    /**
+     * 行情字段转为 JSON 摘要
+     */
+    private String formatQuote(String stockCode, StockQuote quote) {
+        StockSnapshot snapshot = StockSnapshot.from(quote);
+        if (snapshot == null) {
+            return null;
         }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("name", snapshot.name());
+        result.put("code", stockCode);
+        result.put("currentPrice", snapshot.currentPrice());
+        result.put("changePercent", String.format("%.2f%%", snapshot.changePercent()));
+        result.put("open", snapshot.open());
+        result.put("close", snapshot.close());
+        result.put("high", snapshot.high());
+        result.put("low", snapshot.low());
+        result.put("volume", formatVolume(snapshot.volumeValue()));
+
+        return toJson(result);
     }
 
     private String formatVolume(double volume) {
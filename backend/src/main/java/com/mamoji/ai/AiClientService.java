@@ -1,9 +1,15 @@
 package com.mamoji.ai;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mamoji.ai.metrics.AiMetricsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -17,6 +23,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
@@ -24,20 +32,26 @@ import java.util.UUID;
 /**
  * AI 客户端调用层。
  *
- * <p>封装上游模型调用、失败重试、主备模型切换与统一错误兜底。
+ * <p>封装上游模型调用、失败重试、主备模型切换与统一错误兜底。流式调用直接解析上游 SSE 增量
+ * （MiniMax chatcompletion_v2 与 Anthropic messages 两种格式），收到即转发。
  */
 public class AiClientService {
 
     private static final String CHAT_PATH = "/v1/text/chatcompletion_v2";
     private static final String ANTHROPIC_CHAT_PATH = "/v1/messages";
-    private static final Duration STREAM_CHUNK_DELAY = Duration.ofMillis(40);
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+        new ParameterizedTypeReference<>() {
+        };
+    private static final String OPENAI_STREAM_DONE = "[DONE]";
     private static final String DEFAULT_MODEL = "abab6.5s-chat";
     private static final String FALLBACK_ERROR_MESSAGE = "Sorry, AI service is temporarily unavailable. Please try again later.";
     private static final String ANTHROPIC_VERSION = "2023-06-01";
 
     private final AiProperties properties;
-    private final WebClient.Builder webClientBuilder;
+    @Qualifier("llmWebClient")
+    private final WebClient llmWebClient;
     private final AiMetricsService metricsService;
+    private final ObjectMapper objectMapper;
 
     /**
      * 默认模型调用入口。
@@ -50,35 +64,93 @@ public class AiClientService {
      * AI 同步调用入口（支持模型覆盖）。
      */
     public String chat(String systemPrompt, String userPrompt, String modelOverride, String assistantType) {
-        String traceId = shortTraceId();
-        long start = System.currentTimeMillis();
+        return chatReactive(systemPrompt, userPrompt, modelOverride, assistantType).block();
+    }
 
-        try {
-            String result = chatWithFallbackMono(systemPrompt, userPrompt, traceId, modelOverride).block();
-            long elapsed = System.currentTimeMillis() - start;
-            log.info("AI request success traceId={} elapsedMs={}", traceId, elapsed);
-            metricsService.recordRequest("minimaxi", true, elapsed, estimateTokens(systemPrompt, userPrompt, result));
-            metricsService.recordModelRoute(assistantType, normalizeModel(modelOverride != null ? modelOverride : properties.getModel()));
-            return result != null ? result : "AI service returned empty response";
-        } catch (Exception ex) {
-            long elapsed = System.currentTimeMillis() - start;
-            log.error("AI request failed traceId={} elapsedMs={} error={}", traceId, elapsed, ex.getMessage(), ex);
-            metricsService.recordRequest("minimaxi", false, elapsed, estimateTokens(systemPrompt, userPrompt, null));
-            return FALLBACK_ERROR_MESSAGE;
-        }
+    /**
+     * AI 非阻塞调用入口：失败时返回兜底文案而不是错误信号，与同步入口行为一致。
+     */
+    public Mono<String> chatReactive(String systemPrompt, String userPrompt, String modelOverride, String assistantType) {
+        return Mono.defer(() -> {
+            String traceId = shortTraceId();
+            long start = System.currentTimeMillis();
+            return chatWithFallbackMono(systemPrompt, userPrompt, traceId, modelOverride)
+                .map(result -> {
+                    long elapsed = System.currentTimeMillis() - start;
+                    log.info("AI request success traceId={} elapsedMs={}", traceId, elapsed);
+                    metricsService.recordRequest("minimaxi", true, elapsed, estimateTokens(systemPrompt, userPrompt, result));
+                    metricsService.recordModelRoute(assistantType, normalizeModel(modelOverride != null ? modelOverride : properties.getModel()));
+                    return result;
+                })
+                .defaultIfEmpty("AI service returned empty response")
+                .onErrorResume(ex -> {
+                    long elapsed = System.currentTimeMillis() - start;
+                    log.error("AI request failed traceId={} elapsedMs={} error={}", traceId, elapsed, ex.getMessage(), ex);
+                    metricsService.recordRequest("minimaxi", false, elapsed, estimateTokens(systemPrompt, userPrompt, null));
+                    return Mono.just(FALLBACK_ERROR_MESSAGE);
+                });
+        });
     }
 
     /**
-     * 流式返回入口：当前上游为非流式接口，这里通过服务端分块模拟稳定 SSE 契约。
+     * 流式返回入口（默认模型）。
      */
     public Flux<String> streamChat(String systemPrompt, String userPrompt) {
+        return streamChat(systemPrompt, userPrompt, null, null);
+    }
+
+    /**
+     * 流式返回入口：逐条转发上游增量文本。
+     *
+     * <p>重试与主备切换只在首个增量之前生效，避免向客户端重复输出；输出中途失败时保留已输出部分并结束。
+     * 完全失败时输出一条兜底错误文案，与非流式接口保持一致。
+     */
+    public Flux<String> streamChat(String systemPrompt, String userPrompt, String modelOverride, String assistantType) {
         String traceId = shortTraceId();
-        return chatWithFallbackMono(systemPrompt, userPrompt, traceId, null)
-            .flatMapMany(this::chunkText)
-            .onErrorResume(ex -> {
-                log.error("AI stream failed traceId={} error={}", traceId, ex.getMessage(), ex);
-                return Flux.just(FALLBACK_ERROR_MESSAGE);
-            });
+        String primaryModel = normalizeModel(modelOverride != null ? modelOverride : properties.getModel());
+        String fallbackModel = normalizeOptionalModel(properties.getFallbackModel());
+
+        return Flux.defer(() -> {
+            // 每次订阅独立计数，重复订阅时不会沿用上一次的输出状态
+            AtomicBoolean emitted = new AtomicBoolean();
+            AtomicInteger outputChars = new AtomicInteger();
+            long start = System.currentTimeMillis();
+            Flux<String> stream = streamFlux(systemPrompt, userPrompt, traceId, primaryModel, emitted);
+            if (shouldUseFallback(primaryModel, fallbackModel)) {
+                stream = stream.onErrorResume(ex -> !emitted.get(), ex -> {
+                    log.warn(
+                        "AI primary model stream failed, switching to fallback traceId={} primaryModel={} fallbackModel={} error={}",
+                        traceId,
+                        primaryModel,
+                        fallbackModel,
+                        ex.getMessage()
+                    );
+                    metricsService.recordModelFallback(primaryModel, fallbackModel);
+                    return streamFlux(systemPrompt, userPrompt, traceId, fallbackModel, emitted);
+                });
+            }
+            return stream
+                .doOnNext(delta -> {
+                    if (emitted.compareAndSet(false, true)) {
+                        metricsService.recordStreamFirstToken("minimaxi", System.currentTimeMillis() - start);
+                    }
+                    outputChars.addAndGet(delta.length());
+                })
+                .doOnComplete(() -> {
+                    long elapsed = System.currentTimeMillis() - start;
+                    log.info("AI stream success traceId={} elapsedMs={} outputChars={}", traceId, elapsed, outputChars.get());
+                    metricsService.recordRequest("minimaxi", true, elapsed,
+                        estimateTokens(systemPrompt, userPrompt, null) + outputChars.get() / 4);
+                    metricsService.recordModelRoute(assistantType, primaryModel);
+                })
+                .onErrorResume(ex -> {
+                    long elapsed = System.currentTimeMillis() - start;
+                    log.error("AI stream failed traceId={} elapsedMs={} emitted={} error={}",
+                        traceId, elapsed, emitted.get(), ex.getMessage(), ex);
+                    metricsService.recordRequest("minimaxi", false, elapsed, estimateTokens(systemPrompt, userPrompt, null));
+                    return emitted.get() ? Flux.empty() : Flux.just(FALLBACK_ERROR_MESSAGE);
+                });
+        });
     }
 
     /**
@@ -112,14 +184,50 @@ public class AiClientService {
      */
     private Mono<String> chatMono(String systemPrompt, String userPrompt, String traceId, String model) {
         boolean anthropicMode = isAnthropicMode();
-        WebClient client = webClientBuilder
-            .baseUrl(properties.getBaseUrl())
-            .defaultHeader("X-Trace-Id", traceId)
-            .build();
+        return requestSpec(traceId, anthropicMode)
+            .bodyValue(buildRequestBody(systemPrompt, userPrompt, model, anthropicMode))
+            .retrieve()
+            .bodyToMono(Map.class)
+            .map(this::extractReply)
+            .timeout(Duration.ofSeconds(properties.getTimeoutSeconds()))
+            .retryWhen(
+                Retry.backoff(properties.getMaxRetries(), Duration.ofMillis(250))
+                    .maxBackoff(Duration.ofSeconds(3))
+                    .filter(this::isTransientError)
+            );
+    }
+
+    /**
+     * 单模型流式调用：请求上游 SSE，并把每个事件解析为增量文本。
+     *
+     * <p>超时按相邻两个事件的间隔计算；只有尚未输出任何增量时才重试瞬时错误。
+     */
+    private Flux<String> streamFlux(String systemPrompt, String userPrompt, String traceId, String model, AtomicBoolean emitted) {
+        boolean anthropicMode = isAnthropicMode();
+        Map<String, Object> body = buildRequestBody(systemPrompt, userPrompt, model, anthropicMode);
+        body.put("stream", true);
+
+        return requestSpec(traceId, anthropicMode)
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .bodyValue(body)
+            .retrieve()
+            .bodyToFlux(SSE_TYPE)
+            .takeUntil(event -> isStreamEnd(event, anthropicMode))
+            .map(event -> extractStreamDelta(event, anthropicMode))
+            .filter(delta -> !delta.isEmpty())
+            .timeout(Duration.ofSeconds(properties.getTimeoutSeconds()))
+            .retryWhen(
+                Retry.backoff(properties.getMaxRetries(), Duration.ofMillis(250))
+                    .maxBackoff(Duration.ofSeconds(3))
+                    .filter(ex -> !emitted.get() && isTransientError(ex))
+            );
+    }
 
-        WebClient.RequestBodySpec requestBodySpec = client
+    private WebClient.RequestBodySpec requestSpec(String traceId, boolean anthropicMode) {
+        WebClient.RequestBodySpec requestBodySpec = llmWebClient
             .post()
             .uri(anthropicMode ? ANTHROPIC_CHAT_PATH : CHAT_PATH)
+            .header("X-Trace-Id", traceId)
             .contentType(MediaType.APPLICATION_JSON);
 
         if (anthropicMode) {
@@ -128,18 +236,49 @@ public class AiClientService {
         } else {
             requestBodySpec.header("Authorization", "Bearer " + safeToken(properties.getApiKey()));
         }
+        return requestBodySpec;
+    }
 
-        return requestBodySpec
-            .bodyValue(buildRequestBody(systemPrompt, userPrompt, model, anthropicMode))
-            .retrieve()
-            .bodyToMono(Map.class)
-            .map(this::extractReply)
-            .timeout(Duration.ofSeconds(properties.getTimeoutSeconds()))
-            .retryWhen(
-                Retry.backoff(properties.getMaxRetries(), Duration.ofMillis(250))
-                    .maxBackoff(Duration.ofSeconds(3))
-                    .filter(this::isTransientError)
-            );
+    private boolean isStreamEnd(ServerSentEvent<String> event, boolean anthropicMode) {
+        if (anthropicMode) {
+            return "message_stop".equals(event.event());
+        }
+        return event.data() != null && OPENAI_STREAM_DONE.equals(event.data().trim());
+    }
+
+    /**
+     * 解析一个上游 SSE 事件，返回其中的增量文本；非文本事件返回空串，上游错误事件抛出异常。
+     *
+     * <p>MiniMax 最后一个事件会在 {@code message} 中附带完整回复，这里只取 {@code delta}，避免重复输出。
+     */
+    private String extractStreamDelta(ServerSentEvent<String> event, boolean anthropicMode) {
+        String data = event.data();
+        if (data == null || data.isBlank() || OPENAI_STREAM_DONE.equals(data.trim())) {
+            return "";
+        }
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(data);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("AI stream returned invalid event data", ex);
+        }
+
+        JsonNode error = node.path("error");
+        if (error.isObject() || "error".equals(event.event())) {
+            throw new IllegalStateException("AI stream error: " + error.path("message").asText("unknown"));
+        }
+        if (anthropicMode) {
+            return "content_block_delta".equals(node.path("type").asText())
+                ? node.path("delta").path("text").asText("")
+                : "";
+        }
+
+        JsonNode baseResp = node.path("base_resp");
+        if (baseResp.path("status_code").asInt(0) != 0) {
+            throw new IllegalStateException("AI stream error: " + baseResp.path("status_msg").asText("unknown"));
+        }
+        JsonNode delta = node.path("choices").path(0).path("delta");
+        return delta.path("content").isTextual() ? delta.path("content").asText() : "";
     }
 
     private Map<String, Object> buildRequestBody(String systemPrompt, String userPrompt, String model, boolean anthropicMode) {
@@ -342,22 +481,6 @@ public class AiClientService {
         return content.toString();
     }
 
-    private Flux<String> chunkText(String fullText) {
-        if (fullText == null || fullText.isEmpty()) {
-            return Flux.just("");
-        }
-
-        int chunkSize = 24;
-        int count = (fullText.length() + chunkSize - 1) / chunkSize;
-        return Flux.range(0, count)
-            .map(i -> {
-                int start = i * chunkSize;
-                int end = Math.min(start + chunkSize, fullText.length());
-                return fullText.substring(start, end);
-            })
-            .delayElements(STREAM_CHUNK_DELAY);
-    }
-
     private boolean isTransientError(Throwable throwable) {
         if (throwable == null) {
             return false;
@@ -1,6 +1,8 @@
 package com.mamoji.ai;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Abstraction for AI chat providers.
@@ -19,6 +21,17 @@ public interface AiGateway {
      */
     String chat(String systemPrompt, String userPrompt, String modelOverride, String assistantType);
 
+    /**
+     * Sends one chat request without blocking the caller.
+     *
+     * <p>The default runs {@link #chat} on the bounded-elastic scheduler; providers with a reactive
+     * client override it to avoid holding a thread for the whole call.
+     */
+    default Mono<String> chatReactive(String systemPrompt, String userPrompt, String modelOverride, String assistantType) {
+        return Mono.fromCallable(() -> chat(systemPrompt, userPrompt, modelOverride, assistantType))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
     /**
      * Streams chat response without explicit model/assistant override.
      */
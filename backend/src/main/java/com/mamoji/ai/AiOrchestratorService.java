@@ -2,11 +2,14 @@ package com.mamoji.ai;
 
 import com.mamoji.agent.ReActAgentService;
 import com.mamoji.ai.metrics.AiMetricsService;
+import com.mamoji.ai.model.AiStreamEvent;
 import com.mamoji.ai.model.StructuredAiResponse;
 import com.mamoji.dto.AIChatResponse;
 import com.mamoji.service.AIService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -32,6 +35,7 @@ public class AiOrchestratorService {
         "budget", "transaction", "expense", "income", "category", "cashflow", "saving",
         "预算", "流水", "收支", "支出", "收入", "分类", "消费", "开销", "记账", "结余", "节流", "省钱"
     );
+    private static final int AGENT_STREAM_CHUNK_SIZE = 24;
 
     private final AIService aiService;
     private final ReActAgentService reActAgentService;
@@ -50,10 +54,7 @@ public class AiOrchestratorService {
         String traceId = UUID.randomUUID().toString().substring(0, 8);
         String type = normalizeAssistantType(assistantType);
         String safeMessage = message == null ? "" : message.trim();
-        AiChatMode mode = AiChatMode.from(requestedMode);
-        AiChatMode modeUsed = mode == AiChatMode.AUTO ? selectAutoMode(type, safeMessage) : mode;
-
-        aiMetricsService.recordChatMode(mode.value(), modeUsed.value(), type);
+        AiChatMode modeUsed = resolveMode(requestedMode, type, safeMessage);
 
         if (modeUsed == AiChatMode.LLM) {
             return llmResponse(userId, safeMessage, type, modeUsed, traceId, null);
@@ -68,6 +69,80 @@ public class AiOrchestratorService {
         return llmResponse(userId, safeMessage, type, AiChatMode.LLM, traceId, agentResponse.warnings());
     }
 
+    /**
+     * Non-blocking variant of {@link #chatStructured} with identical routing, fallback and metadata.
+     *
+     * <p>Neither route holds the calling thread while waiting for the model.
+     */
+    public Mono<StructuredAiResponse> chatStructuredReactive(
+        Long userId,
+        String message,
+        String assistantType,
+        String sessionId,
+        String requestedMode
+    ) {
+        String traceId = UUID.randomUUID().toString().substring(0, 8);
+        String type = normalizeAssistantType(assistantType);
+        String safeMessage = message == null ? "" : message.trim();
+        AiChatMode modeUsed = resolveMode(requestedMode, type, safeMessage);
+
+        if (modeUsed == AiChatMode.LLM) {
+            return llmResponseReactive(userId, safeMessage, type, modeUsed, traceId, null);
+        }
+
+        return safeAgentCallReactive(userId, safeMessage, type, sessionId)
+            .flatMap(agentResponse -> {
+                if (!isAgentFailure(agentResponse)) {
+                    return Mono.just(withMeta(agentResponse, modeUsed.value(), traceId));
+                }
+                aiMetricsService.recordChatModeFallback("agent", "llm", "agent_failed");
+                return llmResponseReactive(userId, safeMessage, type, AiChatMode.LLM, traceId, agentResponse.warnings());
+            });
+    }
+
+    /**
+     * Streams one chat request as content deltas followed by a terminal metadata event.
+     *
+     * <p>The LLM route forwards provider deltas as they arrive. The agent route still has to parse and
+     * quality-check the complete answer before anything is shown, so it runs the non-blocking agent
+     * pipeline and emits the validated answer in chunks; an agent failure falls back to the streaming LLM route.
+     */
+    public Flux<AiStreamEvent> chatStream(
+        Long userId,
+        String message,
+        String assistantType,
+        String sessionId,
+        String requestedMode
+    ) {
+        String traceId = UUID.randomUUID().toString().substring(0, 8);
+        String type = normalizeAssistantType(assistantType);
+        String safeMessage = message == null ? "" : message.trim();
+        AiChatMode modeUsed = resolveMode(requestedMode, type, safeMessage);
+
+        if (modeUsed == AiChatMode.LLM) {
+            return llmStream(userId, safeMessage, type, modeUsed, traceId, null);
+        }
+
+        return safeAgentCallReactive(userId, safeMessage, type, sessionId)
+            .flatMapMany(agentResponse -> {
+                if (!isAgentFailure(agentResponse)) {
+                    return answerEvents(withMeta(agentResponse, modeUsed.value(), traceId));
+                }
+                aiMetricsService.recordChatModeFallback("agent", "llm", "agent_failed");
+                return llmStream(userId, safeMessage, type, AiChatMode.LLM, traceId, agentResponse.warnings());
+            });
+    }
+
+    /**
+     * Normalizes requested mode, applies AUTO strategy and records the routing metric.
+     */
+    private AiChatMode resolveMode(String requestedMode, String assistantType, String message) {
+        AiChatMode mode = AiChatMode.from(requestedMode);
+        AiChatMode modeUsed = mode == AiChatMode.AUTO ? selectAutoMode(assistantType, message) : mode;
+        aiMetricsService.recordChatMode(mode.value(), modeUsed.value(), assistantType);
+        return modeUsed;
+    }
+
     /**
      * Calls agent pipeline with exception isolation.
      */
@@ -75,16 +150,28 @@ public class AiOrchestratorService {
         try {
             return reActAgentService.processMessageStructured(userId, message, assistantType, sessionId);
         } catch (Exception ex) {
-            return new StructuredAiResponse(
-                "抱歉，系统处理请求时出现异常，请稍后重试。",
-                List.of(),
-                List.of(),
-                List.of("internal_error"),
-                Map.of()
-            );
+            return agentErrorResponse();
         }
     }
 
+    /**
+     * Calls the non-blocking agent pipeline with exception isolation.
+     */
+    private Mono<StructuredAiResponse> safeAgentCallReactive(Long userId, String message, String assistantType, String sessionId) {
+        return Mono.defer(() -> reActAgentService.processMessageStructuredReactive(userId, message, assistantType, sessionId))
+            .onErrorResume(ex -> Mono.just(agentErrorResponse()));
+    }
+
+    private StructuredAiResponse agentErrorResponse() {
+        return new StructuredAiResponse(
+            "抱歉，系统处理请求时出现异常，请稍后重试。",
+            List.of(),
+            List.of(),
+            List.of("internal_error"),
+            Map.of()
+        );
+    }
+
     /**
      * Calls the LLM path and wraps plain text answer into structured payload.
      */
@@ -97,7 +184,56 @@ public class AiOrchestratorService {
         List<String> inheritedWarnings
     ) {
         AIChatResponse response = aiService.chat(userId, message, assistantType);
-        String answer = response.getReply() == null ? "" : response.getReply();
+        return llmResult(message, response.getReply(), modeUsed, traceId, inheritedWarnings);
+    }
+
+    /**
+     * Non-blocking LLM path with the same payload as {@link #llmResponse}.
+     */
+    private Mono<StructuredAiResponse> llmResponseReactive(
+        Long userId,
+        String message,
+        String assistantType,
+        AiChatMode modeUsed,
+        String traceId,
+        List<String> inheritedWarnings
+    ) {
+        return aiService.chatReactive(userId, message, assistantType)
+            .map(response -> llmResult(message, response.getReply(), modeUsed, traceId, inheritedWarnings));
+    }
+
+    /**
+     * Streams the LLM path and closes with the same metadata as {@link #llmResponse}.
+     */
+    private Flux<AiStreamEvent> llmStream(
+        Long userId,
+        String message,
+        String assistantType,
+        AiChatMode modeUsed,
+        String traceId,
+        List<String> inheritedWarnings
+    ) {
+        return Flux.defer(() -> {
+            StringBuilder answer = new StringBuilder();
+            return aiService.streamChat(userId, message, assistantType)
+                .doOnNext(answer::append)
+                .map(AiStreamEvent::chunk)
+                .concatWith(Mono.fromSupplier(() -> AiStreamEvent.done(
+                    llmResult(message, answer.toString(), modeUsed, traceId, inheritedWarnings))));
+        });
+    }
+
+    /**
+     * Wraps plain LLM answer text into structured payload with usage estimate.
+     */
+    private StructuredAiResponse llmResult(
+        String message,
+        String reply,
+        AiChatMode modeUsed,
+        String traceId,
+        List<String> inheritedWarnings
+    ) {
+        String answer = reply == null ? "" : reply;
         List<String> warnings = new ArrayList<>();
         if (inheritedWarnings != null && !inheritedWarnings.isEmpty()) {
             warnings.addAll(inheritedWarnings);
@@ -122,6 +258,19 @@ public class AiOrchestratorService {
         );
     }
 
+    /**
+     * Emits a complete answer as fixed-size chunks followed by its metadata.
+     */
+    private Flux<AiStreamEvent> answerEvents(StructuredAiResponse response) {
+        String answer = response.answer() == null ? "" : response.answer();
+        int count = Math.max(1, (answer.length() + AGENT_STREAM_CHUNK_SIZE - 1) / AGENT_STREAM_CHUNK_SIZE);
+        return Flux.range(0, count)
+            .map(index -> AiStreamEvent.chunk(answer.substring(
+                Math.min(index * AGENT_STREAM_CHUNK_SIZE, answer.length()),
+                Math.min((index + 1) * AGENT_STREAM_CHUNK_SIZE, answer.length()))))
+            .concatWithValues(AiStreamEvent.done(response));
+    }
+
     /**
      * Copies response body while ensuring mode and trace metadata are present.
      */
@@ -4,8 +4,11 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Getter
 @Setter
@@ -56,6 +59,8 @@ public class AiProperties {
     private final ToolCallingOps toolCallingOps = new ToolCallingOps();
     private final StreamOps streamOps = new StreamOps();
     private final ToolExecOps toolExecOps = new ToolExecOps();
+    private final ExecutionOps executionOps = new ExecutionOps();
+    private final ResponseCacheOps responseCacheOps = new ResponseCacheOps();
     private final MemoryOps memoryOps = new MemoryOps();
     private final RagOps ragOps = new RagOps();
     private final QualityOps qualityOps = new QualityOps();
@@ -179,6 +184,49 @@ public class AiProperties {
          * Idempotent cache TTL in seconds.
          */
         private int cacheTtlSeconds = 60;
+
+        /**
+         * Per-tool idempotent cache TTL in seconds, keyed by tool name; 0 disables caching for that tool.
+         */
+        private Map<String, Integer> cacheTtlSecondsByTool = new HashMap<>();
+    }
+
+    @Getter
+    @Setter
+    public static class ExecutionOps {
+        /**
+         * Run tool calls and async AI request handling on virtual threads instead of bounded platform pools.
+         */
+        private boolean virtualThreads = false;
+
+        /**
+         * Shared deadline in milliseconds for the parallel retrieval, tool and memory stages of the agent.
+         */
+        private long prepareDeadlineMs = 4000;
+    }
+
+    @Getter
+    @Setter
+    public static class ResponseCacheOps {
+        /**
+         * Cache agent answers grounded in tool data, keyed by type, normalized question and payload fingerprint.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Cached answer TTL in seconds.
+         */
+        private int ttlSeconds = 300;
+
+        /**
+         * Max answers kept in the local LRU tier.
+         */
+        private int maxEntries = 1000;
+
+        /**
+         * Share cached answers and per-user invalidation through Redis.
+         */
+        private boolean redisEnabled = false;
     }
 
     @Getter
@@ -195,10 +243,15 @@ public class AiProperties {
         private int maxStoredTurns = 40;
 
         /**
-         * Session TTL in seconds for Redis memory.
+         * Session TTL in seconds; Redis expires idle keys, the in-memory store evicts idle sessions.
          */
         private int ttlSeconds = 86400;
 
+        /**
+         * Max live sessions held by the in-memory store; least recently used sessions are evicted first.
+         */
+        private int maxSessions = 10000;
+
         /**
          * Compress oldest turns into one summary item when size exceeds threshold.
          */
@@ -222,6 +275,31 @@ public class AiProperties {
          * Knowledge file path, supports classpath: and file:.
          */
         private String knowledgePath = "classpath:ai/knowledge-base.json";
+
+        /**
+         * Rebuild the knowledge index when the knowledge file changes.
+         */
+        private boolean reloadEnabled = true;
+
+        /**
+         * How often the knowledge file modification time is checked.
+         */
+        private Duration reloadCheckInterval = Duration.ofSeconds(30);
+
+        /**
+         * Whether to enable the in-process vector store built from the knowledge file.
+         */
+        private boolean vectorEnabled = false;
+
+        /**
+         * File the vector index is persisted to and memory-mapped from; empty keeps it in a direct buffer only.
+         */
+        private String vectorIndexPath = "";
+
+        /**
+         * Dimensions of the default hashing embedding.
+         */
+        private int vectorDimensions = 256;
     }
 
     @Getter
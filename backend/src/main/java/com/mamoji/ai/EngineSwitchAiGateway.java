@@ -6,6 +6,7 @@ import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.Locale;
 
@@ -30,6 +31,14 @@ public class EngineSwitchAiGateway implements AiGateway {
         return selectedGateway().chat(systemPrompt, userPrompt, modelOverride, assistantType);
     }
 
+    /**
+     * Delegates non-blocking chat call to selected gateway.
+     */
+    @Override
+    public Mono<String> chatReactive(String systemPrompt, String userPrompt, String modelOverride, String assistantType) {
+        return selectedGateway().chatReactive(systemPrompt, userPrompt, modelOverride, assistantType);
+    }
+
     /**
      * Delegates stream call to selected gateway.
      */
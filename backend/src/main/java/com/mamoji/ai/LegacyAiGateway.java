@@ -3,6 +3,7 @@ package com.mamoji.ai;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Legacy gateway adapter based on existing {@link AiClientService}.
@@ -22,10 +23,18 @@ public class LegacyAiGateway implements AiGateway {
     }
 
     /**
-     * Executes pseudo-stream chat through legacy client.
+     * Executes non-blocking chat through legacy client.
+     */
+    @Override
+    public Mono<String> chatReactive(String systemPrompt, String userPrompt, String modelOverride, String assistantType) {
+        return aiClientService.chatReactive(systemPrompt, userPrompt, modelOverride, assistantType);
+    }
+
+    /**
+     * Executes provider-native stream chat through legacy client.
      */
     @Override
     public Flux<String> streamChat(String systemPrompt, String userPrompt, String modelOverride, String assistantType) {
-        return aiClientService.streamChat(systemPrompt, userPrompt);
+        return aiClientService.streamChat(systemPrompt, userPrompt, modelOverride, assistantType);
     }
 }
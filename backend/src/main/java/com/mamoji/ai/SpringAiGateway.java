@@ -11,6 +11,9 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Spring AI based gateway implementation.
  */
@@ -62,11 +65,42 @@ public class SpringAiGateway implements AiGateway {
     }
 
     /**
-     * Provides chunked streaming over synchronous chat result.
+     * Streams model output as it is generated, with the same tool-context enrichment as {@link #chat}.
      */
     @Override
     public Flux<String> streamChat(String systemPrompt, String userPrompt, String modelOverride, String assistantType) {
-        return chunkText(chat(systemPrompt, userPrompt, modelOverride, assistantType));
+        return Flux.defer(() -> {
+            long start = System.currentTimeMillis();
+            String safeSystemPrompt = systemPrompt == null ? "" : systemPrompt.trim();
+            String safeUserPrompt = userPrompt == null ? "" : userPrompt.trim();
+            SpringAiToolCallingBridge.ToolCallingContext toolContext = springAiToolCallingBridge.invoke(assistantType, safeUserPrompt);
+            String fullPrompt = buildPrompt(safeSystemPrompt, safeUserPrompt, modelOverride, toolContext);
+            AtomicBoolean emitted = new AtomicBoolean();
+            AtomicInteger outputChars = new AtomicInteger();
+
+            return ChatClient.create(chatModel)
+                .prompt(fullPrompt)
+                .stream()
+                .content()
+                .filter(delta -> delta != null && !delta.isEmpty())
+                .doOnNext(delta -> {
+                    if (emitted.compareAndSet(false, true)) {
+                        metricsService.recordStreamFirstToken("spring-ai", System.currentTimeMillis() - start);
+                    }
+                    outputChars.addAndGet(delta.length());
+                })
+                .doOnComplete(() -> {
+                    metricsService.recordRequest("spring-ai", true, System.currentTimeMillis() - start,
+                        Math.max(1, (fullPrompt.length() + outputChars.get()) / 4));
+                    metricsService.recordModelRoute(assistantType, modelOverride != null ? modelOverride : "spring-ai-default");
+                })
+                .onErrorResume(ex -> {
+                    long elapsed = System.currentTimeMillis() - start;
+                    log.error("Spring AI stream failed elapsedMs={} emitted={} error={}", elapsed, emitted.get(), ex.getMessage(), ex);
+                    metricsService.recordRequest("spring-ai", false, elapsed, estimateTokens(fullPrompt, null));
+                    return emitted.get() ? Flux.empty() : Flux.just(FALLBACK_ERROR_MESSAGE);
+                });
+        });
     }
 
     /**
@@ -93,23 +127,6 @@ public class SpringAiGateway implements AiGateway {
         return prompt.toString();
     }
 
-    /**
-     * Splits text into fixed-size chunks for SSE-like delivery.
-     */
-    private Flux<String> chunkText(String fullText) {
-        if (fullText == null || fullText.isEmpty()) {
-            return Flux.just("");
-        }
-        int chunkSize = 24;
-        int count = (fullText.length() + chunkSize - 1) / chunkSize;
-        return Flux.range(0, count)
-            .map(i -> {
-                int start = i * chunkSize;
-                int end = Math.min(start + chunkSize, fullText.length());
-                return fullText.substring(start, end);
-            });
-    }
-
     /**
      * Rough token estimation by character count.
      */
@@ -0,0 +1,253 @@
+package com.mamoji.ai.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mamoji.ai.AiProperties;
+import com.mamoji.ai.metrics.AiMetricsService;
+import com.mamoji.service.TransactionsChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Response cache in front of the model calls for agent answers grounded in tool data.
+ *
+ * <p>Keys combine user, the user's data generation, assistant type, prompt variant, the normalized question
+ * and a SHA-256 fingerprint of the tool payload. A local LRU tier with TTL sits in front of an optional Redis
+ * tier. {@link #invalidateUser(Long)} bumps the user's generation after every {@link TransactionsChangedEvent},
+ * so older answers become unreachable; with Redis enabled the generation lives in Redis and is shared by every
+ * instance.
+ */
+@Slf4j
+@Component
+public class AiResponseCache {
+
+    private static final String LAYER = "llm";
+    private static final String REDIS_PREFIX = "ai:llm-cache:";
+    private static final String GENERATION_PREFIX = REDIS_PREFIX + "gen:";
+
+    private final AiProperties aiProperties;
+    private final AiMetricsService aiMetricsService;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    // Access-ordered for LRU eviction; guarded by "this".
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+    public AiResponseCache(
+        AiProperties aiProperties,
+        AiMetricsService aiMetricsService,
+        ObjectMapper objectMapper,
+        ObjectProvider<StringRedisTemplate> redisTemplateProvider
+    ) {
+        this.aiProperties = aiProperties;
+        this.aiMetricsService = aiMetricsService;
+        this.objectMapper = objectMapper;
+        this.redisTemplateProvider = redisTemplateProvider;
+    }
+
+    /**
+     * Cached answer with the model-reported warnings, sources and actions.
+     */
+    public record CachedResponse(String answer, List<String> warnings, List<String> sources, List<String> actions) {
+    }
+
+    private record Entry(CachedResponse response, long expiresAt) {
+    }
+
+    /**
+     * Builds the cache key for one request, or returns null when the request is not cacheable.
+     *
+     * <p>Only answers backed by a tool payload are cached: without one the answer depends on conversation
+     * history rather than on data the fingerprint can capture. The key embeds the user's current generation,
+     * so an answer computed before an invalidation is stored under a key that is no longer read.
+     */
+    public String key(Long userId, String assistantType, String promptVariant, String question, String toolPayload) {
+        AiProperties.ResponseCacheOps ops = aiProperties.getResponseCacheOps();
+        if (!ops.isEnabled() || userId == null || toolPayload == null || toolPayload.isBlank()) {
+            return null;
+        }
+        String normalized = normalizeQuestion(question);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        Long generation = generation(userId);
+        if (generation == null) {
+            return null;
+        }
+        String digest = sha256(assistantType + "\n" + promptVariant + "\n" + normalized + "\n" + sha256(toolPayload));
+        return userId + ":" + generation + ":" + digest;
+    }
+
+    /**
+     * Looks up a cached answer, promoting Redis hits into the local tier.
+     */
+    public Optional<CachedResponse> get(String key, String assistantType) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        CachedResponse response = getLocal(key);
+        if (response == null) {
+            response = getRemote(key);
+            if (response != null) {
+                putLocal(key, response);
+            }
+        }
+        aiMetricsService.recordCacheAccess(LAYER, assistantType, response != null);
+        return Optional.ofNullable(response);
+    }
+
+    /**
+     * Stores an answer in every enabled tier.
+     */
+    public void put(String key, CachedResponse response) {
+        if (key == null || response == null) {
+            return;
+        }
+        putLocal(key, response);
+        StringRedisTemplate redis = redisTemplate();
+        if (redis == null) {
+            return;
+        }
+        try {
+            redis.opsForValue().set(REDIS_PREFIX + key, objectMapper.writeValueAsString(response), ttl());
+        } catch (JsonProcessingException | RuntimeException ex) {
+            log.warn("AI response cache write failed key={} error={}", key, ex.getMessage());
+        }
+    }
+
+    /**
+     * Invalidates every cached answer of one user; call after any write to the user's transactions.
+     */
+    public void invalidateUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        generations.merge(userId, 1L, Long::sum);
+        String prefix = userId + ":";
+        synchronized (this) {
+            entries.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+        StringRedisTemplate redis = redisTemplate();
+        if (redis == null) {
+            return;
+        }
+        try {
+            redis.opsForValue().increment(GENERATION_PREFIX + userId);
+        } catch (RuntimeException ex) {
+            log.warn("AI response cache invalidation failed userId={} error={}", userId, ex.getMessage());
+        }
+    }
+
+    /**
+     * Invalidates the user's answers once the transaction write commits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        invalidateUser(event.userId());
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the user's data generation, or null when the shared generation cannot be read.
+     */
+    private Long generation(Long userId) {
+        StringRedisTemplate redis = redisTemplate();
+        if (redis == null) {
+            return generations.getOrDefault(userId, 0L);
+        }
+        try {
+            String value = redis.opsForValue().get(GENERATION_PREFIX + userId);
+            return value == null ? 0L : Long.parseLong(value);
+        } catch (RuntimeException ex) {
+            log.warn("AI response cache generation read failed userId={} error={}", userId, ex.getMessage());
+            return null;
+        }
+    }
+
+    private synchronized CachedResponse getLocal(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() - System.nanoTime() <= 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.response();
+    }
+
+    private synchronized void putLocal(String key, CachedResponse response) {
+        entries.put(key, new Entry(response, System.nanoTime() + ttl().toNanos()));
+        int maxEntries = Math.max(1, aiProperties.getResponseCacheOps().getMaxEntries());
+        var iterator = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private CachedResponse getRemote(String key) {
+        StringRedisTemplate redis = redisTemplate();
+        if (redis == null) {
+            return null;
+        }
+        try {
+            String json = redis.opsForValue().get(REDIS_PREFIX + key);
+            return json == null ? null : objectMapper.readValue(json, CachedResponse.class);
+        } catch (JsonProcessingException | RuntimeException ex) {
+            log.warn("AI response cache read failed key={} error={}", key, ex.getMessage());
+            return null;
+        }
+    }
+
+    private StringRedisTemplate redisTemplate() {
+        return aiProperties.getResponseCacheOps().isRedisEnabled() ? redisTemplateProvider.getIfAvailable() : null;
+    }
+
+    private Duration ttl() {
+        return Duration.ofSeconds(Math.max(1, aiProperties.getResponseCacheOps().getTtlSeconds()));
+    }
+
+    /**
+     * Folds width/case variants, collapses whitespace and drops trailing punctuation.
+     */
+    static String normalizeQuestion(String question) {
+        if (question == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(question, Normalizer.Form.NFKC)
+            .toLowerCase(Locale.ROOT)
+            .replaceAll("\\s+", " ")
+            .trim();
+        return normalized.replaceAll("[\\p{Punct}\\s。？！，、～…]+$", "");
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -12,6 +12,14 @@ public interface ConversationMemoryService {
      */
     void append(String sessionKey, String role, String content);
 
+    /**
+     * Appends one user question and the assistant answer; stores may write both in one operation.
+     */
+    default void appendExchange(String sessionKey, String userContent, String assistantContent) {
+        append(sessionKey, "user", userContent);
+        append(sessionKey, "assistant", assistantContent);
+    }
+
     /**
      * Returns recent conversation turns.
      */
@@ -1,29 +1,66 @@
 package com.mamoji.ai.memory;
 
 import com.mamoji.ai.AiProperties;
+import com.mamoji.ai.metrics.AiMetricsService;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * In-process memory implementation for conversation turns.
+ *
+ * <p>Sessions live in an access-ordered map bounded by {@code memoryOps.maxSessions} (least recently used
+ * evicted first) and by {@code memoryOps.ttlSeconds} of idle time. Each session keeps its turns in a
+ * {@link TurnRingBuffer}, so appends do not shift elements and reads copy only the requested tail.
+ *
+ * <p>Locking is two-level: the service monitor guards only the session map and LRU/TTL bookkeeping, while
+ * ring-buffer work, including building overflow summaries, runs under the owning session's monitor. Requests
+ * for different sessions therefore only contend on the short map update.
  */
 @Service
 @ConditionalOnProperty(prefix = "ai.memory-ops", name = "redis-enabled", havingValue = "false", matchIfMissing = true)
 public class InMemoryConversationMemoryService implements ConversationMemoryService {
 
-    private final Map<String, Deque<ConversationTurn>> sessions = new ConcurrentHashMap<>();
+    /**
+     * Rough per-turn heap cost besides content characters: turn record, strings and instant headers.
+     */
+    private static final long TURN_OVERHEAD_BYTES = 96;
+
     private final AiProperties aiProperties;
 
-    public InMemoryConversationMemoryService(AiProperties aiProperties) {
+    // Access-ordered for LRU eviction; guarded by "this".
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(64, 0.75f, true);
+    // Updated under the owning session's monitor.
+    private final LongAdder storedTurns = new LongAdder();
+    private final LongAdder storedChars = new LongAdder();
+
+    public InMemoryConversationMemoryService(AiProperties aiProperties, AiMetricsService aiMetricsService) {
         this.aiProperties = aiProperties;
+        aiMetricsService.registerMemoryGauges(
+            "in_memory",
+            this,
+            InMemoryConversationMemoryService::sessionCount,
+            InMemoryConversationMemoryService::estimatedBytes
+        );
+    }
+
+    private static final class Session {
+        // Guarded by the session monitor.
+        private final TurnRingBuffer turns;
+        private boolean evicted;
+        // Guarded by the service monitor.
+        private long lastAccessNanos;
+
+        private Session(int capacity) {
+            this.turns = new TurnRingBuffer(capacity);
+        }
     }
 
     /**
@@ -34,13 +71,26 @@ public class InMemoryConversationMemoryService implements ConversationMemoryServ
         if (sessionKey == null || sessionKey.isBlank() || content == null || content.isBlank()) {
             return;
         }
-        Deque<ConversationTurn> turns = sessions.computeIfAbsent(sessionKey, key -> new ArrayDeque<>());
-        synchronized (turns) {
-            turns.addLast(new ConversationTurn(role, content, Instant.now()));
-            compactIfNeeded(turns);
-            int maxStoredTurns = Math.max(2, aiProperties.getMemoryOps().getMaxStoredTurns());
-            while (turns.size() > maxStoredTurns) {
-                turns.removeFirst();
+        ConversationTurn turn = new ConversationTurn(role, content, Instant.now());
+        while (true) {
+            Session session = acquire(sessionKey);
+            synchronized (session) {
+                // Evicted between lookup and lock: retry against a fresh session.
+                if (session.evicted) {
+                    continue;
+                }
+                TurnRingBuffer turns = session.turns;
+                long beforeTurns = turns.size();
+                long beforeChars = turns.chars();
+                turns.addLast(turn);
+                int maxStoredTurns = Math.min(maxStoredTurns(), turns.capacity() - 1);
+                compactIfNeeded(turns, maxStoredTurns);
+                while (turns.size() > maxStoredTurns) {
+                    turns.removeFirst();
+                }
+                storedTurns.add(turns.size() - beforeTurns);
+                storedChars.add(turns.chars() - beforeChars);
+                return;
             }
         }
     }
@@ -53,14 +103,27 @@ public class InMemoryConversationMemoryService implements ConversationMemoryServ
         if (sessionKey == null || sessionKey.isBlank()) {
             return List.of();
         }
-        Deque<ConversationTurn> turns = sessions.get(sessionKey);
-        if (turns == null || turns.isEmpty()) {
+        Session session;
+        boolean expired;
+        synchronized (this) {
+            long now = System.nanoTime();
+            session = sessions.get(sessionKey);
+            if (session == null) {
+                return List.of();
+            }
+            expired = isExpired(session, now);
+            if (expired) {
+                sessions.remove(sessionKey);
+            } else {
+                session.lastAccessNanos = now;
+            }
+        }
+        if (expired) {
+            release(session);
             return List.of();
         }
-        synchronized (turns) {
-            int size = Math.min(Math.max(maxTurns, 0), turns.size());
-            List<ConversationTurn> all = new ArrayList<>(turns);
-            return all.subList(all.size() - size, all.size());
+        synchronized (session) {
+            return session.evicted ? List.of() : session.turns.last(maxTurns);
         }
     }
 
@@ -72,25 +135,107 @@ public class InMemoryConversationMemoryService implements ConversationMemoryServ
         if (sessionKey == null || sessionKey.isBlank()) {
             return;
         }
-        sessions.remove(sessionKey);
+        Session session;
+        synchronized (this) {
+            session = sessions.remove(sessionKey);
+        }
+        if (session != null) {
+            release(session);
+        }
+    }
+
+    synchronized int sessionCount() {
+        return sessions.size();
     }
 
     /**
-     * Compacts oldest turns into a synthetic summary turn when overflowed.
+     * Estimated heap held by stored turns: UTF-16 content plus a fixed per-turn overhead.
      */
-    private void compactIfNeeded(Deque<ConversationTurn> turns) {
-        AiProperties.MemoryOps memoryOps = aiProperties.getMemoryOps();
-        if (!memoryOps.isSummarizeOnOverflow()) {
-            return;
+    long estimatedBytes() {
+        return storedChars.sum() * 2 + storedTurns.sum() * TURN_OVERHEAD_BYTES;
+    }
+
+    /**
+     * Returns the session for the key, creating it and applying TTL/LRU eviction under the service monitor;
+     * evicted sessions are released after the monitor is dropped.
+     */
+    private Session acquire(String sessionKey) {
+        List<Session> evicted = new ArrayList<>(0);
+        Session session;
+        synchronized (this) {
+            long now = System.nanoTime();
+            evictExpired(now, evicted);
+            session = sessions.get(sessionKey);
+            if (session == null) {
+                // One spare slot holds the overflowing turn until it is compacted or trimmed.
+                session = new Session(maxStoredTurns() + 1);
+                sessions.put(sessionKey, session);
+                evictOverflow(evicted);
+            }
+            session.lastAccessNanos = now;
+        }
+        evicted.forEach(this::release);
+        return session;
+    }
+
+    /**
+     * Drops idle sessions from the least recently used end until a live one is found.
+     */
+    private void evictExpired(long now, List<Session> evicted) {
+        Iterator<Map.Entry<String, Session>> iterator = sessions.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Session session = iterator.next().getValue();
+            if (!isExpired(session, now)) {
+                return;
+            }
+            evicted.add(session);
+            iterator.remove();
+        }
+    }
+
+    private void evictOverflow(List<Session> evicted) {
+        int maxSessions = Math.max(1, aiProperties.getMemoryOps().getMaxSessions());
+        Iterator<Map.Entry<String, Session>> iterator = sessions.entrySet().iterator();
+        while (sessions.size() > maxSessions && iterator.hasNext()) {
+            evicted.add(iterator.next().getValue());
+            iterator.remove();
         }
-        int maxStoredTurns = Math.max(2, memoryOps.getMaxStoredTurns());
-        if (turns.size() <= maxStoredTurns) {
+    }
+
+    /**
+     * Marks a session removed from the map and subtracts its turns from the footprint counters, once.
+     */
+    private void release(Session session) {
+        synchronized (session) {
+            if (session.evicted) {
+                return;
+            }
+            session.evicted = true;
+            storedTurns.add(-session.turns.size());
+            storedChars.add(-session.turns.chars());
+        }
+    }
+
+    private boolean isExpired(Session session, long now) {
+        long ttlNanos = Math.max(1, aiProperties.getMemoryOps().getTtlSeconds()) * 1_000_000_000L;
+        return now - session.lastAccessNanos >= ttlNanos;
+    }
+
+    private int maxStoredTurns() {
+        return Math.max(2, aiProperties.getMemoryOps().getMaxStoredTurns());
+    }
+
+    /**
+     * Compacts oldest turns into a synthetic summary turn when overflowed.
+     */
+    private void compactIfNeeded(TurnRingBuffer turns, int maxStoredTurns) {
+        if (!aiProperties.getMemoryOps().isSummarizeOnOverflow() || turns.size() <= maxStoredTurns) {
             return;
         }
 
-        int batchSize = Math.max(2, memoryOps.getSummarizeBatchSize());
+        int batchSize = Math.max(2, aiProperties.getMemoryOps().getSummarizeBatchSize());
         List<ConversationTurn> compactBatch = new ArrayList<>();
-        for (int i = 0; i < batchSize && !turns.isEmpty(); i++) {
+        for (int i = 0; i < batchSize && turns.size() > 0; i++) {
             compactBatch.add(turns.removeFirst());
         }
         turns.addFirst(new ConversationTurn("system_summary", summarize(compactBatch), Instant.now()));
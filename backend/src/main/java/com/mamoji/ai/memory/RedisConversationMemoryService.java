@@ -3,16 +3,21 @@ package com.mamoji.ai.memory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mamoji.ai.AiProperties;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Redis-backed conversation memory implementation.
+ *
+ * <p>Appends run as one Lua script ({@code ai/redis/memory-append.lua}) that pushes the turns, compacts
+ * overflow into a summary turn, trims and refreshes the TTL atomically, so a user/assistant exchange costs a
+ * single round trip instead of several commands per turn.
  */
 @Service
 @ConditionalOnProperty(prefix = "ai.memory-ops", name = "redis-enabled", havingValue = "true")
@@ -20,6 +25,9 @@ public class RedisConversationMemoryService implements ConversationMemoryService
 
     private static final String KEY_PREFIX = "ai:memory:";
 
+    private static final RedisScript<Long> APPEND_SCRIPT = RedisScript.of(
+        new ClassPathResource("ai/redis/memory-append.lua"), Long.class);
+
     private final StringRedisTemplate redisTemplate;
     private final ObjectMapper objectMapper;
     private final AiProperties aiProperties;
@@ -42,18 +50,28 @@ public class RedisConversationMemoryService implements ConversationMemoryService
         if (sessionKey == null || sessionKey.isBlank() || content == null || content.isBlank()) {
             return;
         }
+        appendTurns(sessionKey, List.of(new MemoryItem(role, content, Instant.now().toString())));
+    }
 
-        String key = buildKey(sessionKey);
-        int maxStoredTurns = Math.max(1, aiProperties.getMemoryOps().getMaxStoredTurns());
-        int ttlSeconds = Math.max(60, aiProperties.getMemoryOps().getTtlSeconds());
-
-        MemoryItem item = new MemoryItem(role, content, Instant.now().toString());
-        String payload = toJson(item);
-
-        redisTemplate.opsForList().rightPush(key, payload);
-        compactIfNeeded(key, maxStoredTurns);
-        redisTemplate.opsForList().trim(key, -maxStoredTurns, -1);
-        redisTemplate.expire(key, ttlSeconds, TimeUnit.SECONDS);
+    /**
+     * Appends both turns of one exchange in a single script call.
+     */
+    @Override
+    public void appendExchange(String sessionKey, String userContent, String assistantContent) {
+        if (sessionKey == null || sessionKey.isBlank()) {
+            return;
+        }
+        String timestamp = Instant.now().toString();
+        List<MemoryItem> items = new ArrayList<>(2);
+        if (userContent != null && !userContent.isBlank()) {
+            items.add(new MemoryItem("user", userContent, timestamp));
+        }
+        if (assistantContent != null && !assistantContent.isBlank()) {
+            items.add(new MemoryItem("assistant", assistantContent, timestamp));
+        }
+        if (!items.isEmpty()) {
+            appendTurns(sessionKey, items);
+        }
     }
 
     /**
@@ -127,53 +145,24 @@ public class RedisConversationMemoryService implements ConversationMemoryService
     }
 
     /**
-     * Compacts oldest turns into summary when stored size exceeds limit.
+     * Runs the append script: push, compact on overflow, trim and expire in one atomic round trip.
      */
-    private void compactIfNeeded(String key, int maxStoredTurns) {
+    private void appendTurns(String sessionKey, List<MemoryItem> items) {
         AiProperties.MemoryOps memoryOps = aiProperties.getMemoryOps();
-        if (!memoryOps.isSummarizeOnOverflow()) {
-            return;
-        }
-        Long size = redisTemplate.opsForList().size(key);
-        if (size == null || size <= maxStoredTurns) {
-            return;
-        }
-
+        int maxStoredTurns = Math.max(1, memoryOps.getMaxStoredTurns());
+        int ttlSeconds = Math.max(60, memoryOps.getTtlSeconds());
         int batchSize = Math.max(2, memoryOps.getSummarizeBatchSize());
-        List<String> oldest = redisTemplate.opsForList().range(key, 0, batchSize - 1);
-        if (oldest == null || oldest.isEmpty()) {
-            return;
-        }
 
-        List<ConversationTurn> turns = new ArrayList<>();
-        for (String item : oldest) {
-            ConversationTurn turn = fromJson(item);
-            if (turn != null) {
-                turns.add(turn);
-            }
-        }
-        String summary = summarize(turns);
-
-        redisTemplate.opsForList().trim(key, batchSize, -1);
-        redisTemplate.opsForList().leftPush(key, toJson(new MemoryItem("system_summary", summary, Instant.now().toString())));
-    }
-
-    /**
-     * Builds compact summary text from old turns.
-     */
-    private String summarize(List<ConversationTurn> turns) {
-        StringBuilder sb = new StringBuilder("Summary:");
-        int max = Math.min(6, turns.size());
-        for (int i = 0; i < max; i++) {
-            ConversationTurn turn = turns.get(i);
-            sb.append(" [").append(turn.role()).append("] ");
-            String content = turn.content() == null ? "" : turn.content().replaceAll("\\s+", " ").trim();
-            if (content.length() > 40) {
-                content = content.substring(0, 40) + "...";
-            }
-            sb.append(content);
+        Object[] args = new Object[5 + items.size()];
+        args[0] = String.valueOf(maxStoredTurns);
+        args[1] = String.valueOf(ttlSeconds);
+        args[2] = memoryOps.isSummarizeOnOverflow() ? "1" : "0";
+        args[3] = String.valueOf(batchSize);
+        args[4] = Instant.now().toString();
+        for (int i = 0; i < items.size(); i++) {
+            args[5 + i] = toJson(items.get(i));
         }
-        return sb.toString();
+        redisTemplate.execute(APPEND_SCRIPT, List.of(buildKey(sessionKey)), args);
     }
 
     /**
@@ -0,0 +1,89 @@
+package com.mamoji.ai.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-capacity circular buffer of conversation turns, oldest first.
+ *
+ * <p>Not thread-safe; the owning store guards it. Reading the last N turns copies only those N.
+ */
+final class TurnRingBuffer {
+
+    private final ConversationTurn[] slots;
+    private int head;
+    private int size;
+    private long chars;
+
+    TurnRingBuffer(int capacity) {
+        this.slots = new ConversationTurn[Math.max(1, capacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Total content characters currently held, used for footprint estimation.
+     */
+    long chars() {
+        return chars;
+    }
+
+    /**
+     * Appends at the tail; when full, the oldest turn is overwritten.
+     */
+    void addLast(ConversationTurn turn) {
+        if (size == slots.length) {
+            removeFirst();
+        }
+        slots[(head + size) % slots.length] = turn;
+        size++;
+        chars += length(turn);
+    }
+
+    /**
+     * Prepends at the head; the buffer must not be full.
+     */
+    void addFirst(ConversationTurn turn) {
+        if (size == slots.length) {
+            throw new IllegalStateException("turn buffer is full");
+        }
+        head = (head - 1 + slots.length) % slots.length;
+        slots[head] = turn;
+        size++;
+        chars += length(turn);
+    }
+
+    ConversationTurn removeFirst() {
+        if (size == 0) {
+            return null;
+        }
+        ConversationTurn turn = slots[head];
+        slots[head] = null;
+        head = (head + 1) % slots.length;
+        size--;
+        chars -= length(turn);
+        return turn;
+    }
+
+    /**
+     * Returns the newest {@code count} turns, oldest first.
+     */
+    List<ConversationTurn> last(int count) {
+        int n = Math.min(Math.max(count, 0), size);
+        List<ConversationTurn> turns = new ArrayList<>(n);
+        for (int i = size - n; i < size; i++) {
+            turns.add(slots[(head + i) % slots.length]);
+        }
+        return turns;
+    }
+
+    private static int length(ConversationTurn turn) {
+        return turn == null || turn.content() == null ? 0 : turn.content().length();
+    }
+}
@@ -0,0 +1,56 @@
+package com.mamoji.ai.metrics;
+
+import io.prometheus.metrics.tracer.common.SpanContext;
+
+/**
+ * Exposes the agent's short trace id to the Prometheus exemplar sampler.
+ *
+ * <p>The application has no distributed tracer, so {@link AiMetricsService} binds the trace id to the
+ * recording thread only for the duration of one meter update; the sampler reads it from there and attaches
+ * it as {@code trace_id} (with the stage or tool as {@code span_id}) to histogram buckets and counters.
+ */
+public class AiExemplarSpanContext implements SpanContext {
+
+    private static final ThreadLocal<Exemplar> CURRENT = new ThreadLocal<>();
+
+    private record Exemplar(String traceId, String spanId) {
+    }
+
+    /**
+     * Runs one meter update with the trace id visible to the sampler; without a trace id it just runs.
+     */
+    static void record(String traceId, String spanId, Runnable update) {
+        if (traceId == null || traceId.isBlank()) {
+            update.run();
+            return;
+        }
+        CURRENT.set(new Exemplar(traceId, spanId));
+        try {
+            update.run();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    @Override
+    public String getCurrentTraceId() {
+        Exemplar exemplar = CURRENT.get();
+        return exemplar != null ? exemplar.traceId() : null;
+    }
+
+    @Override
+    public String getCurrentSpanId() {
+        Exemplar exemplar = CURRENT.get();
+        return exemplar != null ? exemplar.spanId() : null;
+    }
+
+    @Override
+    public boolean isCurrentSpanSampled() {
+        return CURRENT.get() != null;
+    }
+
+    @Override
+    public void markCurrentSpanAsExemplar() {
+        // Nothing to mark: there is no span behind the trace id.
+    }
+}
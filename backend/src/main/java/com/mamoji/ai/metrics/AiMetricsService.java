@@ -2,6 +2,7 @@ package com.mamoji.ai.metrics;
 
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.ObjectProvider;
@@ -10,12 +11,15 @@ import org.springframework.stereotype.Service;
 import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Centralized metric recorder for AI runtime observability.
  *
  * <p>The service is tolerant to missing meter registry (for local/dev tests) and
- * normalizes tag values to avoid high-cardinality or invalid metrics.
+ * normalizes tag values to avoid high-cardinality or invalid metrics. Meters are registered once per
+ * normalized tag tuple and cached, so the recording path does no registry lookup or builder allocation.
+ * Latency histograms and SLO buckets are configured through {@code management.metrics.distribution}.
  */
 @Service
 public class AiMetricsService {
@@ -34,8 +38,97 @@ public class AiMetricsService {
 
     private final MeterRegistry meterRegistry;
 
+    private final MeterCache<Timer> requestLatency;
+    private final MeterCache<Counter> requestCount;
+    private final MeterCache<DistributionSummary> requestTokens;
+    private final MeterCache<Timer> streamFirstTokenLatency;
+    private final MeterCache<Timer> agentStageLatency;
+    private final MeterCache<Counter> modelRouteCount;
+    private final MeterCache<Counter> modelRouteReasonCount;
+    private final MeterCache<Counter> modelFallbackCount;
+    private final MeterCache<Timer> toolLatency;
+    private final MeterCache<Counter> toolCount;
+    private final MeterCache<DistributionSummary> qualityWarnings;
+    private final MeterCache<Counter> qualityRuleHit;
+    private final MeterCache<Counter> chatModeCount;
+    private final MeterCache<Counter> chatModeFallbackCount;
+    private final MeterCache<Counter> cacheAccessCount;
+    private final MeterCache<Counter> cacheEvictionCount;
+    private final MeterCache<Counter> missingDimensionCount;
+
     public AiMetricsService(ObjectProvider<MeterRegistry> registryProvider) {
         this.meterRegistry = registryProvider.getIfAvailable();
+        this.requestLatency = new MeterCache<>(tags -> Timer.builder("ai.request.latency")
+            .tag("provider", tags.get(0))
+            .tag("success", tags.get(1))
+            .register(meterRegistry));
+        this.requestCount = new MeterCache<>(tags -> Counter.builder("ai.request.count")
+            .tag("provider", tags.get(0))
+            .tag("success", tags.get(1))
+            .register(meterRegistry));
+        this.requestTokens = new MeterCache<>(tags -> DistributionSummary.builder("ai.request.tokens")
+            .tag("provider", tags.get(0))
+            .register(meterRegistry));
+        this.streamFirstTokenLatency = new MeterCache<>(tags -> Timer.builder("ai.stream.first_token.latency")
+            .tag("provider", tags.get(0))
+            .register(meterRegistry));
+        this.agentStageLatency = new MeterCache<>(tags -> Timer.builder("ai.agent.stage.latency")
+            .tag("stage", tags.get(0))
+            .tag("outcome", tags.get(1))
+            .publishPercentileHistogram()
+            .register(meterRegistry));
+        this.modelRouteCount = new MeterCache<>(tags -> Counter.builder("ai.model.route.count")
+            .tag("assistantType", tags.get(0))
+            .tag("model", tags.get(1))
+            .register(meterRegistry));
+        this.modelRouteReasonCount = new MeterCache<>(tags -> Counter.builder("ai.model.route.reason.count")
+            .tag("assistantType", tags.get(0))
+            .tag("model", tags.get(1))
+            .tag("reason", tags.get(2))
+            .register(meterRegistry));
+        this.modelFallbackCount = new MeterCache<>(tags -> Counter.builder("ai.model.fallback.count")
+            .tag("primary", tags.get(0))
+            .tag("fallback", tags.get(1))
+            .register(meterRegistry));
+        this.toolLatency = new MeterCache<>(tags -> Timer.builder("ai.tool.latency")
+            .tag("tool", tags.get(0))
+            .tag("success", tags.get(1))
+            .register(meterRegistry));
+        this.toolCount = new MeterCache<>(tags -> Counter.builder("ai.tool.count")
+            .tag("tool", tags.get(0))
+            .tag("success", tags.get(1))
+            .register(meterRegistry));
+        this.qualityWarnings = new MeterCache<>(tags -> DistributionSummary.builder("ai.quality.warnings")
+            .tag("assistantType", tags.get(0))
+            .register(meterRegistry));
+        this.qualityRuleHit = new MeterCache<>(tags -> Counter.builder("ai.quality.rule.hit")
+            .tag("assistantType", tags.get(0))
+            .tag("rule", tags.get(1))
+            .register(meterRegistry));
+        this.chatModeCount = new MeterCache<>(tags -> Counter.builder("ai.chat.mode.count")
+            .tag("requested", tags.get(0))
+            .tag("used", tags.get(1))
+            .tag("assistantType", tags.get(2))
+            .register(meterRegistry));
+        this.chatModeFallbackCount = new MeterCache<>(tags -> Counter.builder("ai.chat.mode.fallback.count")
+            .tag("from", tags.get(0))
+            .tag("to", tags.get(1))
+            .tag("reason", tags.get(2))
+            .register(meterRegistry));
+        this.cacheAccessCount = new MeterCache<>(tags -> Counter.builder("ai.cache.access.count")
+            .tag("layer", tags.get(0))
+            .tag("cache", tags.get(1))
+            .tag("hit", tags.get(2))
+            .register(meterRegistry));
+        this.cacheEvictionCount = new MeterCache<>(tags -> Counter.builder("ai.cache.eviction.count")
+            .tag("layer", tags.get(0))
+            .tag("cache", tags.get(1))
+            .tag("reason", tags.get(2))
+            .register(meterRegistry));
+        this.missingDimensionCount = new MeterCache<>(tags -> Counter.builder("ai.metrics.dimension.missing.count")
+            .tag("metric", tags.get(0))
+            .tag("dimension", tags.get(1))
+            .register(meterRegistry));
     }
 
     /**
@@ -53,22 +146,40 @@ public class AiMetricsService {
             recordMissingDimension("ai.request", "estimated_tokens");
         }
 
-        Timer.builder("ai.request.latency")
-            .tag("provider", providerTag)
-            .tag("success", String.valueOf(success))
-            .register(meterRegistry)
-            .record(Math.max(0, latencyMs), TimeUnit.MILLISECONDS);
-
-        Counter.builder("ai.request.count")
-            .tag("provider", providerTag)
-            .tag("success", String.valueOf(success))
-            .register(meterRegistry)
-            .increment();
-
-        DistributionSummary.builder("ai.request.tokens")
-            .tag("provider", providerTag)
-            .register(meterRegistry)
-            .record(Math.max(0, estimatedTokens));
+        String successTag = String.valueOf(success);
+        requestLatency.get(providerTag, successTag).record(Math.max(0, latencyMs), TimeUnit.MILLISECONDS);
+        requestCount.get(providerTag, successTag).increment();
+        requestTokens.get(providerTag).record(Math.max(0, estimatedTokens));
+    }
+
+    /**
+     * Records time from stream subscription to the first upstream delta.
+     */
+    public void recordStreamFirstToken(String provider, long latencyMs) {
+        if (meterRegistry == null) {
+            return;
+        }
+        streamFirstTokenLatency.get(normalizeProvider(provider)).record(Math.max(0, latencyMs), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records latency of one agent stage and how it ended.
+     */
+    public void recordAgentStage(String stage, String outcome, long latencyMs) {
+        recordAgentStage(stage, outcome, latencyMs, null);
+    }
+
+    /**
+     * Records latency of one agent stage (retrieval, tool, memory, llm-primary, repair, quality, rewrite);
+     * a non-blank trace id is offered to the registry as an exemplar.
+     */
+    public void recordAgentStage(String stage, String outcome, long latencyMs, String traceId) {
+        if (meterRegistry == null) {
+            return;
+        }
+        String stageTag = normalizeGenericTag(stage);
+        Timer timer = agentStageLatency.get(stageTag, normalizeGenericTag(outcome));
+        AiExemplarSpanContext.record(traceId, stageTag, () -> timer.record(Math.max(0, latencyMs), TimeUnit.MILLISECONDS));
     }
 
     /**
@@ -83,11 +194,7 @@ public class AiMetricsService {
         if ("unknown".equals(modelTag)) {
             recordMissingDimension("ai.model.route", "model");
         }
-        Counter.builder("ai.model.route.count")
-            .tag("assistantType", assistantTag)
-            .tag("model", modelTag)
-            .register(meterRegistry)
-            .increment();
+        modelRouteCount.get(assistantTag, modelTag).increment();
     }
 
     /**
@@ -103,12 +210,7 @@ public class AiMetricsService {
         if ("unknown".equals(modelTag)) {
             recordMissingDimension("ai.model.route.reason", "model");
         }
-        Counter.builder("ai.model.route.reason.count")
-            .tag("assistantType", assistantTag)
-            .tag("model", modelTag)
-            .tag("reason", reasonTag)
-            .register(meterRegistry)
-            .increment();
+        modelRouteReasonCount.get(assistantTag, modelTag, reasonTag).increment();
     }
 
     /**
@@ -126,17 +228,20 @@ public class AiMetricsService {
         if ("unknown".equals(fallbackTag)) {
             recordMissingDimension("ai.model.fallback", "fallback");
         }
-        Counter.builder("ai.model.fallback.count")
-            .tag("primary", primaryTag)
-            .tag("fallback", fallbackTag)
-            .register(meterRegistry)
-            .increment();
+        modelFallbackCount.get(primaryTag, fallbackTag).increment();
     }
 
     /**
      * Records tool invocation latency and success rate.
      */
     public void recordToolCall(String toolName, boolean success, long latencyMs) {
+        recordToolCall(toolName, success, latencyMs, null);
+    }
+
+    /**
+     * Records tool invocation latency and success rate, offering the trace id as an exemplar.
+     */
+    public void recordToolCall(String toolName, boolean success, long latencyMs, String traceId) {
         if (meterRegistry == null) {
             return;
         }
@@ -145,17 +250,13 @@ public class AiMetricsService {
             recordMissingDimension("ai.tool", "tool");
         }
 
-        Timer.builder("ai.tool.latency")
-            .tag("tool", toolTag)
-            .tag("success", String.valueOf(success))
-            .register(meterRegistry)
-            .record(Math.max(0, latencyMs), TimeUnit.MILLISECONDS);
-
-        Counter.builder("ai.tool.count")
-            .tag("tool", toolTag)
-            .tag("success", String.valueOf(success))
-            .register(meterRegistry)
-            .increment();
+        String successTag = String.valueOf(success);
+        Timer timer = toolLatency.get(toolTag, successTag);
+        Counter counter = toolCount.get(toolTag, successTag);
+        AiExemplarSpanContext.record(traceId, toolTag, () -> {
+            timer.record(Math.max(0, latencyMs), TimeUnit.MILLISECONDS);
+            counter.increment();
+        });
     }
 
     /**
@@ -170,10 +271,7 @@ public class AiMetricsService {
             recordMissingDimension("ai.quality", "assistantType");
         }
 
-        DistributionSummary.builder("ai.quality.warnings")
-            .tag("assistantType", assistantTag)
-            .register(meterRegistry)
-            .record(Math.max(0, warningCount));
+        qualityWarnings.get(assistantTag).record(Math.max(0, warningCount));
     }
 
     /**
@@ -188,11 +286,7 @@ public class AiMetricsService {
         if ("unknown".equals(ruleTag)) {
             recordMissingDimension("ai.quality.rule", "rule");
         }
-        Counter.builder("ai.quality.rule.hit")
-            .tag("assistantType", assistantTag)
-            .tag("rule", ruleTag)
-            .register(meterRegistry)
-            .increment();
+        qualityRuleHit.get(assistantTag, ruleTag).increment();
     }
 
     /**
@@ -202,12 +296,11 @@ public class AiMetricsService {
         if (meterRegistry == null) {
             return;
         }
-        Counter.builder("ai.chat.mode.count")
-            .tag("requested", normalizeGenericTag(modeRequested))
-            .tag("used", normalizeGenericTag(modeUsed))
-            .tag("assistantType", normalizeAssistantType(assistantType))
-            .register(meterRegistry)
-            .increment();
+        chatModeCount.get(
+            normalizeGenericTag(modeRequested),
+            normalizeGenericTag(modeUsed),
+            normalizeAssistantType(assistantType)
+        ).increment();
     }
 
     /**
@@ -217,12 +310,11 @@ public class AiMetricsService {
         if (meterRegistry == null) {
             return;
         }
-        Counter.builder("ai.chat.mode.fallback.count")
-            .tag("from", normalizeGenericTag(fromMode))
-            .tag("to", normalizeGenericTag(toMode))
-            .tag("reason", normalizeGenericTag(reason))
-            .register(meterRegistry)
-            .increment();
+        chatModeFallbackCount.get(
+            normalizeGenericTag(fromMode),
+            normalizeGenericTag(toMode),
+            normalizeGenericTag(reason)
+        ).increment();
     }
 
     /**
@@ -238,23 +330,59 @@ public class AiMetricsService {
             recordMissingDimension("ai.cache.access", "cache");
         }
 
-        Counter.builder("ai.cache.access.count")
-            .tag("layer", layerTag)
-            .tag("cache", cacheTag)
-            .tag("hit", String.valueOf(hit))
-            .register(meterRegistry)
-            .increment();
+        cacheAccessCount.get(layerTag, cacheTag, String.valueOf(hit)).increment();
+    }
+
+    /**
+     * Records one cache eviction; reason is {@code size} or {@code expired}.
+     */
+    public void recordCacheEviction(String layer, String cacheName, String reason) {
+        if (meterRegistry == null) {
+            return;
+        }
+        cacheEvictionCount.get(
+            normalizeGenericTag(layer),
+            normalizeGenericTag(cacheName),
+            normalizeGenericTag(reason)
+        ).increment();
+    }
+
+    /**
+     * Registers a gauge sampling the hit ratio (0-1) of one cache layer.
+     */
+    public <T> void registerCacheHitRatio(String layer, T owner, ToDoubleFunction<T> hitRatio) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Gauge.builder("ai.cache.hit.ratio", owner, hitRatio)
+            .tag("layer", normalizeGenericTag(layer))
+            .register(meterRegistry);
+    }
+
+    /**
+     * Registers live session count and estimated heap footprint gauges for a conversation memory store.
+     *
+     * <p>Gauges hold the store weakly and sample it on scrape, so nothing is recorded per request.
+     */
+    public <T> void registerMemoryGauges(String store, T owner, ToDoubleFunction<T> sessions, ToDoubleFunction<T> bytes) {
+        if (meterRegistry == null) {
+            return;
+        }
+        String storeTag = normalizeGenericTag(store);
+        Gauge.builder("ai.memory.sessions", owner, sessions)
+            .tag("store", storeTag)
+            .register(meterRegistry);
+        Gauge.builder("ai.memory.footprint.bytes", owner, bytes)
+            .tag("store", storeTag)
+            .baseUnit("bytes")
+            .register(meterRegistry);
     }
 
     /**
      * Emits metric for missing tagging dimensions.
      */
     private void recordMissingDimension(String metric, String dimension) {
-        Counter.builder("ai.metrics.dimension.missing.count")
-            .tag("metric", metric)
-            .tag("dimension", dimension)
-            .register(meterRegistry)
-            .increment();
+        missingDimensionCount.get(metric, dimension).increment();
     }
 
     /**
@@ -288,7 +416,7 @@ public class AiMetricsService {
     }
 
     /**
-     * Common sanitizer for metric tag values.
+     * Common sanitizer for metric tag values; allocation-free when the value is already normalized.
      */
     private String normalizeGenericTag(String value) {
         if (value == null || value.isBlank()) {
@@ -298,9 +426,18 @@ public class AiMetricsService {
         if (normalized.length() > MAX_TAG_LENGTH) {
             return "other";
         }
-        if (!normalized.matches("[a-z0-9._-]+")) {
-            return "other";
+        for (int i = 0; i < normalized.length(); i++) {
+            if (!isTagChar(normalized.charAt(i))) {
+                return "other";
+            }
         }
         return normalized;
     }
+
+    /**
+     * Accepts {@code [a-z0-9._-]}.
+     */
+    private static boolean isTagChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '.' || c == '_' || c == '-';
+    }
 }
@@ -0,0 +1,57 @@
+package com.mamoji.ai.metrics;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Registered meters of one metric name, keyed by their normalized tag values.
+ *
+ * <p>Each tag position is one level of nested concurrent maps, so a hit is one {@code get} per tag and
+ * allocates nothing; the factory runs only on the first use of a tag tuple.
+ */
+final class MeterCache<M> {
+
+    private final ConcurrentHashMap<String, Object> root = new ConcurrentHashMap<>();
+    private final Function<List<String>, M> factory;
+
+    MeterCache(Function<List<String>, M> factory) {
+        this.factory = factory;
+    }
+
+    M get(String a) {
+        M meter = leaf(root, a);
+        return meter != null ? meter : create(root, a, List.of(a));
+    }
+
+    M get(String a, String b) {
+        ConcurrentHashMap<String, Object> level = child(root, a);
+        M meter = leaf(level, b);
+        return meter != null ? meter : create(level, b, List.of(a, b));
+    }
+
+    M get(String a, String b, String c) {
+        ConcurrentHashMap<String, Object> level = child(child(root, a), b);
+        M meter = leaf(level, c);
+        return meter != null ? meter : create(level, c, List.of(a, b, c));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentHashMap<String, Object> child(ConcurrentHashMap<String, Object> level, String key) {
+        Object next = level.get(key);
+        if (next == null) {
+            next = level.computeIfAbsent(key, ignored -> new ConcurrentHashMap<String, Object>());
+        }
+        return (ConcurrentHashMap<String, Object>) next;
+    }
+
+    @SuppressWarnings("unchecked")
+    private M leaf(ConcurrentHashMap<String, Object> level, String key) {
+        return (M) level.get(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private M create(ConcurrentHashMap<String, Object> level, String key, List<String> tags) {
+        return (M) level.computeIfAbsent(key, ignored -> factory.apply(tags));
+    }
+}
@@ -0,0 +1,28 @@
+package com.mamoji.ai.model;
+
+/**
+ * One element of a streamed chat answer: either a content delta or the final structured metadata.
+ */
+public record AiStreamEvent(String content, StructuredAiResponse done) {
+
+    /**
+     * Creates a content delta event.
+     */
+    public static AiStreamEvent chunk(String content) {
+        return new AiStreamEvent(content, null);
+    }
+
+    /**
+     * Creates the terminal event carrying warnings, sources, usage and routing metadata.
+     */
+    public static AiStreamEvent done(StructuredAiResponse response) {
+        return new AiStreamEvent(null, response);
+    }
+
+    /**
+     * Returns true for the terminal metadata event.
+     */
+    public boolean isDone() {
+        return done != null;
+    }
+}
@@ -3,34 +3,45 @@ package com.mamoji.ai.rag;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mamoji.ai.AiProperties;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
-import java.util.Set;
 
 /**
- * File-based knowledge retriever that loads JSON documents and ranks by token overlap.
+ * File-based knowledge retriever that loads JSON documents into a BM25 inverted index.
+ *
+ * <p>The index is built once per load and published through a volatile reference: a reload builds the new
+ * index on the scheduler thread while queries keep reading the previous one, then swaps it in.
  */
+@Slf4j
 @Component
 @ConditionalOnProperty(prefix = "ai.rag-ops", name = "file-enabled", havingValue = "true", matchIfMissing = true)
 public class FileKnowledgeRetriever implements KnowledgeRetriever {
 
-    private final List<KnowledgeDocument> knowledgeBase;
+    private final AiProperties aiProperties;
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+
+    private volatile KnowledgeIndex index = KnowledgeIndex.EMPTY;
+    private volatile long loadedLastModified = -1L;
 
     public FileKnowledgeRetriever(
         AiProperties aiProperties,
         ResourceLoader resourceLoader,
         ObjectMapper objectMapper
     ) {
-        this.knowledgeBase = loadKnowledgeBase(aiProperties.getRagOps().getKnowledgePath(), resourceLoader, objectMapper);
+        this.aiProperties = aiProperties;
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        reload();
     }
 
     /**
@@ -39,99 +50,84 @@ public class FileKnowledgeRetriever implements KnowledgeRetriever {
     @Override
     public List<KnowledgeSnippet> retrieve(String assistantType, String question, int topK) {
         int limit = Math.max(0, topK);
-        if (limit == 0 || knowledgeBase.isEmpty()) {
+        KnowledgeIndex current = index;
+        if (limit == 0 || current.size() == 0) {
             return List.of();
         }
 
-        String type = normalizeType(assistantType);
-        Set<String> tokens = tokenize(question);
-        if (tokens.isEmpty()) {
-            tokens = Set.of(type);
-        }
-
-        List<ScoredDocument> scored = new ArrayList<>();
-        for (KnowledgeDocument document : knowledgeBase) {
-            if (!supportsType(document.assistantType(), type)) {
-                continue;
-            }
-            int score = score(document, tokens);
-            if (score > 0) {
-                scored.add(new ScoredDocument(document, score));
-            }
-        }
-
-        scored.sort(Comparator.comparingInt(ScoredDocument::score).reversed());
-        List<KnowledgeSnippet> results = new ArrayList<>();
-        for (int i = 0; i < Math.min(limit, scored.size()); i++) {
-            KnowledgeDocument doc = scored.get(i).document();
+        List<KnowledgeSnippet> results = new ArrayList<>(limit);
+        for (KnowledgeDocument doc : current.search(normalizeType(assistantType), question, limit)) {
             results.add(new KnowledgeSnippet(doc.source(), doc.title(), doc.content()));
         }
         return results;
     }
 
     /**
-     * Loads knowledge documents from configured resource path.
+     * Rebuilds the index when the knowledge file changed since the last load.
+     *
+     * <p>Resources without a modification time (for example classpath entries inside a jar) are loaded once.
      */
-    private List<KnowledgeDocument> loadKnowledgeBase(String path, ResourceLoader resourceLoader, ObjectMapper objectMapper) {
-        if (path == null || path.isBlank()) {
-            return List.of();
+    @Scheduled(
+        fixedDelayString = "${ai.rag-ops.reload-check-interval:PT30S}",
+        initialDelayString = "${ai.rag-ops.reload-check-interval:PT30S}"
+    )
+    public void reloadIfChanged() {
+        if (!aiProperties.getRagOps().isReloadEnabled()) {
+            return;
         }
-        try {
-            Resource resource = resourceLoader.getResource(path);
-            if (!resource.exists()) {
-                return List.of();
-            }
-            try (InputStream input = resource.getInputStream()) {
-                List<KnowledgeDocument> docs = objectMapper.readValue(input, new TypeReference<List<KnowledgeDocument>>() {
-                });
-                return docs != null ? docs : List.of();
-            }
-        } catch (Exception ex) {
-            return List.of();
+        long lastModified = lastModified(resolveResource());
+        if (lastModified > 0 && lastModified != loadedLastModified) {
+            reload();
         }
     }
 
     /**
-     * Checks whether document applies to requested assistant type.
+     * Loads the knowledge file and swaps in a freshly built index.
      */
-    private boolean supportsType(String docType, String queryType) {
-        if (docType == null || docType.isBlank()) {
-            return true;
+    public synchronized void reload() {
+        Resource resource = resolveResource();
+        long lastModified = lastModified(resource);
+        List<KnowledgeDocument> documents = loadKnowledgeBase(resource);
+        loadedLastModified = lastModified;
+        if (documents == null) {
+            return;
         }
-        String normalized = docType.toLowerCase(Locale.ROOT).trim();
-        return "all".equals(normalized) || normalized.equals(queryType);
+        index = KnowledgeIndex.build(documents);
+        log.info("Knowledge index loaded path={} documents={}", aiProperties.getRagOps().getKnowledgePath(), documents.size());
+    }
+
+    private Resource resolveResource() {
+        String path = aiProperties.getRagOps().getKnowledgePath();
+        return path == null || path.isBlank() ? null : resourceLoader.getResource(path);
     }
 
     /**
-     * Scores one document by token containment count.
+     * Loads knowledge documents from configured resource path; returns null when the file cannot be parsed,
+     * so a broken edit keeps the previous index.
      */
-    private int score(KnowledgeDocument document, Set<String> tokens) {
-        String haystack = (safe(document.title()) + " " + safe(document.content()) + " " + safe(document.tags()))
-            .toLowerCase(Locale.ROOT);
-        int score = 0;
-        for (String token : tokens) {
-            if (token.length() >= 2 && haystack.contains(token)) {
-                score++;
-            }
+    private List<KnowledgeDocument> loadKnowledgeBase(Resource resource) {
+        if (resource == null || !resource.exists()) {
+            return List.of();
+        }
+        try (InputStream input = resource.getInputStream()) {
+            List<KnowledgeDocument> docs = objectMapper.readValue(input, new TypeReference<List<KnowledgeDocument>>() {
+            });
+            return docs != null ? docs : List.of();
+        } catch (Exception ex) {
+            log.warn("Knowledge base load failed path={} error={}", aiProperties.getRagOps().getKnowledgePath(), ex.getMessage());
+            return null;
         }
-        return score;
     }
 
-    /**
-     * Tokenizes free text into normalized unique terms.
-     */
-    private Set<String> tokenize(String text) {
-        if (text == null || text.isBlank()) {
-            return Set.of();
+    private long lastModified(Resource resource) {
+        if (resource == null || !resource.exists()) {
+            return -1L;
         }
-        String[] split = text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+");
-        Set<String> tokens = new LinkedHashSet<>();
-        for (String token : split) {
-            if (!token.isBlank()) {
-                tokens.add(token);
-            }
+        try {
+            return resource.lastModified();
+        } catch (IOException ex) {
+            return -1L;
         }
-        return tokens;
     }
 
     /**
@@ -143,29 +139,4 @@ public class FileKnowledgeRetriever implements KnowledgeRetriever {
         }
         return "finance";
     }
-
-    /**
-     * Converts nullable string to safe non-null value.
-     */
-    private String safe(String value) {
-        return value == null ? "" : value;
-    }
-
-    /**
-     * Scored document holder.
-     */
-    private record ScoredDocument(KnowledgeDocument document, int score) {
-    }
-
-    /**
-     * File knowledge document schema.
-     */
-    private record KnowledgeDocument(
-        String assistantType,
-        String source,
-        String title,
-        String content,
-        String tags
-    ) {
-    }
 }
@@ -0,0 +1,186 @@
+package com.mamoji.ai.rag;
+
+import org.springframework.ai.document.Document;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Immutable flat (exact) vector index with vectors stored outside the Java heap.
+ *
+ * <p>Vectors are unit length, laid out row by row as little-endian floats, either in a direct buffer or in a
+ * read-only memory-mapped file. Search is a filtered linear scan with dot-product scoring and a bounded
+ * min-heap for top-k; knowledge bases here are small enough that exact search beats maintaining a graph index.
+ */
+final class FlatVectorIndex {
+
+    static final FlatVectorIndex EMPTY = new FlatVectorIndex(0, List.of(), FloatBuffer.allocate(0));
+
+    private final int dimensions;
+    private final List<Document> documents;
+    private final FloatBuffer vectors;
+
+    private FlatVectorIndex(int dimensions, List<Document> documents, FloatBuffer vectors) {
+        this.dimensions = dimensions;
+        this.documents = documents;
+        this.vectors = vectors;
+    }
+
+    private record Scored(int row, float score) {
+    }
+
+    /**
+     * Builds an index backed by a direct buffer.
+     */
+    static FlatVectorIndex inMemory(int dimensions, List<Document> documents, List<float[]> vectors) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.multiplyExact(vectors.size(), dimensions * Float.BYTES))
+            .order(ByteOrder.LITTLE_ENDIAN);
+        writeRows(buffer, dimensions, vectors);
+        buffer.flip();
+        return new FlatVectorIndex(dimensions, List.copyOf(documents), buffer.asFloatBuffer().asReadOnlyBuffer());
+    }
+
+    /**
+     * Writes vectors to the file (via a temp file and atomic move) and maps the result.
+     */
+    static FlatVectorIndex persist(Path file, int dimensions, List<Document> documents, List<float[]> vectors)
+        throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.multiplyExact(vectors.size(), dimensions * Float.BYTES))
+            .order(ByteOrder.LITTLE_ENDIAN);
+        writeRows(buffer, dimensions, vectors);
+        buffer.flip();
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return map(file, dimensions, documents);
+    }
+
+    /**
+     * Maps a previously persisted vector file; its size must match the document count.
+     */
+    static FlatVectorIndex map(Path file, int dimensions, List<Document> documents) throws IOException {
+        long expected = (long) documents.size() * dimensions * Float.BYTES;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != expected) {
+                throw new IOException("vector file size " + channel.size() + " does not match expected " + expected);
+            }
+            // The mapping stays valid after the channel is closed.
+            FloatBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, expected)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asFloatBuffer();
+            return new FlatVectorIndex(dimensions, List.copyOf(documents), mapped);
+        }
+    }
+
+    private static void writeRows(ByteBuffer buffer, int dimensions, List<float[]> vectors) {
+        for (float[] vector : vectors) {
+            if (vector.length != dimensions) {
+                throw new IllegalArgumentException("vector has " + vector.length + " dimensions, expected " + dimensions);
+            }
+            for (float value : vector) {
+                buffer.putFloat(value);
+            }
+        }
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    int dimensions() {
+        return dimensions;
+    }
+
+    List<Document> documents() {
+        return documents;
+    }
+
+    /**
+     * Copies one stored row back onto the heap, used when rebuilding after add/delete.
+     */
+    float[] vector(int row) {
+        float[] vector = new float[dimensions];
+        int base = row * dimensions;
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = vectors.get(base + i);
+        }
+        return vector;
+    }
+
+    /**
+     * Returns up to topK documents whose metadata passes the filter and whose score is positive and at least
+     * minScore, best first; each result carries its score.
+     */
+    List<Document> search(float[] query, int topK, double minScore, Predicate<Map<String, Object>> filter) {
+        if (topK <= 0 || documents.isEmpty() || query.length != dimensions) {
+            return List.of();
+        }
+        // Min-heap on (score, then later row) so the weakest candidate is evicted first.
+        Comparator<Scored> weakestFirst = Comparator.comparingDouble(Scored::score)
+            .thenComparing(Comparator.comparingInt(Scored::row).reversed());
+        PriorityQueue<Scored> heap = new PriorityQueue<>(topK + 1, weakestFirst);
+        for (int row = 0; row < documents.size(); row++) {
+            if (!filter.test(documents.get(row).getMetadata())) {
+                continue;
+            }
+            float score = dot(query, row);
+            if (score <= 0 || score < minScore) {
+                continue;
+            }
+            Scored candidate = new Scored(row, score);
+            if (heap.size() < topK) {
+                heap.add(candidate);
+            } else if (weakestFirst.compare(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        List<Scored> ranked = new ArrayList<>(heap);
+        ranked.sort(weakestFirst.reversed());
+        List<Document> results = new ArrayList<>(ranked.size());
+        for (Scored scored : ranked) {
+            Document document = documents.get(scored.row());
+            results.add(Document.builder()
+                .id(document.getId())
+                .text(document.getText())
+                .metadata(document.getMetadata())
+                .score((double) scored.score())
+                .build());
+        }
+        return results;
+    }
+
+    private float dot(float[] query, int row) {
+        int base = row * dimensions;
+        float sum = 0;
+        for (int i = 0; i < dimensions; i++) {
+            sum += query[i] * vectors.get(base + i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,62 @@
+package com.mamoji.ai.rag;
+
+import java.util.List;
+
+/**
+ * Default local embedding: signed feature hashing of knowledge index terms, L2-normalized.
+ *
+ * <p>Uses the same word/CJK-bigram tokenizer as {@link KnowledgeIndex}, so cosine similarity behaves like
+ * a term-overlap score without needing a model or an external embedding service.
+ */
+final class HashingEmbeddingFunction implements LocalEmbeddingFunction {
+
+    private final int dimensions;
+
+    HashingEmbeddingFunction(int dimensions) {
+        this.dimensions = Math.max(16, dimensions);
+    }
+
+    @Override
+    public String id() {
+        return "hashing-v1";
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimensions];
+        List<String> terms = KnowledgeIndex.tokenize(text);
+        for (String term : terms) {
+            int hash = mix(term.hashCode());
+            int bucket = Math.floorMod(hash, dimensions);
+            vector[bucket] += (hash & 0x80000000) == 0 ? 1f : -1f;
+        }
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    /**
+     * Murmur3 finalizer, spreads String.hashCode bits before bucketing.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
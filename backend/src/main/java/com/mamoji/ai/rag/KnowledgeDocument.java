@@ -0,0 +1,13 @@
+package com.mamoji.ai.rag;
+
+/**
+ * File knowledge document schema.
+ */
+record KnowledgeDocument(
+    String assistantType,
+    String source,
+    String title,
+    String content,
+    String tags
+) {
+}
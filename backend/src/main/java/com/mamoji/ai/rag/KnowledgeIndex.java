@@ -0,0 +1,235 @@
+package com.mamoji.ai.rag;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable inverted index over knowledge documents with BM25 scoring.
+ *
+ * <p>Title, content and tags are tokenized once at build time. Letter/digit runs become word terms;
+ * CJK runs, which have no spaces between words, become overlapping character bigrams. Queries only touch
+ * the postings of their own terms, and top-k selection keeps a bounded min-heap of size k.
+ */
+final class KnowledgeIndex {
+
+    static final KnowledgeIndex EMPTY = build(List.of());
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_WORD_LENGTH = 2;
+
+    private final List<KnowledgeDocument> documents;
+    private final String[] documentTypes;
+    private final int[] documentLengths;
+    private final double averageLength;
+    private final Map<String, Postings> postings;
+
+    private KnowledgeIndex(
+        List<KnowledgeDocument> documents,
+        String[] documentTypes,
+        int[] documentLengths,
+        double averageLength,
+        Map<String, Postings> postings
+    ) {
+        this.documents = documents;
+        this.documentTypes = documentTypes;
+        this.documentLengths = documentLengths;
+        this.averageLength = averageLength;
+        this.postings = postings;
+    }
+
+    /**
+     * Documents containing one term, with the term frequency in each.
+     */
+    private record Postings(int[] documentIds, int[] frequencies) {
+    }
+
+    private record Scored(int documentId, double score) {
+    }
+
+    /**
+     * Builds the index; documents keep their load order as the tie-breaker.
+     */
+    static KnowledgeIndex build(List<KnowledgeDocument> source) {
+        List<KnowledgeDocument> documents = List.copyOf(source);
+        String[] types = new String[documents.size()];
+        int[] lengths = new int[documents.size()];
+        Map<String, List<int[]>> building = new HashMap<>();
+        long totalLength = 0;
+        for (int id = 0; id < documents.size(); id++) {
+            KnowledgeDocument document = documents.get(id);
+            types[id] = normalizeDocumentType(document.assistantType());
+            List<String> terms = tokenize(safe(document.title()) + " " + safe(document.content()) + " " + safe(document.tags()));
+            lengths[id] = terms.size();
+            totalLength += terms.size();
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String term : terms) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                building.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).add(new int[] {id, entry.getValue()});
+            }
+        }
+
+        Map<String, Postings> postings = new HashMap<>(building.size() * 2);
+        building.forEach((term, entries) -> {
+            int[] ids = new int[entries.size()];
+            int[] frequencies = new int[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                ids[i] = entries.get(i)[0];
+                frequencies[i] = entries.get(i)[1];
+            }
+            postings.put(term, new Postings(ids, frequencies));
+        });
+        double averageLength = documents.isEmpty() ? 0 : (double) totalLength / documents.size();
+        return new KnowledgeIndex(documents, types, lengths, averageLength, postings);
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    /**
+     * Returns the top-k documents for the query among documents applicable to the assistant type.
+     *
+     * <p>A query without any indexable term falls back to the assistant type itself as the query.
+     */
+    List<KnowledgeDocument> search(String assistantType, String query, int topK) {
+        if (topK <= 0 || documents.isEmpty()) {
+            return List.of();
+        }
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            terms.add(assistantType);
+        }
+
+        double[] scores = new double[documents.size()];
+        boolean[] matched = new boolean[documents.size()];
+        for (String term : terms) {
+            Postings termPostings = postings.get(term);
+            if (termPostings == null) {
+                continue;
+            }
+            int[] ids = termPostings.documentIds();
+            double idf = Math.log(1 + (documents.size() - ids.length + 0.5) / (ids.length + 0.5));
+            for (int i = 0; i < ids.length; i++) {
+                int id = ids[i];
+                if (!supportsType(documentTypes[id], assistantType)) {
+                    continue;
+                }
+                double tf = termPostings.frequencies()[i];
+                double norm = K1 * (1 - B + B * documentLengths[id] / averageLength);
+                scores[id] += idf * tf * (K1 + 1) / (tf + norm);
+                matched[id] = true;
+            }
+        }
+
+        // Min-heap on (score, then later load order) so the weakest candidate is evicted first.
+        Comparator<Scored> weakestFirst = Comparator.comparingDouble(Scored::score)
+            .thenComparing(Comparator.comparingInt(Scored::documentId).reversed());
+        PriorityQueue<Scored> heap = new PriorityQueue<>(topK + 1, weakestFirst);
+        for (int id = 0; id < scores.length; id++) {
+            if (!matched[id]) {
+                continue;
+            }
+            Scored candidate = new Scored(id, scores[id]);
+            if (heap.size() < topK) {
+                heap.add(candidate);
+            } else if (weakestFirst.compare(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        List<Scored> ranked = new ArrayList<>(heap);
+        ranked.sort(weakestFirst.reversed());
+        List<KnowledgeDocument> results = new ArrayList<>(ranked.size());
+        for (Scored scored : ranked) {
+            results.add(documents.get(scored.documentId()));
+        }
+        return results;
+    }
+
+    /**
+     * Splits text into word terms and CJK character bigrams.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        StringBuilder cjk = new StringBuilder();
+        int offset = 0;
+        while (offset < normalized.length()) {
+            int codePoint = normalized.codePointAt(offset);
+            offset += Character.charCount(codePoint);
+            if (isCjk(codePoint)) {
+                flushWord(word, terms);
+                cjk.appendCodePoint(codePoint);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushCjk(cjk, terms);
+                word.appendCodePoint(codePoint);
+            } else {
+                flushWord(word, terms);
+                flushCjk(cjk, terms);
+            }
+        }
+        flushWord(word, terms);
+        flushCjk(cjk, terms);
+        return terms;
+    }
+
+    private static void flushWord(StringBuilder word, List<String> terms) {
+        if (word.length() >= MIN_WORD_LENGTH) {
+            terms.add(word.toString());
+        }
+        word.setLength(0);
+    }
+
+    /**
+     * Emits overlapping bigrams for a CJK run; a single character is kept as a unigram.
+     */
+    private static void flushCjk(StringBuilder run, List<String> terms) {
+        int[] codePoints = run.codePoints().toArray();
+        if (codePoints.length == 1) {
+            terms.add(new String(codePoints, 0, 1));
+        }
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            terms.add(new String(codePoints, i, 2));
+        }
+        run.setLength(0);
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+            || script == Character.UnicodeScript.HIRAGANA
+            || script == Character.UnicodeScript.KATAKANA
+            || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static String normalizeDocumentType(String docType) {
+        if (docType == null || docType.isBlank()) {
+            return "all";
+        }
+        return docType.toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static boolean supportsType(String docType, String queryType) {
+        return "all".equals(docType) || docType.equals(queryType);
+    }
+
+    private static String safe(String value) {
+        return value == null ? "" : value;
+    }
+}
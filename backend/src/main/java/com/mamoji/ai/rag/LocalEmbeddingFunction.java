@@ -0,0 +1,19 @@
+package com.mamoji.ai.rag;
+
+/**
+ * In-process text embedding used by {@link LocalVectorStore}.
+ *
+ * <p>Declare a bean of this type to replace the default hashing embedding, for example with an ONNX model.
+ * Implementations must be thread-safe and return vectors of {@link #dimensions()} length.
+ */
+public interface LocalEmbeddingFunction {
+
+    /**
+     * Stable identifier of the embedding; a persisted index built with another id is rebuilt.
+     */
+    String id();
+
+    int dimensions();
+
+    float[] embed(String text);
+}
@@ -0,0 +1,272 @@
+package com.mamoji.ai.rag;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mamoji.ai.AiProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Self-contained in-process vector store fed from the knowledge-base JSON.
+ *
+ * <p>Documents are embedded with a {@link LocalEmbeddingFunction} (hashing embedding unless a bean is
+ * declared) into a {@link FlatVectorIndex}. When {@code ai.rag-ops.vector-index-path} is set, vectors are
+ * persisted there and memory-mapped; the sidecar {@code .json} manifest holds documents and a fingerprint of
+ * the knowledge file and embedding, so restarts with unchanged inputs map the file instead of re-embedding.
+ * Registered by {@code VectorRagConfig} when {@code ai.rag-ops.vector-enabled} is true.
+ */
+@Slf4j
+public class LocalVectorStore implements VectorStore {
+
+    private final AiProperties aiProperties;
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final LocalEmbeddingFunction embedding;
+
+    private volatile FlatVectorIndex index = FlatVectorIndex.EMPTY;
+
+    /**
+     * Persisted document list and the inputs the vector file was built from.
+     */
+    record Manifest(String fingerprint, int dimensions, List<Entry> entries) {
+    }
+
+    record Entry(String id, String text, Map<String, Object> metadata) {
+    }
+
+    public LocalVectorStore(
+        AiProperties aiProperties,
+        ResourceLoader resourceLoader,
+        ObjectMapper objectMapper,
+        ObjectProvider<LocalEmbeddingFunction> embeddingProvider
+    ) {
+        this.aiProperties = aiProperties;
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        this.embedding = embeddingProvider.getIfAvailable(
+            () -> new HashingEmbeddingFunction(aiProperties.getRagOps().getVectorDimensions()));
+        load();
+    }
+
+    /**
+     * Embeds the query and searches with the request topK, similarity threshold and filter expression.
+     */
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        String query = request.getQuery();
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        return index.search(
+            embedding.embed(query),
+            request.getTopK(),
+            request.getSimilarityThreshold(),
+            MetadataFilter.of(request.getFilterExpression())
+        );
+    }
+
+    /**
+     * Appends documents; the index is rebuilt and, when persistent, rewritten.
+     */
+    @Override
+    public synchronized void add(List<Document> documents) {
+        if (documents == null || documents.isEmpty()) {
+            return;
+        }
+        FlatVectorIndex current = index;
+        List<Document> merged = new ArrayList<>(current.documents());
+        List<float[]> vectors = new ArrayList<>(current.size() + documents.size());
+        for (int row = 0; row < current.size(); row++) {
+            vectors.add(current.vector(row));
+        }
+        for (Document document : documents) {
+            Document normalized = normalize(document.getId(), document.getText(), document.getMetadata());
+            merged.add(normalized);
+            vectors.add(embedding.embed(normalized.getText()));
+        }
+        publish(merged, vectors, null);
+    }
+
+    @Override
+    public synchronized void delete(List<String> idList) {
+        Set<String> ids = new HashSet<>(idList);
+        retain(document -> !ids.contains(document.getId()));
+    }
+
+    @Override
+    public synchronized void delete(Filter.Expression filterExpression) {
+        Predicate<Map<String, Object>> filter = MetadataFilter.of(filterExpression);
+        retain(document -> !filter.test(document.getMetadata()));
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    /**
+     * Maps the persisted index when its fingerprint matches the knowledge file, otherwise rebuilds it.
+     */
+    private synchronized void load() {
+        String path = aiProperties.getRagOps().getKnowledgePath();
+        Resource resource = path == null || path.isBlank() ? null : resourceLoader.getResource(path);
+        if (resource == null || !resource.exists()) {
+            return;
+        }
+        try {
+            byte[] content;
+            try (InputStream input = resource.getInputStream()) {
+                content = input.readAllBytes();
+            }
+            String fingerprint = fingerprint(content);
+            Path indexPath = indexPath();
+            if (indexPath != null && tryMap(indexPath, fingerprint)) {
+                log.info("Vector index mapped path={} documents={}", indexPath, index.size());
+                return;
+            }
+
+            KnowledgeDocument[] docs = objectMapper.readValue(content, KnowledgeDocument[].class);
+            List<Document> documents = new ArrayList<>(docs.length);
+            List<float[]> vectors = new ArrayList<>(docs.length);
+            for (int i = 0; i < docs.length; i++) {
+                KnowledgeDocument doc = docs[i];
+                Map<String, Object> metadata = new LinkedHashMap<>();
+                metadata.put("assistantType", doc.assistantType());
+                metadata.put("source", doc.source());
+                metadata.put("title", doc.title());
+                Document document = normalize(doc.source() == null ? "kb-" + i : doc.source(), doc.content(), metadata);
+                documents.add(document);
+                vectors.add(embedding.embed(joinForEmbedding(doc)));
+            }
+            publish(documents, vectors, fingerprint);
+            log.info("Vector index built path={} documents={} dimensions={}", path, documents.size(), embedding.dimensions());
+        } catch (Exception ex) {
+            log.warn("Vector index load failed path={} error={}", path, ex.getMessage());
+        }
+    }
+
+    private boolean tryMap(Path indexPath, String fingerprint) {
+        Path manifestPath = manifestPath(indexPath);
+        if (!Files.exists(indexPath) || !Files.exists(manifestPath)) {
+            return false;
+        }
+        try {
+            Manifest manifest = objectMapper.readValue(manifestPath.toFile(), Manifest.class);
+            if (!fingerprint.equals(manifest.fingerprint()) || manifest.dimensions() != embedding.dimensions()) {
+                return false;
+            }
+            List<Document> documents = new ArrayList<>(manifest.entries().size());
+            for (Entry entry : manifest.entries()) {
+                documents.add(new Document(entry.id(), entry.text(), entry.metadata()));
+            }
+            index = FlatVectorIndex.map(indexPath, embedding.dimensions(), documents);
+            return true;
+        } catch (IOException ex) {
+            log.warn("Persisted vector index ignored path={} error={}", indexPath, ex.getMessage());
+            return false;
+        }
+    }
+
+    private void retain(Predicate<Document> keep) {
+        FlatVectorIndex current = index;
+        List<Document> documents = new ArrayList<>();
+        List<float[]> vectors = new ArrayList<>();
+        for (int row = 0; row < current.size(); row++) {
+            Document document = current.documents().get(row);
+            if (keep.test(document)) {
+                documents.add(document);
+                vectors.add(current.vector(row));
+            }
+        }
+        if (documents.size() != current.size()) {
+            publish(documents, vectors, null);
+        }
+    }
+
+    /**
+     * Swaps in a new index; a null fingerprint marks runtime changes so the next start rebuilds from the file.
+     */
+    private void publish(List<Document> documents, List<float[]> vectors, String fingerprint) {
+        Path indexPath = indexPath();
+        if (indexPath == null) {
+            index = FlatVectorIndex.inMemory(embedding.dimensions(), documents, vectors);
+            return;
+        }
+        try {
+            List<Entry> entries = new ArrayList<>(documents.size());
+            for (Document document : documents) {
+                entries.add(new Entry(document.getId(), document.getText(), document.getMetadata()));
+            }
+            Manifest manifest = new Manifest(fingerprint == null ? "" : fingerprint, embedding.dimensions(), entries);
+            index = FlatVectorIndex.persist(indexPath, embedding.dimensions(), documents, vectors);
+            objectMapper.writeValue(manifestPath(indexPath).toFile(), manifest);
+        } catch (IOException ex) {
+            log.warn("Vector index persist failed path={} error={}", indexPath, ex.getMessage());
+            index = FlatVectorIndex.inMemory(embedding.dimensions(), documents, vectors);
+        }
+    }
+
+    /**
+     * Lower-cases assistantType (default "all") so the filter matches regardless of source casing.
+     */
+    private Document normalize(String id, String text, Map<String, Object> metadata) {
+        Map<String, Object> normalized = new LinkedHashMap<>();
+        if (metadata != null) {
+            metadata.forEach((key, value) -> {
+                if (value != null) {
+                    normalized.put(key, value);
+                }
+            });
+        }
+        Object type = normalized.get("assistantType");
+        normalized.put("assistantType", type == null || type.toString().isBlank()
+            ? "all"
+            : type.toString().trim().toLowerCase(Locale.ROOT));
+        return new Document(id, text == null ? "" : text, normalized);
+    }
+
+    private String joinForEmbedding(KnowledgeDocument doc) {
+        return safe(doc.title()) + " " + safe(doc.content()) + " " + safe(doc.tags());
+    }
+
+    private String fingerprint(byte[] content) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(content);
+        digest.update((embedding.id() + "|" + embedding.dimensions()).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private Path indexPath() {
+        String path = aiProperties.getRagOps().getVectorIndexPath();
+        return path == null || path.isBlank() ? null : Path.of(path);
+    }
+
+    private Path manifestPath(Path indexPath) {
+        return indexPath.resolveSibling(indexPath.getFileName() + ".json");
+    }
+
+    private String safe(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,100 @@
+package com.mamoji.ai.rag;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates Spring AI portable filter expressions against document metadata in process.
+ *
+ * <p>Supports the comparison, IN/NIN and boolean operators; unsupported operators match nothing.
+ */
+final class MetadataFilter {
+
+    private MetadataFilter() {
+    }
+
+    static Predicate<Map<String, Object>> of(Filter.Expression expression) {
+        if (expression == null) {
+            return metadata -> true;
+        }
+        return metadata -> matches(expression, metadata == null ? Map.of() : metadata);
+    }
+
+    private static boolean matches(Filter.Operand operand, Map<String, Object> metadata) {
+        if (operand instanceof Filter.Group group) {
+            return matches(group.content(), metadata);
+        }
+        if (!(operand instanceof Filter.Expression expression)) {
+            return false;
+        }
+        return switch (expression.type()) {
+            case AND -> matches(expression.left(), metadata) && matches(expression.right(), metadata);
+            case OR -> matches(expression.left(), metadata) || matches(expression.right(), metadata);
+            case NOT -> !matches(expression.left(), metadata);
+            case EQ -> Objects.equals(text(read(expression, metadata)), text(value(expression)));
+            case NE -> !Objects.equals(text(read(expression, metadata)), text(value(expression)));
+            case IN -> contains(value(expression), read(expression, metadata));
+            case NIN -> !contains(value(expression), read(expression, metadata));
+            case GT -> inRange(expression, metadata, order -> order > 0);
+            case GTE -> inRange(expression, metadata, order -> order >= 0);
+            case LT -> inRange(expression, metadata, order -> order < 0);
+            case LTE -> inRange(expression, metadata, order -> order <= 0);
+            default -> false;
+        };
+    }
+
+    private static Object read(Filter.Expression expression, Map<String, Object> metadata) {
+        if (!(expression.left() instanceof Filter.Key key)) {
+            return null;
+        }
+        return metadata.get(unquote(key.key()));
+    }
+
+    private static Object value(Filter.Expression expression) {
+        return expression.right() instanceof Filter.Value value ? value.value() : null;
+    }
+
+    private static boolean contains(Object candidates, Object actual) {
+        Collection<?> values = candidates instanceof Collection<?> collection ? collection : List.of(String.valueOf(candidates));
+        String actualText = text(actual);
+        for (Object value : values) {
+            if (Objects.equals(text(value), actualText)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Orders numbers numerically and everything else as text; a missing value never satisfies a range.
+     */
+    private static boolean inRange(Filter.Expression expression, Map<String, Object> metadata, IntPredicate accept) {
+        Object actual = read(expression, metadata);
+        Object expected = value(expression);
+        return actual != null && expected != null && accept.test(compare(actual, expected));
+    }
+
+    private static int compare(Object actual, Object expected) {
+        if (actual instanceof Number left && expected instanceof Number right) {
+            return Double.compare(left.doubleValue(), right.doubleValue());
+        }
+        return text(actual).compareTo(text(expected));
+    }
+
+    private static String text(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static String unquote(String key) {
+        if (key.length() >= 2 && (key.startsWith("'") && key.endsWith("'") || key.startsWith("\"") && key.endsWith("\""))) {
+            return key.substring(1, key.length() - 1);
+        }
+        return key;
+    }
+}
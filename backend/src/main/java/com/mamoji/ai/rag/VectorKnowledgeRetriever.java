@@ -2,11 +2,10 @@ package com.mamoji.ai.rag;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
 import org.springframework.beans.factory.ObjectProvider;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
-import org.springframework.context.annotation.Primary;
-import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,14 +14,14 @@ import java.util.Map;
 
 /**
  * Vector-store first retriever with file/local fallback chain.
+ *
+ * <p>Registered as the primary retriever by {@code VectorRagConfig}; without a vector store it only
+ * runs the fallback chain.
  */
-@Primary
-@Component
 @RequiredArgsConstructor
-@ConditionalOnBean(VectorStore.class)
 public class VectorKnowledgeRetriever implements KnowledgeRetriever {
 
-    private final VectorStore vectorStore;
+    private final ObjectProvider<VectorStore> vectorStoreProvider;
     private final ObjectProvider<FileKnowledgeRetriever> fileKnowledgeRetrieverProvider;
     private final ObjectProvider<LocalKnowledgeRetriever> localKnowledgeRetrieverProvider;
 
@@ -32,11 +31,12 @@ public class VectorKnowledgeRetriever implements KnowledgeRetriever {
     @Override
     public List<KnowledgeSnippet> retrieve(String assistantType, String question, int topK) {
         int limit = Math.max(0, topK);
-        if (limit == 0 || question == null || question.isBlank()) {
+        VectorStore vectorStore = vectorStoreProvider.getIfAvailable();
+        if (vectorStore == null || limit == 0 || question == null || question.isBlank()) {
             return fallbackRetrieve(assistantType, question, topK);
         }
 
-        List<KnowledgeSnippet> vectorResults = fromVectorStore(assistantType, question, limit);
+        List<KnowledgeSnippet> vectorResults = fromVectorStore(vectorStore, assistantType, question, limit);
         if (!vectorResults.isEmpty()) {
             return vectorResults;
         }
@@ -45,15 +45,22 @@ public class VectorKnowledgeRetriever implements KnowledgeRetriever {
     }
 
     /**
-     * Queries vector store and maps documents to snippets.
+     * Queries vector store with topK and an assistantType filter, then maps documents to snippets.
+     *
+     * <p>Results are still checked against the type because not every store honours filter expressions.
      */
-    private List<KnowledgeSnippet> fromVectorStore(String assistantType, String question, int topK) {
-        List<Document> documents = vectorStore.similaritySearch(question);
+    private List<KnowledgeSnippet> fromVectorStore(VectorStore vectorStore, String assistantType, String question, int topK) {
+        String normalizedType = normalizeType(assistantType);
+        SearchRequest request = SearchRequest.builder()
+            .query(question)
+            .topK(topK)
+            .filterExpression(new FilterExpressionBuilder().in("assistantType", normalizedType, "all").build())
+            .build();
+        List<Document> documents = vectorStore.similaritySearch(request);
         if (documents == null || documents.isEmpty()) {
             return List.of();
         }
 
-        String normalizedType = normalizeType(assistantType);
         List<KnowledgeSnippet> snippets = new ArrayList<>();
         for (Document document : documents) {
             if (document == null) {
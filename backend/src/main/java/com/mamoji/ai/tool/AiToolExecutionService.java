@@ -5,11 +5,17 @@ import com.mamoji.ai.metrics.AiMetricsService;
 import jakarta.annotation.PreDestroy;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
@@ -17,25 +23,31 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Executes AI tool handlers with resilience controls.
  *
  * <p>Controls included:
  * timeout, per-tool concurrency, circuit breaker, idempotent cache, and bounded executor.
+ * Results are cached in a bounded LRU keyed by tool, user and a canonical (key-sorted) serialization of the
+ * params, with per-tool TTLs; concurrent identical calls are coalesced so only one of them runs the handler.
+ * With {@code ai.execution-ops.virtual-threads} enabled, each call runs on its own virtual thread;
+ * the per-tool semaphores then become the only concurrency bound.
  */
 @Service
 public class AiToolExecutionService {
 
     private static final long MIN_TIMEOUT_MS = 200L;
-    private static final int CACHE_CLEANUP_EVERY_REQUESTS = 64;
+    private static final String CACHE_LAYER = "tool";
 
     private final ExecutorService executor;
     private final Map<String, Semaphore> semaphores = new ConcurrentHashMap<>();
     private final Map<String, CircuitState> circuits = new ConcurrentHashMap<>();
-    private final Map<String, CachedResult> idempotentCache = new ConcurrentHashMap<>();
-    private final AtomicLong cacheCleanupTicker = new AtomicLong(0);
+    private final Map<String, CompletableFuture<AiToolResult>> inFlight = new ConcurrentHashMap<>();
+    private final ToolResultCache idempotentCache;
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
     private final AiProperties aiProperties;
     private final AiMetricsService aiMetricsService;
 
@@ -43,27 +55,50 @@ public class AiToolExecutionService {
         this.aiProperties = aiProperties;
         this.aiMetricsService = aiMetricsService;
         this.executor = buildExecutor(aiProperties);
+        this.idempotentCache = new ToolResultCache(
+            (tool, reason) -> aiMetricsService.recordCacheEviction(CACHE_LAYER, tool, reason));
+        aiMetricsService.registerCacheHitRatio(CACHE_LAYER, this, AiToolExecutionService::cacheHitRatio);
     }
 
     /**
      * Executes a tool call under guardrails and returns a normalized result.
+     *
+     * <p>The first caller for a request key runs the handler; identical calls arriving meanwhile wait for
+     * that result, bounded by the same timeout.
      */
     public AiToolResult execute(AiToolHandler handler, Long userId, Map<String, Object> params) {
         String tool = handler.name();
-        long now = System.currentTimeMillis();
-        cleanupCacheIfNeeded(now);
-
         String requestKey = buildRequestKey(tool, userId, params);
-        CachedResult cached = idempotentCache.get(requestKey);
-        if (cached != null && cached.expireAtMs > now) {
-            aiMetricsService.recordCacheAccess("tool", tool, true);
-            return cached.result;
-        }
+        AiToolResult cached = idempotentCache.get(requestKey);
+        recordCacheAccess(tool, cached != null);
         if (cached != null) {
-            idempotentCache.remove(requestKey, cached);
+            return cached;
         }
-        aiMetricsService.recordCacheAccess("tool", tool, false);
 
+        CompletableFuture<AiToolResult> flight = new CompletableFuture<>();
+        CompletableFuture<AiToolResult> leader = inFlight.putIfAbsent(requestKey, flight);
+        if (leader != null) {
+            return awaitShared(tool, leader);
+        }
+        AiToolResult result = null;
+        try {
+            // A flight for this key may have completed and cached between the lookup and putIfAbsent.
+            result = idempotentCache.get(requestKey);
+            if (result == null) {
+                result = invoke(handler, tool, userId, params, requestKey);
+            }
+            return result;
+        } finally {
+            inFlight.remove(requestKey, flight);
+            flight.complete(result != null ? result : AiToolResult.fail(tool, "tool_execution_failed"));
+        }
+    }
+
+    /**
+     * Runs the handler on the executor with circuit breaker, concurrency limit and timeout.
+     */
+    private AiToolResult invoke(AiToolHandler handler, String tool, Long userId, Map<String, Object> params, String requestKey) {
+        long now = System.currentTimeMillis();
         CircuitState circuitState = circuits.computeIfAbsent(tool, k -> new CircuitState());
         if (circuitState.openUntilMs > now) {
             return AiToolResult.fail(tool, "tool_circuit_open");
@@ -83,7 +118,7 @@ public class AiToolExecutionService {
             long timeout = Math.max(MIN_TIMEOUT_MS, aiProperties.getToolExecOps().getTimeoutMs());
             AiToolResult result = future.get(timeout, TimeUnit.MILLISECONDS);
             resetCircuit(circuitState);
-            putCache(requestKey, result);
+            putCache(requestKey, tool, result);
             return result;
         } catch (TimeoutException ex) {
             if (future != null) {
@@ -126,9 +161,12 @@ public class AiToolExecutionService {
     }
 
     /**
-     * Builds bounded thread pool for tool execution isolation.
+     * Builds a virtual-thread-per-task executor, or a bounded thread pool for tool execution isolation.
      */
     private ExecutorService buildExecutor(AiProperties properties) {
+        if (properties.getExecutionOps().isVirtualThreads()) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
         AiProperties.ToolExecOps ops = properties.getToolExecOps();
         int corePoolSize = Math.max(2, ops.getExecutorCorePoolSize());
         int maxPoolSize = Math.max(corePoolSize, ops.getExecutorMaxPoolSize());
@@ -144,39 +182,47 @@ public class AiToolExecutionService {
     }
 
     /**
-     * Stores successful result for short-term idempotent reuse.
+     * Waits for the result of an identical call already in progress.
      */
-    private void putCache(String requestKey, AiToolResult result) {
-        AiProperties.ToolExecOps ops = aiProperties.getToolExecOps();
-        long ttlMs = Math.max(1, ops.getCacheTtlSeconds()) * 1000L;
-        idempotentCache.put(requestKey, new CachedResult(result, System.currentTimeMillis() + ttlMs));
-
-        int maxEntries = Math.max(64, ops.getCacheMaxEntries());
-        if (idempotentCache.size() <= maxEntries) {
-            return;
+    private AiToolResult awaitShared(String tool, CompletableFuture<AiToolResult> leader) {
+        long timeout = Math.max(MIN_TIMEOUT_MS, aiProperties.getToolExecOps().getTimeoutMs());
+        try {
+            return leader.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            return AiToolResult.fail(tool, "tool_timeout");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return AiToolResult.fail(tool, "tool_execution_failed");
+        } catch (ExecutionException ex) {
+            return AiToolResult.fail(tool, "tool_execution_failed");
         }
-        evictOneEntry();
     }
 
     /**
-     * Runs periodic lazy cleanup to remove expired cache entries.
+     * Stores result for short-term idempotent reuse under the tool's TTL; a TTL of 0 disables caching.
      */
-    private void cleanupCacheIfNeeded(long now) {
-        long tick = cacheCleanupTicker.incrementAndGet();
-        if (tick % CACHE_CLEANUP_EVERY_REQUESTS != 0) {
+    private void putCache(String requestKey, String tool, AiToolResult result) {
+        AiProperties.ToolExecOps ops = aiProperties.getToolExecOps();
+        Integer toolTtl = ops.getCacheTtlSecondsByTool().get(tool);
+        int ttlSeconds = toolTtl != null ? toolTtl : Math.max(1, ops.getCacheTtlSeconds());
+        if (ttlSeconds <= 0) {
             return;
         }
-        idempotentCache.entrySet().removeIf(entry -> entry.getValue().expireAtMs <= now);
+        idempotentCache.put(requestKey, tool, result, ttlSeconds * 1000L, Math.max(64, ops.getCacheMaxEntries()));
+    }
+
+    private void recordCacheAccess(String tool, boolean hit) {
+        (hit ? cacheHits : cacheMisses).increment();
+        aiMetricsService.recordCacheAccess(CACHE_LAYER, tool, hit);
     }
 
     /**
-     * Evicts one arbitrary entry to enforce max cache capacity.
+     * Share of lookups served from the idempotent cache since startup.
      */
-    private void evictOneEntry() {
-        String firstKey = idempotentCache.keySet().stream().findFirst().orElse(null);
-        if (firstKey != null) {
-            idempotentCache.remove(firstKey);
-        }
+    private double cacheHitRatio() {
+        long hits = cacheHits.sum();
+        long total = hits + cacheMisses.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
     }
 
     /**
@@ -196,16 +242,67 @@ public class AiToolExecutionService {
     }
 
     /**
-     * Builds an idempotency key from tool name, user, and params hash.
+     * Builds an idempotency key from tool name, user, and a canonical serialization of params.
      */
     private String buildRequestKey(String tool, Long userId, Map<String, Object> params) {
-        int paramHash = params == null ? 0 : params.toString().hashCode();
-        return tool + ":" + (userId == null ? "anonymous" : userId) + ":" + paramHash;
+        StringBuilder key = new StringBuilder(tool).append(':').append(userId == null ? "anonymous" : userId).append(':');
+        appendCanonical(key, params);
+        return key.toString();
     }
 
     /**
-     * Cached tool result with expiration timestamp.
+     * Serializes a value with map keys sorted and strings quoted, so equal params always produce the same
+     * text and different params never do.
      */
-    private record CachedResult(AiToolResult result, long expireAtMs) {
+    private void appendCanonical(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((k, v) -> {
+                StringBuilder canonicalKey = new StringBuilder();
+                appendCanonical(canonicalKey, k);
+                sorted.put(canonicalKey.toString(), v);
+            });
+            out.append('{');
+            Iterator<Map.Entry<String, Object>> iterator = sorted.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Object> entry = iterator.next();
+                out.append(entry.getKey()).append('=');
+                appendCanonical(out, entry.getValue());
+                if (iterator.hasNext()) {
+                    out.append(',');
+                }
+            }
+            out.append('}');
+        } else if (value instanceof Collection<?> || value instanceof Object[]) {
+            Collection<?> items = value instanceof Collection<?> collection ? collection : List.of((Object[]) value);
+            out.append('[');
+            Iterator<?> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                appendCanonical(out, iterator.next());
+                if (iterator.hasNext()) {
+                    out.append(',');
+                }
+            }
+            out.append(']');
+        } else if (value instanceof CharSequence || value instanceof Character || value instanceof Enum<?>) {
+            appendQuoted(out, value.toString());
+        } else {
+            // Numbers, booleans and other scalars carry their type so 1 and "1" and 1L stay distinct.
+            out.append(value.getClass().getSimpleName()).append('(').append(value).append(')');
+        }
+    }
+
+    private void appendQuoted(StringBuilder out, String text) {
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+        out.append('"');
     }
 }
@@ -0,0 +1,62 @@
+package com.mamoji.ai.tool;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Bounded LRU cache of idempotent tool results with a per-entry TTL.
+ *
+ * <p>Lookups, inserts and evictions are O(1) on an access-ordered map guarded by "this"; the least recently
+ * used entry is evicted when the cache is over capacity, and an expired entry is dropped when it is read or
+ * reaches the eviction end. Each eviction is reported to the listener with the tool name and a reason.
+ */
+final class ToolResultCache {
+
+    static final String EVICTED_SIZE = "size";
+    static final String EVICTED_EXPIRED = "expired";
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final BiConsumer<String, String> evictionListener;
+
+    ToolResultCache(BiConsumer<String, String> evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    private record Entry(String tool, AiToolResult result, long expiresAtNanos) {
+    }
+
+    /**
+     * Returns the live result for the key, or null.
+     */
+    synchronized AiToolResult get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtNanos() - System.nanoTime() <= 0) {
+            entries.remove(key);
+            evictionListener.accept(entry.tool(), EVICTED_EXPIRED);
+            return null;
+        }
+        return entry.result();
+    }
+
+    /**
+     * Stores a result and evicts from the least recently used end until within capacity.
+     */
+    synchronized void put(String key, String tool, AiToolResult result, long ttlMs, int maxEntries) {
+        entries.put(key, new Entry(tool, result, System.nanoTime() + ttlMs * 1_000_000L));
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            boolean expired = eldest.expiresAtNanos() - System.nanoTime() <= 0;
+            evictionListener.accept(eldest.tool(), expired ? EVICTED_EXPIRED : EVICTED_SIZE);
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,48 @@
+package com.mamoji.common.api;
+
+import com.mamoji.common.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque (date, id) position used by keyset-paginated list endpoints.
+ *
+ * <p>The token is URL-safe Base64 so clients can pass it back verbatim as a query parameter.
+ */
+public record KeysetCursor(LocalDate date, Long id) {
+
+    private static final String SEPARATOR = ":";
+
+    /**
+     * Encodes the cursor as an opaque token.
+     */
+    public String encode() {
+        String raw = date + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}; blank input means no cursor.
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0) {
+                throw new BadRequestException("Invalid cursor.");
+            }
+            return new KeysetCursor(
+                LocalDate.parse(raw.substring(0, separator)),
+                Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new BadRequestException("Invalid cursor.");
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.mamoji.common.status;
+
+/**
+ * Integer constants for backup import job states.
+ */
+public final class BackupImportStatus {
+
+    public static final int RUNNING = 0;
+    public static final int COMPLETED = 1;
+    public static final int FAILED = 2;
+
+    /**
+     * Utility constants class; do not instantiate.
+     */
+    private BackupImportStatus() {
+    }
+}
@@ -0,0 +1,16 @@
+package com.mamoji.common.status;
+
+/**
+ * Integer constants for soft-deletable entity states.
+ */
+public final class EntityStatus {
+
+    public static final int INACTIVE = 0;
+    public static final int ACTIVE = 1;
+
+    /**
+     * Utility constants class; do not instantiate.
+     */
+    private EntityStatus() {
+    }
+}
@@ -0,0 +1,52 @@
+package com.mamoji.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Virtual-thread execution for asynchronous MVC request handling.
+ *
+ * <p>The {@code /api/v1/ai} chat endpoints return {@code Mono}/{@code Flux}, so Tomcat releases the
+ * request thread and Spring MVC finishes the exchange (dispatch, SSE writes) on its async executor.
+ * When {@code ai.execution-ops.virtual-threads} is enabled that executor spawns one virtual thread per
+ * task instead of queueing behind the default bounded platform pool. The servlet connector pool itself is
+ * process-wide and stays unchanged, so non-AI endpoints are not affected.
+ *
+ * <p>The executor is deliberately not a bean: an {@code Executor} bean would replace Boot's
+ * {@code applicationTaskExecutor}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ai.execution-ops", name = "virtual-threads", havingValue = "true")
+public class AiAsyncConfig implements WebMvcConfigurer, DisposableBean {
+
+    private static final String THREAD_NAME_PREFIX = "ai-async-vt-";
+
+    private final SimpleAsyncTaskExecutor asyncTaskExecutor = buildExecutor();
+
+    /**
+     * Routes MVC async work onto virtual threads.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(asyncTaskExecutor);
+    }
+
+    /**
+     * Waits briefly for in-flight async tasks on shutdown.
+     */
+    @Override
+    public void destroy() {
+        asyncTaskExecutor.close();
+    }
+
+    private static SimpleAsyncTaskExecutor buildExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(THREAD_NAME_PREFIX);
+        executor.setVirtualThreads(true);
+        executor.setTaskTerminationTimeout(5_000L);
+        return executor;
+    }
+}
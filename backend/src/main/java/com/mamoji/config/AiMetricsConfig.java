@@ -0,0 +1,26 @@
+package com.mamoji.config;
+
+import com.mamoji.ai.metrics.AiExemplarSpanContext;
+import io.prometheus.metrics.tracer.common.SpanContext;
+import org.springframework.boot.actuate.autoconfigure.tracing.prometheus.PrometheusExemplarsAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * AI metrics export configuration.
+ *
+ * <p>Latency SLO buckets are configured under {@code management.metrics.distribution}. The span context
+ * below lets the Prometheus registry attach the agent trace id as an exemplar. It is an auto-configuration
+ * ordered after Boot's tracing exemplar support, so when a tracer already contributes a
+ * {@link SpanContext} this one is not registered.
+ */
+@AutoConfiguration(after = PrometheusExemplarsAutoConfiguration.class)
+public class AiMetricsConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(SpanContext.class)
+    public SpanContext aiExemplarSpanContext() {
+        return new AiExemplarSpanContext();
+    }
+}
@@ -10,6 +10,8 @@ import com.mamoji.repository.BudgetRepository;
 import com.mamoji.repository.CategoryRepository;
 import com.mamoji.repository.TransactionRepository;
 import com.mamoji.repository.UserRepository;
+import com.mamoji.service.CategoryResolver;
+import com.mamoji.service.MonthlyRollupService;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +38,8 @@ public class DataInitializer {
     private final BudgetRepository budgetRepository;
     private final TransactionRepository transactionRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CategoryResolver categoryResolver;
+    private final MonthlyRollupService monthlyRollupService;
 
     /**
      * Creates default categories, test user, default accounts/budget, and sample transactions.
@@ -68,6 +72,7 @@ public class DataInitializer {
 
             categoryRepository.saveAll(incomeCategories);
             categoryRepository.saveAll(expenseCategories);
+            categoryResolver.evictAll();
             log.info("Default categories initialized");
         }
 
@@ -248,6 +253,8 @@ public class DataInitializer {
             new BigDecimal("80"), "水费"));
 
         transactionRepository.saveAll(transactions);
+        // 种子数据绕过交易接口，需同步重建月度汇总
+        monthlyRollupService.rebuildUser(userId);
         log.info("Generated {} test transactions", transactions.size());
     }
 
@@ -0,0 +1,22 @@
+package com.mamoji.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the shared stock quote service (coalescing, short TTL cache and batching).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.quote")
+public class QuoteProperties {
+
+    private Duration cacheTtl = Duration.ofSeconds(3);
+    private int cacheMaxEntries = 1024;
+    private int maxCodesPerRequest = 50;
+    private int maxConcurrentRequests = 4;
+    private Duration requestTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,20 @@
+package com.mamoji.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the recurring transaction scheduler.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.recurring")
+public class RecurringProperties {
+
+    private boolean schedulerEnabled = true;
+    private String pollInterval = "PT1M";
+    private int batchSize = 100;
+    private int maxBatchesPerRun = 20;
+    private int maxOccurrencesPerClaim = 31;
+}
@@ -0,0 +1,19 @@
+package com.mamoji.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the materialized monthly transaction rollup.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.rollup")
+public class RollupProperties {
+
+    private boolean readEnabled = true;
+    private boolean rebuildOnStartup = false;
+    private boolean scheduledRebuildEnabled = true;
+    private String rebuildCron = "0 30 3 * * *";
+}
@@ -4,6 +4,7 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -11,7 +12,8 @@ import java.util.Locale;
 /**
  * Externalized security configuration bound from {@code app.security.*}.
  *
- * <p>This bean centralizes toggles for development diagnostics, frame headers, and CORS policy.
+ * <p>This bean centralizes toggles for development diagnostics, frame headers, CORS policy and the
+ * authenticated principal cache.
  */
 @Getter
 @Setter
@@ -27,6 +29,7 @@ public class SecurityProperties {
     private String frameOptions = "deny";
 
     private final Cors cors = new Cors();
+    private final PrincipalCache principalCache = new PrincipalCache();
 
     /**
      * Normalizes frame options value for reliable comparison in configuration code paths.
@@ -47,4 +50,14 @@ public class SecurityProperties {
         private boolean allowCredentials = true;
         private long maxAgeSeconds = 3600L;
     }
+
+    @Getter
+    @Setter
+    public static class PrincipalCache {
+        /**
+         * Zero disables the cache and loads the user on every request.
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+        private int maxSize = 10000;
+    }
 }
@@ -0,0 +1,49 @@
+package com.mamoji.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mamoji.ai.AiProperties;
+import com.mamoji.ai.rag.FileKnowledgeRetriever;
+import com.mamoji.ai.rag.LocalEmbeddingFunction;
+import com.mamoji.ai.rag.LocalKnowledgeRetriever;
+import com.mamoji.ai.rag.LocalVectorStore;
+import com.mamoji.ai.rag.VectorKnowledgeRetriever;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
+
+/**
+ * Vector retrieval wiring, enabled by {@code ai.rag-ops.vector-enabled}.
+ *
+ * <p>The store and the retriever are registered together here instead of by component scanning: a
+ * {@code @ConditionalOnBean} on a scanned component is evaluated before the other scanned beans are
+ * registered, so the retriever never saw the local store. The retriever resolves the store through an
+ * {@link ObjectProvider} and falls back to file and built-in retrieval when there is none.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "ai.rag-ops", name = "vector-enabled", havingValue = "true")
+public class VectorRagConfig {
+
+    @Bean
+    public LocalVectorStore localVectorStore(
+        AiProperties aiProperties,
+        ResourceLoader resourceLoader,
+        ObjectMapper objectMapper,
+        ObjectProvider<LocalEmbeddingFunction> embeddingProvider
+    ) {
+        return new LocalVectorStore(aiProperties, resourceLoader, objectMapper, embeddingProvider);
+    }
+
+    @Bean
+    @Primary
+    public VectorKnowledgeRetriever vectorKnowledgeRetriever(
+        ObjectProvider<VectorStore> vectorStoreProvider,
+        ObjectProvider<FileKnowledgeRetriever> fileKnowledgeRetrieverProvider,
+        ObjectProvider<LocalKnowledgeRetriever> localKnowledgeRetrieverProvider
+    ) {
+        return new VectorKnowledgeRetriever(vectorStoreProvider, fileKnowledgeRetrieverProvider, localKnowledgeRetrieverProvider);
+    }
+}
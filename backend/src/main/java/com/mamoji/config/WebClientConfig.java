@@ -1,11 +1,16 @@
 package com.mamoji.config;
 
+import com.mamoji.ai.AiProperties;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Scope;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.netty.http.client.HttpClient;
@@ -15,11 +20,19 @@ import java.time.Duration;
 
 /**
  * Reactive WebClient infrastructure configuration.
+ *
+ * <p>All clients share one Reactor Netty connection pool. Long-lived clients are pre-built per upstream
+ * ({@code llmWebClient}, {@code quoteWebClient}); callers add per-request headers on the request spec
+ * instead of building a client per call. Pool gauges ({@code reactor.netty.connection.provider.*}:
+ * total, active, idle and pending connections per remote address) are published to Micrometer.
  */
 @Configuration
 @EnableConfigurationProperties(WebClientProperties.class)
 public class WebClientConfig {
 
+    static final String POOL_NAME = "mamoji-webclient";
+    private static final String QUOTE_REFERER = "https://finance.sina.com.cn/";
+
     private final WebClientProperties properties;
 
     public WebClientConfig(WebClientProperties properties) {
@@ -27,25 +40,66 @@ public class WebClientConfig {
     }
 
     /**
-     * Creates a shared {@link WebClient.Builder} backed by tuned Reactor Netty client.
+     * Creates the shared connection pool with Micrometer pool metrics enabled.
      */
-    @Bean
-    public WebClient.Builder webClientBuilder() {
-        ConnectionProvider provider = ConnectionProvider.builder("mamoji-webclient")
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider webClientConnectionProvider() {
+        return ConnectionProvider.builder(POOL_NAME)
             .maxConnections(Math.max(1, properties.getMaxConnections()))
             .pendingAcquireMaxCount(Math.max(1, properties.getPendingAcquireMaxCount()))
             .pendingAcquireTimeout(Duration.ofMillis(Math.max(100, properties.getPendingAcquireTimeoutMs())))
             .maxIdleTime(Duration.ofSeconds(Math.max(1, properties.getMaxIdleSeconds())))
             .maxLifeTime(Duration.ofSeconds(Math.max(1, properties.getMaxLifeSeconds())))
+            .metrics(true)
             .build();
+    }
 
-        HttpClient httpClient = HttpClient.create(provider)
+    /**
+     * Creates the tuned Reactor Netty connector shared by every client.
+     */
+    @Bean
+    public ReactorClientHttpConnector webClientConnector(ConnectionProvider webClientConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(webClientConnectionProvider)
             .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.max(100, properties.getConnectTimeoutMs()))
             .responseTimeout(Duration.ofMillis(Math.max(100, properties.getResponseTimeoutMs())))
             .doOnConnected(connection -> connection
                 .addHandlerLast(new ReadTimeoutHandler(Math.max(100, properties.getReadTimeoutMs()), java.util.concurrent.TimeUnit.MILLISECONDS))
                 .addHandlerLast(new WriteTimeoutHandler(Math.max(100, properties.getWriteTimeoutMs()), java.util.concurrent.TimeUnit.MILLISECONDS)));
+        return new ReactorClientHttpConnector(httpClient);
+    }
 
-        return WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient));
+    /**
+     * Creates a fresh {@link WebClient.Builder} per injection point, backed by the shared connector.
+     *
+     * <p>Builders are mutable, so a shared singleton would leak base URLs and default headers between callers.
+     */
+    @Bean
+    @Scope("prototype")
+    public WebClient.Builder webClientBuilder(
+        ReactorClientHttpConnector webClientConnector,
+        ObjectProvider<WebClientCustomizer> customizers
+    ) {
+        WebClient.Builder builder = WebClient.builder().clientConnector(webClientConnector);
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        return builder;
+    }
+
+    /**
+     * Long-lived client for the LLM provider base URL.
+     */
+    @Bean
+    public WebClient llmWebClient(@Qualifier("webClientBuilder") WebClient.Builder builder, AiProperties aiProperties) {
+        return builder.baseUrl(aiProperties.getBaseUrl()).build();
+    }
+
+    /**
+     * Long-lived client for the stock quote provider.
+     */
+    @Bean
+    public WebClient quoteWebClient(@Qualifier("webClientBuilder") WebClient.Builder builder) {
+        return builder
+            .baseUrl(properties.getQuoteBaseUrl())
+            .defaultHeader("Referer", QUOTE_REFERER)
+            .build();
     }
 }
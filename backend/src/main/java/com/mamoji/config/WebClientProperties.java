@@ -5,7 +5,7 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
- * Tunable connection/timeout settings for shared reactive WebClient.
+ * Tunable connection/timeout settings for the shared reactive WebClient connection pool.
  */
 @Getter
 @Setter
@@ -21,4 +21,9 @@ public class WebClientProperties {
     private long writeTimeoutMs = 10000;
     private long maxIdleSeconds = 30;
     private long maxLifeSeconds = 300;
+
+    /**
+     * Base URL of the stock quote provider used by {@code quoteWebClient}.
+     */
+    private String quoteBaseUrl = "https://hq.sinajs.cn";
 }
@@ -2,6 +2,7 @@ package com.mamoji.controller;
 
 import com.mamoji.ai.AiOrchestratorService;
 import com.mamoji.ai.AiProperties;
+import com.mamoji.ai.model.AiStreamEvent;
 import com.mamoji.ai.model.StructuredAiResponse;
 import com.mamoji.common.api.ApiResponses;
 import com.mamoji.dto.AIChatRequest;
@@ -19,9 +20,9 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -31,7 +32,7 @@ import java.util.Map;
  * <ul>
  *   <li>{@code /chat}: legacy response shape, only plain answer text.
  *   <li>{@code /chat/v2}: structured response including metadata.
- *   <li>{@code /chat/stream}: SSE streaming protocol for incremental rendering.
+ *   <li>{@code /chat/stream}: SSE streaming of model deltas for incremental rendering.
  *   <li>{@code /chat/legacy}: deprecated endpoint kept during migration window.
  * </ul>
  */
@@ -52,17 +53,17 @@ public class AIController {
      * Legacy-compatible chat endpoint that returns only the plain answer field.
      */
     @PostMapping("/chat")
-    public ResponseEntity<Map<String, Object>> chat(@RequestBody AIChatRequest request, @AuthenticationUser User user) {
-        StructuredAiResponse response = requestStructuredResponse(request, user, request.getMode());
-        return ApiResponses.ok(new AIChatResponse(response.answer()));
+    public Mono<ResponseEntity<Map<String, Object>>> chat(@RequestBody AIChatRequest request, @AuthenticationUser User user) {
+        return requestStructuredResponse(request, user, request.getMode())
+            .map(response -> ApiResponses.ok(new AIChatResponse(response.answer())));
     }
 
     /**
      * Preferred chat endpoint that exposes structured answer payload.
      */
     @PostMapping("/chat/v2")
-    public ResponseEntity<Map<String, Object>> chatV2(@RequestBody AIChatRequest request, @AuthenticationUser User user) {
-        return ApiResponses.ok(requestStructuredResponse(request, user, request.getMode()));
+    public Mono<ResponseEntity<Map<String, Object>>> chatV2(@RequestBody AIChatRequest request, @AuthenticationUser User user) {
+        return requestStructuredResponse(request, user, request.getMode()).map(ApiResponses::ok);
     }
 
     /**
@@ -92,29 +93,29 @@ public class AIController {
     /**
      * Streams chat result as SSE events.
      *
-     * <p>Current implementation chunks an already generated full answer. This keeps
-     * frontend integration stable before provider-native token streaming is enabled.
+     * <p>Emits one {@code chunk} event per content delta as soon as it is produced upstream, then a
+     * {@code done} event with warnings, sources, usage and routing metadata.
      */
     @PostMapping(path = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<ServerSentEvent<Map<String, Object>>> chatStream(@RequestBody AIChatRequest request, @AuthenticationUser User user) {
         String requestedMode = resolveRequestedMode(request.getMode());
-        StructuredAiResponse response = requestStructuredResponse(request, user, requestedMode);
-        return streamFromAnswer(
-            response.answer(),
-            response.warnings() != null ? response.warnings() : List.of(),
-            response.sources() != null ? response.sources() : List.of(),
-            response.actions() != null ? response.actions() : List.of(),
-            response.usage() != null ? response.usage() : Map.of(),
-            response.modeUsed(),
-            response.traceId()
-        );
+        return aiOrchestratorService.chatStream(
+                user.getId(),
+                request.getMessage(),
+                request.getAssistantType(),
+                request.getSessionId(),
+                requestedMode
+            )
+            .map(this::toServerSentEvent);
     }
 
     /**
-     * Centralized structured chat invocation used by all endpoint variants.
+     * Centralized non-blocking structured chat invocation used by the JSON endpoint variants.
+     *
+     * <p>Returned to Spring MVC as an async result, so the servlet thread is released while the model runs.
      */
-    private StructuredAiResponse requestStructuredResponse(AIChatRequest request, User user, String mode) {
-        return aiOrchestratorService.chatStructured(
+    private Mono<StructuredAiResponse> requestStructuredResponse(AIChatRequest request, User user, String mode) {
+        return aiOrchestratorService.chatStructuredReactive(
             user.getId(),
             request.getMessage(),
             request.getAssistantType(),
@@ -137,52 +138,28 @@ public class AIController {
     }
 
     /**
-     * Converts full answer text into SSE chunk and done events.
+     * Converts one stream event into SSE chunk or done event.
      */
-    private Flux<ServerSentEvent<Map<String, Object>>> streamFromAnswer(
-        String answer,
-        List<String> warnings,
-        List<String> sources,
-        List<String> actions,
-        Map<String, Object> usage,
-        String modeUsed,
-        String traceId
-    ) {
-        Map<String, Object> doneData = new HashMap<>();
-        doneData.put("done", true);
-        doneData.put("warnings", warnings);
-        doneData.put("sources", sources);
-        doneData.put("actions", actions);
-        doneData.put("usage", usage);
-        doneData.put("modeUsed", modeUsed);
-        doneData.put("traceId", traceId);
-
-        return chunkAnswer(answer)
-            .map(chunk -> ServerSentEvent.<Map<String, Object>>builder()
+    private ServerSentEvent<Map<String, Object>> toServerSentEvent(AiStreamEvent event) {
+        if (!event.isDone()) {
+            return ServerSentEvent.<Map<String, Object>>builder()
                 .event("chunk")
-                .data(Map.of("content", chunk))
-                .build())
-            .concatWithValues(ServerSentEvent.<Map<String, Object>>builder()
-                .event("done")
-                .data(doneData)
-                .build());
-    }
-
-    /**
-     * Splits answer into fixed-size chunks to simulate streaming output.
-     */
-    private Flux<String> chunkAnswer(String answer) {
-        if (answer == null || answer.isEmpty()) {
-            return Flux.just("");
+                .data(Map.of("content", event.content()))
+                .build();
         }
 
-        int chunkSize = 24;
-        int count = (answer.length() + chunkSize - 1) / chunkSize;
-        return Flux.range(0, count)
-            .map(index -> {
-                int start = index * chunkSize;
-                int end = Math.min(start + chunkSize, answer.length());
-                return answer.substring(start, end);
-            });
+        StructuredAiResponse response = event.done();
+        Map<String, Object> doneData = new HashMap<>();
+        doneData.put("done", true);
+        doneData.put("warnings", response.warnings());
+        doneData.put("sources", response.sources());
+        doneData.put("actions", response.actions());
+        doneData.put("usage", response.usage());
+        doneData.put("modeUsed", response.modeUsed());
+        doneData.put("traceId", response.traceId());
+        return ServerSentEvent.<Map<String, Object>>builder()
+            .event("done")
+            .data(doneData)
+            .build();
     }
 }
@@ -6,6 +6,7 @@ import com.mamoji.common.api.ApiResponses;
 import com.mamoji.common.exception.ResourceNotFoundException;
 import com.mamoji.entity.User;
 import com.mamoji.repository.UserRepository;
+import com.mamoji.security.AuthenticatedUserCache;
 import com.mamoji.security.AuthenticationUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -36,6 +37,7 @@ public class AdminUserController {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AuthenticatedUserCache authenticatedUserCache;
 
     /**
      * Lists all users for the admin console.
@@ -116,7 +118,9 @@ public class AdminUserController {
             user.setPasswordHash(passwordEncoder.encode(request.get("password").toString()));
         }
 
-        return ApiResponses.ok(toUserMap(userRepository.save(user)));
+        User saved = userRepository.save(user);
+        authenticatedUserCache.evict(id);
+        return ApiResponses.ok(toUserMap(saved));
     }
 
     /**
@@ -134,6 +138,7 @@ public class AdminUserController {
         User user = userRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("User not found."));
         userRepository.delete(user);
+        authenticatedUserCache.evict(id);
         return ApiResponses.ok(null);
     }
 
@@ -5,6 +5,7 @@ import com.mamoji.common.RoleConstants;
 import com.mamoji.common.api.ApiResponses;
 import com.mamoji.entity.User;
 import com.mamoji.repository.UserRepository;
+import com.mamoji.security.AuthenticatedUserCache;
 import com.mamoji.security.AuthenticationUser;
 import com.mamoji.security.JwtService;
 import lombok.RequiredArgsConstructor;
@@ -35,6 +36,7 @@ public class AuthController {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final AuthenticatedUserCache authenticatedUserCache;
 
     /**
      * Registers a new user and returns token plus current-user payload.
@@ -108,6 +110,7 @@ public class AuthController {
         }
 
         User savedUser = userRepository.save(user);
+        authenticatedUserCache.evict(savedUser.getId());
         return ApiResponses.ok(Map.of(
             "id", savedUser.getId(),
             "email", savedUser.getEmail(),
@@ -136,6 +139,7 @@ public class AuthController {
 
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        authenticatedUserCache.evict(user.getId());
         return ResponseEntity.ok(ApiResponses.body(0, "Password updated successfully.", null));
     }
 
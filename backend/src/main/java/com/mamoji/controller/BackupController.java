@@ -1,6 +1,6 @@
 package com.mamoji.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mamoji.common.status.BackupImportStatus;
 import com.mamoji.entity.User;
 import com.mamoji.repository.AccountRepository;
 import com.mamoji.repository.BudgetRepository;
@@ -8,6 +8,9 @@ import com.mamoji.repository.CategoryRepository;
 import com.mamoji.repository.LedgerRepository;
 import com.mamoji.repository.TransactionRepository;
 import com.mamoji.security.AuthenticationUser;
+import com.mamoji.service.BackupExportService;
+import com.mamoji.service.BackupImportService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -19,11 +22,13 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Backup export and import endpoints for user financial data.
@@ -33,12 +38,20 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class BackupController {
 
+    /**
+     * Response header carrying the number of transaction rows in the export.
+     */
+    public static final String TRANSACTION_COUNT_HEADER = "X-Backup-Transaction-Count";
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
     private final AccountRepository accountRepository;
     private final BudgetRepository budgetRepository;
     private final CategoryRepository categoryRepository;
     private final TransactionRepository transactionRepository;
     private final LedgerRepository ledgerRepository;
-    private final ObjectMapper objectMapper;
+    private final BackupExportService backupExportService;
+    private final BackupImportService backupImportService;
 
     /**
      * Returns backup-related data volume statistics.
@@ -56,52 +69,71 @@ public class BackupController {
     }
 
     /**
-     * Exports user data as a JSON attachment.
+     * Streams user data as an attachment.
+     *
+     * <p>{@code format} is {@code json} (default, single document), {@code ndjson} (one record per line with a
+     * trailer of per-entity counts) or {@code csv} (transactions only); {@code gzip=true} compresses the body.
+     * The expected transaction row count is sent up front in {@value #TRANSACTION_COUNT_HEADER}.
      */
     @GetMapping("/export")
-    public ResponseEntity<byte[]> export(@AuthenticationUser User user) throws Exception {
-        Map<String, Object> data = new HashMap<>();
-        data.put("exportedAt", LocalDateTime.now().toString());
-        data.put("userId", user.getId());
-        data.put("accounts", accountRepository.findByUserIdAndStatus(user.getId(), 1));
-        data.put("categories", categoryRepository.findByFamilyIdOrIsSystem(user.getFamilyId(), 1));
-        data.put("transactions", transactionRepository.findByUserIdAndDateBetween(
-            user.getId(),
-            LocalDateTime.now().minusYears(10).toLocalDate(),
-            LocalDateTime.now().plusDays(1).toLocalDate()
-        ));
-        data.put("budgets", budgetRepository.findByUserIdAndStatus(user.getId(), 1));
-        data.put("ledgers", ledgerRepository.findByOwnerIdAndStatus(user.getId(), 1));
-
-        byte[] body = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(data);
-        String fileName = "mamoji-backup-" + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").format(LocalDateTime.now()) + ".json";
+    public void export(
+        @AuthenticationUser User user,
+        @RequestParam(defaultValue = "json") String format,
+        @RequestParam(defaultValue = "false") boolean gzip,
+        HttpServletResponse response
+    ) throws IOException {
+        BackupExportService.Format exportFormat = BackupExportService.Format.parse(format);
+        String fileName = "mamoji-backup-" + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").format(LocalDateTime.now())
+            + "." + exportFormat.extension() + (gzip ? ".gz" : "");
 
-        return ResponseEntity.ok()
-            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-            .contentType(new MediaType("application", "json", StandardCharsets.UTF_8))
-            .body(body);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        response.setHeader(TRANSACTION_COUNT_HEADER, String.valueOf(backupExportService.countTransactions(user.getId())));
+        if (gzip) {
+            response.setContentType("application/gzip");
+            try (GZIPOutputStream body = new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_SIZE)) {
+                backupExportService.export(user, exportFormat, body);
+            }
+        } else {
+            response.setContentType(exportFormat.mediaType());
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            backupExportService.export(user, exportFormat, response.getOutputStream());
+            response.flushBuffer();
+        }
     }
 
     /**
-     * Validates backup file format and returns an import placeholder response.
+     * Imports a backup file; re-uploading the file of a failed import resumes it from its last checkpoint.
      */
     @PostMapping(path = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<Map<String, Object>> importBackup(
         @AuthenticationUser User user,
         @RequestParam("file") MultipartFile file
-    ) {
+    ) throws IOException {
         if (file == null || file.isEmpty()) {
             return ResponseEntity.ok(wrapError(4001, "File is empty."));
         }
-        String fileName = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase();
-        if (!(fileName.endsWith(".json") || fileName.endsWith(".zip"))) {
-            return ResponseEntity.ok(wrapError(4002, "Only .json or .zip files are supported."));
+        if (!BackupImportService.isSupportedFileName(file.getOriginalFilename())) {
+            return ResponseEntity.ok(wrapError(4002, "Only .json, .ndjson, .gz or .zip files are supported."));
         }
 
+        BackupImportService.ImportReport report = backupImportService.importBackup(user, file);
         Map<String, Object> payload = new HashMap<>();
-        payload.put("importedCount", 0);
+        payload.put("jobId", report.jobId());
         payload.put("userId", user.getId());
-        payload.put("note", "Current version only validates the file. Database import is not implemented yet.");
+        payload.put("importedCount", report.importedCount());
+        payload.put("counts", report.counts());
+        payload.put("resumed", report.resumed());
+        payload.put("alreadyImported", report.alreadyImported());
+        payload.put("skippedOnResume", report.skippedOnResume());
+        payload.put("transactionsThisRun", report.transactionsThisRun());
+        payload.put("elapsedMs", report.elapsedMs());
+        payload.put("rowsPerSecond", report.rowsPerSecond());
+        if (report.status() == BackupImportStatus.FAILED) {
+            Map<String, Object> result = wrapError(4003,
+                "Import stopped: " + report.error() + ". Upload the same file again to resume.");
+            result.put("data", payload);
+            return ResponseEntity.ok(result);
+        }
         return ResponseEntity.ok(wrapSuccess(payload));
     }
 
@@ -8,6 +8,7 @@ import com.mamoji.entity.Category;
 import com.mamoji.entity.User;
 import com.mamoji.repository.CategoryRepository;
 import com.mamoji.security.AuthenticationUser;
+import com.mamoji.service.CategoryResolver;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -27,6 +28,7 @@ import java.util.Map;
  * Category management endpoints.
  *
  * <p>Returns categories grouped by income/expense and supports custom category CRUD with permission checks.
+ * Reads are served by the category cache, and every write evicts the affected cache entries.
  */
 @RestController
 @RequestMapping("/api/v1/categories")
@@ -37,13 +39,14 @@ public class CategoryController {
     private static final String CATEGORY_PERMISSION_MESSAGE = "No permission to manage categories.";
 
     private final CategoryRepository categoryRepository;
+    private final CategoryResolver categoryResolver;
 
     /**
-     * Returns all categories grouped by transaction type.
+     * Returns categories visible to the caller's family, grouped by transaction type.
      */
     @GetMapping
     public ResponseEntity<Map<String, Object>> getCategories(@AuthenticationUser User user) {
-        List<Category> allCategories = categoryRepository.findAll();
+        List<Category> allCategories = categoryResolver.visibleTo(user.getFamilyId());
         Map<String, Object> data = new HashMap<>();
         data.put("income", allCategories.stream().filter(category -> category.getType() == 1).map(this::toMap).toList());
         data.put("expense", allCategories.stream().filter(category -> category.getType() == 2).map(this::toMap).toList());
@@ -63,6 +66,7 @@ public class CategoryController {
         }
 
         Category category = Category.builder()
+            .familyId(user.getFamilyId())
             .name(request.get("name").toString())
             .type(Integer.parseInt(request.get("type").toString()))
             .icon(request.get("icon") != null ? request.get("icon").toString() : null)
@@ -70,7 +74,9 @@ public class CategoryController {
             .isSystem(0)
             .build();
 
-        return ApiResponses.ok(toMap(categoryRepository.save(category)));
+        Category saved = categoryRepository.save(category);
+        categoryResolver.evict(saved);
+        return ApiResponses.ok(toMap(saved));
     }
 
     /**
@@ -97,7 +103,9 @@ public class CategoryController {
         if (request.get("color") != null) {
             category.setColor(request.get("color").toString());
         }
-        return ApiResponses.ok(toMap(categoryRepository.save(category)));
+        Category saved = categoryRepository.save(category);
+        categoryResolver.evict(saved);
+        return ApiResponses.ok(toMap(saved));
     }
 
     /**
@@ -116,6 +124,7 @@ public class CategoryController {
         }
 
         categoryRepository.delete(category);
+        categoryResolver.evict(category);
         return ApiResponses.ok(null);
     }
 
@@ -2,9 +2,17 @@ package com.mamoji.controller;
 
 import com.mamoji.common.api.ApiResponses;
 import com.mamoji.common.exception.ResourceNotFoundException;
+import com.mamoji.entity.RecurringTransaction;
+import com.mamoji.entity.Transaction;
 import com.mamoji.entity.User;
+import com.mamoji.repository.RecurringTransactionRepository;
 import com.mamoji.security.AuthenticationUser;
+import com.mamoji.service.RecurringTransactionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -17,26 +25,27 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Set;
 
 /**
- * In-memory recurring transaction management endpoints.
+ * Recurring transaction management endpoints.
  *
- * <p>This controller provides a temporary lightweight implementation backed by
- * process memory for CRUD/toggle/manual execute workflows.
+ * <p>Definitions are stored in {@code recurring_transaction}; due occurrences are generated by
+ * {@link com.mamoji.service.RecurringTransactionJob}. Manual execute creates a real transaction dated today.
  */
 @RestController
 @RequestMapping("/api/v1/recurring")
+@RequiredArgsConstructor
 public class RecurringController {
 
-    private static final Map<Long, List<RecurringItem>> STORE = new ConcurrentHashMap<>();
-    private static final AtomicLong ID_GENERATOR = new AtomicLong(1);
+    private static final Set<String> RECURRENCE_TYPES = Set.of("DAILY", "WEEKLY", "MONTHLY", "YEARLY");
+
+    private final RecurringTransactionRepository recurringTransactionRepository;
+    private final RecurringTransactionService recurringTransactionService;
 
     /**
      * Returns paginated recurring definitions for current user.
@@ -50,15 +59,12 @@ public class RecurringController {
         int safePage = Math.max(1, page);
         int safePageSize = Math.max(1, pageSize);
 
-        List<RecurringItem> all = new ArrayList<>(STORE.getOrDefault(user.getId(), List.of()));
-        all.sort(Comparator.comparingLong(RecurringItem::id).reversed());
-
-        int from = Math.min((safePage - 1) * safePageSize, all.size());
-        int to = Math.min(from + safePageSize, all.size());
-        List<Map<String, Object>> list = all.subList(from, to).stream().map(this::toMap).toList();
+        Page<RecurringTransaction> result = recurringTransactionRepository.findByUserIdOrderByIdDesc(
+            user.getId(), PageRequest.of(safePage - 1, safePageSize));
+        List<Map<String, Object>> list = result.getContent().stream().map(this::toMap).toList();
 
         Map<String, Object> payload = new HashMap<>();
-        payload.put("total", all.size());
+        payload.put("total", result.getTotalElements());
         payload.put("page", safePage);
         payload.put("pageSize", safePageSize);
         payload.put("list", list);
@@ -77,171 +83,165 @@ public class RecurringController {
      * Creates a recurring definition.
      */
     @PostMapping
+    @Transactional
     public ResponseEntity<Map<String, Object>> create(@AuthenticationUser User user, @RequestBody Map<String, Object> body) {
-        RecurringItem item = new RecurringItem(
-            ID_GENERATOR.getAndIncrement(),
-            user.getId(),
-            asString(body.get("name"), "未命名定期项"),
-            asInt(body.get("type"), 2),
-            asDecimal(body.get("amount"), BigDecimal.ZERO),
-            asString(body.get("recurrenceType"), "MONTHLY"),
-            asInt(body.get("intervalCount"), 1),
-            asNullableInt(body.get("dayOfWeek")),
-            asNullableInt(body.get("dayOfMonth")),
-            asNullableInt(body.get("monthOfYear")),
-            asDate(body.get("startDate"), LocalDate.now()),
-            asNullableDate(body.get("endDate")),
-            null,
-            LocalDate.now(),
-            1,
-            0,
-            asString(body.get("remark"), "")
-        );
-        STORE.computeIfAbsent(user.getId(), key -> new ArrayList<>()).add(item);
-        return ApiResponses.ok(toMap(item));
+        RecurringTransaction item = RecurringTransaction.builder()
+            .userId(user.getId())
+            .familyId(user.getFamilyId())
+            .name(asString(body.get("name"), "未命名定期项"))
+            .type(asInt(body.get("type"), 2))
+            .amount(asDecimal(body.get("amount"), BigDecimal.ZERO))
+            .categoryId(asNullableLong(body.get("categoryId"), null))
+            .accountId(asNullableLong(body.get("accountId"), null))
+            .recurrenceType(asRecurrenceType(body.get("recurrenceType"), "MONTHLY"))
+            .intervalCount(Math.max(1, asInt(body.get("intervalCount"), 1)))
+            .dayOfWeek(asNullableInt(body.get("dayOfWeek")))
+            .dayOfMonth(asNullableInt(body.get("dayOfMonth")))
+            .monthOfYear(asNullableInt(body.get("monthOfYear")))
+            .startDate(asDate(body.get("startDate"), LocalDate.now()))
+            .endDate(asNullableDate(body.get("endDate")))
+            .status(RecurringTransactionService.ACTIVE)
+            .executionCount(0)
+            .remark(asString(body.get("remark"), ""))
+            .build();
+        item.setNextExecutionDate(recurringTransactionService.initialNextDate(item, LocalDate.now()));
+        return ApiResponses.ok(toMap(recurringTransactionRepository.save(item)));
     }
 
     /**
-     * Updates one recurring definition.
+     * Updates one recurring definition; schedule changes take effect from today without back-filling.
      */
     @PutMapping("/{id}")
+    @Transactional
     public ResponseEntity<Map<String, Object>> update(
         @AuthenticationUser User user,
         @PathVariable Long id,
         @RequestBody Map<String, Object> body
     ) {
-        RecurringItem current = findRequired(user.getId(), id);
-        RecurringItem updated = new RecurringItem(
-            current.id(),
-            current.userId(),
-            asString(body.get("name"), current.name()),
-            asInt(body.get("type"), current.type()),
-            asDecimal(body.get("amount"), current.amount()),
-            asString(body.get("recurrenceType"), current.recurrenceType()),
-            asInt(body.get("intervalCount"), current.intervalCount()),
-            asNullableInt(body.get("dayOfWeek"), current.dayOfWeek()),
-            asNullableInt(body.get("dayOfMonth"), current.dayOfMonth()),
-            asNullableInt(body.get("monthOfYear"), current.monthOfYear()),
-            asDate(body.get("startDate"), current.startDate()),
-            asNullableDate(body.get("endDate"), current.endDate()),
-            current.lastExecutionDate(),
-            current.nextExecutionDate(),
-            current.status(),
-            current.executionCount(),
-            asString(body.get("remark"), current.remark())
-        );
-        replace(user.getId(), updated);
-        return ApiResponses.ok(toMap(updated));
+        RecurringTransaction item = findRequired(user.getId(), id);
+        item.setName(asString(body.get("name"), item.getName()));
+        item.setType(asInt(body.get("type"), item.getType()));
+        item.setAmount(asDecimal(body.get("amount"), item.getAmount()));
+        item.setCategoryId(asNullableLong(body.get("categoryId"), item.getCategoryId()));
+        item.setAccountId(asNullableLong(body.get("accountId"), item.getAccountId()));
+        item.setRecurrenceType(asRecurrenceType(body.get("recurrenceType"), item.getRecurrenceType()));
+        item.setIntervalCount(Math.max(1, asInt(body.get("intervalCount"), item.getIntervalCount())));
+        item.setDayOfWeek(asNullableInt(body.get("dayOfWeek"), item.getDayOfWeek()));
+        item.setDayOfMonth(asNullableInt(body.get("dayOfMonth"), item.getDayOfMonth()));
+        item.setMonthOfYear(asNullableInt(body.get("monthOfYear"), item.getMonthOfYear()));
+        item.setStartDate(asDate(body.get("startDate"), item.getStartDate()));
+        item.setEndDate(asNullableDate(body.get("endDate"), item.getEndDate()));
+        item.setRemark(asString(body.get("remark"), item.getRemark()));
+        item.setNextExecutionDate(recurringTransactionService.initialNextDate(item, nextScheduleFrom(item)));
+        return ApiResponses.ok(toMap(recurringTransactionRepository.save(item)));
     }
 
     /**
      * Deletes one recurring definition.
      */
     @DeleteMapping("/{id}")
+    @Transactional
     public ResponseEntity<Map<String, Object>> delete(@AuthenticationUser User user, @PathVariable Long id) {
-        List<RecurringItem> list = STORE.getOrDefault(user.getId(), new ArrayList<>());
-        list.removeIf(item -> item.id().equals(id));
+        recurringTransactionRepository.findByIdAndUserId(id, user.getId()).ifPresent(recurringTransactionRepository::delete);
         return ApiResponses.ok(null);
     }
 
     /**
-     * Toggles active status of one recurring definition.
+     * Toggles active status of one recurring definition; resuming does not back-fill the paused period.
      */
     @PostMapping("/{id}/toggle")
+    @Transactional
     public ResponseEntity<Map<String, Object>> toggle(@AuthenticationUser User user, @PathVariable Long id) {
-        RecurringItem current = findRequired(user.getId(), id);
-        RecurringItem toggled = new RecurringItem(
-            current.id(), current.userId(), current.name(), current.type(), current.amount(),
-            current.recurrenceType(), current.intervalCount(), current.dayOfWeek(), current.dayOfMonth(),
-            current.monthOfYear(), current.startDate(), current.endDate(), current.lastExecutionDate(),
-            current.nextExecutionDate(), current.status() == 1 ? 0 : 1, current.executionCount(), current.remark()
-        );
-        replace(user.getId(), toggled);
-        return ApiResponses.ok(toMap(toggled));
+        RecurringTransaction item = findRequired(user.getId(), id);
+        if (item.getStatus() == RecurringTransactionService.ACTIVE) {
+            item.setStatus(0);
+        } else {
+            item.setStatus(RecurringTransactionService.ACTIVE);
+            item.setNextExecutionDate(recurringTransactionService.initialNextDate(item, nextScheduleFrom(item)));
+        }
+        return ApiResponses.ok(toMap(recurringTransactionRepository.save(item)));
     }
 
     /**
-     * Executes one recurring definition manually and returns generated transaction payload.
+     * Executes one recurring definition manually and returns the generated transaction payload.
      */
     @PostMapping("/{id}/execute")
     public ResponseEntity<Map<String, Object>> execute(@AuthenticationUser User user, @PathVariable Long id) {
-        RecurringItem current = findRequired(user.getId(), id);
-        LocalDate now = LocalDate.now();
-        RecurringItem executed = new RecurringItem(
-            current.id(), current.userId(), current.name(), current.type(), current.amount(),
-            current.recurrenceType(), current.intervalCount(), current.dayOfWeek(), current.dayOfMonth(),
-            current.monthOfYear(), current.startDate(), current.endDate(), now, computeNextDate(current, now),
-            current.status(), current.executionCount() + 1, current.remark()
-        );
-        replace(user.getId(), executed);
+        Transaction saved = recurringTransactionService.executeNow(id, user.getId(), LocalDate.now());
 
         Map<String, Object> transaction = new HashMap<>();
-        transaction.put("id", -executed.id());
-        transaction.put("type", executed.type());
-        transaction.put("amount", executed.amount());
-        transaction.put("date", now.toString());
-        transaction.put("remark", "Manual execute from recurring #" + executed.id());
+        transaction.put("id", saved.getId());
+        transaction.put("type", saved.getType());
+        transaction.put("amount", saved.getAmount());
+        transaction.put("categoryId", saved.getCategoryId());
+        transaction.put("date", saved.getDate().toString());
+        transaction.put("remark", saved.getRemark());
         return ApiResponses.ok(transaction);
     }
 
     /**
-     * Computes next execution date according to recurrence policy.
+     * Returns the first date a changed or resumed schedule may fire: today, or the day after the last run.
      */
-    private LocalDate computeNextDate(RecurringItem item, LocalDate from) {
-        return switch (item.recurrenceType()) {
-            case "DAILY" -> from.plusDays(Math.max(1, item.intervalCount()));
-            case "WEEKLY" -> from.plusWeeks(Math.max(1, item.intervalCount()));
-            case "YEARLY" -> from.plusYears(Math.max(1, item.intervalCount()));
-            default -> from.plusMonths(Math.max(1, item.intervalCount()));
-        };
+    private LocalDate nextScheduleFrom(RecurringTransaction item) {
+        LocalDate today = LocalDate.now();
+        LocalDate last = item.getLastExecutionDate();
+        return last != null && !last.isBefore(today) ? last.plusDays(1) : today;
     }
 
     /**
      * Finds a recurring item owned by user, otherwise throws not-found error.
      */
-    private RecurringItem findRequired(Long userId, Long id) {
-        return STORE.getOrDefault(userId, List.of()).stream()
-            .filter(item -> item.id().equals(id))
-            .findFirst()
+    private RecurringTransaction findRequired(Long userId, Long id) {
+        return recurringTransactionRepository.findByIdAndUserId(id, userId)
             .orElseThrow(() -> new ResourceNotFoundException("定期记账不存在。"));
     }
 
     /**
-     * Replaces existing item with same id, or appends when absent.
+     * Converts recurring record to API payload map.
      */
-    private void replace(Long userId, RecurringItem replacement) {
-        List<RecurringItem> list = STORE.computeIfAbsent(userId, key -> new ArrayList<>());
-        for (int index = 0; index < list.size(); index++) {
-            if (list.get(index).id().equals(replacement.id())) {
-                list.set(index, replacement);
-                return;
-            }
-        }
-        list.add(replacement);
+    private Map<String, Object> toMap(RecurringTransaction item) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", item.getId());
+        map.put("name", item.getName());
+        map.put("type", item.getType());
+        map.put("amount", item.getAmount());
+        map.put("categoryId", item.getCategoryId());
+        map.put("accountId", item.getAccountId());
+        map.put("recurrenceType", item.getRecurrenceType());
+        map.put("intervalCount", item.getIntervalCount());
+        map.put("dayOfWeek", item.getDayOfWeek());
+        map.put("dayOfMonth", item.getDayOfMonth());
+        map.put("monthOfYear", item.getMonthOfYear());
+        map.put("startDate", item.getStartDate() != null ? item.getStartDate().toString() : null);
+        map.put("endDate", item.getEndDate() != null ? item.getEndDate().toString() : null);
+        map.put("nextExecutionDate", item.getNextExecutionDate() != null ? item.getNextExecutionDate().toString() : null);
+        map.put("lastExecutionDate", item.getLastExecutionDate() != null ? item.getLastExecutionDate().toString() : null);
+        map.put("status", item.getStatus());
+        map.put("executionCount", item.getExecutionCount());
+        map.put("remark", item.getRemark());
+        return map;
     }
 
     /**
-     * Converts recurring record to API payload map.
+     * Parses recurrence type, falling back for unknown values.
      */
-    private Map<String, Object> toMap(RecurringItem item) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", item.id());
-        map.put("name", item.name());
-        map.put("type", item.type());
-        map.put("amount", item.amount());
-        map.put("recurrenceType", item.recurrenceType());
-        map.put("intervalCount", item.intervalCount());
-        map.put("dayOfWeek", item.dayOfWeek());
-        map.put("dayOfMonth", item.dayOfMonth());
-        map.put("monthOfYear", item.monthOfYear());
-        map.put("startDate", item.startDate() != null ? item.startDate().toString() : null);
-        map.put("endDate", item.endDate() != null ? item.endDate().toString() : null);
-        map.put("nextExecutionDate", item.nextExecutionDate() != null ? item.nextExecutionDate().toString() : null);
-        map.put("lastExecutionDate", item.lastExecutionDate() != null ? item.lastExecutionDate().toString() : null);
-        map.put("status", item.status());
-        map.put("executionCount", item.executionCount());
-        map.put("remark", item.remark());
-        return map;
+    private String asRecurrenceType(Object value, String defaultValue) {
+        String text = asString(value, defaultValue).toUpperCase(Locale.ROOT);
+        return RECURRENCE_TYPES.contains(text) ? text : defaultValue;
+    }
+
+    /**
+     * Parses nullable long with explicit default.
+     */
+    private Long asNullableLong(Object value, Long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(String.valueOf(value));
+        } catch (Exception ex) {
+            return defaultValue;
+        }
     }
 
     /**
@@ -338,28 +338,4 @@ public class RecurringController {
             return defaultValue;
         }
     }
-
-    /**
-     * Immutable recurring definition model used by in-memory store.
-     */
-    private record RecurringItem(
-        Long id,
-        Long userId,
-        String name,
-        int type,
-        BigDecimal amount,
-        String recurrenceType,
-        int intervalCount,
-        Integer dayOfWeek,
-        Integer dayOfMonth,
-        Integer monthOfYear,
-        LocalDate startDate,
-        LocalDate endDate,
-        LocalDate lastExecutionDate,
-        LocalDate nextExecutionDate,
-        int status,
-        int executionCount,
-        String remark
-    ) {
-    }
 }
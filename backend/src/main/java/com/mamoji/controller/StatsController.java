@@ -5,9 +5,10 @@ import com.mamoji.entity.Transaction;
 import com.mamoji.entity.User;
 import com.mamoji.repository.AccountRepository;
 import com.mamoji.repository.BudgetRepository;
-import com.mamoji.repository.CategoryRepository;
 import com.mamoji.repository.TransactionRepository;
 import com.mamoji.security.AuthenticationUser;
+import com.mamoji.service.CategoryResolver;
+import com.mamoji.service.TransactionAggregationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
@@ -38,9 +39,10 @@ import java.util.stream.Collectors;
 public class StatsController {
 
     private final TransactionRepository transactionRepository;
-    private final CategoryRepository categoryRepository;
     private final AccountRepository accountRepository;
     private final BudgetRepository budgetRepository;
+    private final TransactionAggregationService transactionAggregationService;
+    private final CategoryResolver categoryResolver;
 
     /**
      * 月度总览：输出收入、支出、结余等核心摘要。
@@ -65,13 +67,8 @@ public class StatsController {
         LocalDate startDate = yearMonth.atDay(1);
         LocalDate endDate = yearMonth.atEndOfMonth();
 
-        BigDecimal income = transactionRepository.sumByUserIdAndTypeAndDateBetween(
-            user.getId(), 1, startDate, endDate);
-        BigDecimal expense = transactionRepository.sumByUserIdAndTypeAndDateBetween(
-            user.getId(), 2, startDate, endDate);
-
-        if (income == null) income = BigDecimal.ZERO;
-        if (expense == null) expense = BigDecimal.ZERO;
+        BigDecimal income = transactionAggregationService.sumByType(user.getId(), 1, startDate, endDate);
+        BigDecimal expense = transactionAggregationService.sumByType(user.getId(), 2, startDate, endDate);
 
         Map<String, Object> data = new HashMap<>();
         data.put("income", income);
@@ -119,19 +116,13 @@ public class StatsController {
         }
 
         List<Map<String, Object>> trend = new ArrayList<>();
+        TransactionAggregationService.MonthlyMatrix matrix =
+            transactionAggregationService.monthlyMatrix(user.getId(), start, end);
 
         YearMonth current = start;
         while (!current.isAfter(end)) {
-            LocalDate startD = current.atDay(1);
-            LocalDate endD = current.atEndOfMonth();
-
-            BigDecimal income = transactionRepository.sumByUserIdAndTypeAndDateBetween(
-                user.getId(), 1, startD, endD);
-            BigDecimal expense = transactionRepository.sumByUserIdAndTypeAndDateBetween(
-                user.getId(), 2, startD, endD);
-
-            if (income == null) income = BigDecimal.ZERO;
-            if (expense == null) expense = BigDecimal.ZERO;
+            BigDecimal income = matrix.income(current);
+            BigDecimal expense = matrix.expense(current);
 
             Map<String, Object> monthData = new HashMap<>();
             monthData.put("month", current.toString());
@@ -171,21 +162,19 @@ public class StatsController {
             end = yearMonth.atEndOfMonth();
         }
 
-        List<Object[]> results = transactionRepository.sumByCategoryAndType(
-            user.getId(), type, start, end);
+        Map<Long, BigDecimal> results = transactionAggregationService.sumByCategory(user.getId(), type, start, end);
 
-        Map<Long, Category> categoryMap = categoryRepository.findAll().stream()
-            .collect(Collectors.toMap(Category::getId, c -> c));
+        // 只解析本次结果引用到的分类，命中缓存时不再访问分类表
+        Map<Long, Category> categoryMap = categoryResolver.resolve(results.keySet());
 
-        BigDecimal total = results.stream()
-            .map(r -> (BigDecimal) r[1])
+        BigDecimal total = results.values().stream()
             .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         List<Map<String, Object>> stats = new ArrayList<>();
 
-        for (Object[] row : results) {
-            Long categoryId = (Long) row[0];
-            BigDecimal amount = (BigDecimal) row[1];
+        for (Map.Entry<Long, BigDecimal> row : results.entrySet()) {
+            Long categoryId = row.getKey();
+            BigDecimal amount = row.getValue();
 
             Category category = categoryMap.get(categoryId);
 
@@ -222,15 +211,17 @@ public class StatsController {
         LocalDate start = LocalDate.of(year, 1, 1);
         LocalDate end = LocalDate.of(year, 12, 31);
 
-        BigDecimal totalIncome = safeAmount(transactionRepository.sumByUserIdAndTypeAndDateBetween(user.getId(), 1, start, end));
-        BigDecimal totalExpense = safeAmount(transactionRepository.sumByUserIdAndTypeAndDateBetween(user.getId(), 2, start, end));
+        TransactionAggregationService.MonthlyMatrix matrix = transactionAggregationService.monthlyMatrix(
+            user.getId(), YearMonth.of(year, 1), YearMonth.of(year, 12));
+        BigDecimal totalIncome = matrix.total(1);
+        BigDecimal totalExpense = matrix.total(2);
         BigDecimal totalBalance = totalIncome.subtract(totalExpense);
 
         List<Map<String, Object>> monthlyData = new ArrayList<>();
         for (int month = 1; month <= 12; month++) {
             YearMonth ym = YearMonth.of(year, month);
-            BigDecimal income = safeAmount(transactionRepository.sumByUserIdAndTypeAndDateBetween(user.getId(), 1, ym.atDay(1), ym.atEndOfMonth()));
-            BigDecimal expense = safeAmount(transactionRepository.sumByUserIdAndTypeAndDateBetween(user.getId(), 2, ym.atDay(1), ym.atEndOfMonth()));
+            BigDecimal income = matrix.income(ym);
+            BigDecimal expense = matrix.expense(ym);
             monthlyData.add(Map.of(
                 "month", month,
                 "income", income,
@@ -240,10 +231,10 @@ public class StatsController {
         }
 
         List<Map<String, Object>> incomeByCategory = toCategoryItems(
-            transactionRepository.sumByCategoryAndTypeWithCategoryName(user.getId(), 1, start, end)
+            transactionAggregationService.sumByCategory(user.getId(), 1, start, end)
         );
         List<Map<String, Object>> expenseByCategory = toCategoryItems(
-            transactionRepository.sumByCategoryAndTypeWithCategoryName(user.getId(), 2, start, end)
+            transactionAggregationService.sumByCategory(user.getId(), 2, start, end)
         );
 
         Map<String, Object> data = new HashMap<>();
@@ -269,18 +260,16 @@ public class StatsController {
     public ResponseEntity<Map<String, Object>> getBalanceSheet(@AuthenticationUser User user) {
         YearMonth current = YearMonth.now();
 
-        BigDecimal monthlyIncome = safeAmount(transactionRepository.sumByUserIdAndTypeAndDateBetween(
-            user.getId(), 1, current.atDay(1), current.atEndOfMonth()));
-        BigDecimal monthlyExpense = safeAmount(transactionRepository.sumByUserIdAndTypeAndDateBetween(
-            user.getId(), 2, current.atDay(1), current.atEndOfMonth()));
+        // 当年矩阵同时覆盖本月与全年口径，一次查询即可。
+        TransactionAggregationService.MonthlyMatrix matrix = transactionAggregationService.monthlyMatrix(
+            user.getId(), YearMonth.of(current.getYear(), 1), YearMonth.of(current.getYear(), 12));
+
+        BigDecimal monthlyIncome = matrix.income(current);
+        BigDecimal monthlyExpense = matrix.expense(current);
         BigDecimal monthlyBalance = monthlyIncome.subtract(monthlyExpense);
 
-        LocalDate yearStart = LocalDate.of(current.getYear(), 1, 1);
-        LocalDate yearEnd = LocalDate.of(current.getYear(), 12, 31);
-        BigDecimal yearlyIncome = safeAmount(transactionRepository.sumByUserIdAndTypeAndDateBetween(
-            user.getId(), 1, yearStart, yearEnd));
-        BigDecimal yearlyExpense = safeAmount(transactionRepository.sumByUserIdAndTypeAndDateBetween(
-            user.getId(), 2, yearStart, yearEnd));
+        BigDecimal yearlyIncome = matrix.total(1);
+        BigDecimal yearlyExpense = matrix.total(2);
         BigDecimal yearlyBalance = yearlyIncome.subtract(yearlyExpense);
 
         BigDecimal totalAssets = safeAmount(accountRepository.getTotalAssets(user.getId()));
@@ -326,16 +315,20 @@ public class StatsController {
         YearMonth previousMonth = currentMonth.minusMonths(1);
         YearMonth sameMonthLastYear = currentMonth.minusYears(1);
 
-        BigDecimal currentIncome = sumTypeByMonth(user.getId(), 1, currentMonth);
-        BigDecimal currentExpense = sumTypeByMonth(user.getId(), 2, currentMonth);
+        // 同比月份到本月共 13 个月，一次分组查询覆盖三个对比点。
+        TransactionAggregationService.MonthlyMatrix matrix =
+            transactionAggregationService.monthlyMatrix(user.getId(), sameMonthLastYear, currentMonth);
+
+        BigDecimal currentIncome = matrix.income(currentMonth);
+        BigDecimal currentExpense = matrix.expense(currentMonth);
         BigDecimal currentBalance = currentIncome.subtract(currentExpense);
 
-        BigDecimal previousIncome = sumTypeByMonth(user.getId(), 1, previousMonth);
-        BigDecimal previousExpense = sumTypeByMonth(user.getId(), 2, previousMonth);
+        BigDecimal previousIncome = matrix.income(previousMonth);
+        BigDecimal previousExpense = matrix.expense(previousMonth);
         BigDecimal previousBalance = previousIncome.subtract(previousExpense);
 
-        BigDecimal yearlyIncome = sumTypeByMonth(user.getId(), 1, sameMonthLastYear);
-        BigDecimal yearlyExpense = sumTypeByMonth(user.getId(), 2, sameMonthLastYear);
+        BigDecimal yearlyIncome = matrix.income(sameMonthLastYear);
+        BigDecimal yearlyExpense = matrix.expense(sameMonthLastYear);
         BigDecimal yearlyBalance = yearlyIncome.subtract(yearlyExpense);
 
         Map<String, Object> data = new HashMap<>();
@@ -382,8 +375,9 @@ public class StatsController {
         LocalDate previousStart = previousMonth.atDay(1);
         LocalDate previousEnd = previousMonth.atEndOfMonth();
 
-        Map<Long, Category> categoryMap = categoryRepository.findAll().stream()
-            .collect(Collectors.toMap(Category::getId, item -> item));
+        // 洞察涉及多处分类引用，直接使用缓存中本家庭可见的分类，热路径不再查询分类表
+        Map<Long, Category> categoryMap = categoryResolver.visibleTo(user.getFamilyId()).stream()
+            .collect(Collectors.toMap(Category::getId, item -> item, (left, right) -> left));
 
         List<Transaction> largestExpenses = transactionRepository.findTopByUserIdAndTypeAndDateBetweenOrderByAmountDesc(
             user.getId(),
@@ -447,13 +441,6 @@ public class StatsController {
         return ResponseEntity.ok(result);
     }
 
-    /**
-     * 按月汇总指定收支类型金额。
-     */
-    private BigDecimal sumTypeByMonth(Long userId, int type, YearMonth month) {
-        return safeAmount(transactionRepository.sumByUserIdAndTypeAndDateBetween(userId, type, month.atDay(1), month.atEndOfMonth()));
-    }
-
     /**
      * 识别支出异常分类：
      * 以“金额提升 + 增长比例”双阈值过滤，输出 topN 异常项。
@@ -466,19 +453,13 @@ public class StatsController {
         LocalDate previousEnd,
         Map<Long, Category> categoryMap
     ) {
-        List<Object[]> currentRows = transactionRepository.sumByCategoryAndType(userId, 2, currentStart, currentEnd);
-        List<Object[]> previousRows = transactionRepository.sumByCategoryAndType(userId, 2, previousStart, previousEnd);
-
-        Map<Long, BigDecimal> previousByCategory = new HashMap<>();
-        for (Object[] row : previousRows) {
-            Long categoryId = (Long) row[0];
-            previousByCategory.put(categoryId, safeAmount((BigDecimal) row[1]));
-        }
+        Map<Long, BigDecimal> currentByCategory = transactionAggregationService.sumByCategory(userId, 2, currentStart, currentEnd);
+        Map<Long, BigDecimal> previousByCategory = transactionAggregationService.sumByCategory(userId, 2, previousStart, previousEnd);
 
         List<Map<String, Object>> anomalies = new ArrayList<>();
-        for (Object[] row : currentRows) {
-            Long categoryId = (Long) row[0];
-            BigDecimal currentAmount = safeAmount((BigDecimal) row[1]);
+        for (Map.Entry<Long, BigDecimal> row : currentByCategory.entrySet()) {
+            Long categoryId = row.getKey();
+            BigDecimal currentAmount = safeAmount(row.getValue());
             BigDecimal previousAmount = safeAmount(previousByCategory.get(categoryId));
             BigDecimal changeAmount = currentAmount.subtract(previousAmount);
             double changePercent = pctChange(currentAmount, previousAmount);
@@ -529,14 +510,14 @@ public class StatsController {
             }
 
             BigDecimal spent = budget.getCategoryId() == null
-                ? safeAmount(transactionRepository.sumByUserIdAndTypeAndDateBetween(userId, 2, periodStart, periodEnd))
-                : safeAmount(transactionRepository.sumByUserIdAndTypeAndCategoryIdAndDateBetween(
+                ? transactionAggregationService.sumByType(userId, 2, periodStart, periodEnd)
+                : transactionAggregationService.sumByTypeAndCategory(
                     userId,
                     2,
                     budget.getCategoryId(),
                     periodStart,
                     periodEnd
-                ));
+                );
 
             BigDecimal amount = safeAmount(budget.getAmount());
             BigDecimal usageRate = amount.compareTo(BigDecimal.ZERO) > 0
@@ -591,14 +572,16 @@ public class StatsController {
     }
 
     /**
-     * 将分类聚合投影转换为统一报表项结构。
+     * 将分类聚合结果转换为统一报表项结构，分类名称按引用的分类 id 批量加载。
      */
-    private List<Map<String, Object>> toCategoryItems(List<TransactionRepository.CategoryStatsProjection> projections) {
-        return projections.stream().map(item -> {
+    private List<Map<String, Object>> toCategoryItems(Map<Long, BigDecimal> amountsByCategory) {
+        Map<Long, Category> categoryMap = categoryResolver.resolve(amountsByCategory.keySet());
+        return amountsByCategory.entrySet().stream().map(item -> {
+            Category category = item.getKey() == null ? null : categoryMap.get(item.getKey());
             Map<String, Object> row = new HashMap<>();
-            row.put("categoryId", item.getCategoryId());
-            row.put("categoryName", item.getCategoryName());
-            row.put("amount", item.getAmount());
+            row.put("categoryId", item.getKey());
+            row.put("categoryName", category == null ? "Unknown" : category.getName());
+            row.put("amount", item.getValue());
             return row;
         }).toList();
     }
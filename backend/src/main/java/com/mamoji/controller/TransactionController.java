@@ -1,6 +1,7 @@
 package com.mamoji.controller;
 
 import com.mamoji.common.api.ApiResponses;
+import com.mamoji.common.api.KeysetCursor;
 import com.mamoji.common.exception.BadRequestException;
 import com.mamoji.common.exception.ForbiddenOperationException;
 import com.mamoji.common.exception.ResourceNotFoundException;
@@ -14,10 +15,17 @@ import com.mamoji.repository.CategoryRepository;
 import com.mamoji.repository.TransactionRepository;
 import com.mamoji.security.AuthenticationUser;
 import com.mamoji.service.BudgetService;
+import com.mamoji.service.CategoryResolver;
+import com.mamoji.service.MonthlyRollupService;
+import com.mamoji.service.TransactionBatchImportService;
+import com.mamoji.service.TransactionsChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -47,7 +55,8 @@ import java.util.Set;
  *
  * <p>This controller handles transaction CRUD, refund flow, input validation,
  * ownership checks, budget snapshot refresh, and structured risk assessment
- * returned to the frontend after write operations.
+ * returned to the frontend after write operations. Write endpoints run in one database
+ * transaction so the monthly rollup stays consistent with the transaction rows.
  */
 @RestController
 @RequestMapping("/api/v1/transactions")
@@ -63,6 +72,7 @@ public class TransactionController {
     private static final int MAX_REMARK_LENGTH = 200;
     private static final int MAX_BACKDATED_YEARS = 20;
     private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_BATCH_ROWS = 5000;
     private static final int HIGH_FREQUENCY_EXPENSE_THRESHOLD = 12;
     private static final int DUPLICATE_EXPENSE_COUNT_THRESHOLD = 1;
     private static final int MAX_QUERY_RANGE_DAYS = 3660;
@@ -73,11 +83,18 @@ public class TransactionController {
     private final CategoryRepository categoryRepository;
     private final BudgetRepository budgetRepository;
     private final BudgetService budgetService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final CategoryResolver categoryResolver;
+    private final TransactionBatchImportService transactionBatchImportService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Returns a paginated transaction list with optional type and date-range filters.
      *
      * <p>Guardrails include page-size limits, supported-type validation and query-range validation.
+     * Rows are ordered by (date, id) descending. Passing the returned {@code nextCursor} as
+     * {@code cursor} seeks to the next page without an offset (and takes precedence over
+     * {@code page}); {@code withTotal=false} skips the count query and omits {@code total}.
      */
     @GetMapping
     public ResponseEntity<Map<String, Object>> getTransactions(
@@ -87,21 +104,47 @@ public class TransactionController {
         @RequestParam(required = false) Integer type,
         @RequestParam(required = false) String types,
         @RequestParam(required = false) String startDate,
-        @RequestParam(required = false) String endDate
+        @RequestParam(required = false) String endDate,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "true") boolean withTotal
     ) {
         validatePaging(page, pageSize);
         if (type != null && !isSupportedType(type, true)) {
             throw new BadRequestException("Unsupported transaction type: " + type);
         }
         validateQueryDateRange(startDate, endDate);
-        PageRequest pageRequest = PageRequest.of(page - 1, pageSize);
-        Page<Transaction> transactionPage = queryTransactions(user.getId(), pageRequest, type, parseTypes(types), startDate, endDate);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        PageRequest pageRequest = after == null ? PageRequest.of(page - 1, pageSize) : PageRequest.of(0, pageSize);
+        TransactionFilter filter = TransactionFilter.of(type, parseTypes(types), startDate, endDate);
+        Slice<Transaction> transactionSlice = transactionRepository.findSliceWithFilters(
+            user.getId(),
+            filter.filterTypes(),
+            filter.types(),
+            filter.startDate(),
+            filter.endDate(),
+            after == null ? null : after.date(),
+            after == null ? null : after.id(),
+            pageRequest
+        );
+
+        List<Transaction> content = transactionSlice.getContent();
+        Map<Long, Category> categories = categoryResolver.resolve(content, Transaction::getCategoryId);
+        String nextCursor = null;
+        if (transactionSlice.hasNext() && !content.isEmpty()) {
+            Transaction last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getDate(), last.getId()).encode();
+        }
 
         Map<String, Object> data = new HashMap<>();
-        data.put("list", transactionPage.getContent().stream().map(this::toMap).toList());
-        data.put("total", transactionPage.getTotalElements());
+        data.put("list", content.stream().map(item -> toMap(item, categories)).toList());
+        if (withTotal) {
+            data.put("total", transactionRepository.countWithFilters(
+                user.getId(), filter.filterTypes(), filter.types(), filter.startDate(), filter.endDate()));
+        }
         data.put("page", page);
         data.put("pageSize", pageSize);
+        data.put("hasMore", transactionSlice.hasNext());
+        data.put("nextCursor", nextCursor);
         return ApiResponses.ok(data);
     }
 
@@ -111,6 +154,7 @@ public class TransactionController {
      * <p>Expense transactions try to bind to an active budget first, then refresh affected budget snapshots.
      */
     @PostMapping
+    @Transactional
     public ResponseEntity<Map<String, Object>> createTransaction(
         @AuthenticationUser User user,
         @RequestBody Map<String, Object> request
@@ -139,19 +183,86 @@ public class TransactionController {
         }
 
         Transaction saved = transactionRepository.save(transaction);
+        monthlyRollupService.applyChange(null, saved);
         refreshAffectedBudgets(user.getId(), null, saved);
+        eventPublisher.publishEvent(new TransactionsChangedEvent(user.getId()));
 
         Map<String, Object> data = toMap(saved);
         data.put("risk", buildTransactionRisk(user.getId(), saved));
         return ApiResponses.ok(data);
     }
 
+    /**
+     * Imports many transactions in one request.
+     *
+     * <p>Each row is validated like {@code POST /transactions}; invalid rows are reported by index and
+     * skipped while valid rows are inserted together. Categories are checked with one lookup, rows are
+     * written with JDBC batching, and affected budgets are re-synced once at the end. Per-row risk
+     * assessment is not computed for imports.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> batchCreateTransactions(
+        @AuthenticationUser User user,
+        @RequestBody Map<String, Object> request
+    ) {
+        long startedAt = System.nanoTime();
+        if (!(request.get("transactions") instanceof List<?> rows) || rows.isEmpty()) {
+            throw new BadRequestException("transactions must be a non-empty list.");
+        }
+        if (rows.size() > MAX_BATCH_ROWS) {
+            throw new BadRequestException("At most " + MAX_BATCH_ROWS + " transactions can be imported per request.");
+        }
+
+        Set<Long> categoryIds = new HashSet<>();
+        for (Object row : rows) {
+            if (row instanceof Map<?, ?> item) {
+                try {
+                    categoryIds.add(parseRequiredLong(item.get("categoryId"), "categoryId"));
+                } catch (BadRequestException ignored) {
+                    // Reported with the row below.
+                }
+            }
+        }
+        Map<Long, Category> categories = categoryResolver.resolve(categoryIds);
+
+        List<Transaction> accepted = new ArrayList<>();
+        List<Map<String, Object>> errors = new ArrayList<>();
+        for (int index = 0; index < rows.size(); index++) {
+            try {
+                if (!(rows.get(index) instanceof Map<?, ?> item)) {
+                    throw new BadRequestException("row must be an object.");
+                }
+                accepted.add(parseBatchRow(item, categories, user));
+            } catch (BadRequestException ex) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("index", index);
+                error.put("message", ex.getMessage());
+                errors.add(error);
+            }
+        }
+
+        Set<Long> syncedBudgetIds = transactionBatchImportService.insertAll(user.getId(), accepted);
+
+        long elapsedNanos = Math.max(1L, System.nanoTime() - startedAt);
+        Map<String, Object> data = new HashMap<>();
+        data.put("received", rows.size());
+        data.put("imported", accepted.size());
+        data.put("failed", errors.size());
+        data.put("errors", errors);
+        data.put("syncedBudgetIds", syncedBudgetIds);
+        data.put("elapsedMs", elapsedNanos / 1_000_000);
+        data.put("rowsPerSecond", BigDecimal.valueOf(accepted.size() * 1_000_000_000L)
+            .divide(BigDecimal.valueOf(elapsedNanos), 1, RoundingMode.HALF_UP));
+        return ApiResponses.ok(data);
+    }
+
     /**
      * Updates one transaction.
      *
      * <p>Refund transactions are immutable so the refund audit chain cannot be broken by later edits.
      */
     @PutMapping("/{id}")
+    @Transactional
     public ResponseEntity<Map<String, Object>> updateTransaction(
         @AuthenticationUser User user,
         @PathVariable Long id,
@@ -200,7 +311,9 @@ public class TransactionController {
         }
 
         Transaction saved = transactionRepository.save(transaction);
+        monthlyRollupService.applyChange(before, saved);
         refreshAffectedBudgets(user.getId(), before, saved);
+        eventPublisher.publishEvent(new TransactionsChangedEvent(user.getId()));
 
         Map<String, Object> data = toMap(saved);
         data.put("risk", buildTransactionRisk(user.getId(), saved));
@@ -213,6 +326,7 @@ public class TransactionController {
      * <p>Refund records and expenses that already have refund history cannot be deleted.
      */
     @DeleteMapping("/{id}")
+    @Transactional
     public ResponseEntity<Map<String, Object>> deleteTransaction(
         @AuthenticationUser User user,
         @PathVariable Long id
@@ -220,7 +334,9 @@ public class TransactionController {
         Transaction existing = findOwnedTransaction(id, user.getId());
         validateDeleteAllowed(existing);
         transactionRepository.delete(existing);
+        monthlyRollupService.applyChange(existing, null);
         refreshAffectedBudgets(user.getId(), existing, null);
+        eventPublisher.publishEvent(new TransactionsChangedEvent(user.getId()));
         return ApiResponses.ok(null);
     }
 
@@ -236,9 +352,10 @@ public class TransactionController {
         validatePaging(page, pageSize);
         PageRequest pageRequest = PageRequest.of(page - 1, pageSize);
         Page<Transaction> transactionPage = transactionRepository.findByUserIdAndTypeOrderByDateDesc(user.getId(), 2, pageRequest);
+        Map<Long, Category> categories = categoryResolver.resolve(transactionPage.getContent(), Transaction::getCategoryId);
 
         Map<String, Object> data = new HashMap<>();
-        data.put("list", transactionPage.getContent().stream().map(this::toRefundableMap).toList());
+        data.put("list", transactionPage.getContent().stream().map(item -> toRefundableMap(item, categories)).toList());
         data.put("total", transactionPage.getTotalElements());
         data.put("page", page);
         data.put("pageSize", pageSize);
@@ -252,6 +369,7 @@ public class TransactionController {
      * then updates the original expense and refreshes related budget snapshots.
      */
     @PostMapping("/{id}/refund")
+    @Transactional
     public ResponseEntity<Map<String, Object>> refundTransaction(
         @AuthenticationUser User user,
         @PathVariable Long id,
@@ -281,8 +399,10 @@ public class TransactionController {
             throw new BadRequestException("Refund date cannot be before original transaction date.");
         }
 
+        Transaction originalBefore = snapshot(originalTransaction);
         originalTransaction.setRefundedAmount(alreadyRefunded.add(refundAmount));
         transactionRepository.save(originalTransaction);
+        monthlyRollupService.applyChange(originalBefore, originalTransaction);
 
         Transaction refundTransaction = Transaction.builder()
             .userId(user.getId())
@@ -297,48 +417,15 @@ public class TransactionController {
             .build();
 
         Transaction savedRefund = transactionRepository.save(refundTransaction);
+        monthlyRollupService.applyChange(null, savedRefund);
         refreshAffectedBudgets(user.getId(), originalTransaction, savedRefund);
+        eventPublisher.publishEvent(new TransactionsChangedEvent(user.getId()));
 
         Map<String, Object> data = toMap(savedRefund);
         data.put("risk", buildTransactionRisk(user.getId(), originalTransaction));
         return ApiResponses.ok(data);
     }
 
-    /**
-     * Dispatches transaction list queries to the appropriate repository method by filter combination.
-     */
-    private Page<Transaction> queryTransactions(
-        Long userId,
-        PageRequest pageRequest,
-        Integer type,
-        List<Integer> typeList,
-        String startDate,
-        String endDate
-    ) {
-        if (hasDateRange(startDate, endDate)) {
-            LocalDate start = LocalDate.parse(startDate);
-            LocalDate end = LocalDate.parse(endDate);
-            if (typeList != null && !typeList.isEmpty()) {
-                return transactionRepository.findByUserIdAndTypeInAndDateBetweenOrderByDateDesc(userId, typeList, start, end, pageRequest);
-            }
-            if (type != null) {
-                return transactionRepository.findByUserIdAndTypeAndDateBetweenOrderByDateDesc(userId, type, start, end, pageRequest);
-            }
-            return transactionRepository.findByUserIdAndDateBetweenOrderByDateDesc(userId, start, end, pageRequest);
-        }
-        if (typeList != null && !typeList.isEmpty()) {
-            return transactionRepository.findByUserIdAndTypeInOrderByDateDesc(userId, typeList, pageRequest);
-        }
-        if (type != null) {
-            return transactionRepository.findByUserIdAndTypeOrderByDateDesc(userId, type, pageRequest);
-        }
-        return transactionRepository.findByUserIdOrderByDateDesc(userId, pageRequest);
-    }
-
-    private boolean hasDateRange(String startDate, String endDate) {
-        return startDate != null && !startDate.isEmpty() && endDate != null && !endDate.isEmpty();
-    }
-
     /**
      * Validates date-range filter rules.
      *
@@ -402,8 +489,8 @@ public class TransactionController {
     /**
      * Adds refundable metadata used by the refund list page.
      */
-    private Map<String, Object> toRefundableMap(Transaction transaction) {
-        Map<String, Object> map = toMap(transaction);
+    private Map<String, Object> toRefundableMap(Transaction transaction, Map<Long, Category> categories) {
+        Map<String, Object> map = toMap(transaction, categories);
         BigDecimal refundedAmount = transaction.getRefundedAmount() != null ? transaction.getRefundedAmount() : BigDecimal.ZERO;
         BigDecimal refundableAmount = transaction.getAmount().subtract(refundedAmount);
         map.put("refundableAmount", refundableAmount);
@@ -436,9 +523,18 @@ public class TransactionController {
     }
 
     /**
-     * Maps transaction entity to API response shape consumed by the frontend.
+     * Maps one transaction to API response shape, resolving its category on the spot.
      */
     private Map<String, Object> toMap(Transaction transaction) {
+        return toMap(transaction, categoryResolver.resolve(List.of(transaction), Transaction::getCategoryId));
+    }
+
+    /**
+     * Maps transaction entity to API response shape consumed by the frontend.
+     *
+     * <p>Categories come from a map pre-loaded for the whole page, so serialization issues no queries.
+     */
+    private Map<String, Object> toMap(Transaction transaction, Map<Long, Category> categories) {
         Map<String, Object> map = new HashMap<>();
         map.put("id", transaction.getId());
         map.put("type", transaction.getType());
@@ -449,19 +545,17 @@ public class TransactionController {
 
         String categoryName = "Uncategorized";
         String categoryIcon = "category";
-        if (transaction.getCategoryId() != null) {
-            Optional<Category> category = categoryRepository.findById(transaction.getCategoryId());
-            if (category.isPresent()) {
-                categoryName = category.get().getName();
-                categoryIcon = category.get().getIcon() != null ? category.get().getIcon() : "category";
-            }
+        Category category = transaction.getCategoryId() == null ? null : categories.get(transaction.getCategoryId());
+        if (category != null) {
+            categoryName = category.getName();
+            categoryIcon = category.getIcon() != null ? category.getIcon() : "category";
         }
 
-        map.put("category", Map.of(
-            "id", transaction.getCategoryId(),
-            "name", categoryName,
-            "icon", categoryIcon
-        ));
+        Map<String, Object> categoryItem = new HashMap<>();
+        categoryItem.put("id", transaction.getCategoryId());
+        categoryItem.put("name", categoryName);
+        categoryItem.put("icon", categoryIcon);
+        map.put("category", categoryItem);
         map.put("account", Map.of("id", 1, "name", "Cash"));
         map.put("user", Map.of("id", transaction.getUserId(), "nickname", "User"));
 
@@ -607,13 +701,43 @@ public class TransactionController {
         }
     }
 
+    /**
+     * Parses and validates one batch import row against pre-resolved categories.
+     */
+    private Transaction parseBatchRow(Map<?, ?> row, Map<Long, Category> categories, User user) {
+        int type = parseRequiredType(row.get("type"), false);
+        BigDecimal amount = parseRequiredAmount(row.get("amount"));
+        Long categoryId = parseRequiredLong(row.get("categoryId"), "categoryId");
+        LocalDate transactionDate = parseRequiredDate(row.get("date"), "date");
+        validateCategory(categories.get(categoryId), type, user);
+        validateTransactionDate(transactionDate);
+        validateRemarkLength(row.get("remark"));
+
+        return Transaction.builder()
+            .userId(user.getId())
+            .familyId(user.getFamilyId())
+            .type(type)
+            .amount(amount)
+            .categoryId(categoryId)
+            .date(transactionDate)
+            .remark(row.get("remark") != null ? row.get("remark").toString() : null)
+            .build();
+    }
+
     /**
      * Verifies category ownership and category type match transaction type.
      */
     private void validateCategoryForType(Long categoryId, int type, User user) {
-        Category category = categoryRepository.findById(categoryId)
-            .orElseThrow(() -> new BadRequestException("categoryId is invalid."));
+        validateCategory(categoryRepository.findById(categoryId).orElse(null), type, user);
+    }
 
+    /**
+     * Verifies an already loaded category; null means the id did not resolve.
+     */
+    private void validateCategory(Category category, int type, User user) {
+        if (category == null) {
+            throw new BadRequestException("categoryId is invalid.");
+        }
         if (category.getFamilyId() != null && !category.getFamilyId().equals(user.getFamilyId())) {
             throw new BadRequestException("category does not belong to your family.");
         }
@@ -895,4 +1019,26 @@ public class TransactionController {
             default -> "Risk is currently under control.";
         };
     }
+
+    /**
+     * Normalized list filters; an explicit type list wins over the single type parameter.
+     */
+    private record TransactionFilter(boolean filterTypes, List<Integer> types, LocalDate startDate, LocalDate endDate) {
+
+        // Placeholder bound when the type filter is off, so the IN list is never empty.
+        private static final List<Integer> NO_TYPES = List.of(0);
+
+        static TransactionFilter of(Integer type, List<Integer> typeList, String startDate, String endDate) {
+            List<Integer> types = typeList != null && !typeList.isEmpty()
+                ? typeList
+                : (type != null ? List.of(type) : null);
+            boolean hasRange = startDate != null && !startDate.isEmpty() && endDate != null && !endDate.isEmpty();
+            return new TransactionFilter(
+                types != null,
+                types != null ? types : NO_TYPES,
+                hasRange ? LocalDate.parse(startDate) : null,
+                hasRange ? LocalDate.parse(endDate) : null
+            );
+        }
+    }
 }
@@ -0,0 +1,88 @@
+package com.mamoji.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of one backup import, keyed by user and file digest.
+ *
+ * <p>Reference entities (ledgers, categories, accounts, budgets) are imported in one step and flagged by
+ * {@code referencesImported}; transactions are committed in chunks and {@code transactionsProcessed} counts
+ * the transaction records consumed so far, so re-uploading the same file resumes after the last chunk.
+ */
+@Entity
+@Table(
+    name = "backup_import_job",
+    indexes = @Index(name = "idx_backup_import_job_user_sha", columnList = "user_id, file_sha256")
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackupImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "file_sha256", nullable = false, length = 64)
+    private String fileSha256;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    // 0: running, 1: completed, 2: failed
+    @Column(nullable = false)
+    private Integer status;
+
+    @Column(name = "references_imported", nullable = false)
+    private Boolean referencesImported;
+
+    @Column(name = "ledgers_imported", nullable = false)
+    private Long ledgersImported;
+
+    @Column(name = "categories_imported", nullable = false)
+    private Long categoriesImported;
+
+    @Column(name = "accounts_imported", nullable = false)
+    private Long accountsImported;
+
+    @Column(name = "budgets_imported", nullable = false)
+    private Long budgetsImported;
+
+    @Column(name = "transactions_processed", nullable = false)
+    private Long transactionsProcessed;
+
+    @Column(name = "transactions_skipped", nullable = false)
+    private Long transactionsSkipped;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * Initializes creation/update timestamps.
+     */
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Updates modification timestamp before persistence update.
+     */
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,39 @@
+package com.mamoji.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Source-to-target id mapping recorded by a backup import so a resumed run remaps references the same way.
+ *
+ * <p>Kinds are {@code ledger}, {@code category}, {@code account}, {@code budget}, {@code transaction}
+ * (refund originals only) and {@code pending_refund}, whose source id is the original transaction in the file
+ * and whose target id is the imported refund row still waiting for that original.
+ */
+@Entity
+@Table(
+    name = "backup_import_mapping",
+    indexes = @Index(name = "idx_backup_import_mapping_job", columnList = "job_id, kind")
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackupImportMapping {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(nullable = false, length = 20)
+    private String kind;
+
+    @Column(name = "source_id", nullable = false)
+    private Long sourceId;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+}
@@ -0,0 +1,72 @@
+package com.mamoji.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Per-user monthly transaction rollup keyed by month, type and category.
+ *
+ * <p>Maintained incrementally on transaction writes so reports can read O(months) rows.
+ * Uncategorized transactions are stored under category id 0 to keep the unique key usable.
+ */
+@Entity
+@Table(
+    name = "monthly_rollup",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_monthly_rollup_key",
+        columnNames = {"user_id", "rollup_month", "type", "category_id"}
+    )
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // YYYY-MM；列名避开 MySQL 保留字 YEAR_MONTH。
+    @Column(name = "rollup_month", nullable = false, length = 7)
+    private String yearMonth;
+
+    @Column(nullable = false)
+    private Integer type;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "tx_count", nullable = false)
+    private Long txCount;
+
+    @Column(name = "refunded_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal refundedAmount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * Initializes modification timestamp.
+     */
+    @PrePersist
+    protected void onCreate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Updates modification timestamp before persistence update.
+     */
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
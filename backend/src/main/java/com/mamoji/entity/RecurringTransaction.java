@@ -0,0 +1,113 @@
+package com.mamoji.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Recurring transaction definition executed by the scheduler.
+ *
+ * <p>{@code nextExecutionDate} is the next occurrence not yet generated; it is null once the schedule has passed
+ * its end date. Due rows are found through the (status, next_execution_date) index.
+ */
+@Entity
+@Table(
+    name = "recurring_transaction",
+    indexes = {
+        @Index(name = "idx_recurring_due", columnList = "status, next_execution_date"),
+        @Index(name = "idx_recurring_user", columnList = "user_id")
+    }
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringTransaction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "family_id")
+    private Long familyId;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private Integer type;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "account_id")
+    private Long accountId;
+
+    // DAILY, WEEKLY, MONTHLY, YEARLY
+    @Column(name = "recurrence_type", nullable = false, length = 16)
+    private String recurrenceType;
+
+    @Column(name = "interval_count", nullable = false)
+    private Integer intervalCount;
+
+    @Column(name = "day_of_week")
+    private Integer dayOfWeek;
+
+    @Column(name = "day_of_month")
+    private Integer dayOfMonth;
+
+    @Column(name = "month_of_year")
+    private Integer monthOfYear;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    @Column(name = "last_execution_date")
+    private LocalDate lastExecutionDate;
+
+    @Column(name = "next_execution_date")
+    private LocalDate nextExecutionDate;
+
+    // 0: paused, 1: active
+    @Column(nullable = false)
+    private Integer status;
+
+    @Column(name = "execution_count", nullable = false)
+    private Integer executionCount;
+
+    private String remark;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * Initializes creation/update timestamps.
+     */
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Updates modification timestamp before persistence update.
+     */
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -10,7 +10,10 @@ import java.time.LocalDateTime;
  * Transaction entity for income/expense and refund tracking.
  */
 @Entity
-@Table(name = "transactions")
+@Table(
+    name = "transactions",
+    indexes = @Index(name = "idx_transactions_user_date_id", columnList = "user_id, date, id")
+)
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,17 @@
+package com.mamoji.repository;
+
+import com.mamoji.entity.BackupImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+/**
+ * Repository for backup import checkpoints.
+ */
+public interface BackupImportJobRepository extends JpaRepository<BackupImportJob, Long> {
+
+    /**
+     * Returns the latest import job of user for the given file digest.
+     */
+    Optional<BackupImportJob> findFirstByUserIdAndFileSha256OrderByIdDesc(Long userId, String fileSha256);
+}
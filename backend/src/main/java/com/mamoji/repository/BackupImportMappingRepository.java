@@ -0,0 +1,27 @@
+package com.mamoji.repository;
+
+import com.mamoji.entity.BackupImportMapping;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Repository for id mappings recorded by backup imports.
+ */
+public interface BackupImportMappingRepository extends JpaRepository<BackupImportMapping, Long> {
+
+    /**
+     * Returns all mappings recorded by one import job.
+     */
+    List<BackupImportMapping> findByJobId(Long jobId);
+
+    /**
+     * Removes mappings of one kind once they are no longer needed.
+     */
+    @Modifying
+    @Query("DELETE FROM BackupImportMapping m WHERE m.jobId = :jobId AND m.kind = :kind")
+    int deleteByJobIdAndKind(@Param("jobId") Long jobId, @Param("kind") String kind);
+}
@@ -17,4 +17,14 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
      * Finds family categories plus system presets.
      */
     List<Category> findByFamilyIdOrIsSystem(Long familyId, Integer isSystem);
+
+    /**
+     * Finds custom categories of one family in ascending id order.
+     */
+    List<Category> findByFamilyIdOrderByIdAsc(Long familyId);
+
+    /**
+     * Finds categories not bound to any family (system presets) in ascending id order.
+     */
+    List<Category> findByFamilyIdIsNullOrderByIdAsc();
 }
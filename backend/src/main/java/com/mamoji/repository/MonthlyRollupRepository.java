@@ -0,0 +1,67 @@
+package com.mamoji.repository;
+
+import com.mamoji.entity.MonthlyRollup;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Repository for materialized monthly transaction rollups.
+ */
+public interface MonthlyRollupRepository extends JpaRepository<MonthlyRollup, Long> {
+
+    /**
+     * Returns rollup rows of user whose month falls in the inclusive YYYY-MM range.
+     */
+    List<MonthlyRollup> findByUserIdAndYearMonthBetween(Long userId, String fromMonth, String toMonth);
+
+    /**
+     * Returns true when the rollup cell already has a row.
+     */
+    boolean existsByUserIdAndYearMonthAndTypeAndCategoryId(Long userId, String yearMonth, Integer type, Long categoryId);
+
+    /**
+     * Locks all rollup rows of user so a rebuild excludes concurrent delta writes.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM MonthlyRollup r WHERE r.userId = :userId")
+    List<MonthlyRollup> lockByUserId(@Param("userId") Long userId);
+
+    /**
+     * Atomically adds deltas to one rollup row; returns 0 when the row does not exist yet.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE MonthlyRollup r
+        SET r.amount = r.amount + :amount,
+            r.txCount = r.txCount + :txCount,
+            r.refundedAmount = r.refundedAmount + :refundedAmount,
+            r.updatedAt = CURRENT_TIMESTAMP
+        WHERE r.userId = :userId
+          AND r.yearMonth = :yearMonth
+          AND r.type = :type
+          AND r.categoryId = :categoryId
+        """)
+    int applyDelta(
+        @Param("userId") Long userId,
+        @Param("yearMonth") String yearMonth,
+        @Param("type") Integer type,
+        @Param("categoryId") Long categoryId,
+        @Param("amount") BigDecimal amount,
+        @Param("txCount") long txCount,
+        @Param("refundedAmount") BigDecimal refundedAmount
+    );
+
+    /**
+     * Removes all rollup rows of user before a rebuild.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM MonthlyRollup r WHERE r.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,56 @@
+package com.mamoji.repository;
+
+import com.mamoji.entity.RecurringTransaction;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for recurring transaction definitions.
+ */
+public interface RecurringTransactionRepository extends JpaRepository<RecurringTransaction, Long> {
+
+    /**
+     * Returns recurring definitions of user, newest first.
+     */
+    Page<RecurringTransaction> findByUserIdOrderByIdDesc(Long userId, Pageable pageable);
+
+    /**
+     * Returns one recurring definition owned by user.
+     */
+    Optional<RecurringTransaction> findByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Returns one recurring definition owned by user, locked for update.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM RecurringTransaction r WHERE r.id = :id AND r.userId = :userId")
+    Optional<RecurringTransaction> lockByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Claims up to one page of active definitions due on or before the given date.
+     *
+     * <p>Rows are locked with {@code FOR UPDATE SKIP LOCKED} (lock timeout -2) so concurrent schedulers on
+     * other nodes claim disjoint rows instead of waiting; locks are held until the caller's transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    @Query("""
+        SELECT r FROM RecurringTransaction r
+        WHERE r.status = 1
+          AND r.nextExecutionDate <= :today
+        ORDER BY r.nextExecutionDate ASC, r.id ASC
+        """)
+    List<RecurringTransaction> claimDue(@Param("today") LocalDate today, Pageable pageable);
+}
@@ -3,13 +3,18 @@ package com.mamoji.repository;
 import com.mamoji.entity.Transaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository for transaction persistence, pagination, and analytical aggregates.
@@ -17,9 +22,54 @@ import java.util.List;
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
     /**
-     * Returns paged transactions sorted by date descending.
+     * Returns one transaction page ordered by (date, id) descending with optional filters.
+     *
+     * <p>Null date bounds and {@code filterTypes=false} disable the corresponding filter. When
+     * {@code cursorDate}/{@code cursorId} are set, only rows strictly after that keyset position are
+     * returned, so deep pages seek on the (user_id, date, id) index instead of skipping rows.
+     * Returning {@link Slice} avoids the count query.
      */
-    Page<Transaction> findByUserIdOrderByDateDesc(Long userId, Pageable pageable);
+    @Query("""
+        SELECT t
+        FROM Transaction t
+        WHERE t.userId = :userId
+          AND (:filterTypes = false OR t.type IN :types)
+          AND (:startDate IS NULL OR t.date >= :startDate)
+          AND (:endDate IS NULL OR t.date <= :endDate)
+          AND (:cursorDate IS NULL
+               OR t.date < :cursorDate
+               OR (t.date = :cursorDate AND t.id < :cursorId))
+        ORDER BY t.date DESC, t.id DESC
+        """)
+    Slice<Transaction> findSliceWithFilters(
+        @Param("userId") Long userId,
+        @Param("filterTypes") boolean filterTypes,
+        @Param("types") List<Integer> types,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate,
+        @Param("cursorDate") LocalDate cursorDate,
+        @Param("cursorId") Long cursorId,
+        Pageable pageable
+    );
+
+    /**
+     * Counts transactions matching the same filters as {@link #findSliceWithFilters}.
+     */
+    @Query("""
+        SELECT COUNT(t)
+        FROM Transaction t
+        WHERE t.userId = :userId
+          AND (:filterTypes = false OR t.type IN :types)
+          AND (:startDate IS NULL OR t.date >= :startDate)
+          AND (:endDate IS NULL OR t.date <= :endDate)
+        """)
+    long countWithFilters(
+        @Param("userId") Long userId,
+        @Param("filterTypes") boolean filterTypes,
+        @Param("types") List<Integer> types,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
 
     /**
      * Counts all transactions of user.
@@ -52,6 +102,63 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
         @Param("endDate") LocalDate endDate
     );
 
+    /**
+     * Aggregates amount by calendar month and type in one grouped scan.
+     */
+    @Query("""
+        SELECT
+            YEAR(t.date) AS yearValue,
+            MONTH(t.date) AS monthValue,
+            t.type AS type,
+            SUM(t.amount) AS amount
+        FROM Transaction t
+        WHERE t.userId = :userId
+          AND t.date BETWEEN :startDate AND :endDate
+        GROUP BY YEAR(t.date), MONTH(t.date), t.type
+        """)
+    List<MonthlyTypeSumProjection> sumByMonthAndType(
+        @Param("userId") Long userId,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Aggregates all transactions of user by month, type and category for rollup rebuilds.
+     */
+    @Query("""
+        SELECT
+            YEAR(t.date) AS yearValue,
+            MONTH(t.date) AS monthValue,
+            t.type AS type,
+            t.categoryId AS categoryId,
+            SUM(t.amount) AS amount,
+            COUNT(t) AS txCount,
+            SUM(COALESCE(t.refundedAmount, 0)) AS refundedAmount
+        FROM Transaction t
+        WHERE t.userId = :userId
+        GROUP BY YEAR(t.date), MONTH(t.date), t.type, t.categoryId
+        """)
+    List<RollupSourceProjection> aggregateForRollup(@Param("userId") Long userId);
+
+    /**
+     * Returns ids of all users that own at least one transaction.
+     */
+    @Query("SELECT DISTINCT t.userId FROM Transaction t WHERE t.userId IS NOT NULL")
+    List<Long> findDistinctUserIds();
+
+    /**
+     * Streams all transactions of a user in (date, id) order for export.
+     *
+     * <p>Rows are fetched in bounded chunks and marked read-only; callers must consume the stream inside a
+     * transaction and detach rows they are done with so memory does not grow with history size.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.userId = :userId ORDER BY t.date ASC, t.id ASC")
+    Stream<Transaction> streamByUserId(@Param("userId") Long userId);
+
     /**
      * Returns transactions in date range sorted by newest first.
      */
@@ -195,32 +302,6 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      */
     Page<Transaction> findByUserIdAndTypeOrderByDateDesc(Long userId, Integer type, Pageable pageable);
 
-    /**
-     * Returns paged transactions filtered by multiple types.
-     */
-    Page<Transaction> findByUserIdAndTypeInOrderByDateDesc(Long userId, List<Integer> types, Pageable pageable);
-
-    /**
-     * Returns paged transactions by date range.
-     */
-    Page<Transaction> findByUserIdAndDateBetweenOrderByDateDesc(Long userId, LocalDate startDate, LocalDate endDate, Pageable pageable);
-
-    /**
-     * Returns paged transactions by type and date range.
-     */
-    Page<Transaction> findByUserIdAndTypeAndDateBetweenOrderByDateDesc(Long userId, Integer type, LocalDate startDate, LocalDate endDate, Pageable pageable);
-
-    /**
-     * Returns paged transactions by type-set and date range.
-     */
-    Page<Transaction> findByUserIdAndTypeInAndDateBetweenOrderByDateDesc(
-        Long userId,
-        List<Integer> types,
-        LocalDate startDate,
-        LocalDate endDate,
-        Pageable pageable
-    );
-
     /**
      * Returns top transactions by amount in date range.
      */
@@ -278,4 +359,69 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
          */
         BigDecimal getAmount();
     }
+
+    /**
+     * Closed projection for month/type aggregate result.
+     */
+    interface MonthlyTypeSumProjection {
+        /**
+         * Calendar year.
+         */
+        Integer getYearValue();
+
+        /**
+         * Calendar month (1-12).
+         */
+        Integer getMonthValue();
+
+        /**
+         * Transaction type.
+         */
+        Integer getType();
+
+        /**
+         * Aggregated amount.
+         */
+        BigDecimal getAmount();
+    }
+
+    /**
+     * Closed projection for month/type/category rollup source rows.
+     */
+    interface RollupSourceProjection {
+        /**
+         * Calendar year.
+         */
+        Integer getYearValue();
+
+        /**
+         * Calendar month (1-12).
+         */
+        Integer getMonthValue();
+
+        /**
+         * Transaction type.
+         */
+        Integer getType();
+
+        /**
+         * Category id, may be null.
+         */
+        Long getCategoryId();
+
+        /**
+         * Aggregated amount.
+         */
+        BigDecimal getAmount();
+
+        /**
+         * Number of aggregated transactions.
+         */
+        Long getTxCount();
+
+        /**
+         * Aggregated refunded amount.
+         */
+        BigDecimal getRefundedAmount();
+    }
 }
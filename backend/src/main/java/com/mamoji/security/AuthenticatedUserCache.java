@@ -0,0 +1,114 @@
+package com.mamoji.security;
+
+import com.mamoji.config.SecurityProperties;
+import com.mamoji.entity.User;
+import com.mamoji.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived, bounded cache of authenticated users keyed by id.
+ *
+ * <p>Callers always receive a fresh copy, because controllers mutate and save the injected principal.
+ * Missing users are never cached. Writes to a user (profile, password, role, deletion) must call
+ * {@link #evict(Long)}; an eviction that races with an in-flight load prevents that load from being cached.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthenticatedUserCache {
+
+    private final UserRepository userRepository;
+    private final SecurityProperties securityProperties;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private record Entry(User user, long expiresAt) {
+    }
+
+    /**
+     * Returns a copy of the user, loading it when absent or expired.
+     */
+    public Optional<User> get(Long userId) {
+        long ttlNanos = securityProperties.getPrincipalCache().getTtl().toNanos();
+        if (ttlNanos <= 0) {
+            return userRepository.findById(userId);
+        }
+        long now = System.nanoTime();
+        Entry cached = entries.get(userId);
+        if (cached != null && cached.expiresAt() - now > 0) {
+            return Optional.of(copy(cached.user()));
+        }
+
+        long loadGeneration = generation.get();
+        Optional<User> loaded = userRepository.findById(userId);
+        if (loaded.isEmpty()) {
+            entries.remove(userId);
+            return loaded;
+        }
+        User snapshot = copy(loaded.get());
+        ensureCapacity(now);
+        entries.put(userId, new Entry(snapshot, now + ttlNanos));
+        if (generation.get() != loadGeneration) {
+            entries.remove(userId);
+        }
+        return Optional.of(copy(snapshot));
+    }
+
+    /**
+     * Drops one cached user; call after any write to that user.
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        entries.remove(userId);
+    }
+
+    /**
+     * Drops every cached user.
+     */
+    public void evictAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Purges expired entries when the cache is full, and clears it if that is not enough.
+     */
+    private void ensureCapacity(long now) {
+        int maxSize = Math.max(1, securityProperties.getPrincipalCache().getMaxSize());
+        if (entries.size() < maxSize) {
+            return;
+        }
+        entries.values().removeIf(entry -> entry.expiresAt() - now <= 0);
+        if (entries.size() >= maxSize) {
+            entries.clear();
+        }
+    }
+
+    private User copy(User user) {
+        return User.builder()
+            .id(user.getId())
+            .email(user.getEmail())
+            .passwordHash(user.getPasswordHash())
+            .nickname(user.getNickname())
+            .avatarUrl(user.getAvatarUrl())
+            .familyId(user.getFamilyId())
+            .role(user.getRole())
+            .permissions(user.getPermissions())
+            .createdAt(user.getCreatedAt())
+            .updatedAt(user.getUpdatedAt())
+            .build();
+    }
+}
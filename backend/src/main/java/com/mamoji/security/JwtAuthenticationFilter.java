@@ -1,7 +1,6 @@
 package com.mamoji.security;
 
 import com.mamoji.entity.User;
-import com.mamoji.repository.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,6 +18,8 @@ import java.util.Collections;
 
 /**
  * Spring Security filter that resolves JWT bearer token into authenticated user context.
+ *
+ * <p>The token is parsed once per request and the user is served from {@link AuthenticatedUserCache}.
  */
 @Component
 @RequiredArgsConstructor
@@ -26,7 +27,7 @@ import java.util.Collections;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final AuthenticatedUserCache authenticatedUserCache;
 
     /**
      * Keep filter enabled on async dispatch so SSE requests remain authenticated.
@@ -66,11 +67,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String token = authHeader.substring(7);
             log.debug("JWT Filter - Token: {}", token.substring(0, Math.min(10, token.length())) + "...");
 
-            if (jwtService.validateToken(token)) {
-                Long userId = jwtService.extractUserId(token);
+            Long userId = jwtService.parseUserId(token).orElse(null);
+            if (userId != null) {
                 log.debug("JWT Filter - UserId: {}", userId);
 
-                User user = userRepository.findById(userId).orElse(null);
+                User user = authenticatedUserCache.get(userId).orElse(null);
 
                 if (user != null) {
                     log.debug("JWT Filter - User found: {}", user.getEmail());
@@ -8,26 +8,25 @@ import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
 
 /**
  * JWT token utility service.
  *
- * <p>Provides token generation, parsing and validation based on configured secret.
+ * <p>Provides token generation, parsing and validation based on configured secret. The signing key and
+ * parser are built once at startup; each token is verified with a single parse.
  */
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final Long expiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
-
-    /**
-     * Creates HMAC signing key from configured secret.
-     */
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    public JwtService(@Value("${jwt.secret}") String secret, @Value("${jwt.expiration}") Long expiration) {
+        this.expiration = expiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
     }
 
     /**
@@ -38,34 +37,45 @@ public class JwtService {
             .subject(userId.toString())
             .issuedAt(new Date())
             .expiration(new Date(System.currentTimeMillis() + expiration * 1000))
-            .signWith(getSigningKey())
+            .signWith(signingKey)
             .compact();
     }
 
+    /**
+     * Verifies signature and expiration and returns the claims, or empty for an invalid token.
+     */
+    public Optional<Claims> parseClaims(String token) {
+        try {
+            return Optional.of(parser.parseSignedClaims(token).getPayload());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the user id of a valid token, or empty when the token or its subject is invalid.
+     */
+    public Optional<Long> parseUserId(String token) {
+        return parseClaims(token).flatMap(claims -> {
+            try {
+                return Optional.of(Long.parseLong(claims.getSubject()));
+            } catch (NumberFormatException e) {
+                return Optional.empty();
+            }
+        });
+    }
+
     /**
      * Extracts user id from token subject claim.
      */
     public Long extractUserId(String token) {
-        return Long.parseLong(Jwts.parser()
-            .verifyWith(getSigningKey())
-            .build()
-            .parseSignedClaims(token)
-            .getPayload()
-            .getSubject());
+        return Long.parseLong(parser.parseSignedClaims(token).getPayload().getSubject());
     }
 
     /**
      * Validates token signature and expiration.
      */
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return parseClaims(token).isPresent();
     }
 }
@@ -7,12 +7,13 @@ import com.mamoji.entity.Budget;
 import com.mamoji.entity.Category;
 import com.mamoji.entity.Transaction;
 import com.mamoji.repository.BudgetRepository;
-import com.mamoji.repository.CategoryRepository;
 import com.mamoji.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -21,9 +22,11 @@ import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -60,14 +63,17 @@ public class AIService {
         每次回答都必须包含风险提示：“投资有风险，决策需谨慎”。
         """ + OUTPUT_STYLE;
 
+    private static final String EMPTY_QUESTION_REPLY = "请先输入你想咨询的问题。";
+
     private static final Pattern STOCK_SNAPSHOT_PATTERN = Pattern.compile(
         "^([^:]+):\\s*current=([\\d.\\-]+)\\s+open=([\\d.\\-]+)\\s+close=([\\d.\\-]+)\\s+high=([\\d.\\-]+)\\s+low=([\\d.\\-]+)\\s+volume=([\\d.\\-]+).*$"
     );
 
     private final TransactionRepository transactionRepository;
     private final BudgetRepository budgetRepository;
-    private final CategoryRepository categoryRepository;
-    private final WebClient.Builder webClientBuilder;
+    private final CategoryResolver categoryResolver;
+    private final StockQuoteService stockQuoteService;
+    private final TransactionAggregationService transactionAggregationService;
     private final AiGateway aiGateway;
     private final FinanceIntentClassifier financeIntentClassifier;
 
@@ -79,27 +85,80 @@ public class AIService {
     public AIChatResponse chat(Long userId, String message, String assistantType) {
         String safeMessage = message == null ? "" : message.trim();
         if (safeMessage.isBlank()) {
-            return new AIChatResponse("请先输入你想咨询的问题。");
+            return new AIChatResponse(EMPTY_QUESTION_REPLY);
         }
 
-        String type = normalizeType(assistantType);
-        String prompt;
-        String systemPrompt;
-        Map<String, Object> financeContext = null;
-        String stockData = null;
+        PreparedPrompt prepared = preparePrompt(userId, safeMessage, assistantType);
+        String reply = aiGateway.chat(prepared.systemPrompt(), prepared.prompt(), null, prepared.type());
+        return new AIChatResponse(normalizeReply(prepared.type(), safeMessage, reply, prepared.financeContext(), prepared.stockData()));
+    }
 
+    /**
+     * Non-blocking chat entry with the same reply normalization as {@link #chat}.
+     *
+     * <p>Context is prepared on a bounded-elastic thread; the model call itself does not hold a thread.
+     */
+    public Mono<AIChatResponse> chatReactive(Long userId, String message, String assistantType) {
+        String safeMessage = message == null ? "" : message.trim();
+        if (safeMessage.isBlank()) {
+            return Mono.just(new AIChatResponse(EMPTY_QUESTION_REPLY));
+        }
+
+        return Mono.fromCallable(() -> preparePrompt(userId, safeMessage, assistantType))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(prepared -> aiGateway.chatReactive(prepared.systemPrompt(), prepared.prompt(), null, prepared.type())
+                .defaultIfEmpty("")
+                .map(reply -> new AIChatResponse(
+                    normalizeReply(prepared.type(), safeMessage, reply, prepared.financeContext(), prepared.stockData()))));
+    }
+
+    /**
+     * Streaming chat entry: forwards model deltas as they arrive.
+     *
+     * <p>Context is prepared on a bounded-elastic thread because it queries the database and the quote
+     * provider. A gateway error or empty stream is replaced by the same fallback answer as {@link #chat};
+     * the finance template rewrite cannot be applied to text that has already been streamed.
+     */
+    public Flux<String> streamChat(Long userId, String message, String assistantType) {
+        String safeMessage = message == null ? "" : message.trim();
+        if (safeMessage.isBlank()) {
+            return Flux.just(EMPTY_QUESTION_REPLY);
+        }
+
+        return Flux.defer(() -> {
+                PreparedPrompt prepared = preparePrompt(userId, safeMessage, assistantType);
+                Flux<String> fallback = Flux.defer(() -> Flux.just(
+                    normalizeReply(prepared.type(), safeMessage, null, prepared.financeContext(), prepared.stockData())));
+                return aiGateway.streamChat(prepared.systemPrompt(), prepared.prompt(), null, prepared.type())
+                    .filter(delta -> !delta.isEmpty())
+                    .switchOnFirst((first, deltas) -> first.hasValue() && isGatewayErrorLike(first.get().trim())
+                        ? fallback
+                        : deltas)
+                    .switchIfEmpty(fallback);
+            })
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Builds system prompt, user prompt and grounding context for one question.
+     */
+    private PreparedPrompt preparePrompt(Long userId, String safeMessage, String assistantType) {
+        String type = normalizeType(assistantType);
         if ("stock".equals(type)) {
-            stockData = fetchStockData(safeMessage);
-            prompt = buildStockPrompt(safeMessage, stockData);
-            systemPrompt = STOCK_SYSTEM_PROMPT;
-        } else {
-            financeContext = buildFinanceContext(userId);
-            prompt = buildFinancePrompt(safeMessage, financeContext);
-            systemPrompt = FINANCE_SYSTEM_PROMPT;
+            String stockData = fetchStockData(safeMessage);
+            return new PreparedPrompt(type, STOCK_SYSTEM_PROMPT, buildStockPrompt(safeMessage, stockData), null, stockData);
         }
+        Map<String, Object> financeContext = buildFinanceContext(userId);
+        return new PreparedPrompt(type, FINANCE_SYSTEM_PROMPT, buildFinancePrompt(safeMessage, financeContext), financeContext, null);
+    }
 
-        String reply = aiGateway.chat(systemPrompt, prompt, null, type);
-        return new AIChatResponse(normalizeReply(type, safeMessage, reply, financeContext, stockData));
+    private record PreparedPrompt(
+        String type,
+        String systemPrompt,
+        String prompt,
+        Map<String, Object> financeContext,
+        String stockData
+    ) {
     }
 
     private String normalizeType(String assistantType) {
@@ -118,15 +177,16 @@ public class AIService {
             stockCodes.add("sz399001");
         }
 
-        for (String code : stockCodes) {
-            try {
-                String data = fetchStockQuote(code);
-                if (data != null) {
-                    stockData.append(data).append("\n");
+        // Batches are fetched concurrently under one deadline; codes that miss it are left out.
+        try {
+            for (StockQuoteService.StockQuote quote : stockQuoteService.getQuotes(stockCodes).values()) {
+                StockSnapshot snapshot = StockSnapshot.from(quote);
+                if (snapshot != null) {
+                    stockData.append(snapshot.toLine()).append("\n");
                 }
-            } catch (Exception ex) {
-                log.error("Fetch stock data failed for code={}", code, ex);
             }
+        } catch (Exception ex) {
+            log.error("Fetch stock data failed for codes={}", stockCodes, ex);
         }
 
         return stockData.toString();
@@ -149,35 +209,6 @@ public class AIService {
         return codes;
     }
 
-    /**
-     * Queries Sina quote endpoint and returns a compact snapshot line.
-     */
-    private String fetchStockQuote(String stockCode) {
-        String response = webClientBuilder
-            .baseUrl("https://hq.sinajs.cn/list=" + stockCode)
-            .defaultHeader("Referer", "https://finance.sina.com.cn/")
-            .build()
-            .get()
-            .retrieve()
-            .bodyToMono(String.class)
-            .block();
-
-        if (response == null || !response.contains("=")) {
-            return null;
-        }
-
-        String data = response.substring(response.indexOf('=') + 1).replace("\"", "").replace(";", "");
-        String[] parts = data.split(",");
-        if (parts.length < 9) {
-            return null;
-        }
-
-        return String.format(
-            "%s: current=%s open=%s close=%s high=%s low=%s volume=%s",
-            parts[0], parts[3], parts[1], parts[2], parts[4], parts[5], parts[8]
-        );
-    }
-
     /**
      * Builds finance context including month summary, category expense, recent transactions and active budgets.
      */
@@ -187,38 +218,43 @@ public class AIService {
         LocalDate startDate = currentMonth.atDay(1);
         LocalDate endDate = currentMonth.atEndOfMonth();
 
-        BigDecimal totalIncome = transactionRepository.sumByUserIdAndTypeAndDateBetween(userId, 1, startDate, endDate);
-        BigDecimal totalExpense = transactionRepository.sumByUserIdAndTypeAndDateBetween(userId, 2, startDate, endDate);
+        BigDecimal totalIncome = transactionAggregationService.sumByType(userId, 1, startDate, endDate);
+        BigDecimal totalExpense = transactionAggregationService.sumByType(userId, 2, startDate, endDate);
+
+        List<Transaction> recentTransactions = transactionRepository.findByUserIdAndDateBetween(userId, startDate, endDate)
+            .stream()
+            .limit(10)
+            .toList();
+        Map<Long, BigDecimal> categoryExpenses = transactionAggregationService.sumByCategory(userId, 2, startDate, endDate);
+        List<Budget> activeBudgets = budgetRepository.findActiveBudgets(userId, LocalDate.now());
+
+        // One batch lookup covers categories referenced by transactions, expenses and budgets.
+        Set<Long> categoryIds = new HashSet<>(categoryExpenses.keySet());
+        recentTransactions.forEach(transaction -> categoryIds.add(transaction.getCategoryId()));
+        activeBudgets.forEach(budget -> categoryIds.add(budget.getCategoryId()));
+        Map<Long, Category> categories = categoryResolver.resolve(categoryIds);
 
         context.put("period", startDate + " to " + endDate);
-        context.put("totalIncome", totalIncome != null ? totalIncome : BigDecimal.ZERO);
-        context.put("totalExpense", totalExpense != null ? totalExpense : BigDecimal.ZERO);
+        context.put("totalIncome", totalIncome);
+        context.put("totalExpense", totalExpense);
         context.put(
             "recentTransactions",
-            transactionRepository.findByUserIdAndDateBetween(userId, startDate, endDate)
-                .stream()
-                .limit(10)
-                .map(this::formatTransaction)
+            recentTransactions.stream()
+                .map(transaction -> formatTransaction(transaction, categories))
                 .toList()
         );
-        context.put(
-            "categoryExpenses",
-            formatCategoryExpenses(transactionRepository.sumByCategoryAndType(userId, 2, startDate, endDate))
-        );
+        context.put("categoryExpenses", formatCategoryExpenses(categoryExpenses, categories));
         context.put(
             "activeBudgets",
-            budgetRepository.findActiveBudgets(userId, LocalDate.now())
-                .stream()
-                .map(this::formatBudget)
+            activeBudgets.stream()
+                .map(budget -> formatBudget(budget, categories))
                 .toList()
         );
         return context;
     }
 
-    private String formatTransaction(Transaction transaction) {
-        String categoryName = categoryRepository.findById(transaction.getCategoryId())
-            .map(Category::getName)
-            .orElse("未分类");
+    private String formatTransaction(Transaction transaction, Map<Long, Category> categories) {
+        String categoryName = CategoryResolver.nameOf(categories, transaction.getCategoryId(), "未分类");
 
         return String.format(
             "%s | %s | %s | %.2f | %s",
@@ -230,7 +266,7 @@ public class AIService {
         );
     }
 
-    private Map<String, Object> formatBudget(Budget budget) {
+    private Map<String, Object> formatBudget(Budget budget, Map<Long, Category> categories) {
         Map<String, Object> item = new HashMap<>();
         item.put("startDate", budget.getStartDate());
         item.put("endDate", budget.getEndDate());
@@ -238,25 +274,22 @@ public class AIService {
         item.put("categoryId", budget.getCategoryId());
 
         if (budget.getCategoryId() != null) {
-            categoryRepository.findById(budget.getCategoryId()).ifPresent(category -> item.put("categoryName", category.getName()));
+            Category category = categories.get(budget.getCategoryId());
+            if (category != null) {
+                item.put("categoryName", category.getName());
+            }
         } else {
             item.put("categoryName", "总预算");
         }
         return item;
     }
 
-    private List<Map<String, Object>> formatCategoryExpenses(List<Object[]> categoryExpenses) {
-        return categoryExpenses.stream()
+    private List<Map<String, Object>> formatCategoryExpenses(Map<Long, BigDecimal> categoryExpenses, Map<Long, Category> categories) {
+        return categoryExpenses.entrySet().stream()
             .map(row -> {
-                Long categoryId = (Long) row[0];
-                BigDecimal amount = (BigDecimal) row[1];
-
                 Map<String, Object> item = new HashMap<>();
-                item.put("amount", amount);
-                item.put(
-                    "categoryName",
-                    categoryRepository.findById(categoryId).map(Category::getName).orElse("未分类")
-                );
+                item.put("amount", row.getValue());
+                item.put("categoryName", CategoryResolver.nameOf(categories, row.getKey(), "未分类"));
                 return item;
             })
             .toList();
@@ -0,0 +1,300 @@
+package com.mamoji.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mamoji.common.exception.BadRequestException;
+import com.mamoji.entity.Category;
+import com.mamoji.entity.Transaction;
+import com.mamoji.entity.User;
+import com.mamoji.repository.AccountRepository;
+import com.mamoji.repository.BudgetRepository;
+import com.mamoji.repository.LedgerRepository;
+import com.mamoji.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Streams a user's backup straight to an output stream.
+ *
+ * <p>Small entity sets (accounts, categories, budgets, ledgers) are loaded as lists; transactions are read
+ * through a fetch-size bounded cursor and detached after being written, so memory stays flat regardless of
+ * history size. JSON and NDJSON end with per-entity counts, so a missing trailer means the export was cut short;
+ * CSV has no trailer and is checked against the transaction count reported up front.
+ */
+@Service
+@RequiredArgsConstructor
+public class BackupExportService {
+
+    /**
+     * Version written into NDJSON header records.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final String[] CSV_COLUMNS = {
+        "id", "date", "type", "amount", "categoryId", "categoryName", "accountId", "budgetId",
+        "originalTransactionId", "refundedAmount", "remark", "createdAt"
+    };
+
+    private final AccountRepository accountRepository;
+    private final BudgetRepository budgetRepository;
+    private final LedgerRepository ledgerRepository;
+    private final TransactionRepository transactionRepository;
+    private final CategoryResolver categoryResolver;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Supported export formats.
+     */
+    public enum Format {
+        /** Single JSON document with the same shape as the original export. */
+        JSON("json", "application/json"),
+        /** One JSON record per line, framed by header and trailer records. */
+        NDJSON("ndjson", "application/x-ndjson"),
+        /** Transactions only, one row per line. */
+        CSV("csv", "text/csv");
+
+        private final String extension;
+        private final String mediaType;
+
+        Format(String extension, String mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public String mediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Parses a request parameter; blank means {@link #JSON}.
+         */
+        public static Format parse(String value) {
+            if (value == null || value.isBlank()) {
+                return JSON;
+            }
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new BadRequestException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of transaction rows the export will contain.
+     */
+    @Transactional(readOnly = true)
+    public long countTransactions(Long userId) {
+        return transactionRepository.countByUserId(userId);
+    }
+
+    /**
+     * Writes the backup of one user and returns per-entity counts; the stream is flushed but not closed.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Long> export(User user, Format format, OutputStream out) throws IOException {
+        return switch (format) {
+            case JSON -> writeJson(user, out);
+            case NDJSON -> writeNdjson(user, out);
+            case CSV -> writeCsv(user, out);
+        };
+    }
+
+    private Map<String, Long> writeJson(User user, OutputStream out) throws IOException {
+        ObjectWriter writer = rowWriter();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("exportedAt", LocalDateTime.now().toString());
+            generator.writeNumberField("userId", user.getId());
+            for (Map.Entry<String, List<?>> section : smallSections(user).entrySet()) {
+                generator.writeFieldName(section.getKey());
+                writer.writeValue(generator, section.getValue());
+                counts.put(section.getKey(), (long) section.getValue().size());
+            }
+
+            generator.writeArrayFieldStart("transactions");
+            long transactions = forEachTransaction(user.getId(), transaction -> writeValue(writer, generator, transaction));
+            generator.writeEndArray();
+            counts.put("transactions", transactions);
+
+            generator.writeFieldName("counts");
+            writer.writeValue(generator, counts);
+            generator.writeEndObject();
+        }
+        return counts;
+    }
+
+    private Map<String, Long> writeNdjson(User user, OutputStream out) throws IOException {
+        ObjectWriter writer = rowWriter();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        try (JsonGenerator generator = createGenerator(out)) {
+            Map<String, Object> header = new LinkedHashMap<>();
+            header.put("record", "header");
+            header.put("version", FORMAT_VERSION);
+            header.put("exportedAt", LocalDateTime.now().toString());
+            header.put("userId", user.getId());
+            writeLine(writer, generator, header);
+
+            for (Map.Entry<String, List<?>> section : smallSections(user).entrySet()) {
+                String kind = singular(section.getKey());
+                for (Object row : section.getValue()) {
+                    writeLine(writer, generator, record(kind, row));
+                }
+                counts.put(section.getKey(), (long) section.getValue().size());
+            }
+
+            long transactions = forEachTransaction(user.getId(),
+                transaction -> writeLine(writer, generator, record("transaction", transaction)));
+            counts.put("transactions", transactions);
+
+            Map<String, Object> trailer = new LinkedHashMap<>();
+            trailer.put("record", "trailer");
+            trailer.put("counts", counts);
+            writeLine(writer, generator, trailer);
+        }
+        return counts;
+    }
+
+    private Map<String, Long> writeCsv(User user, OutputStream out) throws IOException {
+        Map<Long, String> categoryNames = new HashMap<>();
+        for (Category category : categoryResolver.visibleTo(user.getFamilyId())) {
+            categoryNames.put(category.getId(), category.getName());
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", CSV_COLUMNS));
+        writer.write('\n');
+        long transactions = forEachTransaction(user.getId(), transaction -> {
+            try {
+                writeCsvRow(writer, transaction, categoryNames.get(transaction.getCategoryId()));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        writer.flush();
+        return Map.of("transactions", transactions);
+    }
+
+    /**
+     * Streams transactions in (date, id) order, detaching each row once handled.
+     */
+    private long forEachTransaction(Long userId, Consumer<Transaction> consumer) throws IOException {
+        long count = 0;
+        try (Stream<Transaction> rows = transactionRepository.streamByUserId(userId)) {
+            Iterator<Transaction> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Transaction transaction = iterator.next();
+                consumer.accept(transaction);
+                entityManager.detach(transaction);
+                count++;
+            }
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        return count;
+    }
+
+    private Map<String, List<?>> smallSections(User user) {
+        Map<String, List<?>> sections = new LinkedHashMap<>();
+        sections.put("accounts", accountRepository.findByUserIdAndStatus(user.getId(), 1));
+        sections.put("categories", categoryResolver.visibleTo(user.getFamilyId()));
+        sections.put("budgets", budgetRepository.findByUserIdAndStatus(user.getId(), 1));
+        sections.put("ledgers", ledgerRepository.findByOwnerIdAndStatus(user.getId(), 1));
+        return sections;
+    }
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    /**
+     * Row writer that leaves flushing to the generator buffer instead of flushing after every value.
+     */
+    private ObjectWriter rowWriter() {
+        return objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private void writeLine(ObjectWriter writer, JsonGenerator generator, Object value) {
+        writeValue(writer, generator, value);
+        try {
+            generator.writeRaw('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void writeValue(ObjectWriter writer, JsonGenerator generator, Object value) {
+        try {
+            writer.writeValue(generator, value);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Map<String, Object> record(String kind, Object data) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("record", kind);
+        record.put("data", data);
+        return record;
+    }
+
+    private String singular(String section) {
+        return section.equals("categories") ? "category" : section.substring(0, section.length() - 1);
+    }
+
+    private void writeCsvRow(Writer writer, Transaction transaction, String categoryName) throws IOException {
+        Object[] values = {
+            transaction.getId(), transaction.getDate(), transaction.getType(), transaction.getAmount(),
+            transaction.getCategoryId(), categoryName, transaction.getAccountId(), transaction.getBudgetId(),
+            transaction.getOriginalTransactionId(), transaction.getRefundedAmount(), transaction.getRemark(),
+            transaction.getCreatedAt()
+        };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values[i]));
+        }
+        writer.write('\n');
+    }
+
+    private String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,610 @@
+package com.mamoji.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mamoji.common.exception.BadRequestException;
+import com.mamoji.common.status.BackupImportStatus;
+import com.mamoji.common.status.BudgetStatus;
+import com.mamoji.dto.LedgerDTO;
+import com.mamoji.entity.Account;
+import com.mamoji.entity.BackupImportJob;
+import com.mamoji.entity.BackupImportMapping;
+import com.mamoji.entity.Budget;
+import com.mamoji.entity.Category;
+import com.mamoji.entity.Ledger;
+import com.mamoji.entity.Transaction;
+import com.mamoji.entity.User;
+import com.mamoji.repository.AccountRepository;
+import com.mamoji.repository.BackupImportJobRepository;
+import com.mamoji.repository.BackupImportMappingRepository;
+import com.mamoji.repository.BudgetRepository;
+import com.mamoji.repository.CategoryRepository;
+import com.mamoji.repository.LedgerRepository;
+import com.mamoji.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports backups written by {@link BackupExportService} into the requesting user's data.
+ *
+ * <p>Files are stream-parsed twice: the first pass collects the small reference sections (ledgers, categories,
+ * accounts, budgets) and imports them in one database transaction, recording source-to-target id mappings;
+ * the second pass reads transactions one record at a time and commits them in chunks of {@link #CHUNK_SIZE},
+ * each chunk together with its checkpoint. A failed import is resumed by uploading the same file again: the
+ * job is found by file digest and already committed records are skipped. Both the single-document JSON export
+ * (in any section order) and the NDJSON export are accepted, optionally gzip- or zip-compressed.
+ */
+@Service
+@RequiredArgsConstructor
+public class BackupImportService {
+
+    /**
+     * Number of transaction records committed per database transaction.
+     */
+    public static final int CHUNK_SIZE = 1000;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String LEDGER = "ledger";
+    private static final String CATEGORY = "category";
+    private static final String ACCOUNT = "account";
+    private static final String BUDGET = "budget";
+    private static final String TRANSACTION = "transaction";
+    private static final String PENDING_REFUND = "pending_refund";
+
+    private static final Map<String, String> SECTION_KINDS = Map.of(
+        "ledgers", LEDGER,
+        "categories", CATEGORY,
+        "accounts", ACCOUNT,
+        "budgets", BUDGET,
+        "transactions", TRANSACTION
+    );
+
+    private final BackupImportJobRepository backupImportJobRepository;
+    private final BackupImportMappingRepository backupImportMappingRepository;
+    private final LedgerService ledgerService;
+    private final LedgerRepository ledgerRepository;
+    private final CategoryRepository categoryRepository;
+    private final CategoryResolver categoryResolver;
+    private final AccountRepository accountRepository;
+    private final BudgetRepository budgetRepository;
+    private final BudgetService budgetService;
+    private final TransactionRepository transactionRepository;
+    private final TransactionBatchImportService transactionBatchImportService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Outcome of one import run.
+     *
+     * <p>{@code counts} are cumulative over all runs of the job; {@code transactionsThisRun} and
+     * {@code rowsPerSecond} only cover this run.
+     */
+    public record ImportReport(
+        Long jobId,
+        int status,
+        boolean resumed,
+        boolean alreadyImported,
+        Map<String, Long> counts,
+        long skippedOnResume,
+        long transactionsThisRun,
+        long elapsedMs,
+        double rowsPerSecond,
+        String error
+    ) {
+
+        /**
+         * Returns the number of imported rows across all entity kinds.
+         */
+        public long importedCount() {
+            return counts.getOrDefault("ledgers", 0L)
+                + counts.getOrDefault("categories", 0L)
+                + counts.getOrDefault("accounts", 0L)
+                + counts.getOrDefault("budgets", 0L)
+                + counts.getOrDefault("transactions", 0L);
+        }
+    }
+
+    /**
+     * Returns whether the file name has a supported backup extension.
+     */
+    public static boolean isSupportedFileName(String fileName) {
+        String name = stripGzip(fileName == null ? "" : fileName.toLowerCase(Locale.ROOT));
+        return isBackupDocument(name) || name.endsWith(".zip");
+    }
+
+    /**
+     * Imports one backup file for the user, resuming an earlier failed run of the same file.
+     */
+    public ImportReport importBackup(User user, MultipartFile file) throws IOException {
+        BackupSource source = BackupSource.of(file);
+        String digest = sha256(file);
+        BackupImportJob existing = backupImportJobRepository
+            .findFirstByUserIdAndFileSha256OrderByIdDesc(user.getId(), digest)
+            .orElse(null);
+        if (existing != null && existing.getStatus() == BackupImportStatus.COMPLETED) {
+            return report(existing, true, true, 0, 0, 0, null);
+        }
+
+        BackupImportJob job = existing != null ? existing : newJob(user.getId(), digest, file.getOriginalFilename());
+        boolean resumed = existing != null;
+        long skippedOnResume = job.getTransactionsProcessed();
+        job.setStatus(BackupImportStatus.RUNNING);
+        job.setLastError(null);
+        job = backupImportJobRepository.save(job);
+
+        long startedAt = System.nanoTime();
+        try {
+            Mappings mappings = loadMappings(job.getId());
+            if (!Boolean.TRUE.equals(job.getReferencesImported())) {
+                importReferences(job, user, source, mappings);
+            }
+            importTransactions(job, user, source, mappings, skippedOnResume);
+            finish(job, user, mappings);
+        } catch (IOException | RuntimeException ex) {
+            // The stored row is the checkpoint; in-memory counters may include a chunk that rolled back.
+            job = backupImportJobRepository.findById(job.getId()).orElse(job);
+            job.setStatus(BackupImportStatus.FAILED);
+            job.setLastError(truncate(ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage()));
+            job = backupImportJobRepository.save(job);
+        }
+
+        long elapsedNanos = Math.max(1L, System.nanoTime() - startedAt);
+        long transactionsThisRun = job.getTransactionsProcessed() - skippedOnResume;
+        return report(job, resumed, false, transactionsThisRun, elapsedNanos / 1_000_000,
+            transactionsThisRun * 1_000_000_000.0 / elapsedNanos, job.getLastError());
+    }
+
+    /**
+     * First pass: imports ledgers, categories, accounts and budgets in one transaction.
+     */
+    private void importReferences(BackupImportJob job, User user, BackupSource source, Mappings mappings) throws IOException {
+        List<Ledger> ledgers = new ArrayList<>();
+        List<Category> categories = new ArrayList<>();
+        List<Account> accounts = new ArrayList<>();
+        List<Budget> budgets = new ArrayList<>();
+        readRecords(source, (kind, parser) -> {
+            switch (kind) {
+                case LEDGER -> ledgers.add(objectMapper.readValue(parser, Ledger.class));
+                case CATEGORY -> categories.add(objectMapper.readValue(parser, Category.class));
+                case ACCOUNT -> accounts.add(objectMapper.readValue(parser, Account.class));
+                case BUDGET -> budgets.add(objectMapper.readValue(parser, Budget.class));
+                default -> parser.skipChildren();
+            }
+        });
+
+        List<Category> created = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<BackupImportMapping> recorded = new ArrayList<>();
+            importLedgers(job, user, ledgers, mappings, recorded);
+            created.addAll(importCategories(job, user, categories, mappings, recorded));
+            importAccounts(job, user, accounts, mappings, recorded);
+            importBudgets(job, user, budgets, mappings, recorded);
+            backupImportMappingRepository.saveAll(recorded);
+
+            job.setLedgersImported((long) ledgers.size());
+            job.setCategoriesImported((long) categories.size());
+            job.setAccountsImported((long) accounts.size());
+            job.setBudgetsImported((long) budgets.size());
+            job.setReferencesImported(true);
+            backupImportJobRepository.save(job);
+        });
+        created.forEach(categoryResolver::evict);
+    }
+
+    private void importLedgers(
+        BackupImportJob job, User user, List<Ledger> ledgers, Mappings mappings, List<BackupImportMapping> recorded
+    ) {
+        boolean hasDefault = ledgerRepository.findDefaultLedger(user.getId()).isPresent();
+        for (Ledger source : ledgers) {
+            boolean makeDefault = !hasDefault && Boolean.TRUE.equals(source.getIsDefault());
+            LedgerDTO dto = new LedgerDTO();
+            dto.setName(source.getName());
+            dto.setDescription(source.getDescription());
+            dto.setCurrency(source.getCurrency());
+            dto.setIsDefault(makeDefault);
+            hasDefault |= makeDefault;
+            Long targetId = ledgerService.createLedger(dto, user.getId()).getId();
+            mappings.record(job.getId(), LEDGER, source.getId(), targetId, recorded);
+        }
+    }
+
+    /**
+     * Maps categories onto visible ones with the same name and type, creating the rest in the user's family.
+     */
+    private List<Category> importCategories(
+        BackupImportJob job, User user, List<Category> categories, Mappings mappings, List<BackupImportMapping> recorded
+    ) {
+        Map<String, Long> visible = new HashMap<>();
+        categoryResolver.visibleTo(user.getFamilyId())
+            .forEach(category -> visible.putIfAbsent(categoryKey(category), category.getId()));
+
+        List<Category> created = new ArrayList<>();
+        for (Category source : categories) {
+            Long targetId = visible.get(categoryKey(source));
+            if (targetId == null) {
+                Category saved = categoryRepository.save(Category.builder()
+                    .familyId(user.getFamilyId())
+                    .name(source.getName())
+                    .type(source.getType())
+                    .icon(source.getIcon())
+                    .color(source.getColor())
+                    .isSystem(0)
+                    .build());
+                created.add(saved);
+                targetId = saved.getId();
+                visible.put(categoryKey(saved), targetId);
+            }
+            mappings.record(job.getId(), CATEGORY, source.getId(), targetId, recorded);
+        }
+        return created;
+    }
+
+    private void importAccounts(
+        BackupImportJob job, User user, List<Account> accounts, Mappings mappings, List<BackupImportMapping> recorded
+    ) {
+        for (Account source : accounts) {
+            Account account = new Account();
+            account.setName(source.getName());
+            account.setType(source.getType());
+            account.setSubType(source.getSubType());
+            account.setBank(source.getBank());
+            account.setBalance(source.getBalance() != null ? source.getBalance() : BigDecimal.ZERO);
+            account.setIncludeInNetWorth(source.getIncludeInNetWorth() != null ? source.getIncludeInNetWorth() : true);
+            account.setUserId(user.getId());
+            account.setLedgerId(mappings.target(LEDGER, source.getLedgerId()));
+            account.setStatus(source.getStatus() != null ? source.getStatus() : 1);
+            Long targetId = accountRepository.save(account).getId();
+            mappings.record(job.getId(), ACCOUNT, source.getId(), targetId, recorded);
+        }
+    }
+
+    private void importBudgets(
+        BackupImportJob job, User user, List<Budget> budgets, Mappings mappings, List<BackupImportMapping> recorded
+    ) {
+        for (Budget source : budgets) {
+            Budget budget = budgetRepository.save(Budget.builder()
+                .name(source.getName())
+                .amount(source.getAmount())
+                .startDate(source.getStartDate())
+                .endDate(source.getEndDate())
+                .warningThreshold(source.getWarningThreshold() != null ? source.getWarningThreshold() : 80)
+                .status(source.getStatus() != null ? source.getStatus() : BudgetStatus.ACTIVE)
+                .spent(BigDecimal.ZERO)
+                .userId(user.getId())
+                .ledgerId(mappings.target(LEDGER, source.getLedgerId()))
+                .categoryId(mappings.target(CATEGORY, source.getCategoryId()))
+                .build());
+            mappings.record(job.getId(), BUDGET, source.getId(), budget.getId(), recorded);
+        }
+    }
+
+    /**
+     * Second pass: streams transaction records and commits them chunk by chunk after the checkpoint.
+     */
+    private void importTransactions(
+        BackupImportJob job, User user, BackupSource source, Mappings mappings, long alreadyProcessed
+    ) throws IOException {
+        List<Transaction> chunk = new ArrayList<>(CHUNK_SIZE);
+        long[] seen = {0};
+        readRecords(source, (kind, parser) -> {
+            if (!TRANSACTION.equals(kind) || ++seen[0] <= alreadyProcessed) {
+                parser.skipChildren();
+                return;
+            }
+            chunk.add(objectMapper.readValue(parser, Transaction.class));
+            if (chunk.size() == CHUNK_SIZE) {
+                commitChunk(job, user, chunk, mappings);
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            commitChunk(job, user, chunk, mappings);
+        }
+    }
+
+    /**
+     * Inserts one chunk, maintains rollups and advances the checkpoint in a single transaction.
+     *
+     * <p>Plain rows go through the JDBC batch insert. Refund originals and refunds whose original is not imported
+     * yet are saved one by one, because their generated ids must be recorded for the refund links.
+     */
+    private void commitChunk(BackupImportJob job, User user, List<Transaction> sources, Mappings mappings) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Transaction> batched = new ArrayList<>(sources.size());
+            List<Transaction> inserted = new ArrayList<>(sources.size());
+            List<BackupImportMapping> recorded = new ArrayList<>();
+            long skipped = 0;
+            for (Transaction source : sources) {
+                if (source.getType() == null || source.getAmount() == null || source.getDate() == null) {
+                    skipped++;
+                    continue;
+                }
+                Transaction row = Transaction.builder()
+                    .userId(user.getId())
+                    .familyId(user.getFamilyId())
+                    .type(source.getType())
+                    .amount(source.getAmount())
+                    .categoryId(mappings.target(CATEGORY, source.getCategoryId()))
+                    .accountId(mappings.target(ACCOUNT, source.getAccountId()))
+                    .budgetId(mappings.target(BUDGET, source.getBudgetId()))
+                    .originalTransactionId(mappings.target(TRANSACTION, source.getOriginalTransactionId()))
+                    .refundedAmount(source.getRefundedAmount())
+                    .isRefundable(source.getIsRefundable())
+                    .date(source.getDate())
+                    .remark(source.getRemark())
+                    .build();
+
+                boolean refundOriginal = source.getId() != null && source.getRefundedAmount() != null
+                    && source.getRefundedAmount().signum() > 0;
+                boolean pendingRefund = source.getOriginalTransactionId() != null && row.getOriginalTransactionId() == null;
+                if (refundOriginal || pendingRefund) {
+                    Long targetId = transactionRepository.save(row).getId();
+                    if (refundOriginal) {
+                        mappings.record(job.getId(), TRANSACTION, source.getId(), targetId, recorded);
+                    }
+                    if (pendingRefund) {
+                        mappings.record(job.getId(), PENDING_REFUND, source.getOriginalTransactionId(), targetId, recorded);
+                    }
+                } else {
+                    batched.add(row);
+                }
+                inserted.add(row);
+            }
+
+            transactionBatchImportService.insertRows(batched);
+            monthlyRollupService.applyInserts(inserted);
+            backupImportMappingRepository.saveAll(recorded);
+            job.setTransactionsProcessed(job.getTransactionsProcessed() + sources.size());
+            job.setTransactionsSkipped(job.getTransactionsSkipped() + skipped);
+            backupImportJobRepository.save(job);
+            eventPublisher.publishEvent(new TransactionsChangedEvent(user.getId()));
+        });
+    }
+
+    /**
+     * Links refunds imported before their originals, recomputes budget snapshots and completes the job.
+     */
+    private void finish(BackupImportJob job, User user, Mappings mappings) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (BackupImportMapping pending : mappings.pendingRefunds) {
+                Long originalId = mappings.target(TRANSACTION, pending.getSourceId());
+                if (originalId != null) {
+                    transactionRepository.findById(pending.getTargetId())
+                        .ifPresent(refund -> refund.setOriginalTransactionId(originalId));
+                }
+            }
+            backupImportMappingRepository.deleteByJobIdAndKind(job.getId(), PENDING_REFUND);
+            mappings.targets(BUDGET).values().forEach(budgetId -> budgetService.syncBudgetSnapshot(budgetId, user.getId()));
+
+            job.setStatus(BackupImportStatus.COMPLETED);
+            backupImportJobRepository.save(job);
+            eventPublisher.publishEvent(new TransactionsChangedEvent(user.getId()));
+        });
+    }
+
+    /**
+     * Streams every record of the file to the handler, which must consume or skip the value it is given.
+     *
+     * <p>A root object starting with a {@code record} field is an NDJSON record whose {@code data} value is handed
+     * over; any other root object is an export document whose section arrays are handed over element by element.
+     */
+    private void readRecords(BackupSource source, RecordHandler handler) throws IOException {
+        try (InputStream in = source.open(); JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new BadRequestException("Backup file must contain JSON objects.");
+                }
+                readRootObject(parser, handler);
+            }
+        }
+    }
+
+    private void readRootObject(JsonParser parser, RecordHandler handler) throws IOException {
+        String recordKind = null;
+        boolean firstField = true;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (firstField && "record".equals(field)) {
+                recordKind = parser.getValueAsString();
+            } else if (recordKind != null) {
+                if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                    handler.handle(recordKind, parser);
+                } else {
+                    parser.skipChildren();
+                }
+            } else if (value == JsonToken.START_ARRAY && SECTION_KINDS.containsKey(field)) {
+                String kind = SECTION_KINDS.get(field);
+                JsonToken element;
+                while ((element = parser.nextToken()) == JsonToken.START_OBJECT) {
+                    handler.handle(kind, parser);
+                }
+                if (element != JsonToken.END_ARRAY) {
+                    throw new BadRequestException("Section " + field + " must contain only objects.");
+                }
+            } else {
+                parser.skipChildren();
+            }
+            firstField = false;
+        }
+    }
+
+    private Mappings loadMappings(Long jobId) {
+        Mappings mappings = new Mappings();
+        for (BackupImportMapping mapping : backupImportMappingRepository.findByJobId(jobId)) {
+            mappings.put(mapping);
+        }
+        return mappings;
+    }
+
+    private BackupImportJob newJob(Long userId, String digest, String fileName) {
+        return BackupImportJob.builder()
+            .userId(userId)
+            .fileSha256(digest)
+            .fileName(fileName)
+            .status(BackupImportStatus.RUNNING)
+            .referencesImported(false)
+            .ledgersImported(0L)
+            .categoriesImported(0L)
+            .accountsImported(0L)
+            .budgetsImported(0L)
+            .transactionsProcessed(0L)
+            .transactionsSkipped(0L)
+            .build();
+    }
+
+    private ImportReport report(
+        BackupImportJob job, boolean resumed, boolean alreadyImported,
+        long transactionsThisRun, long elapsedMs, double rowsPerSecond, String error
+    ) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("ledgers", job.getLedgersImported());
+        counts.put("categories", job.getCategoriesImported());
+        counts.put("accounts", job.getAccountsImported());
+        counts.put("budgets", job.getBudgetsImported());
+        counts.put("transactions", job.getTransactionsProcessed() - job.getTransactionsSkipped());
+        counts.put("skippedTransactions", job.getTransactionsSkipped());
+        long skippedOnResume = resumed && !alreadyImported ? job.getTransactionsProcessed() - transactionsThisRun : 0;
+        return new ImportReport(job.getId(), job.getStatus(), resumed, alreadyImported, counts,
+            skippedOnResume, transactionsThisRun, elapsedMs, rowsPerSecond, error);
+    }
+
+    private String sha256(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available.", ex);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = file.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private String categoryKey(Category category) {
+        return category.getType() + ":" + category.getName();
+    }
+
+    private String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static String stripGzip(String name) {
+        return name.endsWith(".gz") ? name.substring(0, name.length() - 3) : name;
+    }
+
+    private static boolean isBackupDocument(String name) {
+        return name.endsWith(".json") || name.endsWith(".ndjson") || name.endsWith(".jsonl");
+    }
+
+    /**
+     * Receives one record value; the parser is positioned on its {@code START_OBJECT}.
+     */
+    @FunctionalInterface
+    private interface RecordHandler {
+        void handle(String kind, JsonParser parser) throws IOException;
+    }
+
+    /**
+     * Re-openable view of the uploaded file that unwraps gzip or the first backup entry of a zip archive.
+     */
+    private record BackupSource(MultipartFile file, boolean gzip, boolean zip) {
+
+        static BackupSource of(MultipartFile file) {
+            String name = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase(Locale.ROOT);
+            if (!isSupportedFileName(name)) {
+                throw new BadRequestException("Only .json, .ndjson, .gz or .zip files are supported.");
+            }
+            return new BackupSource(file, name.endsWith(".gz"), name.endsWith(".zip"));
+        }
+
+        InputStream open() throws IOException {
+            InputStream raw = new BufferedInputStream(file.getInputStream(), BUFFER_SIZE);
+            if (gzip) {
+                return new GZIPInputStream(raw, BUFFER_SIZE);
+            }
+            if (!zip) {
+                return raw;
+            }
+            ZipInputStream archive = new ZipInputStream(raw);
+            ZipEntry entry;
+            while ((entry = archive.getNextEntry()) != null) {
+                if (!entry.isDirectory() && isBackupDocument(entry.getName().toLowerCase(Locale.ROOT))) {
+                    return archive;
+                }
+            }
+            archive.close();
+            throw new BadRequestException("Zip archive contains no .json or .ndjson backup.");
+        }
+    }
+
+    /**
+     * Source-to-target id mappings of one job, mirrored to {@code backup_import_mapping} as they are recorded.
+     */
+    private static final class Mappings {
+
+        private final Map<String, Map<Long, Long>> byKind = new HashMap<>();
+        private final List<BackupImportMapping> pendingRefunds = new ArrayList<>();
+
+        Long target(String kind, Long sourceId) {
+            return sourceId == null ? null : targets(kind).get(sourceId);
+        }
+
+        Map<Long, Long> targets(String kind) {
+            return byKind.computeIfAbsent(kind, key -> new LinkedHashMap<>());
+        }
+
+        void record(Long jobId, String kind, Long sourceId, Long targetId, List<BackupImportMapping> recorded) {
+            if (sourceId == null) {
+                return;
+            }
+            BackupImportMapping mapping = BackupImportMapping.builder()
+                .jobId(jobId)
+                .kind(kind)
+                .sourceId(sourceId)
+                .targetId(targetId)
+                .build();
+            put(mapping);
+            recorded.add(mapping);
+        }
+
+        void put(BackupImportMapping mapping) {
+            if (PENDING_REFUND.equals(mapping.getKind())) {
+                pendingRefunds.add(mapping);
+            } else {
+                targets(mapping.getKind()).put(mapping.getSourceId(), mapping.getTargetId());
+            }
+        }
+    }
+}
@@ -194,6 +194,34 @@ public class BudgetService {
         return budgetRepository.findActiveBudgetWithoutCategory(userId, date);
     }
 
+    /**
+     * Matches an expense against budgets already loaded in memory.
+     *
+     * <p>Applies the same preference order as {@link #matchActiveBudgetForExpense(Long, Long, LocalDate)}
+     * so bulk writes can match many rows without one query per row.
+     */
+    public Optional<Budget> matchActiveBudgetForExpense(List<Budget> candidates, Long categoryId, LocalDate date) {
+        Budget fallback = null;
+        for (Budget budget : candidates) {
+            if (budget.getStatus() == null
+                || budget.getStatus() != BudgetStatus.ACTIVE
+                || budget.getStartDate() == null
+                || budget.getEndDate() == null
+                || budget.getStartDate().isAfter(date)
+                || budget.getEndDate().isBefore(date)) {
+                continue;
+            }
+            if (budget.getCategoryId() == null) {
+                if (fallback == null) {
+                    fallback = budget;
+                }
+            } else if (budget.getCategoryId().equals(categoryId)) {
+                return Optional.of(budget);
+            }
+        }
+        return Optional.ofNullable(fallback);
+    }
+
     /**
      * Loads a budget and validates that it belongs to the current user.
      */
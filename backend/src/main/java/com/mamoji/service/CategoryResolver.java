@@ -0,0 +1,158 @@
+package com.mamoji.service;
+
+import com.mamoji.ai.metrics.AiMetricsService;
+import com.mamoji.entity.Category;
+import com.mamoji.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Application-level category cache and batch lookup for list serialization.
+ *
+ * <p>Categories are cached per scope: the shared scope holds rows without family (system presets)
+ * and each family scope holds that family's custom rows. Id lookups go through a separate index that
+ * also remembers missing ids, so hot paths do not touch the categories table once warm. Category
+ * writes must call {@link #evict(Category)} (or {@link #evictAll()} for bulk seeding).
+ */
+@Service
+@RequiredArgsConstructor
+public class CategoryResolver {
+
+    private static final String METRIC_LAYER = "category";
+    private static final Long SHARED_SCOPE = -1L;
+
+    private final CategoryRepository categoryRepository;
+    private final AiMetricsService aiMetricsService;
+
+    private final Map<Long, List<Category>> scopes = new ConcurrentHashMap<>();
+    private final Map<Long, Optional<Category>> byId = new ConcurrentHashMap<>();
+
+    /**
+     * Returns categories visible to a family: shared presets plus the family's own categories.
+     */
+    public List<Category> visibleTo(Long familyId) {
+        List<Category> shared = scope(SHARED_SCOPE);
+        if (familyId == null) {
+            return shared;
+        }
+        List<Category> own = scope(familyId);
+        List<Category> visible = new ArrayList<>(shared.size() + own.size());
+        visible.addAll(shared);
+        visible.addAll(own);
+        return Collections.unmodifiableList(visible);
+    }
+
+    /**
+     * Resolves categories by id; null ids are ignored and missing ids are absent from the result.
+     *
+     * <p>Only ids not yet cached are loaded, with one {@code findAllById} query.
+     */
+    public Map<Long, Category> resolve(Collection<Long> categoryIds) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Long categoryId : categoryIds) {
+            if (categoryId != null) {
+                ids.add(categoryId);
+            }
+        }
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, Category> categories = new HashMap<>();
+        Set<Long> misses = new LinkedHashSet<>();
+        for (Long id : ids) {
+            Optional<Category> cached = byId.get(id);
+            if (cached == null) {
+                misses.add(id);
+            } else {
+                cached.ifPresent(category -> categories.put(id, category));
+            }
+        }
+        aiMetricsService.recordCacheAccess(METRIC_LAYER, "by_id", misses.isEmpty());
+        if (misses.isEmpty()) {
+            return categories;
+        }
+
+        Map<Long, Category> loaded = new HashMap<>();
+        categoryRepository.findAllById(misses).forEach(category -> loaded.put(category.getId(), category));
+        for (Long id : misses) {
+            Category category = loaded.get(id);
+            byId.putIfAbsent(id, Optional.ofNullable(category));
+            if (category != null) {
+                categories.put(id, category);
+            }
+        }
+        return categories;
+    }
+
+    /**
+     * Resolves categories referenced by the given rows.
+     */
+    public <T> Map<Long, Category> resolve(Collection<T> rows, Function<T, Long> categoryIdGetter) {
+        return resolve(rows.stream().map(categoryIdGetter).filter(Objects::nonNull).toList());
+    }
+
+    /**
+     * Drops cached entries affected by a write of the given category.
+     */
+    public void evict(Category category) {
+        if (category == null) {
+            return;
+        }
+        if (category.getId() != null) {
+            byId.remove(category.getId());
+        }
+        scopes.remove(scopeKey(category.getFamilyId()));
+    }
+
+    /**
+     * Drops every cached entry.
+     */
+    public void evictAll() {
+        scopes.clear();
+        byId.clear();
+    }
+
+    /**
+     * Returns the category name from a resolved map, or the fallback when absent.
+     */
+    public static String nameOf(Map<Long, Category> categories, Long categoryId, String fallback) {
+        Category category = categoryId == null ? null : categories.get(categoryId);
+        return category == null || category.getName() == null ? fallback : category.getName();
+    }
+
+    /**
+     * Returns one cached scope, loading it outside the map lock on miss.
+     */
+    private List<Category> scope(Long scopeKey) {
+        List<Category> cached = scopes.get(scopeKey);
+        String cacheName = SHARED_SCOPE.equals(scopeKey) ? "shared_scope" : "family_scope";
+        aiMetricsService.recordCacheAccess(METRIC_LAYER, cacheName, cached != null);
+        if (cached != null) {
+            return cached;
+        }
+        List<Category> loaded = List.copyOf(SHARED_SCOPE.equals(scopeKey)
+            ? categoryRepository.findByFamilyIdIsNullOrderByIdAsc()
+            : categoryRepository.findByFamilyIdOrderByIdAsc(scopeKey));
+        loaded.forEach(category -> byId.put(category.getId(), Optional.of(category)));
+        List<Category> existing = scopes.putIfAbsent(scopeKey, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private Long scopeKey(Long familyId) {
+        return familyId == null ? SHARED_SCOPE : familyId;
+    }
+}
@@ -0,0 +1,74 @@
+package com.mamoji.service;
+
+import com.mamoji.config.RollupProperties;
+import com.mamoji.repository.MonthlyRollupRepository;
+import com.mamoji.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds monthly rollups from raw transactions on a schedule and, when needed, on startup.
+ *
+ * <p>Incremental maintenance keeps rollups current; this job corrects drift caused by
+ * writes that bypass the transaction API (manual SQL, failed partial writes).
+ * On startup an empty rollup table is always backfilled, so a database that predates the
+ * table does not read zero until the scheduled rebuild; the full startup rebuild over
+ * existing rollups is off by default and meant as a repair tool.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MonthlyRollupRebuildJob {
+
+    private final MonthlyRollupService monthlyRollupService;
+    private final TransactionRepository transactionRepository;
+    private final MonthlyRollupRepository monthlyRollupRepository;
+    private final RollupProperties rollupProperties;
+
+    /**
+     * Rebuilds rollups once the application (including seed data) is ready, if enabled or never built.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rollupProperties.isRebuildOnStartup()) {
+            rebuildAll();
+        } else if (monthlyRollupRepository.count() == 0) {
+            log.info("Monthly rollup table is empty, backfilling from transactions");
+            rebuildAll();
+        }
+    }
+
+    /**
+     * Periodic drift correction.
+     */
+    @Scheduled(cron = "${app.rollup.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        if (rollupProperties.isScheduledRebuildEnabled()) {
+            rebuildAll();
+        }
+    }
+
+    /**
+     * Rebuilds rollups user by user; one user's failure does not stop the rest.
+     */
+    public int rebuildAll() {
+        long startedAt = System.currentTimeMillis();
+        int users = 0;
+        int rows = 0;
+        for (Long userId : transactionRepository.findDistinctUserIds()) {
+            try {
+                rows += monthlyRollupService.rebuildUser(userId);
+                users++;
+            } catch (Exception ex) {
+                log.warn("Monthly rollup rebuild failed userId={} error={}", userId, ex.getMessage());
+            }
+        }
+        log.info("Monthly rollup rebuild finished users={} rows={} elapsedMs={}",
+            users, rows, System.currentTimeMillis() - startedAt);
+        return users;
+    }
+}
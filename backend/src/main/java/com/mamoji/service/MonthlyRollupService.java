@@ -0,0 +1,241 @@
+package com.mamoji.service;
+
+import com.mamoji.entity.MonthlyRollup;
+import com.mamoji.entity.Transaction;
+import com.mamoji.repository.MonthlyRollupRepository;
+import com.mamoji.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the materialized monthly rollup table.
+ *
+ * <p>Write paths pass the before/after state of each transaction so the affected
+ * (user, month, type, category) cells are adjusted in the caller's database transaction.
+ * {@link #rebuildUser(Long)} recomputes all cells of one user from raw transactions to correct drift.
+ *
+ * <p>The first write of a cell inserts its row through JDBC; when a concurrent transaction inserted the same
+ * cell first, the duplicate key is caught and the delta is added with an UPDATE instead. JDBC exceptions do
+ * not mark the caller's JPA transaction rollback-only, so losing that race does not fail the user's write.
+ */
+@Service
+@RequiredArgsConstructor
+public class MonthlyRollupService {
+
+    /**
+     * Category key used for transactions without category.
+     */
+    public static final long UNCATEGORIZED_ID = 0L;
+
+    private static final String INSERT_SQL = """
+        INSERT INTO monthly_rollup (user_id, rollup_month, type, category_id, amount, tx_count, refunded_amount, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final MonthlyRollupRepository monthlyRollupRepository;
+    private final TransactionRepository transactionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Applies the rollup delta of one transaction write.
+     *
+     * <p>{@code before} is null for inserts and {@code after} is null for deletes.
+     */
+    @Transactional
+    public void applyChange(Transaction before, Transaction after) {
+        Map<RollupKey, Delta> deltas = new LinkedHashMap<>();
+        collect(deltas, before, -1);
+        collect(deltas, after, 1);
+        deltas.forEach(this::applyDelta);
+    }
+
+    /**
+     * Applies the rollup delta of many inserted transactions, writing each affected cell once.
+     */
+    @Transactional
+    public void applyInserts(Collection<Transaction> inserted) {
+        Map<RollupKey, Delta> deltas = new LinkedHashMap<>();
+        inserted.forEach(transaction -> collect(deltas, transaction, 1));
+        deltas.forEach(this::applyDelta);
+    }
+
+    /**
+     * Returns rollup rows of user for the inclusive month range.
+     */
+    public List<MonthlyRollup> findRange(Long userId, YearMonth from, YearMonth to) {
+        return monthlyRollupRepository.findByUserIdAndYearMonthBetween(userId, from.toString(), to.toString());
+    }
+
+    /**
+     * Rebuilds all rollup rows of one user from raw transactions and returns the number of rows written.
+     *
+     * <p>The user's rollup rows are locked first, so live delta writes wait for the rebuild to commit and
+     * then apply on top of it instead of being counted twice or lost.
+     */
+    @Transactional
+    public int rebuildUser(Long userId) {
+        monthlyRollupRepository.lockByUserId(userId);
+        monthlyRollupRepository.deleteByUserId(userId);
+
+        Map<RollupKey, MonthlyRollup> rows = new LinkedHashMap<>();
+        transactionRepository.aggregateForRollup(userId).forEach(source -> {
+            if (source.getYearValue() == null || source.getMonthValue() == null || source.getType() == null) {
+                return;
+            }
+            RollupKey key = new RollupKey(
+                userId,
+                YearMonth.of(source.getYearValue(), source.getMonthValue()).toString(),
+                source.getType(),
+                normalizeCategoryId(source.getCategoryId())
+            );
+            MonthlyRollup row = rows.computeIfAbsent(key, this::emptyRow);
+            row.setAmount(row.getAmount().add(defaultAmount(source.getAmount())));
+            row.setTxCount(row.getTxCount() + (source.getTxCount() == null ? 0L : source.getTxCount()));
+            row.setRefundedAmount(row.getRefundedAmount().add(defaultAmount(source.getRefundedAmount())));
+        });
+
+        monthlyRollupRepository.saveAll(rows.values());
+        return rows.size();
+    }
+
+    /**
+     * Maps rollup category key back to the nullable transaction category id.
+     */
+    public static Long toTransactionCategoryId(Long rollupCategoryId) {
+        return rollupCategoryId == null || rollupCategoryId == UNCATEGORIZED_ID ? null : rollupCategoryId;
+    }
+
+    /**
+     * Adds the signed contribution of one transaction to the pending delta map.
+     */
+    private void collect(Map<RollupKey, Delta> deltas, Transaction transaction, int sign) {
+        if (transaction == null
+            || transaction.getUserId() == null
+            || transaction.getType() == null
+            || transaction.getDate() == null) {
+            return;
+        }
+        RollupKey key = new RollupKey(
+            transaction.getUserId(),
+            YearMonth.from(transaction.getDate()).toString(),
+            transaction.getType(),
+            normalizeCategoryId(transaction.getCategoryId())
+        );
+        BigDecimal multiplier = BigDecimal.valueOf(sign);
+        deltas.merge(
+            key,
+            new Delta(
+                defaultAmount(transaction.getAmount()).multiply(multiplier),
+                sign,
+                defaultAmount(transaction.getRefundedAmount()).multiply(multiplier)
+            ),
+            Delta::plus
+        );
+    }
+
+    /**
+     * Writes one cell delta, inserting the row on first use.
+     *
+     * <p>Existence is checked with a plain read before any UPDATE, so no lock is taken on a missing row
+     * ahead of the insert.
+     */
+    private void applyDelta(RollupKey key, Delta delta) {
+        if (delta.isZero()) {
+            return;
+        }
+        boolean exists = monthlyRollupRepository.existsByUserIdAndYearMonthAndTypeAndCategoryId(
+            key.userId(), key.yearMonth(), key.type(), key.categoryId());
+        if (exists && update(key, delta) > 0) {
+            return;
+        }
+        if (insert(key, delta)) {
+            return;
+        }
+        // A concurrent transaction created the cell first; its row is visible now.
+        update(key, delta);
+    }
+
+    private int update(RollupKey key, Delta delta) {
+        return monthlyRollupRepository.applyDelta(
+            key.userId(),
+            key.yearMonth(),
+            key.type(),
+            key.categoryId(),
+            delta.amount(),
+            delta.txCount(),
+            delta.refundedAmount()
+        );
+    }
+
+    /**
+     * Inserts the cell with the delta as its initial value; returns false when the row already exists.
+     */
+    private boolean insert(RollupKey key, Delta delta) {
+        try {
+            jdbcTemplate.update(
+                INSERT_SQL,
+                key.userId(),
+                key.yearMonth(),
+                key.type(),
+                key.categoryId(),
+                delta.amount(),
+                delta.txCount(),
+                delta.refundedAmount(),
+                Timestamp.valueOf(LocalDateTime.now())
+            );
+            return true;
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+
+    private MonthlyRollup emptyRow(RollupKey key) {
+        return MonthlyRollup.builder()
+            .userId(key.userId())
+            .yearMonth(key.yearMonth())
+            .type(key.type())
+            .categoryId(key.categoryId())
+            .amount(BigDecimal.ZERO)
+            .txCount(0L)
+            .refundedAmount(BigDecimal.ZERO)
+            .build();
+    }
+
+    private long normalizeCategoryId(Long categoryId) {
+        return categoryId == null ? UNCATEGORIZED_ID : categoryId;
+    }
+
+    private BigDecimal defaultAmount(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    private record RollupKey(Long userId, String yearMonth, Integer type, Long categoryId) {
+    }
+
+    private record Delta(BigDecimal amount, long txCount, BigDecimal refundedAmount) {
+
+        Delta plus(Delta other) {
+            return new Delta(
+                amount.add(other.amount),
+                txCount + other.txCount,
+                refundedAmount.add(other.refundedAmount)
+            );
+        }
+
+        boolean isZero() {
+            return amount.signum() == 0 && txCount == 0 && refundedAmount.signum() == 0;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.mamoji.service;
+
+import com.mamoji.config.RecurringProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Executes due recurring transactions on startup (catch-up after downtime) and on a fixed delay.
+ *
+ * <p>Each run processes at most {@code maxBatchesPerRun} claimed batches; anything left stays due for the next
+ * run. Every node may run this job: batches are claimed with {@code SKIP LOCKED}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecurringTransactionJob {
+
+    private final RecurringTransactionService recurringTransactionService;
+    private final RecurringProperties recurringProperties;
+
+    /**
+     * Catches up occurrences missed while the application was down.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void executeOnStartup() {
+        if (recurringProperties.isSchedulerEnabled()) {
+            executeDue(LocalDate.now());
+        }
+    }
+
+    /**
+     * Periodic execution of due definitions.
+     */
+    @Scheduled(fixedDelayString = "${app.recurring.poll-interval:PT1M}", initialDelayString = "${app.recurring.poll-interval:PT1M}")
+    public void scheduledExecute() {
+        if (recurringProperties.isSchedulerEnabled()) {
+            executeDue(LocalDate.now());
+        }
+    }
+
+    /**
+     * Processes due batches until none is full or the per-run limit is reached; returns generated transactions.
+     */
+    public int executeDue(LocalDate today) {
+        long startedAt = System.currentTimeMillis();
+        int batches = 0;
+        int claimed = 0;
+        int generated = 0;
+        try {
+            while (batches < Math.max(1, recurringProperties.getMaxBatchesPerRun())) {
+                RecurringTransactionService.BatchResult result = recurringTransactionService.executeDueBatch(today);
+                batches++;
+                claimed += result.claimed();
+                generated += result.generated();
+                if (result.claimed() < recurringProperties.getBatchSize()) {
+                    break;
+                }
+            }
+        } catch (Exception ex) {
+            log.warn("Recurring execution failed after batches={} error={}", batches, ex.getMessage());
+        }
+        if (claimed > 0) {
+            log.info("Recurring execution finished batches={} claimed={} generated={} elapsedMs={}",
+                batches, claimed, generated, System.currentTimeMillis() - startedAt);
+        }
+        return generated;
+    }
+}
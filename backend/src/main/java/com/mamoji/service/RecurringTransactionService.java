@@ -0,0 +1,249 @@
+package com.mamoji.service;
+
+import com.mamoji.common.exception.ResourceNotFoundException;
+import com.mamoji.config.RecurringProperties;
+import com.mamoji.entity.RecurringTransaction;
+import com.mamoji.entity.Transaction;
+import com.mamoji.repository.RecurringTransactionRepository;
+import com.mamoji.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schedule computation and execution of recurring transaction definitions.
+ *
+ * <p>Occurrences are anchored on the start date (the n-th occurrence is computed from the anchor rather
+ * than from the previous one), so month-end schedules do not drift. Scheduled execution claims due rows with
+ * {@code SKIP LOCKED}, inserts the generated transactions and advances {@code nextExecutionDate} in the same
+ * database transaction: an occurrence is generated exactly once even with several nodes or a crash mid-run.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecurringTransactionService {
+
+    /**
+     * Status of definitions the scheduler executes.
+     */
+    public static final int ACTIVE = 1;
+
+    private final RecurringTransactionRepository recurringTransactionRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionBatchImportService transactionBatchImportService;
+    private final BudgetService budgetService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final RecurringProperties recurringProperties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Result of one claimed batch.
+     */
+    public record BatchResult(int claimed, int generated) {
+    }
+
+    /**
+     * Claims one batch of due definitions and generates their missed occurrences up to {@code today}.
+     *
+     * <p>At most {@code maxOccurrencesPerClaim} occurrences are generated per definition; a definition that is
+     * further behind stays due and is picked up by a later batch.
+     */
+    @Transactional
+    public BatchResult executeDueBatch(LocalDate today) {
+        List<RecurringTransaction> claimed = recurringTransactionRepository.claimDue(
+            today, PageRequest.of(0, Math.max(1, recurringProperties.getBatchSize())));
+        int maxOccurrences = Math.max(1, recurringProperties.getMaxOccurrencesPerClaim());
+        Map<Long, List<Transaction>> rowsByUser = new LinkedHashMap<>();
+        int generated = 0;
+        for (RecurringTransaction item : claimed) {
+            List<LocalDate> occurrences = dueOccurrences(item, today, maxOccurrences);
+            for (LocalDate date : occurrences) {
+                rowsByUser.computeIfAbsent(item.getUserId(), key -> new ArrayList<>()).add(toTransaction(item, date));
+            }
+            if (!occurrences.isEmpty()) {
+                markExecuted(item, occurrences.get(occurrences.size() - 1), occurrences.size());
+                generated += occurrences.size();
+            } else {
+                // Nothing due within the end date: the schedule has ended only if the stored date is past it.
+                item.setNextExecutionDate(withinEnd(item, item.getNextExecutionDate()));
+            }
+        }
+        rowsByUser.forEach(transactionBatchImportService::insertAll);
+        return new BatchResult(claimed.size(), generated);
+    }
+
+    /**
+     * Generates one transaction dated {@code today} for a definition and moves its schedule past today.
+     */
+    @Transactional
+    public Transaction executeNow(Long id, Long userId, LocalDate today) {
+        RecurringTransaction item = recurringTransactionRepository.lockByIdAndUserId(id, userId)
+            .orElseThrow(() -> new ResourceNotFoundException("定期记账不存在。"));
+        Transaction transaction = toTransaction(item, today);
+        if (transaction.getType() == 2) {
+            budgetService.matchActiveBudgetForExpense(userId, transaction.getCategoryId(), today)
+                .ifPresent(budget -> transaction.setBudgetId(budget.getId()));
+        }
+        Transaction saved = transactionRepository.save(transaction);
+        monthlyRollupService.applyChange(null, saved);
+        if (saved.getBudgetId() != null) {
+            budgetService.syncBudgetSnapshot(saved.getBudgetId(), userId);
+        }
+        markExecuted(item, today, 1);
+        eventPublisher.publishEvent(new TransactionsChangedEvent(userId));
+        return saved;
+    }
+
+    /**
+     * Returns the next occurrence to execute for a definition (re)activated on {@code today}.
+     *
+     * <p>Occurrences before today are not back-filled; null means the schedule has ended.
+     */
+    public LocalDate initialNextDate(RecurringTransaction item, LocalDate today) {
+        LocalDate from = item.getStartDate().isAfter(today) ? item.getStartDate() : today;
+        return withinEnd(item, firstOnOrAfter(item, from));
+    }
+
+    /**
+     * Returns the first occurrence strictly after {@code from}.
+     */
+    public LocalDate computeNextDate(RecurringTransaction item, LocalDate from) {
+        return firstOnOrAfter(item, from.plusDays(1));
+    }
+
+    /**
+     * Lists due occurrences from the stored next date up to {@code today} and the end date, capped at {@code limit}.
+     */
+    List<LocalDate> dueOccurrences(RecurringTransaction item, LocalDate today, int limit) {
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate next = item.getNextExecutionDate();
+        while (next != null && !next.isAfter(today) && withinEnd(item, next) != null && dates.size() < limit) {
+            dates.add(next);
+            next = computeNextDate(item, next);
+        }
+        return dates;
+    }
+
+    private void markExecuted(RecurringTransaction item, LocalDate lastDate, int count) {
+        LocalDate previous = item.getLastExecutionDate();
+        item.setLastExecutionDate(previous != null && previous.isAfter(lastDate) ? previous : lastDate);
+        item.setExecutionCount(item.getExecutionCount() + count);
+        LocalDate scheduled = item.getNextExecutionDate();
+        LocalDate next = computeNextDate(item, lastDate);
+        // A manual run before the due date keeps the pending occurrence.
+        if (scheduled != null && scheduled.isAfter(lastDate)) {
+            next = scheduled;
+        }
+        item.setNextExecutionDate(withinEnd(item, next));
+    }
+
+    private Transaction toTransaction(RecurringTransaction item, LocalDate date) {
+        return Transaction.builder()
+            .userId(item.getUserId())
+            .familyId(item.getFamilyId())
+            .type(item.getType())
+            .amount(item.getAmount())
+            .categoryId(item.getCategoryId())
+            .accountId(item.getAccountId())
+            .date(date)
+            .remark(item.getRemark() == null || item.getRemark().isBlank() ? item.getName() : item.getRemark())
+            .build();
+    }
+
+    private LocalDate withinEnd(RecurringTransaction item, LocalDate date) {
+        return date == null || (item.getEndDate() != null && date.isAfter(item.getEndDate())) ? null : date;
+    }
+
+    /**
+     * Returns the first occurrence on or after {@code from}.
+     */
+    private LocalDate firstOnOrAfter(RecurringTransaction item, LocalDate from) {
+        int interval = Math.max(1, item.getIntervalCount() == null ? 1 : item.getIntervalCount());
+        LocalDate anchor = anchor(item);
+        if (!anchor.isBefore(from)) {
+            return anchor;
+        }
+        ChronoUnit unit = unit(item);
+        long steps = Math.max(0, unit.between(anchor, from) / interval - 1);
+        LocalDate candidate = occurrence(item, anchor, steps * interval);
+        while (candidate.isBefore(from)) {
+            steps++;
+            candidate = occurrence(item, anchor, steps * interval);
+        }
+        return candidate;
+    }
+
+    /**
+     * Returns the first occurrence on or after the start date, honoring day-of-week/month/year settings.
+     */
+    private LocalDate anchor(RecurringTransaction item) {
+        LocalDate start = item.getStartDate();
+        return switch (recurrence(item)) {
+            case "WEEKLY" -> item.getDayOfWeek() == null
+                ? start
+                : start.with(TemporalAdjusters.nextOrSame(DayOfWeek.of(clamp(item.getDayOfWeek(), 1, 7))));
+            case "MONTHLY" -> {
+                LocalDate candidate = occurrence(item, start.withDayOfMonth(1), 0);
+                yield candidate.isBefore(start) ? occurrence(item, start.withDayOfMonth(1), 1) : candidate;
+            }
+            case "YEARLY" -> {
+                LocalDate candidate = occurrence(item, start.withDayOfYear(1), 0);
+                yield candidate.isBefore(start) ? occurrence(item, start.withDayOfYear(1), 1) : candidate;
+            }
+            default -> start;
+        };
+    }
+
+    /**
+     * Returns the occurrence {@code units} periods after {@code base}; month-based days are clamped to month length.
+     */
+    private LocalDate occurrence(RecurringTransaction item, LocalDate base, long units) {
+        return switch (recurrence(item)) {
+            case "DAILY" -> base.plusDays(units);
+            case "WEEKLY" -> base.plusWeeks(units);
+            case "YEARLY" -> {
+                int month = item.getMonthOfYear() != null
+                    ? clamp(item.getMonthOfYear(), 1, 12)
+                    : item.getStartDate().getMonthValue();
+                yield dayInMonth(YearMonth.of(base.getYear(), month).plusYears(units), dayOfMonth(item));
+            }
+            default -> dayInMonth(YearMonth.from(base).plusMonths(units), dayOfMonth(item));
+        };
+    }
+
+    private int dayOfMonth(RecurringTransaction item) {
+        return item.getDayOfMonth() != null ? clamp(item.getDayOfMonth(), 1, 31) : item.getStartDate().getDayOfMonth();
+    }
+
+    private LocalDate dayInMonth(YearMonth month, int day) {
+        return month.atDay(Math.min(day, month.lengthOfMonth()));
+    }
+
+    private ChronoUnit unit(RecurringTransaction item) {
+        return switch (recurrence(item)) {
+            case "DAILY" -> ChronoUnit.DAYS;
+            case "WEEKLY" -> ChronoUnit.WEEKS;
+            case "YEARLY" -> ChronoUnit.YEARS;
+            default -> ChronoUnit.MONTHS;
+        };
+    }
+
+    private String recurrence(RecurringTransaction item) {
+        return item.getRecurrenceType() == null ? "MONTHLY" : item.getRecurrenceType();
+    }
+
+    private int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,256 @@
+package com.mamoji.service;
+
+import com.mamoji.config.QuoteProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Shared stock quote access for the agent tools and the legacy AI chat path.
+ *
+ * <p>Quotes are cached per code for a few seconds. On a miss, concurrent callers asking for the same code
+ * wait on one in-flight upstream request instead of issuing their own, and the codes a caller has to fetch
+ * are batched into {@code /list=code1,code2,...} requests of at most {@code app.quote.max-codes-per-request}.
+ * Batches run concurrently, at most {@code app.quote.max-concurrent-requests} at a time, and one lookup is
+ * bounded by {@code app.quote.request-timeout} overall: codes not answered by then are left out of the result.
+ * Unknown codes are cached as absent for the same TTL; upstream failures are not cached.
+ */
+@Slf4j
+@Service
+public class StockQuoteService {
+
+    private static final Pattern CODE_PATTERN = Pattern.compile("[a-z0-9_.]{1,16}");
+    private static final String VAR_PREFIX = "hq_str_";
+
+    private final WebClient quoteWebClient;
+    private final QuoteProperties quoteProperties;
+
+    // Access-ordered for LRU eviction; guarded by "this".
+    private final LinkedHashMap<String, CachedQuote> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, CompletableFuture<StockQuote>> inFlight = new ConcurrentHashMap<>();
+
+    public StockQuoteService(@Qualifier("quoteWebClient") WebClient quoteWebClient, QuoteProperties quoteProperties) {
+        this.quoteWebClient = quoteWebClient;
+        this.quoteProperties = quoteProperties;
+    }
+
+    /**
+     * Raw comma-separated fields of one Sina quote line.
+     */
+    public record StockQuote(String code, List<String> fields) {
+
+        /**
+         * Returns the field at the index, or an empty string when the line is shorter.
+         */
+        public String field(int index) {
+            return index < fields.size() ? fields.get(index) : "";
+        }
+    }
+
+    private record CachedQuote(StockQuote quote, long expiresAtNanos) {
+    }
+
+    /**
+     * Returns the quote for one code, or null when it is unknown or the upstream call failed.
+     */
+    public StockQuote getQuote(String code) {
+        return getQuotes(List.of(code == null ? "" : code)).get(normalize(code));
+    }
+
+    /**
+     * Returns quotes keyed by normalized code, in request order; missing or late codes are left out.
+     */
+    public Map<String, StockQuote> getQuotes(Collection<String> codes) {
+        long deadline = System.nanoTime() + quoteProperties.getRequestTimeout().toNanos();
+        Map<String, StockQuote> found = new HashMap<>();
+        Map<String, CompletableFuture<StockQuote>> pending = new LinkedHashMap<>();
+        Map<String, CompletableFuture<StockQuote>> owned = new LinkedHashMap<>();
+        LinkedHashSet<String> requested = new LinkedHashSet<>();
+        for (String raw : codes) {
+            String code = normalize(raw);
+            if (code == null || !requested.add(code)) {
+                continue;
+            }
+            CachedQuote cached = cached(code);
+            if (cached != null) {
+                if (cached.quote() != null) {
+                    found.put(code, cached.quote());
+                }
+                continue;
+            }
+            CompletableFuture<StockQuote> flight = new CompletableFuture<>();
+            CompletableFuture<StockQuote> leader = inFlight.putIfAbsent(code, flight);
+            if (leader != null) {
+                pending.put(code, leader);
+            } else {
+                owned.put(code, flight);
+                pending.put(code, flight);
+            }
+        }
+
+        fetch(owned, deadline);
+        pending.forEach((code, future) -> {
+            StockQuote quote = await(code, future, deadline);
+            if (quote != null) {
+                found.put(code, quote);
+            }
+        });
+
+        Map<String, StockQuote> ordered = new LinkedHashMap<>();
+        for (String code : requested) {
+            StockQuote quote = found.get(code);
+            if (quote != null) {
+                ordered.put(code, quote);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Fetches the owned codes in concurrent batches until the deadline, caches the results and completes
+     * every owned flight, with null for codes whose batch failed or did not finish in time.
+     */
+    private void fetch(Map<String, CompletableFuture<StockQuote>> owned, long deadline) {
+        if (owned.isEmpty()) {
+            return;
+        }
+        List<String> codes = new ArrayList<>(owned.keySet());
+        int batchSize = Math.max(1, quoteProperties.getMaxCodesPerRequest());
+        List<List<String>> batches = new ArrayList<>();
+        for (int from = 0; from < codes.size(); from += batchSize) {
+            batches.add(codes.subList(from, Math.min(codes.size(), from + batchSize)));
+        }
+        try {
+            Flux.fromIterable(batches)
+                .flatMap(batch -> request(batch)
+                    .map(StockQuoteService::parse)
+                    .doOnNext(quotes -> complete(batch, quotes, owned))
+                    .onErrorResume(ex -> {
+                        log.warn("Quote request failed codes={} error={}", batch, ex.getMessage());
+                        return Mono.empty();
+                    }), Math.max(1, quoteProperties.getMaxConcurrentRequests()))
+                .then()
+                .block(Duration.ofNanos(Math.max(1, deadline - System.nanoTime())));
+        } catch (IllegalStateException ex) {
+            log.warn("Quote fetch deadline reached codes={}", codes);
+        } finally {
+            owned.forEach((code, flight) -> {
+                inFlight.remove(code, flight);
+                flight.complete(null);
+            });
+        }
+    }
+
+    /**
+     * Caches one batch's results and releases its flights; unknown codes are cached as absent.
+     */
+    private void complete(List<String> batch, Map<String, StockQuote> quotes, Map<String, CompletableFuture<StockQuote>> owned) {
+        for (String code : batch) {
+            StockQuote quote = quotes.get(code);
+            // Cache before releasing the flight so a caller arriving right after finds the result.
+            store(code, quote);
+            CompletableFuture<StockQuote> flight = owned.get(code);
+            inFlight.remove(code, flight);
+            flight.complete(quote);
+        }
+    }
+
+    private Mono<String> request(List<String> codes) {
+        String path = "/list=" + String.join(",", codes);
+        return quoteWebClient.get()
+            .uri(uriBuilder -> uriBuilder.path(path).build())
+            .retrieve()
+            .bodyToMono(String.class)
+            .defaultIfEmpty("");
+    }
+
+    /**
+     * Parses {@code var hq_str_<code>="f0,f1,...";} lines; an empty quoted value means the code is unknown.
+     */
+    static Map<String, StockQuote> parse(String body) {
+        Map<String, StockQuote> quotes = new HashMap<>();
+        if (body == null || body.isBlank()) {
+            return quotes;
+        }
+        for (String line : body.split("[;\\n]")) {
+            int varStart = line.indexOf(VAR_PREFIX);
+            int equals = line.indexOf('=');
+            if (varStart < 0 || equals < varStart) {
+                continue;
+            }
+            String code = line.substring(varStart + VAR_PREFIX.length(), equals).trim().toLowerCase(Locale.ROOT);
+            String data = line.substring(equals + 1).replace("\"", "").trim();
+            if (!data.isEmpty()) {
+                quotes.put(code, new StockQuote(code, List.of(data.split(","))));
+            }
+        }
+        return quotes;
+    }
+
+    private StockQuote await(String code, CompletableFuture<StockQuote> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            log.warn("Quote wait timed out code={}", code);
+            return null;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ex) {
+            return null;
+        }
+    }
+
+    private synchronized CachedQuote cached(String code) {
+        CachedQuote cached = cache.get(code);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expiresAtNanos() - System.nanoTime() <= 0) {
+            cache.remove(code);
+            return null;
+        }
+        return cached;
+    }
+
+    private synchronized void store(String code, StockQuote quote) {
+        cache.put(code, new CachedQuote(quote, System.nanoTime() + quoteProperties.getCacheTtl().toNanos()));
+        int maxEntries = Math.max(1, quoteProperties.getCacheMaxEntries());
+        Iterator<CachedQuote> iterator = cache.values().iterator();
+        while (cache.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Lower-cases a code and rejects anything that could break the {@code list=} path.
+     */
+    private static String normalize(String code) {
+        if (code == null) {
+            return null;
+        }
+        String normalized = code.trim().toLowerCase(Locale.ROOT);
+        return CODE_PATTERN.matcher(normalized).matches() ? normalized : null;
+    }
+}
@@ -0,0 +1,74 @@
+package com.mamoji.service;
+
+/**
+ * Quote fields shared by the agent stock tools and the legacy stock chat path.
+ *
+ * <p>Price and volume values keep the provider's raw text; numeric accessors parse them leniently.
+ */
+public record StockSnapshot(
+    String code,
+    String name,
+    String open,
+    String close,
+    String current,
+    String high,
+    String low,
+    String volume
+) {
+
+    private static final int MIN_FIELDS = 9;
+
+    /**
+     * Maps Sina fields (0 name, 1 open, 2 previous close, 3 current, 4 high, 5 low, 8 volume); returns null
+     * for a line too short to carry them.
+     */
+    public static StockSnapshot from(StockQuoteService.StockQuote quote) {
+        if (quote == null || quote.fields().size() < MIN_FIELDS) {
+            return null;
+        }
+        return new StockSnapshot(
+            quote.code(),
+            quote.field(0),
+            quote.field(1),
+            quote.field(2),
+            quote.field(3),
+            quote.field(4),
+            quote.field(5),
+            quote.field(8)
+        );
+    }
+
+    public double currentPrice() {
+        return parse(current);
+    }
+
+    public double volumeValue() {
+        return parse(volume);
+    }
+
+    /**
+     * Change against the previous close in percent, 0 when the close is unknown.
+     */
+    public double changePercent() {
+        double closePrice = parse(close);
+        return closePrice > 0 ? (parse(current) - closePrice) / closePrice * 100 : 0;
+    }
+
+    /**
+     * Compact one-line form used as model context.
+     */
+    public String toLine() {
+        return String.format(
+            "%s: current=%s open=%s close=%s high=%s low=%s volume=%s",
+            name, current, open, close, high, low, volume
+        );
+    }
+
+    private static double parse(String value) {
+        try {
+            return value != null && !value.isEmpty() ? Double.parseDouble(value) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.mamoji.service;
+
+import com.mamoji.config.RollupProperties;
+import com.mamoji.entity.MonthlyRollup;
+import com.mamoji.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Transaction aggregation service for month-based reports.
+ *
+ * <p>Loads the whole month x type amount matrix of a range with one grouped query,
+ * so report cost no longer grows with the number of months requested.
+ *
+ * <p>When rollup reads are enabled, whole months are served from the materialized
+ * {@code monthly_rollup} table and only partial edge months of a date range touch raw
+ * transactions, so cost is O(months) instead of O(transactions).
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionAggregationService {
+
+    private final TransactionRepository transactionRepository;
+    private final MonthlyRollupService monthlyRollupService;
+    private final RollupProperties rollupProperties;
+
+    /**
+     * Returns monthly amounts by type for the inclusive month range.
+     */
+    public MonthlyMatrix monthlyMatrix(Long userId, YearMonth start, YearMonth end) {
+        if (start.isAfter(end)) {
+            return new MonthlyMatrix(start, end, Map.of());
+        }
+
+        Map<YearMonth, Map<Integer, BigDecimal>> cells = new HashMap<>();
+        if (rollupProperties.isReadEnabled()) {
+            monthlyRollupService.findRange(userId, start, end).forEach(row -> cells
+                .computeIfAbsent(YearMonth.parse(row.getYearMonth()), key -> new HashMap<>())
+                .merge(row.getType(), defaultAmount(row.getAmount()), BigDecimal::add));
+            return new MonthlyMatrix(start, end, cells);
+        }
+
+        transactionRepository.sumByMonthAndType(userId, start.atDay(1), end.atEndOfMonth()).forEach(row -> {
+            if (row.getYearValue() == null || row.getMonthValue() == null || row.getType() == null) {
+                return;
+            }
+            YearMonth month = YearMonth.of(row.getYearValue(), row.getMonthValue());
+            cells.computeIfAbsent(month, key -> new HashMap<>()).merge(row.getType(), defaultAmount(row.getAmount()), BigDecimal::add);
+        });
+        return new MonthlyMatrix(start, end, cells);
+    }
+
+    /**
+     * Sums amount of one type in the inclusive date range.
+     */
+    public BigDecimal sumByType(Long userId, int type, LocalDate start, LocalDate end) {
+        if (!rollupProperties.isReadEnabled()) {
+            return defaultAmount(transactionRepository.sumByUserIdAndTypeAndDateBetween(userId, type, start, end));
+        }
+        RangeSplit split = RangeSplit.of(start, end);
+        BigDecimal total = BigDecimal.ZERO;
+        for (MonthlyRollup row : rollupRows(userId, split)) {
+            if (row.getType() == type) {
+                total = total.add(defaultAmount(row.getAmount()));
+            }
+        }
+        for (LocalDate[] edge : split.edges()) {
+            total = total.add(defaultAmount(transactionRepository.sumByUserIdAndTypeAndDateBetween(userId, type, edge[0], edge[1])));
+        }
+        return total;
+    }
+
+    /**
+     * Sums amount of one type and category in the inclusive date range.
+     */
+    public BigDecimal sumByTypeAndCategory(Long userId, int type, Long categoryId, LocalDate start, LocalDate end) {
+        if (!rollupProperties.isReadEnabled()) {
+            return defaultAmount(transactionRepository.sumByUserIdAndTypeAndCategoryIdAndDateBetween(userId, type, categoryId, start, end));
+        }
+        RangeSplit split = RangeSplit.of(start, end);
+        BigDecimal total = BigDecimal.ZERO;
+        for (MonthlyRollup row : rollupRows(userId, split)) {
+            if (row.getType() == type && Objects.equals(MonthlyRollupService.toTransactionCategoryId(row.getCategoryId()), categoryId)) {
+                total = total.add(defaultAmount(row.getAmount()));
+            }
+        }
+        for (LocalDate[] edge : split.edges()) {
+            total = total.add(defaultAmount(transactionRepository.sumByUserIdAndTypeAndCategoryIdAndDateBetween(
+                userId, type, categoryId, edge[0], edge[1])));
+        }
+        return total;
+    }
+
+    /**
+     * Counts transactions of one type in the inclusive date range.
+     */
+    public long countByType(Long userId, int type, LocalDate start, LocalDate end) {
+        if (!rollupProperties.isReadEnabled()) {
+            return transactionRepository.countByUserIdAndTypeAndDateBetween(userId, type, start, end);
+        }
+        RangeSplit split = RangeSplit.of(start, end);
+        long count = 0;
+        for (MonthlyRollup row : rollupRows(userId, split)) {
+            if (row.getType() == type && row.getTxCount() != null) {
+                count += row.getTxCount();
+            }
+        }
+        for (LocalDate[] edge : split.edges()) {
+            count += transactionRepository.countByUserIdAndTypeAndDateBetween(userId, type, edge[0], edge[1]);
+        }
+        return count;
+    }
+
+    /**
+     * Sums amount of one type per category in the inclusive date range; uncategorized rows use a null key.
+     * Rollup cells whose transactions were all deleted keep a zero-count row and are skipped.
+     */
+    public Map<Long, BigDecimal> sumByCategory(Long userId, int type, LocalDate start, LocalDate end) {
+        Map<Long, BigDecimal> totals = new HashMap<>();
+        if (!rollupProperties.isReadEnabled()) {
+            mergeCategoryRows(totals, transactionRepository.sumByCategoryAndType(userId, type, start, end));
+            return totals;
+        }
+        RangeSplit split = RangeSplit.of(start, end);
+        for (MonthlyRollup row : rollupRows(userId, split)) {
+            if (row.getType() == type && row.getTxCount() != null && row.getTxCount() > 0) {
+                totals.merge(MonthlyRollupService.toTransactionCategoryId(row.getCategoryId()), defaultAmount(row.getAmount()), BigDecimal::add);
+            }
+        }
+        for (LocalDate[] edge : split.edges()) {
+            mergeCategoryRows(totals, transactionRepository.sumByCategoryAndType(userId, type, edge[0], edge[1]));
+        }
+        return totals;
+    }
+
+    private List<MonthlyRollup> rollupRows(Long userId, RangeSplit split) {
+        if (!split.hasFullMonths()) {
+            return List.of();
+        }
+        return monthlyRollupService.findRange(userId, split.firstFullMonth(), split.lastFullMonth());
+    }
+
+    private void mergeCategoryRows(Map<Long, BigDecimal> totals, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            totals.merge((Long) row[0], defaultAmount((BigDecimal) row[1]), BigDecimal::add);
+        }
+    }
+
+    private BigDecimal defaultAmount(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    /**
+     * Splits a date range into whole months (served by rollups) and at most two partial edge ranges.
+     */
+    record RangeSplit(YearMonth firstFullMonth, YearMonth lastFullMonth, List<LocalDate[]> edges) {
+
+        static RangeSplit of(LocalDate start, LocalDate end) {
+            if (start.isAfter(end)) {
+                return new RangeSplit(null, null, List.of());
+            }
+            YearMonth firstFull = start.getDayOfMonth() == 1 ? YearMonth.from(start) : YearMonth.from(start).plusMonths(1);
+            YearMonth lastFull = end.equals(YearMonth.from(end).atEndOfMonth()) ? YearMonth.from(end) : YearMonth.from(end).minusMonths(1);
+            if (firstFull.isAfter(lastFull)) {
+                List<LocalDate[]> edges = new ArrayList<>(1);
+                edges.add(new LocalDate[] {start, end});
+                return new RangeSplit(null, null, edges);
+            }
+
+            LocalDate fullStart = firstFull.atDay(1);
+            LocalDate fullEnd = lastFull.atEndOfMonth();
+            List<LocalDate[]> edges = new ArrayList<>(2);
+            if (start.isBefore(fullStart)) {
+                edges.add(new LocalDate[] {start, fullStart.minusDays(1)});
+            }
+            if (end.isAfter(fullEnd)) {
+                edges.add(new LocalDate[] {fullEnd.plusDays(1), end});
+            }
+            return new RangeSplit(firstFull, lastFull, edges);
+        }
+
+        boolean hasFullMonths() {
+            return firstFullMonth != null;
+        }
+    }
+
+    /**
+     * Immutable month x type amount matrix; missing cells read as zero.
+     */
+    public static final class MonthlyMatrix {
+
+        private final YearMonth start;
+        private final YearMonth end;
+        private final Map<YearMonth, Map<Integer, BigDecimal>> cells;
+
+        MonthlyMatrix(YearMonth start, YearMonth end, Map<YearMonth, Map<Integer, BigDecimal>> cells) {
+            this.start = start;
+            this.end = end;
+            this.cells = cells;
+        }
+
+        /**
+         * First month covered by the matrix.
+         */
+        public YearMonth getStart() {
+            return start;
+        }
+
+        /**
+         * Last month covered by the matrix.
+         */
+        public YearMonth getEnd() {
+            return end;
+        }
+
+        /**
+         * Returns the amount of one type in one month.
+         */
+        public BigDecimal amount(YearMonth month, int type) {
+            Map<Integer, BigDecimal> byType = cells.get(month);
+            if (byType == null) {
+                return BigDecimal.ZERO;
+            }
+            return byType.getOrDefault(type, BigDecimal.ZERO);
+        }
+
+        /**
+         * Returns income (type 1) of one month.
+         */
+        public BigDecimal income(YearMonth month) {
+            return amount(month, 1);
+        }
+
+        /**
+         * Returns expense (type 2) of one month.
+         */
+        public BigDecimal expense(YearMonth month) {
+            return amount(month, 2);
+        }
+
+        /**
+         * Returns the amount of one type summed over the inclusive month range.
+         */
+        public BigDecimal total(int type, YearMonth from, YearMonth to) {
+            BigDecimal total = BigDecimal.ZERO;
+            for (Map.Entry<YearMonth, Map<Integer, BigDecimal>> entry : cells.entrySet()) {
+                YearMonth month = entry.getKey();
+                if (month.isBefore(from) || month.isAfter(to)) {
+                    continue;
+                }
+                total = total.add(entry.getValue().getOrDefault(type, BigDecimal.ZERO));
+            }
+            return total;
+        }
+
+        /**
+         * Returns the amount of one type summed over the whole matrix.
+         */
+        public BigDecimal total(int type) {
+            return total(type, start, end);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.mamoji.service;
+
+import com.mamoji.common.status.BudgetStatus;
+import com.mamoji.entity.Budget;
+import com.mamoji.entity.Transaction;
+import com.mamoji.repository.BudgetRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bulk transaction insert used by the batch import endpoint.
+ *
+ * <p>Rows are written with JDBC batch statements instead of one JPA persist per row: the
+ * transactions table uses identity ids, which disables Hibernate insert batching. Budget
+ * matching runs against budgets loaded once, rollup cells are written once per key, and each
+ * affected budget snapshot is recomputed once after all rows are inserted.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionBatchImportService {
+
+    /**
+     * Number of rows sent per JDBC batch.
+     */
+    public static final int JDBC_BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = """
+        INSERT INTO transactions (user_id, family_id, type, amount, category_id, account_id, date, remark, budget_id,
+            original_transaction_id, refunded_amount, is_refundable, created_at, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BudgetRepository budgetRepository;
+    private final BudgetService budgetService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Inserts validated transactions of one user and returns the ids of budgets re-synced afterwards.
+     */
+    @Transactional
+    public Set<Long> insertAll(Long userId, List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return Set.of();
+        }
+
+        List<Budget> activeBudgets = budgetRepository.findByUserIdAndStatus(userId, BudgetStatus.ACTIVE);
+        Set<Long> affectedBudgetIds = new LinkedHashSet<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getType() != null && transaction.getType() == 2) {
+                budgetService.matchActiveBudgetForExpense(activeBudgets, transaction.getCategoryId(), transaction.getDate())
+                    .ifPresent(budget -> {
+                        transaction.setBudgetId(budget.getId());
+                        affectedBudgetIds.add(budget.getId());
+                    });
+            }
+        }
+
+        insertRows(transactions);
+        monthlyRollupService.applyInserts(transactions);
+        affectedBudgetIds.forEach(budgetId -> budgetService.syncBudgetSnapshot(budgetId, userId));
+        eventPublisher.publishEvent(new TransactionsChangedEvent(userId));
+        return affectedBudgetIds;
+    }
+
+    /**
+     * Inserts rows as they are, without budget matching or rollup maintenance; callers own both.
+     */
+    public void insertRows(List<Transaction> transactions) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, transactions, JDBC_BATCH_SIZE, (statement, transaction) -> {
+            statement.setLong(1, transaction.getUserId());
+            setNullableLong(statement, 2, transaction.getFamilyId());
+            statement.setInt(3, transaction.getType());
+            statement.setBigDecimal(4, transaction.getAmount());
+            setNullableLong(statement, 5, transaction.getCategoryId());
+            setNullableLong(statement, 6, transaction.getAccountId());
+            statement.setDate(7, Date.valueOf(transaction.getDate()));
+            statement.setString(8, transaction.getRemark());
+            setNullableLong(statement, 9, transaction.getBudgetId());
+            setNullableLong(statement, 10, transaction.getOriginalTransactionId());
+            statement.setBigDecimal(11, transaction.getRefundedAmount());
+            if (transaction.getIsRefundable() == null) {
+                statement.setNull(12, Types.BOOLEAN);
+            } else {
+                statement.setBoolean(12, transaction.getIsRefundable());
+            }
+            statement.setTimestamp(13, now);
+            statement.setTimestamp(14, now);
+        });
+    }
+
+    private void setNullableLong(PreparedStatement statement, int index, Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.mamoji.service;
+
+/**
+ * Published after transactions of a user are created, updated or deleted.
+ *
+ * <p>Listeners holding data derived from the user's ledger (for example cached AI answers) drop it.
+ */
+public record TransactionsChangedEvent(Long userId) {
+}
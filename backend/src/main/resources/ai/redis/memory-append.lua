@@ -0,0 +1,68 @@
+-- Appends conversation turns to one session list atomically (RedisConversationMemoryService).
+-- KEYS[1]  session list key
+-- ARGV[1]  max stored turns
+-- ARGV[2]  ttl seconds
+-- ARGV[3]  '1' to compact overflow into a summary turn, '0' to only trim
+-- ARGV[4]  summarize batch size
+-- ARGV[5]  ISO-8601 timestamp for a summary turn
+-- ARGV[6..] JSON turn payloads, oldest first
+-- Returns the list length after the append.
+
+local key = KEYS[1]
+local maxTurns = tonumber(ARGV[1])
+local ttl = tonumber(ARGV[2])
+local summarize = ARGV[3] == '1'
+local batch = tonumber(ARGV[4])
+
+local function text(value)
+  if value == nil or value == cjson.null then
+    return ''
+  end
+  return tostring(value)
+end
+
+-- Collapses whitespace and keeps at most 40 UTF-8 characters, like the Java summarizer.
+local function clip(value)
+  local collapsed = string.gsub(text(value), '%s+', ' ')
+  collapsed = string.gsub(collapsed, '^ ', '')
+  collapsed = string.gsub(collapsed, ' $', '')
+  local count = 0
+  local out = {}
+  for ch in string.gmatch(collapsed, '[%z\1-\127\194-\244][\128-\191]*') do
+    count = count + 1
+    if count > 40 then
+      return table.concat(out) .. '...'
+    end
+    out[count] = ch
+  end
+  return collapsed
+end
+
+local function compact()
+  local oldest = redis.call('LRANGE', key, 0, batch - 1)
+  local parts = { 'Summary:' }
+  local used = 0
+  for _, raw in ipairs(oldest) do
+    local ok, item = pcall(cjson.decode, raw)
+    if ok and type(item) == 'table' and used < 6 then
+      used = used + 1
+      local role = item.role
+      if role == nil or role == cjson.null then
+        role = 'null'
+      end
+      parts[#parts + 1] = ' [' .. tostring(role) .. '] ' .. clip(item.content)
+    end
+  end
+  redis.call('LTRIM', key, batch, -1)
+  redis.call('LPUSH', key, cjson.encode({ role = 'system_summary', content = table.concat(parts), timestamp = ARGV[5] }))
+end
+
+for i = 6, #ARGV do
+  redis.call('RPUSH', key, ARGV[i])
+  if summarize and redis.call('LLEN', key) > maxTurns then
+    compact()
+  end
+  redis.call('LTRIM', key, -maxTurns, -1)
+end
+redis.call('EXPIRE', key, ttl)
+return redis.call('LLEN', key)
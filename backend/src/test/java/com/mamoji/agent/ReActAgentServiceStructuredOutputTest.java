@@ -3,19 +3,25 @@ package com.mamoji.agent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mamoji.ai.AiGateway;
 import com.mamoji.ai.AiModelRouter;
+import com.mamoji.ai.AiProperties;
+import com.mamoji.ai.cache.AiResponseCache;
 import com.mamoji.ai.intent.FinanceIntentClassifier;
 import com.mamoji.ai.memory.ConversationMemoryService;
+import com.mamoji.ai.memory.ConversationTurn;
 import com.mamoji.ai.metrics.AiMetricsService;
 import com.mamoji.ai.model.StructuredAiResponse;
 import com.mamoji.ai.prompt.PromptVariantService;
 import com.mamoji.ai.quality.AiQualityGateService;
 import com.mamoji.ai.rag.KnowledgeRetriever;
+import com.mamoji.ai.rag.KnowledgeSnippet;
 import com.mamoji.ai.tool.AiToolResult;
 import com.mamoji.ai.tool.AiToolRouter;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -62,7 +68,9 @@ class ReActAgentServiceStructuredOutputTest {
             aiModelRouter,
             financeIntentClassifier,
             new StructuredAnswerParser(new ObjectMapper()),
-            new ObjectMapper()
+            new ObjectMapper(),
+            new AiProperties(),
+            Mockito.mock(AiResponseCache.class)
         );
 
         StructuredAiResponse response = service.processMessageStructured(1L, "hello", "finance", "s1");
@@ -108,7 +116,9 @@ class ReActAgentServiceStructuredOutputTest {
             aiModelRouter,
             financeIntentClassifier,
             new StructuredAnswerParser(new ObjectMapper()),
-            new ObjectMapper()
+            new ObjectMapper(),
+            new AiProperties(),
+            Mockito.mock(AiResponseCache.class)
         );
 
         StructuredAiResponse response = service.processMessageStructured(1L, "hello", "finance", "s1");
@@ -158,7 +168,9 @@ class ReActAgentServiceStructuredOutputTest {
             aiModelRouter,
             financeIntentClassifier,
             new StructuredAnswerParser(new ObjectMapper()),
-            new ObjectMapper()
+            new ObjectMapper(),
+            new AiProperties(),
+            Mockito.mock(AiResponseCache.class)
         );
 
         StructuredAiResponse response = service.processMessageStructured(1L, "How is my budget usage?", "finance", "s1");
@@ -168,7 +180,122 @@ class ReActAgentServiceStructuredOutputTest {
         Assertions.assertFalse(response.answer().isBlank());
         Assertions.assertTrue(response.sources().contains("tool:finance.query_budget"));
     }
-}
 
+    @Test
+    void shouldRunQualityRewriteThroughReactiveGateway() {
+        AiGateway aiGateway = Mockito.mock(AiGateway.class);
+        ConversationMemoryService memoryService = Mockito.mock(ConversationMemoryService.class);
+        KnowledgeRetriever knowledgeRetriever = Mockito.mock(KnowledgeRetriever.class);
+        PromptVariantService promptVariantService = Mockito.mock(PromptVariantService.class);
+        AiQualityGateService qualityGateService = Mockito.mock(AiQualityGateService.class);
+        AiModelRouter aiModelRouter = Mockito.mock(AiModelRouter.class);
+        FinanceIntentClassifier financeIntentClassifier = Mockito.mock(FinanceIntentClassifier.class);
+
+        Mockito.when(knowledgeRetriever.retrieve(Mockito.anyString(), Mockito.anyString(), Mockito.anyInt()))
+            .thenReturn(List.of());
+        Mockito.when(memoryService.recent(Mockito.anyString(), Mockito.anyInt())).thenReturn(List.of());
+        Mockito.when(promptVariantService.pick(Mockito.anyString(), Mockito.anyString()))
+            .thenReturn(new PromptVariantService.PromptVariant("A", "system-prompt", "exp-v1", 11));
+        Mockito.when(qualityGateService.validate(Mockito.anyString(), Mockito.anyString(), Mockito.eq("thin answer")))
+            .thenReturn(List.of("finance_actionable_missing"));
+        Mockito.when(qualityGateService.validate(Mockito.anyString(), Mockito.anyString(), Mockito.eq("rewritten answer")))
+            .thenReturn(List.of());
+        Mockito.when(aiModelRouter.pickPrimaryModelDecision(Mockito.anyString(), Mockito.anyString()))
+            .thenReturn(new AiModelRouter.RoutingDecision("route-model", "default"));
+        Mockito.when(financeIntentClassifier.classify(Mockito.anyString()))
+            .thenReturn(new FinanceIntentClassifier.FinanceIntent(FinanceIntentClassifier.FinanceIntentType.UNKNOWN, 0.0D, null));
+        Mockito.when(aiGateway.chatReactive(Mockito.anyString(), Mockito.anyString(), Mockito.any(), Mockito.any()))
+            .thenReturn(Mono.just("{\"answer\":\"thin answer\",\"warnings\":[],\"sources\":[],\"actions\":[]}"))
+            .thenReturn(Mono.just("{\"answer\":\"rewritten answer\",\"warnings\":[],\"sources\":[],\"actions\":[]}"));
+
+        ReActAgentService service = new ReActAgentService(
+            aiGateway,
+            Mockito.mock(AiToolRouter.class),
+            memoryService,
+            knowledgeRetriever,
+            promptVariantService,
+            qualityGateService,
+            Mockito.mock(AiMetricsService.class),
+            aiModelRouter,
+            financeIntentClassifier,
+            new StructuredAnswerParser(new ObjectMapper()),
+            new ObjectMapper(),
+            new AiProperties(),
+            Mockito.mock(AiResponseCache.class)
+        );
+
+        StructuredAiResponse response = service.processMessageStructuredReactive(1L, "hello", "finance", "s1").block();
+
+        Assertions.assertNotNull(response);
+        Assertions.assertEquals("rewritten answer", response.answer());
+        Assertions.assertTrue(response.warnings().contains("quality_rewrite_retry"));
+        Mockito.verify(aiGateway, Mockito.times(2)).chatReactive(Mockito.anyString(), Mockito.anyString(), Mockito.any(), Mockito.any());
+        Mockito.verify(aiGateway, Mockito.never()).chat(Mockito.anyString(), Mockito.anyString(), Mockito.any(), Mockito.any());
+        Mockito.verify(memoryService).appendExchange(Mockito.anyString(), Mockito.eq("hello"), Mockito.eq("rewritten answer"));
+    }
+
+    @Test
+    void shouldProceedWithoutSlowRetrievalAndMemoryAfterSharedDeadline() {
+        AiGateway aiGateway = Mockito.mock(AiGateway.class);
+        AiToolRouter aiToolRouter = Mockito.mock(AiToolRouter.class);
+        ConversationMemoryService memoryService = Mockito.mock(ConversationMemoryService.class);
+        KnowledgeRetriever knowledgeRetriever = Mockito.mock(KnowledgeRetriever.class);
+        PromptVariantService promptVariantService = Mockito.mock(PromptVariantService.class);
+        AiQualityGateService qualityGateService = Mockito.mock(AiQualityGateService.class);
+        AiMetricsService aiMetricsService = Mockito.mock(AiMetricsService.class);
+        AiModelRouter aiModelRouter = Mockito.mock(AiModelRouter.class);
+        FinanceIntentClassifier financeIntentClassifier = Mockito.mock(FinanceIntentClassifier.class);
+        AiProperties aiProperties = new AiProperties();
+        aiProperties.getExecutionOps().setPrepareDeadlineMs(300);
+
+        Mockito.when(knowledgeRetriever.retrieve(Mockito.anyString(), Mockito.anyString(), Mockito.anyInt()))
+            .thenAnswer(invocation -> {
+                Thread.sleep(2000);
+                return List.of(new KnowledgeSnippet("doc", "late", "never used"));
+            });
+        Mockito.when(memoryService.recent(Mockito.anyString(), Mockito.anyInt()))
+            .thenAnswer(invocation -> {
+                Thread.sleep(2000);
+                return List.of(new ConversationTurn("user", "earlier question", Instant.now()));
+            });
+        Mockito.when(promptVariantService.pick(Mockito.anyString(), Mockito.anyString()))
+            .thenReturn(new PromptVariantService.PromptVariant("A", "system-prompt", "exp-v1", 11));
+        Mockito.when(qualityGateService.validate(Mockito.anyString(), Mockito.anyString(), Mockito.anyString()))
+            .thenReturn(List.of());
+        Mockito.when(aiModelRouter.pickPrimaryModelDecision(Mockito.anyString(), Mockito.anyString()))
+            .thenReturn(new AiModelRouter.RoutingDecision("route-model", "default"));
+        Mockito.when(financeIntentClassifier.classify(Mockito.anyString()))
+            .thenReturn(new FinanceIntentClassifier.FinanceIntent(FinanceIntentClassifier.FinanceIntentType.UNKNOWN, 0.0D, null));
+        Mockito.when(aiGateway.chat(Mockito.anyString(), Mockito.anyString(), Mockito.any(), Mockito.any()))
+            .thenReturn("{\"answer\":\"answer without context\",\"warnings\":[],\"sources\":[],\"actions\":[]}");
+
+        ReActAgentService service = new ReActAgentService(
+            aiGateway,
+            aiToolRouter,
+            memoryService,
+            knowledgeRetriever,
+            promptVariantService,
+            qualityGateService,
+            aiMetricsService,
+            aiModelRouter,
+            financeIntentClassifier,
+            new StructuredAnswerParser(new ObjectMapper()),
+            new ObjectMapper(),
+            aiProperties,
+            Mockito.mock(AiResponseCache.class)
+        );
 
+        long start = System.nanoTime();
+        StructuredAiResponse response = service.processMessageStructured(1L, "hello", "finance", "s1");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
 
+        Assertions.assertEquals("answer without context", response.answer());
+        Assertions.assertTrue(response.warnings().contains("knowledge_timeout"));
+        Assertions.assertTrue(response.warnings().contains("memory_timeout"));
+        Assertions.assertTrue(elapsedMs < 1500, "stages should share one deadline, took " + elapsedMs + "ms");
+        Mockito.verify(aiGateway).chat(Mockito.anyString(), Mockito.argThat(prompt ->
+            !prompt.contains("never used") && !prompt.contains("earlier question")), Mockito.any(), Mockito.any());
+        Mockito.verify(aiMetricsService).recordAgentStage(Mockito.eq("retrieval"), Mockito.eq("timeout"), Mockito.anyLong(), Mockito.anyString());
+        Mockito.verify(aiMetricsService).recordAgentStage(Mockito.eq("memory"), Mockito.eq("timeout"), Mockito.anyLong(), Mockito.anyString());
+    }
+}
@@ -3,12 +3,15 @@ package com.mamoji.agent.tool.finance;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mamoji.ai.metrics.AiMetricsService;
 import com.mamoji.entity.Budget;
 import com.mamoji.entity.Category;
 import com.mamoji.entity.Transaction;
 import com.mamoji.repository.BudgetRepository;
 import com.mamoji.repository.CategoryRepository;
 import com.mamoji.repository.TransactionRepository;
+import com.mamoji.service.CategoryResolver;
+import com.mamoji.service.TransactionAggregationService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -17,6 +20,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Test suite for FinanceToolsTest.
@@ -41,11 +45,12 @@ class FinanceToolsTest {
         Mockito.when(transactionRepository.findByUserIdAndDateBetweenWithFilters(
             Mockito.eq(11L), Mockito.any(), Mockito.any(), Mockito.eq(3L), Mockito.eq(2)
         )).thenReturn(List.of(tx));
-        Mockito.when(categoryRepository.findById(3L)).thenReturn(Optional.of(Category.builder().id(3L).name("Food").build()));
+        Mockito.when(categoryRepository.findAllById(Set.of(3L))).thenReturn(List.of(Category.builder().id(3L).name("Food").build()));
 
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
-        FinanceTools tools = new FinanceTools(objectMapper, transactionRepository, categoryRepository, budgetRepository);
+        FinanceTools tools = new FinanceTools(
+            objectMapper, transactionRepository, new CategoryResolver(categoryRepository, Mockito.mock(AiMetricsService.class)), budgetRepository, Mockito.mock(TransactionAggregationService.class));
         String result = tools.queryTransactions(11L, null, null, 3L, 2);
 
         JsonNode root = new ObjectMapper().readTree(result);
@@ -75,12 +80,14 @@ class FinanceToolsTest {
             .build();
 
         Mockito.when(budgetRepository.findByIdAndUserId(99L, 11L)).thenReturn(Optional.of(budget));
-        Mockito.when(transactionRepository.sumByUserIdAndTypeAndDateBetween(11L, 2, budget.getStartDate(), budget.getEndDate()))
+        TransactionAggregationService transactionAggregationService = Mockito.mock(TransactionAggregationService.class);
+        Mockito.when(transactionAggregationService.sumByType(11L, 2, budget.getStartDate(), budget.getEndDate()))
             .thenReturn(new BigDecimal("300.00"));
 
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
-        FinanceTools tools = new FinanceTools(objectMapper, transactionRepository, categoryRepository, budgetRepository);
+        FinanceTools tools = new FinanceTools(
+            objectMapper, transactionRepository, new CategoryResolver(categoryRepository, Mockito.mock(AiMetricsService.class)), budgetRepository, transactionAggregationService);
         String result = tools.queryBudget(11L, 99L);
 
         JsonNode root = objectMapper.readTree(result);
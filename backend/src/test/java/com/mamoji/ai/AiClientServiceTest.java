@@ -1,5 +1,6 @@
 package com.mamoji.ai;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mamoji.ai.metrics.AiMetricsService;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
@@ -16,6 +17,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -129,9 +131,81 @@ class AiClientServiceTest {
         Assertions.assertEquals("output-shape-ok", answer);
     }
 
+    @Test
+    void shouldForwardMinimaxStreamDeltasWithoutRepeatingFinalMessage() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/v1/text/chatcompletion_v2", exchange -> {
+            String body = readBody(exchange);
+            Assertions.assertTrue(body.contains("\"stream\":true"), body);
+            writeEventStream(exchange, 200, List.of(
+                "data: {\"choices\":[{\"delta\":{\"content\":\"Hel\"}}]}",
+                "data: {\"choices\":[{\"delta\":{\"content\":\"lo\"}}]}",
+                "data: {\"choices\":[{\"finish_reason\":\"stop\",\"message\":{\"content\":\"Hello\"}}]}",
+                "data: [DONE]"
+            ));
+        });
+        server.start();
+
+        AiClientService service = buildService("primary-model", null, 0);
+        List<String> deltas = service.streamChat("system", "user").collectList().block();
+
+        Assertions.assertEquals(List.of("Hel", "lo"), deltas);
+    }
+
+    @Test
+    void shouldParseAnthropicStreamEvents() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/anthropic/v1/messages", exchange -> {
+            readBody(exchange);
+            writeEventStream(exchange, 200, List.of(
+                "event: message_start\ndata: {\"type\":\"message_start\",\"message\":{}}",
+                "event: content_block_delta\ndata: {\"type\":\"content_block_delta\",\"delta\":{\"type\":\"text_delta\",\"text\":\"你好\"}}",
+                "event: content_block_delta\ndata: {\"type\":\"content_block_delta\",\"delta\":{\"type\":\"text_delta\",\"text\":\"！\"}}",
+                "event: message_stop\ndata: {\"type\":\"message_stop\"}"
+            ));
+        });
+        server.start();
+
+        List<String> deltas = buildService("primary-model", null, 0, "/anthropic")
+            .streamChat("system", "user")
+            .collectList()
+            .block();
+
+        Assertions.assertEquals(List.of("你好", "！"), deltas);
+    }
+
+    @Test
+    void shouldFallbackStreamToBackupModelBeforeFirstDelta() throws Exception {
+        AtomicInteger primaryCalls = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/v1/text/chatcompletion_v2", exchange -> {
+            String body = readBody(exchange);
+            if (body.contains("\"model\":\"primary-model\"")) {
+                primaryCalls.incrementAndGet();
+                writeResponse(exchange, 503, "{\"error\":{\"message\":\"upstream unavailable\"}}");
+                return;
+            }
+            writeEventStream(exchange, 200, List.of(
+                "data: {\"choices\":[{\"delta\":{\"content\":\"backup\"}}]}",
+                "data: [DONE]"
+            ));
+        });
+        server.start();
+
+        AiClientService service = buildService("primary-model", "backup-model", 1);
+        List<String> deltas = service.streamChat("system", "user").collectList().block();
+
+        Assertions.assertEquals(List.of("backup"), deltas);
+        Assertions.assertEquals(2, primaryCalls.get());
+    }
+
     private AiClientService buildService(String primaryModel, String fallbackModel, int maxRetries) {
+        return buildService(primaryModel, fallbackModel, maxRetries, "");
+    }
+
+    private AiClientService buildService(String primaryModel, String fallbackModel, int maxRetries, String basePath) {
         AiProperties properties = new AiProperties();
-        properties.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+        properties.setBaseUrl("http://localhost:" + server.getAddress().getPort() + basePath);
         properties.setApiKey("test-token");
         properties.setModel(primaryModel);
         properties.setFallbackModel(fallbackModel);
@@ -143,7 +217,8 @@ class AiClientServiceTest {
         Mockito.when(registryProvider.getIfAvailable()).thenReturn(new SimpleMeterRegistry());
         AiMetricsService metricsService = new AiMetricsService(registryProvider);
 
-        return new AiClientService(properties, WebClient.builder(), metricsService);
+        WebClient llmWebClient = WebClient.builder().baseUrl(properties.getBaseUrl()).build();
+        return new AiClientService(properties, llmWebClient, metricsService, new ObjectMapper());
     }
 
     private String readBody(HttpExchange exchange) throws IOException {
@@ -152,6 +227,14 @@ class AiClientServiceTest {
         }
     }
 
+    private void writeEventStream(HttpExchange exchange, int status, List<String> events) throws IOException {
+        byte[] bytes = (String.join("\n\n", events) + "\n\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
     private void writeResponse(HttpExchange exchange, int status, String body) throws IOException {
         byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
         exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
@@ -0,0 +1,90 @@
+package com.mamoji.ai;
+
+import com.mamoji.ai.metrics.AiMetricsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test suite for AiMetricsAllocationBenchmarkTest.
+ *
+ * <p>Allocation microbenchmark: heap bytes allocated by the calling thread per {@code recordRequest}, against
+ * the previous builder-and-register path for the same three meters. Tagged {@code benchmark}: excluded from
+ * the default test run, enabled with {@code -Pbenchmark}; {@code MeterCacheTest} covers meter reuse there.
+ */
+@Tag("benchmark")
+class AiMetricsAllocationBenchmarkTest {
+
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 200_000;
+
+    @Test
+    void recordRequestShouldAllocateAlmostNothingPerCall() {
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AiMetricsService service = new AiMetricsService(
+            new StaticListableBeanFactory(Map.of("meterRegistry", registry)).getBeanProvider(MeterRegistry.class));
+
+        for (int i = 0; i < WARMUP; i++) {
+            service.recordRequest("minimaxi", (i & 1) == 0, i & 255, 64);
+            builderRecordRequest(registry, "minimaxi", (i & 1) == 0, i & 255, 64);
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            service.recordRequest("minimaxi", (i & 1) == 0, i & 255, 64);
+        }
+        double cachedBytes = (double) (threads.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+
+        before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            builderRecordRequest(registry, "minimaxi", (i & 1) == 0, i & 255, 64);
+        }
+        double builderBytes = (double) (threads.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+
+        Assertions.assertTrue(cachedBytes < 16, "cached=" + cachedBytes + "B/call builder=" + builderBytes + "B/call");
+        Assertions.assertTrue(cachedBytes < builderBytes, "cached=" + cachedBytes + "B/call builder=" + builderBytes + "B/call");
+    }
+
+    /**
+     * Previous recording path: builder, tags and registry lookup on every call.
+     */
+    private void builderRecordRequest(MeterRegistry registry, String provider, boolean success, long latencyMs, int tokens) {
+        Timer.builder("ai.request.latency")
+            .tag("provider", provider)
+            .tag("success", String.valueOf(success))
+            .register(registry)
+            .record(latencyMs, TimeUnit.MILLISECONDS);
+        Counter.builder("ai.request.count")
+            .tag("provider", provider)
+            .tag("success", String.valueOf(success))
+            .register(registry)
+            .increment();
+        DistributionSummary.builder("ai.request.tokens")
+            .tag("provider", provider)
+            .register(registry)
+            .record(tokens);
+    }
+
+    private com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+            && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        Assumptions.abort("thread allocation counters are not available on this JVM");
+        return null;
+    }
+}
@@ -1,6 +1,11 @@
 package com.mamoji.ai;
 
+import com.mamoji.ai.metrics.AiExemplarSpanContext;
 import com.mamoji.ai.metrics.AiMetricsService;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -146,7 +151,38 @@ class AiMetricsServiceTest {
         Assertions.assertEquals(1.0, providerMissing);
         Assertions.assertEquals(1.0, tokensMissing);
     }
-}
 
+    @Test
+    void shouldReuseRegisteredMetersAcrossCalls() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", registry));
+        AiMetricsService service = new AiMetricsService(beanFactory.getBeanProvider(io.micrometer.core.instrument.MeterRegistry.class));
 
+        service.recordToolCall("finance.query_budget", true, 10);
+        service.recordToolCall("Finance.Query_Budget ", true, 20);
+        service.recordToolCall("finance.query_budget", false, 5);
 
+        Assertions.assertEquals(2L, registry.get("ai.tool.latency")
+            .tag("tool", "finance.query_budget")
+            .tag("success", "true")
+            .timer()
+            .count());
+        Assertions.assertEquals(2, registry.get("ai.tool.count").counters().size());
+    }
+
+    @Test
+    void shouldAttachTraceIdExemplarToStageLatency() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(
+            PrometheusConfig.DEFAULT, new PrometheusRegistry(), Clock.SYSTEM, new AiExemplarSpanContext());
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", registry));
+        AiMetricsService service = new AiMetricsService(beanFactory.getBeanProvider(io.micrometer.core.instrument.MeterRegistry.class));
+
+        service.recordAgentStage("llm-primary", "ok", 1200, "abcd1234");
+        service.recordAgentStage("quality", "ok", 3);
+
+        String scrape = registry.scrape("application/openmetrics-text; version=1.0.0; charset=utf-8");
+        Assertions.assertTrue(scrape.contains("trace_id=\"abcd1234\""), scrape);
+        Assertions.assertTrue(scrape.contains("span_id=\"llm-primary\""), scrape);
+        Assertions.assertEquals(1L, registry.get("ai.agent.stage.latency").tag("stage", "quality").timer().count());
+    }
+}
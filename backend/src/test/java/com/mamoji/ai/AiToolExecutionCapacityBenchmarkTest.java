@@ -0,0 +1,98 @@
+package com.mamoji.ai;
+
+import com.mamoji.ai.metrics.AiMetricsService;
+import com.mamoji.ai.tool.AiToolExecutionService;
+import com.mamoji.ai.tool.AiToolHandler;
+import com.mamoji.ai.tool.AiToolResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Test suite for AiToolExecutionCapacityBenchmarkTest.
+ *
+ * <p>Load benchmark: many concurrent chats, each blocked on one network-bound tool call, run through the
+ * default bounded pool and through virtual-thread mode under the same per-call timeout. Tagged
+ * {@code benchmark}: excluded from the default test run, enabled with {@code -Pbenchmark}.
+ */
+@Tag("benchmark")
+class AiToolExecutionCapacityBenchmarkTest {
+
+    private static final int CONCURRENT_CHATS = 200;
+    private static final long TOOL_LATENCY_MS = 100L;
+    private static final long TOOL_TIMEOUT_MS = 1_500L;
+
+    @Test
+    void virtualThreadModeShouldServeMoreConcurrentChatsThanBoundedPool() throws Exception {
+        Capacity pool = runLoad(false);
+        Capacity virtual = runLoad(true);
+
+        // Structural outcome only: every call fits in virtual-thread mode, while the bounded pool rejects or
+        // times out part of the load. Elapsed times are reported in the messages, not asserted.
+        Assertions.assertEquals(CONCURRENT_CHATS, virtual.completed(), "virtual threads: " + virtual);
+        Assertions.assertTrue(pool.completed() < CONCURRENT_CHATS, "pool: " + pool + ", virtual: " + virtual);
+    }
+
+    private Capacity runLoad(boolean virtualThreads) throws Exception {
+        AiProperties properties = new AiProperties();
+        properties.getExecutionOps().setVirtualThreads(virtualThreads);
+        properties.getToolExecOps().setTimeoutMs(TOOL_TIMEOUT_MS);
+        properties.getToolExecOps().setMaxConcurrentPerTool(CONCURRENT_CHATS);
+        properties.getToolExecOps().setFailureThreshold(CONCURRENT_CHATS);
+        AiToolExecutionService service = new AiToolExecutionService(properties, Mockito.mock(AiMetricsService.class));
+        AiToolHandler networkBound = new AiToolHandler() {
+            /**
+             * Returns fixed tool name for the load scenario.
+             */
+            @Override
+            public String name() {
+                return "quoteLookup";
+            }
+
+            /**
+             * Simulates an upstream call that parks the executing thread.
+             */
+            @Override
+            public AiToolResult execute(Long userId, Map<String, Object> params) {
+                try {
+                    Thread.sleep(TOOL_LATENCY_MS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return AiToolResult.fail(name(), "interrupted");
+                }
+                return AiToolResult.ok(name(), "{}");
+            }
+        };
+
+        long start = System.nanoTime();
+        ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<AiToolResult>> results = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_CHATS; i++) {
+                Map<String, Object> params = Map.of("chat", i);
+                results.add(callers.submit(() -> service.execute(networkBound, 1L, params)));
+            }
+            int completed = 0;
+            for (Future<AiToolResult> result : results) {
+                if (result.get().success()) {
+                    completed++;
+                }
+            }
+            return new Capacity(completed, (System.nanoTime() - start) / 1_000_000L);
+        } finally {
+            callers.shutdownNow();
+            service.shutdownExecutor();
+        }
+    }
+
+    private record Capacity(int completed, long elapsedMs) {
+    }
+}
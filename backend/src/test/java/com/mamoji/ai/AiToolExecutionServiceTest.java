@@ -1,16 +1,25 @@
 package com.mamoji.ai;
 
+import com.mamoji.ai.metrics.AiMetricsService;
 import com.mamoji.ai.tool.AiToolExecutionService;
 import com.mamoji.ai.tool.AiToolHandler;
 import com.mamoji.ai.tool.AiToolResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Test suite for AiToolExecutionServiceTest.
@@ -126,9 +135,19 @@ class AiToolExecutionServiceTest {
 
     @Test
     void shouldEnforcePerToolConcurrencyLimit() throws Exception {
+        assertPerToolConcurrencyLimited(false);
+    }
+
+    @Test
+    void shouldEnforcePerToolConcurrencyLimitOnVirtualThreads() throws Exception {
+        assertPerToolConcurrencyLimited(true);
+    }
+
+    private void assertPerToolConcurrencyLimited(boolean virtualThreads) throws Exception {
         AiProperties properties = new AiProperties();
         properties.getToolExecOps().setTimeoutMs(1000);
         properties.getToolExecOps().setMaxConcurrentPerTool(1);
+        properties.getExecutionOps().setVirtualThreads(virtualThreads);
         AiToolExecutionService service = new AiToolExecutionService(properties, Mockito.mock(com.mamoji.ai.metrics.AiMetricsService.class));
 
         CountDownLatch entered = new CountDownLatch(1);
@@ -161,15 +180,152 @@ class AiToolExecutionServiceTest {
             singleThread.submit(() -> service.execute(blockingHandler, 1L, Map.of("x", 1)));
             Assertions.assertTrue(entered.await(1, TimeUnit.SECONDS));
 
-            AiToolResult denied = service.execute(blockingHandler, 1L, Map.of("x", 1));
+            // Different params: identical calls would join the in-flight execution instead.
+            AiToolResult denied = service.execute(blockingHandler, 1L, Map.of("x", 2));
             Assertions.assertFalse(denied.success());
             Assertions.assertEquals("tool_concurrency_limited", denied.error());
         } finally {
             release.countDown();
             singleThread.shutdownNow();
+            service.shutdownExecutor();
         }
     }
-}
 
+    @Test
+    void shouldShareOneExecutionForConcurrentIdenticalCalls() throws Exception {
+        AiProperties properties = new AiProperties();
+        properties.getToolExecOps().setTimeoutMs(2000);
+        AiToolExecutionService service = new AiToolExecutionService(properties, Mockito.mock(com.mamoji.ai.metrics.AiMetricsService.class));
+
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        AiToolHandler handler = new AiToolHandler() {
+            /**
+             * Returns fixed single-flight tool name.
+             */
+            @Override
+            public String name() {
+                return "sharedTool";
+            }
+
+            /**
+             * Blocks until released so every caller arrives while the first is in flight.
+             */
+            @Override
+            public AiToolResult execute(Long userId, Map<String, Object> params) {
+                calls.incrementAndGet();
+                try {
+                    release.await(2, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+                return AiToolResult.ok(name(), "{\"shared\":true}");
+            }
+        };
+
+        var callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<AiToolResult>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> service.execute(handler, 1L, Map.of("code", "sh000001", "days", 5))));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<AiToolResult> result : results) {
+                Assertions.assertTrue(result.get().success());
+            }
+            Assertions.assertEquals(1, calls.get());
+        } finally {
+            callers.shutdownNow();
+            service.shutdownExecutor();
+        }
+    }
+
+    @Test
+    void shouldNotShareCacheEntriesAcrossDifferentParamTypes() {
+        AiProperties properties = new AiProperties();
+        properties.getToolExecOps().setTimeoutMs(500);
+        AiToolExecutionService service = new AiToolExecutionService(properties, Mockito.mock(com.mamoji.ai.metrics.AiMetricsService.class));
+
+        AtomicInteger calls = new AtomicInteger();
+        AiToolHandler handler = new AiToolHandler() {
+            /**
+             * Returns fixed key-test tool name.
+             */
+            @Override
+            public String name() {
+                return "keyTool";
+            }
 
+            /**
+             * Counts executions so cache hits are visible.
+             */
+            @Override
+            public AiToolResult execute(Long userId, Map<String, Object> params) {
+                return AiToolResult.ok(name(), "{\"n\":" + calls.incrementAndGet() + "}");
+            }
+        };
+
+        Map<String, Object> ordered = new LinkedHashMap<>();
+        ordered.put("a", 1);
+        ordered.put("b", "x");
+        Map<String, Object> reversed = new LinkedHashMap<>();
+        reversed.put("b", "x");
+        reversed.put("a", 1);
+
+        service.execute(handler, 1L, ordered);
+        service.execute(handler, 1L, reversed);
+        Assertions.assertEquals(1, calls.get());
+
+        service.execute(handler, 1L, Map.of("a", "1", "b", "x"));
+        Assertions.assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedAndExportCacheMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", registry));
+        AiMetricsService metrics = new AiMetricsService(beanFactory.getBeanProvider(MeterRegistry.class));
+        AiProperties properties = new AiProperties();
+        properties.getToolExecOps().setTimeoutMs(500);
+        properties.getToolExecOps().setCacheMaxEntries(64);
+        AiToolExecutionService service = new AiToolExecutionService(properties, metrics);
 
+        AtomicInteger calls = new AtomicInteger();
+        AiToolHandler handler = new AiToolHandler() {
+            /**
+             * Returns fixed eviction-test tool name.
+             */
+            @Override
+            public String name() {
+                return "lruTool";
+            }
+
+            /**
+             * Counts executions so evictions are visible.
+             */
+            @Override
+            public AiToolResult execute(Long userId, Map<String, Object> params) {
+                calls.incrementAndGet();
+                return AiToolResult.ok(name(), "{}");
+            }
+        };
+
+        for (int i = 0; i < 64; i++) {
+            service.execute(handler, 1L, Map.of("i", i));
+        }
+        service.execute(handler, 1L, Map.of("i", 0));
+        service.execute(handler, 1L, Map.of("i", 64));
+        Assertions.assertEquals(65, calls.get());
+
+        service.execute(handler, 1L, Map.of("i", 0));
+        Assertions.assertEquals(65, calls.get());
+        service.execute(handler, 1L, Map.of("i", 1));
+        Assertions.assertEquals(66, calls.get());
+
+        Assertions.assertTrue(registry.get("ai.cache.eviction.count")
+            .tag("layer", "tool").tag("reason", "size").counter().count() >= 1);
+        double hitRatio = registry.get("ai.cache.hit.ratio").tag("layer", "tool").gauge().value();
+        Assertions.assertEquals(2.0 / 68, hitRatio, 1e-9);
+        service.shutdownExecutor();
+    }
+}
@@ -5,8 +5,13 @@ import com.mamoji.ai.rag.FileKnowledgeRetriever;
 import com.mamoji.ai.rag.KnowledgeSnippet;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.core.io.DefaultResourceLoader;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 
 /**
@@ -49,7 +54,48 @@ class FileKnowledgeRetrieverTest {
         Assertions.assertTrue(snippets.stream().anyMatch(s -> "policy/stock-4".equals(s.source())));
         Assertions.assertTrue(snippets.stream().noneMatch(s -> "policy/finance-3".equals(s.source())));
     }
-}
 
+    @Test
+    void shouldMatchChineseQuestionsByCharacterBigrams(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("knowledge-base.json");
+        Files.writeString(file, """
+            [
+              {"assistantType": "finance", "source": "kb/rent", "title": "房租规划", "content": "房租不宜超过月收入的三成。", "tags": "住房"},
+              {"assistantType": "finance", "source": "kb/expense", "title": "月度支出复盘", "content": "每月复盘支出情况，优先削减餐饮和娱乐支出。", "tags": "支出,预算"},
+              {"assistantType": "stock", "source": "kb/stock", "title": "支出与投资", "content": "投资前先留足三个月支出。", "tags": "股票"}
+            ]
+            """, StandardCharsets.UTF_8);
+        AiProperties properties = new AiProperties();
+        properties.getRagOps().setKnowledgePath(file.toUri().toString());
+
+        FileKnowledgeRetriever retriever = new FileKnowledgeRetriever(properties, new DefaultResourceLoader(), new ObjectMapper());
+
+        List<KnowledgeSnippet> snippets = retriever.retrieve("finance", "我本月支出情况怎么样？", 2);
+
+        Assertions.assertEquals(List.of("kb/expense"), snippets.stream().map(KnowledgeSnippet::source).toList());
+    }
+
+    @Test
+    void shouldSwapInRebuiltIndexWhenKnowledgeFileChanges(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("knowledge-base.json");
+        Files.writeString(file, """
+            [{"assistantType": "all", "source": "kb/v1", "title": "Emergency fund", "content": "Keep six months of expenses.", "tags": "saving"}]
+            """, StandardCharsets.UTF_8);
+        AiProperties properties = new AiProperties();
+        properties.getRagOps().setKnowledgePath(file.toUri().toString());
+        FileKnowledgeRetriever retriever = new FileKnowledgeRetriever(properties, new DefaultResourceLoader(), new ObjectMapper());
+        Assertions.assertEquals("kb/v1", retriever.retrieve("finance", "emergency saving", 1).get(0).source());
 
+        Files.writeString(file, """
+            [{"assistantType": "all", "source": "kb/v2", "title": "Emergency fund", "content": "Keep three months of expenses.", "tags": "saving"}]
+            """, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5_000L));
+        retriever.reloadIfChanged();
+        Assertions.assertEquals("kb/v2", retriever.retrieve("finance", "emergency saving", 1).get(0).source());
 
+        Files.writeString(file, "[ not json", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000L));
+        retriever.reloadIfChanged();
+        Assertions.assertEquals("kb/v2", retriever.retrieve("finance", "emergency saving", 1).get(0).source());
+    }
+}
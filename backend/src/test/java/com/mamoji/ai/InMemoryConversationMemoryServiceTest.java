@@ -0,0 +1,129 @@
+package com.mamoji.ai;
+
+import com.mamoji.ai.memory.ConversationTurn;
+import com.mamoji.ai.memory.InMemoryConversationMemoryService;
+import com.mamoji.ai.metrics.AiMetricsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Test suite for InMemoryConversationMemoryServiceTest.
+ */
+
+class InMemoryConversationMemoryServiceTest {
+
+    @Test
+    void shouldReturnOnlyRequestedTailAndCompactOverflow() {
+        AiProperties properties = new AiProperties();
+        properties.getMemoryOps().setMaxStoredTurns(4);
+        properties.getMemoryOps().setSummarizeBatchSize(2);
+        InMemoryConversationMemoryService service = new InMemoryConversationMemoryService(properties, metrics(new SimpleMeterRegistry()));
+
+        for (int i = 1; i <= 3; i++) {
+            service.appendExchange("s1", "question " + i, "answer " + i);
+        }
+
+        List<ConversationTurn> all = service.recent("s1", 10);
+        Assertions.assertEquals(4, all.size());
+        Assertions.assertEquals("system_summary", all.get(0).role());
+        Assertions.assertEquals("answer 3", all.get(3).content());
+        Assertions.assertEquals(List.of("question 3", "answer 3"),
+            service.recent("s1", 2).stream().map(ConversationTurn::content).toList());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedSessionWhenFull() {
+        AiProperties properties = new AiProperties();
+        properties.getMemoryOps().setMaxSessions(2);
+        InMemoryConversationMemoryService service = new InMemoryConversationMemoryService(properties, metrics(new SimpleMeterRegistry()));
+
+        service.append("a", "user", "first");
+        service.append("b", "user", "second");
+        service.recent("a", 1);
+        service.append("c", "user", "third");
+
+        Assertions.assertEquals(1, service.recent("a", 5).size());
+        Assertions.assertTrue(service.recent("b", 5).isEmpty());
+        Assertions.assertEquals(1, service.recent("c", 5).size());
+    }
+
+    @Test
+    void shouldExpireIdleSessions() throws Exception {
+        AiProperties properties = new AiProperties();
+        properties.getMemoryOps().setTtlSeconds(1);
+        InMemoryConversationMemoryService service = new InMemoryConversationMemoryService(properties, metrics(new SimpleMeterRegistry()));
+
+        service.append("idle", "user", "hello");
+        Thread.sleep(1_100);
+
+        Assertions.assertTrue(service.recent("idle", 5).isEmpty());
+    }
+
+    @Test
+    void shouldExportSessionCountAndFootprintGauges() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        InMemoryConversationMemoryService service = new InMemoryConversationMemoryService(new AiProperties(), metrics(registry));
+
+        service.append("s1", "user", "hello");
+        service.append("s2", "user", "world");
+
+        Assertions.assertEquals(2.0, registry.get("ai.memory.sessions").tag("store", "in_memory").gauge().value());
+        double bytes = registry.get("ai.memory.footprint.bytes").tag("store", "in_memory").gauge().value();
+        Assertions.assertTrue(bytes >= 20);
+
+        service.clear("s1");
+        service.clear("s2");
+        Assertions.assertEquals(0.0, registry.get("ai.memory.sessions").tag("store", "in_memory").gauge().value());
+        Assertions.assertEquals(0.0, registry.get("ai.memory.footprint.bytes").tag("store", "in_memory").gauge().value());
+    }
+
+    @Test
+    void shouldKeepFootprintConsistentUnderConcurrentAppendsAndEviction() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AiProperties properties = new AiProperties();
+        properties.getMemoryOps().setMaxSessions(8);
+        properties.getMemoryOps().setMaxStoredTurns(6);
+        InMemoryConversationMemoryService service = new InMemoryConversationMemoryService(properties, metrics(registry));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        String session = "s" + ((thread * 31 + i) % 24);
+                        service.appendExchange(session, "question " + i, "answer " + i);
+                        service.recent(session, 4);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Assertions.assertTrue(registry.get("ai.memory.sessions").tag("store", "in_memory").gauge().value() <= 8);
+        for (int s = 0; s < 24; s++) {
+            service.clear("s" + s);
+        }
+        Assertions.assertEquals(0.0, registry.get("ai.memory.footprint.bytes").tag("store", "in_memory").gauge().value());
+    }
+
+    private static AiMetricsService metrics(MeterRegistry registry) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", registry));
+        return new AiMetricsService(beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+}
@@ -0,0 +1,151 @@
+package com.mamoji.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mamoji.ai.rag.LocalEmbeddingFunction;
+import com.mamoji.ai.rag.LocalVectorStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Test suite for LocalVectorStoreTest.
+ */
+
+class LocalVectorStoreTest {
+
+    @Test
+    void shouldHonourTopKAndAssistantTypeFilter() {
+        LocalVectorStore store = newStore(properties(""));
+
+        List<Document> stock = store.similaritySearch(SearchRequest.builder()
+            .query("risk disclaimer for quote recency")
+            .topK(5)
+            .filterExpression(new FilterExpressionBuilder().in("assistantType", "stock", "all").build())
+            .build());
+
+        Assertions.assertFalse(stock.isEmpty());
+        Assertions.assertTrue(stock.stream().allMatch(d ->
+            List.of("stock", "all").contains(String.valueOf(d.getMetadata().get("assistantType")))));
+
+        List<Document> limited = store.similaritySearch(SearchRequest.builder()
+            .query("budget risk expense reduction plan")
+            .topK(1)
+            .build());
+
+        Assertions.assertEquals(1, limited.size());
+        Assertions.assertEquals("policy/finance-3", limited.get(0).getMetadata().get("source"));
+        Assertions.assertNotNull(limited.get(0).getScore());
+    }
+
+    @Test
+    void shouldPersistIndexAndMapItOnRestart(@TempDir Path dir) throws Exception {
+        Path indexFile = dir.resolve("knowledge.vec");
+        AiProperties properties = properties(indexFile.toString());
+
+        CountingEmbedding firstEmbedding = new CountingEmbedding();
+        LocalVectorStore first = newStore(properties, firstEmbedding);
+        Assertions.assertTrue(Files.size(indexFile) > 0);
+        Assertions.assertTrue(Files.exists(dir.resolve("knowledge.vec.json")));
+        Assertions.assertTrue(firstEmbedding.calls.get() > 0);
+        List<Document> expected = first.similaritySearch(SearchRequest.builder().query("timestamp recency").topK(2).build());
+
+        CountingEmbedding restartEmbedding = new CountingEmbedding();
+        LocalVectorStore restarted = newStore(properties, restartEmbedding);
+        List<Document> actual = restarted.similaritySearch(SearchRequest.builder().query("timestamp recency").topK(2).build());
+
+        Assertions.assertFalse(actual.isEmpty());
+        Assertions.assertEquals(expected.stream().map(Document::getId).toList(), actual.stream().map(Document::getId).toList());
+        // Only the query was embedded; documents came from the mapped file.
+        Assertions.assertEquals(1, restartEmbedding.calls.get());
+    }
+
+    @Test
+    void shouldAddAndDeleteDocuments() {
+        LocalVectorStore store = newStore(properties(""));
+        store.add(List.of(new Document("extra-1", "Emergency fund should cover six months of expenses.",
+            Map.of("assistantType", "Finance", "title", "Emergency Fund"))));
+
+        List<Document> found = store.similaritySearch(SearchRequest.builder()
+            .query("emergency fund months")
+            .topK(1)
+            .filterExpression("assistantType == 'finance'")
+            .build());
+        Assertions.assertEquals("extra-1", found.get(0).getId());
+
+        store.delete(List.of("extra-1"));
+        List<Document> afterDelete = store.similaritySearch(SearchRequest.builder().query("emergency fund months").topK(1).build());
+        Assertions.assertTrue(afterDelete.stream().noneMatch(d -> "extra-1".equals(d.getId())));
+    }
+
+    private static AiProperties properties(String indexPath) {
+        AiProperties properties = new AiProperties();
+        properties.getRagOps().setKnowledgePath("classpath:ai/knowledge-base.json");
+        properties.getRagOps().setVectorIndexPath(indexPath);
+        return properties;
+    }
+
+    private static LocalVectorStore newStore(AiProperties properties) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<LocalEmbeddingFunction> provider = Mockito.mock(ObjectProvider.class);
+        Mockito.when(provider.getIfAvailable(Mockito.any())).thenAnswer(invocation ->
+            ((Supplier<?>) invocation.getArgument(0)).get());
+        return new LocalVectorStore(properties, new DefaultResourceLoader(), new ObjectMapper(), provider);
+    }
+
+    private static LocalVectorStore newStore(AiProperties properties, LocalEmbeddingFunction embedding) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<LocalEmbeddingFunction> provider = Mockito.mock(ObjectProvider.class);
+        Mockito.when(provider.getIfAvailable(Mockito.any())).thenReturn(embedding);
+        return new LocalVectorStore(properties, new DefaultResourceLoader(), new ObjectMapper(), provider);
+    }
+
+    /**
+     * Bag-of-words test embedding that counts how many texts were embedded.
+     */
+    private static class CountingEmbedding implements LocalEmbeddingFunction {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String id() {
+            return "counting-test";
+        }
+
+        @Override
+        public int dimensions() {
+            return 64;
+        }
+
+        @Override
+        public float[] embed(String text) {
+            calls.incrementAndGet();
+            float[] vector = new float[dimensions()];
+            double norm = 0;
+            for (String word : text.toLowerCase(Locale.ROOT).split("[^a-z]+")) {
+                if (!word.isEmpty()) {
+                    vector[Math.floorMod(word.hashCode(), vector.length)] += 1;
+                }
+            }
+            for (float value : vector) {
+                norm += value * value;
+            }
+            for (int i = 0; norm > 0 && i < vector.length; i++) {
+                vector[i] /= (float) Math.sqrt(norm);
+            }
+            return vector;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.mamoji.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mamoji.ai.memory.ConversationTurn;
+import com.mamoji.ai.memory.RedisConversationMemoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test suite for RedisConversationMemoryServiceTest.
+ *
+ * <p>The latency benchmark and script semantics run against a local Redis on localhost:6379 (override with
+ * -Dmamoji.test.redis.host/port) and are skipped when none is reachable.
+ */
+class RedisConversationMemoryServiceTest {
+
+    private static final int EXCHANGES = 200;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    @AfterEach
+    void tearDown() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @Test
+    void shouldWriteExchangeWithOneScriptCall() {
+        StringRedisTemplate redisTemplate = Mockito.mock(StringRedisTemplate.class);
+        RedisConversationMemoryService service = new RedisConversationMemoryService(
+            redisTemplate, new ObjectMapper(), new AiProperties());
+
+        service.appendExchange("s1", "How much did I spend?", "You spent 120.");
+
+        // Five script settings followed by the two turn payloads.
+        Mockito.verify(redisTemplate, Mockito.times(1)).execute(
+            ArgumentMatchers.<RedisScript<Long>>any(),
+            ArgumentMatchers.eq(List.of("ai:memory:s1")),
+            ArgumentMatchers.eq("40"),
+            ArgumentMatchers.eq("86400"),
+            ArgumentMatchers.eq("1"),
+            ArgumentMatchers.eq("8"),
+            ArgumentMatchers.any(),
+            ArgumentMatchers.argThat((Object json) -> json.toString().contains("\"role\":\"user\"")),
+            ArgumentMatchers.argThat((Object json) -> json.toString().contains("\"role\":\"assistant\"")));
+        Mockito.verifyNoMoreInteractions(redisTemplate);
+    }
+
+    @Test
+    void shouldCompactTrimAndExpireAtomicallyOnLocalRedis() {
+        StringRedisTemplate redisTemplate = localRedis();
+        AiProperties properties = new AiProperties();
+        properties.getMemoryOps().setMaxStoredTurns(4);
+        properties.getMemoryOps().setSummarizeBatchSize(2);
+        properties.getMemoryOps().setTtlSeconds(120);
+        RedisConversationMemoryService service = new RedisConversationMemoryService(redisTemplate, new ObjectMapper(), properties);
+        service.clear("bench-compact");
+
+        for (int i = 1; i <= 3; i++) {
+            service.appendExchange("bench-compact", "question " + i, "answer " + i);
+        }
+        List<ConversationTurn> turns = service.recent("bench-compact", 10);
+
+        Assertions.assertEquals(4, turns.size());
+        Assertions.assertEquals("system_summary", turns.get(0).role());
+        Assertions.assertTrue(turns.get(0).content().startsWith("Summary:"));
+        Assertions.assertEquals("answer 3", turns.get(3).content());
+        Long ttl = redisTemplate.getExpire("ai:memory:bench-compact", TimeUnit.SECONDS);
+        Assertions.assertTrue(ttl != null && ttl > 0 && ttl <= 120);
+        service.clear("bench-compact");
+    }
+
+    @Test
+    void scriptedExchangeShouldBeFasterThanPerCommandAppendsOnLocalRedis() {
+        StringRedisTemplate redisTemplate = localRedis();
+        RedisConversationMemoryService service = new RedisConversationMemoryService(
+            redisTemplate, new ObjectMapper(), new AiProperties());
+        String legacyKey = "ai:memory:bench-legacy";
+        service.clear("bench-script");
+        redisTemplate.delete(legacyKey);
+
+        // Warm up the connection and the script cache.
+        service.appendExchange("bench-script", "warm", "up");
+
+        long legacyStart = System.nanoTime();
+        for (int i = 0; i < EXCHANGES; i++) {
+            legacyAppend(redisTemplate, legacyKey, "{\"role\":\"user\",\"content\":\"q\",\"timestamp\":\"t\"}");
+            legacyAppend(redisTemplate, legacyKey, "{\"role\":\"assistant\",\"content\":\"a\",\"timestamp\":\"t\"}");
+        }
+        long legacyNanos = System.nanoTime() - legacyStart;
+
+        long scriptStart = System.nanoTime();
+        for (int i = 0; i < EXCHANGES; i++) {
+            service.appendExchange("bench-script", "q", "a");
+        }
+        long scriptNanos = System.nanoTime() - scriptStart;
+
+        service.clear("bench-script");
+        redisTemplate.delete(legacyKey);
+        Assertions.assertTrue(scriptNanos < legacyNanos,
+            "script=" + scriptNanos / 1_000_000 + "ms legacy=" + legacyNanos / 1_000_000 + "ms");
+    }
+
+    /**
+     * Previous per-turn command sequence without overflow: RPUSH, LLEN, LTRIM, EXPIRE.
+     */
+    private void legacyAppend(StringRedisTemplate redisTemplate, String key, String payload) {
+        redisTemplate.opsForList().rightPush(key, payload);
+        redisTemplate.opsForList().size(key);
+        redisTemplate.opsForList().trim(key, -40, -1);
+        redisTemplate.expire(key, 86400, TimeUnit.SECONDS);
+    }
+
+    private StringRedisTemplate localRedis() {
+        String host = System.getProperty("mamoji.test.redis.host", "localhost");
+        int port = Integer.getInteger("mamoji.test.redis.port", 6379);
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port));
+        try {
+            connectionFactory.afterPropertiesSet();
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                connection.ping();
+            }
+            return new StringRedisTemplate(connectionFactory);
+        } catch (RuntimeException ex) {
+            Assumptions.abort("local Redis not reachable at " + host + ":" + port);
+            return null;
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.mamoji.ai;
 
 import com.mamoji.ai.memory.InMemoryConversationMemoryService;
 import com.mamoji.ai.memory.SpringAiChatMemoryAdapter;
+import com.mamoji.ai.metrics.AiMetricsService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.MessageType;
@@ -20,7 +22,7 @@ class SpringAiChatMemoryAdapterTest {
     @Test
     void shouldBridgeConversationMemoryToSpringAiChatMemory() {
         AiProperties properties = new AiProperties();
-        InMemoryConversationMemoryService memoryService = new InMemoryConversationMemoryService(properties);
+        InMemoryConversationMemoryService memoryService = new InMemoryConversationMemoryService(properties, Mockito.mock(AiMetricsService.class));
         SpringAiChatMemoryAdapter adapter = new SpringAiChatMemoryAdapter(memoryService, properties);
 
         adapter.add("conv-1", List.of(new UserMessage("hello"), new AssistantMessage("hi")));
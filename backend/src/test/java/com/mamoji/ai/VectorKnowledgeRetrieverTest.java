@@ -6,8 +6,11 @@ import com.mamoji.ai.rag.LocalKnowledgeRetriever;
 import com.mamoji.ai.rag.VectorKnowledgeRetriever;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.beans.factory.ObjectProvider;
 
@@ -24,39 +27,51 @@ class VectorKnowledgeRetrieverTest {
     void shouldUseVectorResultsWhenAvailable() {
         VectorStore vectorStore = Mockito.mock(VectorStore.class);
         @SuppressWarnings("unchecked")
+        ObjectProvider<VectorStore> storeProvider = Mockito.mock(ObjectProvider.class);
+        Mockito.when(storeProvider.getIfAvailable()).thenReturn(vectorStore);
+        @SuppressWarnings("unchecked")
         ObjectProvider<FileKnowledgeRetriever> fileProvider = Mockito.mock(ObjectProvider.class);
         @SuppressWarnings("unchecked")
         ObjectProvider<LocalKnowledgeRetriever> localProvider = Mockito.mock(ObjectProvider.class);
 
-        Mockito.when(vectorStore.similaritySearch("budget plan"))
+        Mockito.when(vectorStore.similaritySearch(ArgumentMatchers.any(SearchRequest.class)))
             .thenReturn(List.of(new Document(
                 "Keep spending ratio below 70%.",
                 Map.of("source", "vector:policy", "title", "Budget Rule", "assistantType", "finance")
             )));
 
-        VectorKnowledgeRetriever retriever = new VectorKnowledgeRetriever(vectorStore, fileProvider, localProvider);
+        VectorKnowledgeRetriever retriever = new VectorKnowledgeRetriever(storeProvider, fileProvider, localProvider);
         List<KnowledgeSnippet> snippets = retriever.retrieve("finance", "budget plan", 2);
 
         Assertions.assertEquals(1, snippets.size());
         Assertions.assertEquals("vector:policy", snippets.get(0).source());
         Assertions.assertEquals("Budget Rule", snippets.get(0).title());
+
+        ArgumentCaptor<SearchRequest> request = ArgumentCaptor.forClass(SearchRequest.class);
+        Mockito.verify(vectorStore).similaritySearch(request.capture());
+        Assertions.assertEquals("budget plan", request.getValue().getQuery());
+        Assertions.assertEquals(2, request.getValue().getTopK());
+        Assertions.assertTrue(request.getValue().hasFilterExpression());
     }
 
     @Test
     void shouldFallbackToFileRetrieverWhenVectorReturnsEmpty() {
         VectorStore vectorStore = Mockito.mock(VectorStore.class);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<VectorStore> storeProvider = Mockito.mock(ObjectProvider.class);
+        Mockito.when(storeProvider.getIfAvailable()).thenReturn(vectorStore);
         FileKnowledgeRetriever fileRetriever = Mockito.mock(FileKnowledgeRetriever.class);
         @SuppressWarnings("unchecked")
         ObjectProvider<FileKnowledgeRetriever> fileProvider = Mockito.mock(ObjectProvider.class);
         @SuppressWarnings("unchecked")
         ObjectProvider<LocalKnowledgeRetriever> localProvider = Mockito.mock(ObjectProvider.class);
 
-        Mockito.when(vectorStore.similaritySearch("market")).thenReturn(List.of());
+        Mockito.when(vectorStore.similaritySearch(ArgumentMatchers.any(SearchRequest.class))).thenReturn(List.of());
         Mockito.when(fileProvider.getIfAvailable()).thenReturn(fileRetriever);
         Mockito.when(fileRetriever.retrieve("stock", "market", 1))
             .thenReturn(List.of(new KnowledgeSnippet("file", "Market Rule", "Always mention uncertainty.")));
 
-        VectorKnowledgeRetriever retriever = new VectorKnowledgeRetriever(vectorStore, fileProvider, localProvider);
+        VectorKnowledgeRetriever retriever = new VectorKnowledgeRetriever(storeProvider, fileProvider, localProvider);
         List<KnowledgeSnippet> snippets = retriever.retrieve("stock", "market", 1);
 
         Assertions.assertEquals(1, snippets.size());
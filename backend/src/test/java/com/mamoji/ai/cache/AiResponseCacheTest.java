@@ -0,0 +1,82 @@
+package com.mamoji.ai.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mamoji.ai.AiProperties;
+import com.mamoji.ai.metrics.AiMetricsService;
+import com.mamoji.service.TransactionsChangedEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+
+/**
+ * Test suite for AiResponseCacheTest.
+ */
+class AiResponseCacheTest {
+
+    private static final String PAYLOAD = "{\"month\":\"2026-03\",\"expense\":1200}";
+
+    private final AiProperties aiProperties = new AiProperties();
+    private final AiMetricsService aiMetricsService = Mockito.mock(AiMetricsService.class);
+    @SuppressWarnings("unchecked")
+    private final AiResponseCache cache = new AiResponseCache(
+        aiProperties, aiMetricsService, new ObjectMapper(), Mockito.mock(ObjectProvider.class));
+
+    @Test
+    void shouldHitForNormalizedQuestionWithSamePayloadAndRecordLlmLayer() {
+        String key = cache.key(1L, "finance", "A", "本月支出情况？", PAYLOAD);
+        Assertions.assertTrue(cache.get(key, "finance").isEmpty());
+        cache.put(key, response("本月支出 1200 元"));
+
+        String sameQuestion = cache.key(1L, "finance", "A", "  本月支出情况 ", PAYLOAD);
+        Assertions.assertEquals(key, sameQuestion);
+        Assertions.assertEquals("本月支出 1200 元", cache.get(sameQuestion, "finance").orElseThrow().answer());
+        Assertions.assertNotEquals(key, cache.key(1L, "finance", "A", "本月支出情况", "{\"expense\":1300}"));
+        Assertions.assertNotEquals(key, cache.key(2L, "finance", "A", "本月支出情况", PAYLOAD));
+
+        Mockito.verify(aiMetricsService).recordCacheAccess("llm", "finance", false);
+        Mockito.verify(aiMetricsService).recordCacheAccess("llm", "finance", true);
+    }
+
+    @Test
+    void shouldMissAfterTransactionsChangeForThatUserOnly() {
+        String userOne = cache.key(1L, "finance", "A", "本月支出情况", PAYLOAD);
+        String userTwo = cache.key(2L, "finance", "A", "本月支出情况", PAYLOAD);
+        cache.put(userOne, response("one"));
+        cache.put(userTwo, response("two"));
+
+        cache.onTransactionsChanged(new TransactionsChangedEvent(1L));
+
+        Assertions.assertTrue(cache.get(cache.key(1L, "finance", "A", "本月支出情况", PAYLOAD), "finance").isEmpty());
+        Assertions.assertTrue(cache.get(userOne, "finance").isEmpty());
+        Assertions.assertEquals("two", cache.get(cache.key(2L, "finance", "A", "本月支出情况", PAYLOAD), "finance")
+            .orElseThrow().answer());
+    }
+
+    @Test
+    void shouldSkipUncacheableRequestsAndEvictLeastRecentlyUsed() {
+        Assertions.assertNull(cache.key(1L, "general", "A", "你好", ""));
+        aiProperties.getResponseCacheOps().setEnabled(false);
+        Assertions.assertNull(cache.key(1L, "finance", "A", "本月支出情况", PAYLOAD));
+        aiProperties.getResponseCacheOps().setEnabled(true);
+
+        aiProperties.getResponseCacheOps().setMaxEntries(2);
+        String first = cache.key(1L, "finance", "A", "q1", PAYLOAD);
+        String second = cache.key(1L, "finance", "A", "q2", PAYLOAD);
+        String third = cache.key(1L, "finance", "A", "q3", PAYLOAD);
+        cache.put(first, response("1"));
+        cache.put(second, response("2"));
+        cache.get(first, "finance");
+        cache.put(third, response("3"));
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertTrue(cache.get(first, "finance").isPresent());
+        Assertions.assertTrue(cache.get(second, "finance").isEmpty());
+    }
+
+    private AiResponseCache.CachedResponse response(String answer) {
+        return new AiResponseCache.CachedResponse(answer, List.of(), List.of("tool:finance_query"), List.of("finance_query"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.mamoji.ai.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test suite for MeterCacheTest.
+ */
+class MeterCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger registrations = new AtomicInteger();
+    private final MeterCache<Timer> cache = new MeterCache<>(tags -> {
+        registrations.incrementAndGet();
+        Timer.Builder builder = Timer.builder("ai.test.latency");
+        for (int i = 0; i < tags.size(); i++) {
+            builder.tag("t" + i, tags.get(i));
+        }
+        return builder.register(registry);
+    });
+
+    @Test
+    void shouldReturnSameTimerInstanceOnRepeatCalls() {
+        Timer first = cache.get("minimaxi", "true");
+        Timer second = cache.get("minimaxi", "true");
+
+        Assertions.assertSame(first, second);
+        Assertions.assertSame(first, registry.get("ai.test.latency").tag("t0", "minimaxi").tag("t1", "true").timer());
+        Assertions.assertEquals(1, registrations.get());
+    }
+
+    @Test
+    void shouldRegisterOneMeterPerTagTuple() {
+        Timer ok = cache.get("minimaxi", "true");
+        Timer failed = cache.get("minimaxi", "false");
+        Timer other = cache.get("openai", "true");
+
+        Assertions.assertNotSame(ok, failed);
+        Assertions.assertNotSame(ok, other);
+        Assertions.assertSame(failed, cache.get("minimaxi", "false"));
+        Assertions.assertSame(other, cache.get("openai", "true"));
+        Assertions.assertEquals(3, registrations.get());
+    }
+}
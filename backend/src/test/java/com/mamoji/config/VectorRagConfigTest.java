@@ -0,0 +1,62 @@
+package com.mamoji.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mamoji.ai.AiProperties;
+import com.mamoji.ai.rag.KnowledgeRetriever;
+import com.mamoji.ai.rag.KnowledgeSnippet;
+import com.mamoji.ai.rag.LocalVectorStore;
+import com.mamoji.ai.rag.VectorKnowledgeRetriever;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+/**
+ * Test suite for VectorRagConfigTest.
+ */
+class VectorRagConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withBean(ObjectMapper.class, ObjectMapper::new)
+        .withUserConfiguration(RagScanConfig.class);
+
+    @Test
+    void shouldUseVectorRetrieverAsPrimaryWhenVectorEnabled() {
+        contextRunner
+            .withPropertyValues("ai.rag-ops.vector-enabled=true")
+            .run(context -> {
+                Assertions.assertNull(context.getStartupFailure());
+                Assertions.assertInstanceOf(LocalVectorStore.class, context.getBean(VectorStore.class));
+                KnowledgeRetriever retriever = context.getBean(KnowledgeRetriever.class);
+                Assertions.assertInstanceOf(VectorKnowledgeRetriever.class, retriever);
+
+                List<KnowledgeSnippet> snippets = retriever.retrieve("finance", "budget", 2);
+                Assertions.assertFalse(snippets.isEmpty());
+            });
+    }
+
+    @Test
+    void shouldNotRegisterVectorBeansWhenVectorDisabled() {
+        contextRunner.run(context -> {
+            Assertions.assertNull(context.getStartupFailure());
+            Assertions.assertTrue(context.getBeansOfType(VectorStore.class).isEmpty());
+            Assertions.assertTrue(context.getBeansOfType(VectorKnowledgeRetriever.class).isEmpty());
+        });
+    }
+
+    /**
+     * Scans the retriever package the way the application does and adds the vector wiring.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @EnableConfigurationProperties(AiProperties.class)
+    @ComponentScan("com.mamoji.ai.rag")
+    @Import(VectorRagConfig.class)
+    static class RagScanConfig {
+    }
+}
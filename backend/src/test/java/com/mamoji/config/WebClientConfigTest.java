@@ -0,0 +1,95 @@
+package com.mamoji.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test suite for WebClientConfigTest.
+ */
+
+class WebClientConfigTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private HttpServer server;
+    private ConnectionProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Metrics.removeRegistry(registry);
+        if (provider != null) {
+            provider.dispose();
+        }
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void shouldReuseQuoteClientWithPerRequestPathAndExportPoolGauges() throws Exception {
+        List<String> requests = new ArrayList<>();
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", exchange -> {
+            requests.add(exchange.getRequestURI() + " " + exchange.getRequestHeaders().getFirst("Referer"));
+            byte[] bytes = "var hq_str_sh600519=\"demo\";".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.start();
+
+        WebClientProperties properties = new WebClientProperties();
+        properties.setQuoteBaseUrl("http://localhost:" + server.getAddress().getPort());
+        WebClientConfig config = new WebClientConfig(properties);
+        provider = config.webClientConnectionProvider();
+        ReactorClientHttpConnector connector = config.webClientConnector(provider);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<WebClientCustomizer> customizers = mock(ObjectProvider.class);
+        when(customizers.orderedStream()).thenAnswer(invocation -> Stream.empty());
+        WebClient quoteWebClient = config.quoteWebClient(config.webClientBuilder(connector, customizers));
+
+        for (String code : List.of("sh600519", "sz000001")) {
+            quoteWebClient.get().uri("/list={code}", code).retrieve().bodyToMono(String.class).block();
+        }
+
+        Assertions.assertEquals(List.of(
+            "/list=sh600519 https://finance.sina.com.cn/",
+            "/list=sz000001 https://finance.sina.com.cn/"
+        ), requests);
+        Gauge total = registry.find("reactor.netty.connection.provider.total.connections")
+            .tag("name", WebClientConfig.POOL_NAME)
+            .gauge();
+        Assertions.assertNotNull(total);
+        Assertions.assertNotNull(registry.find("reactor.netty.connection.provider.active.connections")
+            .tag("name", WebClientConfig.POOL_NAME).gauge());
+        Assertions.assertNotNull(registry.find("reactor.netty.connection.provider.idle.connections")
+            .tag("name", WebClientConfig.POOL_NAME).gauge());
+        Assertions.assertNotNull(registry.find("reactor.netty.connection.provider.pending.connections")
+            .tag("name", WebClientConfig.POOL_NAME).gauge());
+        Assertions.assertTrue(total.value() >= 1.0);
+    }
+}
@@ -2,6 +2,7 @@ package com.mamoji.controller;
 
 import com.mamoji.ai.AiOrchestratorService;
 import com.mamoji.ai.AiProperties;
+import com.mamoji.ai.model.AiStreamEvent;
 import com.mamoji.ai.model.StructuredAiResponse;
 import com.mamoji.dto.AIChatRequest;
 import com.mamoji.dto.AIChatResponse;
@@ -12,6 +13,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Map;
@@ -40,8 +43,13 @@ class AIControllerTest {
             "agent",
             "trace001"
         );
-        Mockito.when(aiOrchestratorService.chatStructured(7L, "budget suggestion", "finance", "s1", "agent"))
-            .thenReturn(structured);
+        Mockito.when(aiOrchestratorService.chatStream(7L, "budget suggestion", "finance", "s1", "agent"))
+            .thenReturn(Flux.just(
+                AiStreamEvent.chunk("123456789012345678901234"),
+                AiStreamEvent.chunk("567890123456789012345678"),
+                AiStreamEvent.chunk("90"),
+                AiStreamEvent.done(structured)
+            ));
 
         AIChatRequest request = new AIChatRequest();
         request.setMessage("budget suggestion");
@@ -73,7 +81,7 @@ class AIControllerTest {
         Assertions.assertEquals("agent", done.data().get("modeUsed"));
         Assertions.assertEquals("trace001", done.data().get("traceId"));
 
-        Mockito.verify(aiOrchestratorService).chatStructured(7L, "budget suggestion", "finance", "s1", "agent");
+        Mockito.verify(aiOrchestratorService).chatStream(7L, "budget suggestion", "finance", "s1", "agent");
         Mockito.verifyNoInteractions(aiService);
     }
 
@@ -117,15 +125,18 @@ class AIControllerTest {
         aiProperties.getStreamOps().setReactEnabled(false);
         AIController controller = new AIController(aiService, aiOrchestratorService, aiProperties);
 
-        Mockito.when(aiOrchestratorService.chatStructured(7L, "hello", "finance", null, "llm"))
-            .thenReturn(new StructuredAiResponse(
-                "legacy answer body",
-                List.of(),
-                List.of(),
-                List.of(),
-                Map.of("estimatedTokens", 5),
-                "llm",
-                "trace-llm"
+        Mockito.when(aiOrchestratorService.chatStream(7L, "hello", "finance", null, "llm"))
+            .thenReturn(Flux.just(
+                AiStreamEvent.chunk("legacy answer body"),
+                AiStreamEvent.done(new StructuredAiResponse(
+                    "legacy answer body",
+                    List.of(),
+                    List.of(),
+                    List.of(),
+                    Map.of("estimatedTokens", 5),
+                    "llm",
+                    "trace-llm"
+                ))
             ));
 
         AIChatRequest request = new AIChatRequest();
@@ -140,11 +151,30 @@ class AIControllerTest {
         Assertions.assertEquals("chunk", events.get(0).event());
         Assertions.assertEquals("legacy answer body", events.get(0).data().get("content"));
         Assertions.assertEquals("done", events.get(events.size() - 1).event());
-        Mockito.verify(aiOrchestratorService).chatStructured(7L, "hello", "finance", null, "llm");
+        Mockito.verify(aiOrchestratorService).chatStream(7L, "hello", "finance", null, "llm");
         Mockito.verifyNoInteractions(aiService);
     }
-}
 
+    @Test
+    void shouldReturnStructuredResponseAsynchronouslyForChatV2() {
+        AIService aiService = Mockito.mock(AIService.class);
+        AiOrchestratorService aiOrchestratorService = Mockito.mock(AiOrchestratorService.class);
+        AIController controller = new AIController(aiService, aiOrchestratorService, new AiProperties());
+        StructuredAiResponse structured = new StructuredAiResponse(
+            "answer", List.of(), List.of(), List.of(), Map.of(), "llm", "trace-v2");
+        Mockito.when(aiOrchestratorService.chatStructuredReactive(7L, "hello", "finance", null, null))
+            .thenReturn(Mono.just(structured));
 
+        AIChatRequest request = new AIChatRequest();
+        request.setMessage("hello");
+        request.setAssistantType("finance");
+        User user = User.builder().id(7L).build();
 
+        ResponseEntity<Map<String, Object>> response = controller.chatV2(request, user).block();
 
+        Assertions.assertNotNull(response);
+        Assertions.assertEquals(structured, response.getBody().get("data"));
+        Mockito.verify(aiOrchestratorService, Mockito.never()).chatStructured(
+            Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+}
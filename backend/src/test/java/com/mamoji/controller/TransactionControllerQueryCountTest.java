@@ -0,0 +1,124 @@
+package com.mamoji.controller;
+
+import com.mamoji.ai.metrics.AiMetricsService;
+import com.mamoji.entity.Category;
+import com.mamoji.entity.Transaction;
+import com.mamoji.entity.User;
+import com.mamoji.repository.CategoryRepository;
+import com.mamoji.repository.TransactionRepository;
+import com.mamoji.service.BudgetService;
+import com.mamoji.service.CategoryResolver;
+import com.mamoji.service.MonthlyRollupService;
+import com.mamoji.service.TransactionBatchImportService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@DataJpaTest
+@Import({
+    TransactionController.class,
+    BudgetService.class,
+    MonthlyRollupService.class,
+    CategoryResolver.class,
+    TransactionBatchImportService.class,
+    AiMetricsService.class
+})
+@TestPropertySource(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+/**
+ * Test suite for TransactionControllerQueryCountTest.
+ */
+class TransactionControllerQueryCountTest {
+
+    @Autowired
+    private TransactionController transactionController;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryResolver categoryResolver;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void seedTransactions() {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            categories.add(Category.builder().familyId(3L).name("Category " + i).type(2).isSystem(0).build());
+        }
+        categories = categoryRepository.saveAll(categories);
+
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            rows.add(Transaction.builder()
+                .userId(7L)
+                .type(2)
+                .amount(new BigDecimal("12.50"))
+                .categoryId(categories.get(i % categories.size()).getId())
+                .date(LocalDate.of(2026, 1, 1).plusDays(i % 60))
+                .build());
+        }
+        transactionRepository.saveAll(rows);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldKeepQueryCountConstantAsPageSizeGrows() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        User user = User.builder().id(7L).familyId(3L).build();
+
+        for (int pageSize : new int[] {1, 20, 200}) {
+            categoryResolver.evictAll();
+            entityManager.clear();
+            statistics.clear();
+
+            List<Map<String, Object>> list = listPage(user, pageSize);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> category = (Map<String, Object>) list.get(0).get("category");
+
+            Assertions.assertEquals(pageSize, list.size());
+            Assertions.assertTrue(((String) category.get("name")).startsWith("Category "));
+            // Cold cache: one page query plus one batch category lookup, regardless of page size.
+            Assertions.assertEquals(2, statistics.getPrepareStatementCount(), "pageSize=" + pageSize);
+
+            statistics.clear();
+            listPage(user, pageSize);
+            // Warm cache: only the page query.
+            Assertions.assertEquals(1, statistics.getPrepareStatementCount(), "warm pageSize=" + pageSize);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> listPage(User user, int pageSize) {
+        ResponseEntity<Map<String, Object>> response =
+            transactionController.getTransactions(user, 1, pageSize, null, null, null, null, null, false);
+        Map<String, Object> data = (Map<String, Object>) response.getBody().get("data");
+        return (List<Map<String, Object>>) data.get("list");
+    }
+}
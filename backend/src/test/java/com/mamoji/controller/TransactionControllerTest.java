@@ -1,6 +1,8 @@
 package com.mamoji.controller;
 
+import com.mamoji.common.api.KeysetCursor;
 import com.mamoji.common.status.BudgetStatus;
+import com.mamoji.ai.metrics.AiMetricsService;
 import com.mamoji.entity.Budget;
 import com.mamoji.entity.Category;
 import com.mamoji.entity.Transaction;
@@ -9,10 +11,16 @@ import com.mamoji.repository.BudgetRepository;
 import com.mamoji.repository.CategoryRepository;
 import com.mamoji.repository.TransactionRepository;
 import com.mamoji.service.BudgetService;
+import com.mamoji.service.CategoryResolver;
+import com.mamoji.service.MonthlyRollupService;
+import com.mamoji.service.TransactionBatchImportService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.ResponseEntity;
 
 import java.math.BigDecimal;
@@ -21,6 +29,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Test suite for TransactionControllerTest.
@@ -34,7 +43,7 @@ class TransactionControllerTest {
         CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
         BudgetRepository budgetRepository = Mockito.mock(BudgetRepository.class);
         BudgetService budgetService = Mockito.mock(BudgetService.class);
-        TransactionController controller = new TransactionController(transactionRepository, categoryRepository, budgetRepository, budgetService);
+        TransactionController controller = new TransactionController(transactionRepository, categoryRepository, budgetRepository, budgetService, Mockito.mock(MonthlyRollupService.class), new CategoryResolver(categoryRepository, Mockito.mock(AiMetricsService.class)), Mockito.mock(TransactionBatchImportService.class), Mockito.mock(ApplicationEventPublisher.class));
 
         User user = User.builder().id(7L).familyId(3L).build();
         Category category = Category.builder().id(11L).type(2).familyId(3L).build();
@@ -58,7 +67,7 @@ class TransactionControllerTest {
         CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
         BudgetRepository budgetRepository = Mockito.mock(BudgetRepository.class);
         BudgetService budgetService = Mockito.mock(BudgetService.class);
-        TransactionController controller = new TransactionController(transactionRepository, categoryRepository, budgetRepository, budgetService);
+        TransactionController controller = new TransactionController(transactionRepository, categoryRepository, budgetRepository, budgetService, Mockito.mock(MonthlyRollupService.class), new CategoryResolver(categoryRepository, Mockito.mock(AiMetricsService.class)), Mockito.mock(TransactionBatchImportService.class), Mockito.mock(ApplicationEventPublisher.class));
 
         User user = User.builder().id(7L).familyId(3L).build();
         Category category = Category.builder().id(12L).type(2).familyId(3L).build();
@@ -82,7 +91,7 @@ class TransactionControllerTest {
         CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
         BudgetRepository budgetRepository = Mockito.mock(BudgetRepository.class);
         BudgetService budgetService = Mockito.mock(BudgetService.class);
-        TransactionController controller = new TransactionController(transactionRepository, categoryRepository, budgetRepository, budgetService);
+        TransactionController controller = new TransactionController(transactionRepository, categoryRepository, budgetRepository, budgetService, Mockito.mock(MonthlyRollupService.class), new CategoryResolver(categoryRepository, Mockito.mock(AiMetricsService.class)), Mockito.mock(TransactionBatchImportService.class), Mockito.mock(ApplicationEventPublisher.class));
 
         User user = User.builder().id(7L).familyId(3L).build();
         LocalDate date = LocalDate.parse("2026-03-10");
@@ -149,7 +158,7 @@ class TransactionControllerTest {
         CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
         BudgetRepository budgetRepository = Mockito.mock(BudgetRepository.class);
         BudgetService budgetService = Mockito.mock(BudgetService.class);
-        TransactionController controller = new TransactionController(transactionRepository, categoryRepository, budgetRepository, budgetService);
+        TransactionController controller = new TransactionController(transactionRepository, categoryRepository, budgetRepository, budgetService, Mockito.mock(MonthlyRollupService.class), new CategoryResolver(categoryRepository, Mockito.mock(AiMetricsService.class)), Mockito.mock(TransactionBatchImportService.class), Mockito.mock(ApplicationEventPublisher.class));
 
         User user = User.builder().id(7L).familyId(3L).build();
 
@@ -182,7 +191,7 @@ class TransactionControllerTest {
         CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
         BudgetRepository budgetRepository = Mockito.mock(BudgetRepository.class);
         BudgetService budgetService = Mockito.mock(BudgetService.class);
-        TransactionController controller = new TransactionController(transactionRepository, categoryRepository, budgetRepository, budgetService);
+        TransactionController controller = new TransactionController(transactionRepository, categoryRepository, budgetRepository, budgetService, Mockito.mock(MonthlyRollupService.class), new CategoryResolver(categoryRepository, Mockito.mock(AiMetricsService.class)), Mockito.mock(TransactionBatchImportService.class), Mockito.mock(ApplicationEventPublisher.class));
 
         User user = User.builder().id(7L).familyId(3L).build();
         Transaction existing = Transaction.builder()
@@ -214,7 +223,7 @@ class TransactionControllerTest {
         CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
         BudgetRepository budgetRepository = Mockito.mock(BudgetRepository.class);
         BudgetService budgetService = Mockito.mock(BudgetService.class);
-        TransactionController controller = new TransactionController(transactionRepository, categoryRepository, budgetRepository, budgetService);
+        TransactionController controller = new TransactionController(transactionRepository, categoryRepository, budgetRepository, budgetService, Mockito.mock(MonthlyRollupService.class), new CategoryResolver(categoryRepository, Mockito.mock(AiMetricsService.class)), Mockito.mock(TransactionBatchImportService.class), Mockito.mock(ApplicationEventPublisher.class));
 
         User user = User.builder().id(7L).familyId(3L).build();
         Transaction refund = Transaction.builder()
@@ -239,7 +248,7 @@ class TransactionControllerTest {
         CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
         BudgetRepository budgetRepository = Mockito.mock(BudgetRepository.class);
         BudgetService budgetService = Mockito.mock(BudgetService.class);
-        TransactionController controller = new TransactionController(transactionRepository, categoryRepository, budgetRepository, budgetService);
+        TransactionController controller = new TransactionController(transactionRepository, categoryRepository, budgetRepository, budgetService, Mockito.mock(MonthlyRollupService.class), new CategoryResolver(categoryRepository, Mockito.mock(AiMetricsService.class)), Mockito.mock(TransactionBatchImportService.class), Mockito.mock(ApplicationEventPublisher.class));
 
         User user = User.builder().id(7L).familyId(3L).build();
         Transaction expense = Transaction.builder()
@@ -259,13 +268,118 @@ class TransactionControllerTest {
         Mockito.verify(transactionRepository, Mockito.never()).delete(ArgumentMatchers.any(Transaction.class));
     }
 
+    @Test
+    void shouldSeekByCursorAndSkipCountWhenTotalNotRequested() {
+        TransactionRepository transactionRepository = Mockito.mock(TransactionRepository.class);
+        TransactionController controller = new TransactionController(
+            transactionRepository,
+            Mockito.mock(CategoryRepository.class),
+            Mockito.mock(BudgetRepository.class),
+            Mockito.mock(BudgetService.class),
+            Mockito.mock(MonthlyRollupService.class),
+            Mockito.mock(CategoryResolver.class),
+            Mockito.mock(TransactionBatchImportService.class),
+            Mockito.mock(ApplicationEventPublisher.class)
+        );
+
+        User user = User.builder().id(7L).familyId(3L).build();
+        Transaction first = Transaction.builder().id(41L).userId(7L).type(2).categoryId(13L).amount(new BigDecimal("10")).date(LocalDate.parse("2026-03-10")).build();
+        Transaction second = Transaction.builder().id(40L).userId(7L).type(2).categoryId(13L).amount(new BigDecimal("20")).date(LocalDate.parse("2026-03-09")).build();
+        String cursor = new KeysetCursor(LocalDate.parse("2026-03-10"), 42L).encode();
+
+        Mockito.when(transactionRepository.findSliceWithFilters(
+                7L, true, List.of(2), null, null, LocalDate.parse("2026-03-10"), 42L, PageRequest.of(0, 2)))
+            .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.of(0, 2), true));
+
+        ResponseEntity<Map<String, Object>> response = controller.getTransactions(user, 5, 2, 2, null, null, null, cursor, false);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) response.getBody().get("data");
+        Assertions.assertFalse(data.containsKey("total"));
+        Assertions.assertEquals(true, data.get("hasMore"));
+        Assertions.assertEquals(new KeysetCursor(LocalDate.parse("2026-03-09"), 40L), KeysetCursor.decode((String) data.get("nextCursor")));
+        Mockito.verify(transactionRepository, Mockito.never()).countWithFilters(
+            ArgumentMatchers.anyLong(), ArgumentMatchers.anyBoolean(), ArgumentMatchers.anyList(), ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        TransactionController controller = new TransactionController(
+            Mockito.mock(TransactionRepository.class),
+            Mockito.mock(CategoryRepository.class),
+            Mockito.mock(BudgetRepository.class),
+            Mockito.mock(BudgetService.class),
+            Mockito.mock(MonthlyRollupService.class),
+            Mockito.mock(CategoryResolver.class),
+            Mockito.mock(TransactionBatchImportService.class),
+            Mockito.mock(ApplicationEventPublisher.class)
+        );
+        User user = User.builder().id(7L).familyId(3L).build();
+
+        RuntimeException exception = Assertions.assertThrows(
+            RuntimeException.class,
+            () -> controller.getTransactions(user, 1, 20, null, null, null, null, "not-a-cursor", true)
+        );
+
+        Assertions.assertTrue(exception.getMessage().contains("Invalid cursor"));
+    }
+
+    @Test
+    void shouldReportInvalidBatchRowsByIndexAndImportTheRest() {
+        TransactionRepository transactionRepository = Mockito.mock(TransactionRepository.class);
+        CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
+        TransactionBatchImportService transactionBatchImportService = Mockito.mock(TransactionBatchImportService.class);
+        TransactionController controller = new TransactionController(
+            transactionRepository,
+            categoryRepository,
+            Mockito.mock(BudgetRepository.class),
+            Mockito.mock(BudgetService.class),
+            Mockito.mock(MonthlyRollupService.class),
+            new CategoryResolver(categoryRepository, Mockito.mock(AiMetricsService.class)),
+            transactionBatchImportService,
+            Mockito.mock(ApplicationEventPublisher.class)
+        );
+
+        User user = User.builder().id(7L).familyId(3L).build();
+        Mockito.when(categoryRepository.findAllById(ArgumentMatchers.anyIterable())).thenReturn(List.of(
+            Category.builder().id(13L).type(2).familyId(3L).name("Food").build(),
+            Category.builder().id(14L).type(2).familyId(99L).name("Other family").build()
+        ));
+        Mockito.when(transactionBatchImportService.insertAll(ArgumentMatchers.eq(7L), ArgumentMatchers.anyList()))
+            .thenReturn(Set.of(20L));
+
+        List<Object> rows = List.of(
+            Map.of("type", 2, "amount", "12.30", "categoryId", 13L, "date", "2026-03-10"),
+            Map.of("type", 2, "amount", "-1", "categoryId", 13L, "date", "2026-03-10"),
+            Map.of("type", 2, "amount", "8", "categoryId", 14L, "date", "2026-03-10"),
+            Map.of("type", 1, "amount", "8", "categoryId", 13L, "date", "2026-03-10"),
+            "not a row",
+            Map.of("type", 2, "amount", "40", "categoryId", 13L, "date", "2026-03-11", "remark", "taxi")
+        );
+        ResponseEntity<Map<String, Object>> response = controller.batchCreateTransactions(user, Map.of("transactions", rows));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) response.getBody().get("data");
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> errors = (List<Map<String, Object>>) data.get("errors");
+
+        Assertions.assertEquals(2, data.get("imported"));
+        Assertions.assertEquals(4, data.get("failed"));
+        Assertions.assertEquals(List.of(1, 2, 3, 4), errors.stream().map(error -> error.get("index")).toList());
+        Assertions.assertTrue(errors.get(1).get("message").toString().contains("family"));
+        Assertions.assertNotNull(data.get("rowsPerSecond"));
+        Mockito.verify(categoryRepository, Mockito.times(1)).findAllById(ArgumentMatchers.anyIterable());
+        Mockito.verify(categoryRepository, Mockito.never()).findById(ArgumentMatchers.anyLong());
+        Mockito.verify(transactionRepository, Mockito.never()).save(ArgumentMatchers.any(Transaction.class));
+    }
+
     @Test
     void shouldExposeMoreRiskFlagsForExpensePressure() {
         TransactionRepository transactionRepository = Mockito.mock(TransactionRepository.class);
         CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
         BudgetRepository budgetRepository = Mockito.mock(BudgetRepository.class);
         BudgetService budgetService = Mockito.mock(BudgetService.class);
-        TransactionController controller = new TransactionController(transactionRepository, categoryRepository, budgetRepository, budgetService);
+        TransactionController controller = new TransactionController(transactionRepository, categoryRepository, budgetRepository, budgetService, Mockito.mock(MonthlyRollupService.class), new CategoryResolver(categoryRepository, Mockito.mock(AiMetricsService.class)), Mockito.mock(TransactionBatchImportService.class), Mockito.mock(ApplicationEventPublisher.class));
 
         User user = User.builder().id(7L).familyId(3L).build();
         LocalDate date = LocalDate.now().minusDays(1);
@@ -0,0 +1,103 @@
+package com.mamoji.repository;
+
+import com.mamoji.entity.Transaction;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+/**
+ * Test suite for TransactionRepositoryTest.
+ */
+class TransactionRepositoryTest {
+
+    private static final List<Integer> NO_TYPES = List.of(0);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private List<Transaction> seeded;
+
+    @BeforeEach
+    void seedTransactions() {
+        List<Transaction> rows = new ArrayList<>();
+        LocalDate day = LocalDate.of(2026, 1, 1);
+        for (int i = 0; i < 45; i++) {
+            // Several rows share a date so the id tie-breaker is exercised.
+            rows.add(tx(7L, i % 3 + 1, day.plusDays(i / 4)));
+        }
+        rows.add(tx(8L, 2, day));
+        seeded = transactionRepository.saveAll(rows);
+        transactionRepository.flush();
+    }
+
+    @Test
+    void shouldWalkEveryRowOnceWithKeysetCursor() {
+        assertKeysetWalk(false, NO_TYPES, null, null);
+        assertKeysetWalk(true, List.of(2), null, null);
+        assertKeysetWalk(true, List.of(1, 3), null, null);
+        assertKeysetWalk(false, NO_TYPES, LocalDate.of(2026, 1, 3), LocalDate.of(2026, 1, 9));
+        assertKeysetWalk(true, List.of(2, 3), LocalDate.of(2026, 1, 2), LocalDate.of(2026, 1, 8));
+    }
+
+    @Test
+    void shouldCountWithSameFiltersAsSlice() {
+        Assertions.assertEquals(45L, transactionRepository.countWithFilters(7L, false, NO_TYPES, null, null));
+        Assertions.assertEquals(15L, transactionRepository.countWithFilters(7L, true, List.of(2), null, null));
+        Assertions.assertEquals(
+            expected(true, List.of(1, 2), LocalDate.of(2026, 1, 3), LocalDate.of(2026, 1, 5)).size(),
+            transactionRepository.countWithFilters(7L, true, List.of(1, 2), LocalDate.of(2026, 1, 3), LocalDate.of(2026, 1, 5))
+        );
+    }
+
+    private void assertKeysetWalk(boolean filterTypes, List<Integer> types, LocalDate start, LocalDate end) {
+        List<Long> walked = new ArrayList<>();
+        LocalDate cursorDate = null;
+        Long cursorId = null;
+        Slice<Transaction> slice;
+        do {
+            slice = transactionRepository.findSliceWithFilters(
+                7L, filterTypes, types, start, end, cursorDate, cursorId, PageRequest.of(0, 4));
+            slice.getContent().forEach(row -> walked.add(row.getId()));
+            if (!slice.getContent().isEmpty()) {
+                Transaction last = slice.getContent().get(slice.getContent().size() - 1);
+                cursorDate = last.getDate();
+                cursorId = last.getId();
+            }
+        } while (slice.hasNext());
+
+        Assertions.assertEquals(expected(filterTypes, types, start, end), walked, "types=" + types + " start=" + start);
+    }
+
+    private List<Long> expected(boolean filterTypes, List<Integer> types, LocalDate start, LocalDate end) {
+        return seeded.stream()
+            .filter(row -> row.getUserId() == 7L)
+            .filter(row -> !filterTypes || types.contains(row.getType()))
+            .filter(row -> start == null || !row.getDate().isBefore(start))
+            .filter(row -> end == null || !row.getDate().isAfter(end))
+            .sorted(Comparator.comparing(Transaction::getDate).thenComparing(Transaction::getId).reversed())
+            .map(Transaction::getId)
+            .toList();
+    }
+
+    private Transaction tx(Long userId, int type, LocalDate date) {
+        return Transaction.builder()
+            .userId(userId)
+            .type(type)
+            .amount(new BigDecimal("10.00"))
+            .date(date)
+            .build();
+    }
+}
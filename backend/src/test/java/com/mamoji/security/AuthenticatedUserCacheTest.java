@@ -0,0 +1,70 @@
+package com.mamoji.security;
+
+import com.mamoji.config.SecurityProperties;
+import com.mamoji.entity.User;
+import com.mamoji.repository.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Test suite for AuthenticatedUserCacheTest.
+ */
+class AuthenticatedUserCacheTest {
+
+    private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+    private final SecurityProperties securityProperties = new SecurityProperties();
+    private final AuthenticatedUserCache cache = new AuthenticatedUserCache(userRepository, securityProperties);
+
+    @BeforeEach
+    void stubUsers() {
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return id > 100 ? Optional.empty() : Optional.of(User.builder()
+                .id(id).email("u" + id + "@mamoji.test").passwordHash("old").nickname("user").role(1).build());
+        });
+    }
+
+    @Test
+    void shouldServeCopiesFromCacheUntilEvicted() {
+        User first = cache.get(1L).orElseThrow();
+        first.setPasswordHash("mutated by controller");
+        User second = cache.get(1L).orElseThrow();
+
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals("old", second.getPasswordHash());
+        Mockito.verify(userRepository, Mockito.times(1)).findById(1L);
+
+        cache.evict(1L);
+        cache.get(1L);
+        Mockito.verify(userRepository, Mockito.times(2)).findById(1L);
+    }
+
+    @Test
+    void shouldNotCacheMissingUsersAndStayBounded() {
+        Assertions.assertTrue(cache.get(404L).isEmpty());
+        Assertions.assertTrue(cache.get(404L).isEmpty());
+        Mockito.verify(userRepository, Mockito.times(2)).findById(404L);
+
+        securityProperties.getPrincipalCache().setMaxSize(10);
+        for (long id = 1; id <= 25; id++) {
+            cache.get(id);
+        }
+        Assertions.assertTrue(cache.size() <= 10);
+    }
+
+    @Test
+    void shouldBypassCacheWhenTtlIsZero() {
+        securityProperties.getPrincipalCache().setTtl(Duration.ZERO);
+
+        cache.get(2L);
+        cache.get(2L);
+
+        Mockito.verify(userRepository, Mockito.times(2)).findById(2L);
+        Assertions.assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,115 @@
+package com.mamoji.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mamoji.ai.metrics.AiMetricsService;
+import com.mamoji.entity.Transaction;
+import com.mamoji.entity.User;
+import com.mamoji.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+@DataJpaTest
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({BackupExportService.class, CategoryResolver.class, AiMetricsService.class})
+@TestPropertySource(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+/**
+ * Test suite for BackupExportServiceTest.
+ */
+class BackupExportServiceTest {
+
+    private static final int ROW_COUNT = 1200;
+
+    @Autowired
+    private BackupExportService backupExportService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final User user = User.builder().id(7L).familyId(3L).build();
+
+    @BeforeEach
+    void seedTransactions() {
+        List<Transaction> rows = new ArrayList<>(ROW_COUNT);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            rows.add(Transaction.builder()
+                .userId(7L)
+                .type(2)
+                .amount(new BigDecimal("3.20"))
+                .date(LocalDate.of(2025, 1, 1).plusDays(i % 300))
+                .remark(i == 0 ? "coffee, \"large\"" : "row " + i)
+                .build());
+        }
+        transactionRepository.saveAll(rows);
+        transactionRepository.save(Transaction.builder()
+            .userId(8L).type(2).amount(BigDecimal.ONE).date(LocalDate.of(2025, 1, 1)).build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldStreamNdjsonWithTrailerAndDetachRows() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Map<String, Long> counts = backupExportService.export(user, BackupExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        JsonNode header = objectMapper.readTree(lines[0]);
+        JsonNode trailer = objectMapper.readTree(lines[lines.length - 1]);
+        long transactionLines = Arrays.stream(lines).filter(line -> line.contains("\"record\":\"transaction\"")).count();
+
+        Assertions.assertEquals("header", header.get("record").asText());
+        Assertions.assertEquals("trailer", trailer.get("record").asText());
+        Assertions.assertEquals(ROW_COUNT, trailer.get("counts").get("transactions").asLong());
+        Assertions.assertEquals(ROW_COUNT, transactionLines);
+        Assertions.assertEquals(ROW_COUNT, counts.get("transactions"));
+        Assertions.assertEquals(ROW_COUNT, backupExportService.countTransactions(7L));
+        Assertions.assertFalse(entityManager.unwrap(Session.class).getStatistics().getEntityCount() > 0,
+            "streamed rows should not stay in the persistence context");
+    }
+
+    @Test
+    void shouldKeepJsonDocumentShapeAndEscapeCsvFields() throws Exception {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        backupExportService.export(user, BackupExportService.Format.JSON, json);
+        JsonNode document = objectMapper.readTree(json.toByteArray());
+
+        Assertions.assertEquals(7L, document.get("userId").asLong());
+        Assertions.assertEquals(ROW_COUNT, document.get("transactions").size());
+        Assertions.assertEquals("2025-01-01", document.get("transactions").get(0).get("date").asText());
+        Assertions.assertTrue(document.get("accounts").isArray());
+        Assertions.assertEquals(ROW_COUNT, document.get("counts").get("transactions").asLong());
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        backupExportService.export(user, BackupExportService.Format.CSV, csv);
+        String[] lines = csv.toString(StandardCharsets.UTF_8).split("\n");
+
+        Assertions.assertEquals(ROW_COUNT + 1, lines.length);
+        Assertions.assertTrue(lines[0].startsWith("id,date,type,amount"));
+        Assertions.assertTrue(lines[1].contains("\"coffee, \"\"large\"\"\""), lines[1]);
+    }
+}
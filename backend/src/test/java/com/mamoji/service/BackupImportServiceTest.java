@@ -0,0 +1,216 @@
+package com.mamoji.service;
+
+import com.mamoji.ai.metrics.AiMetricsService;
+import com.mamoji.common.status.BackupImportStatus;
+import com.mamoji.common.status.BudgetStatus;
+import com.mamoji.entity.Account;
+import com.mamoji.entity.Budget;
+import com.mamoji.entity.Category;
+import com.mamoji.entity.Ledger;
+import com.mamoji.entity.Transaction;
+import com.mamoji.entity.User;
+import com.mamoji.repository.AccountRepository;
+import com.mamoji.repository.BudgetRepository;
+import com.mamoji.repository.CategoryRepository;
+import com.mamoji.repository.LedgerRepository;
+import com.mamoji.repository.TransactionRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+@DataJpaTest
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({
+    BackupImportService.class,
+    BackupExportService.class,
+    LedgerService.class,
+    BudgetService.class,
+    CategoryResolver.class,
+    TransactionBatchImportService.class,
+    MonthlyRollupService.class,
+    AiMetricsService.class
+})
+@TestPropertySource(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+/**
+ * Test suite for BackupImportServiceTest.
+ */
+class BackupImportServiceTest {
+
+    private static final int ROW_COUNT = 2500;
+
+    private final LocalDate base = LocalDate.now().minusDays(320);
+
+    @Autowired
+    private BackupImportService backupImportService;
+
+    @Autowired
+    private BackupExportService backupExportService;
+
+    @MockitoSpyBean
+    private MonthlyRollupService monthlyRollupService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private LedgerRepository ledgerRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Test
+    void shouldResumeFailedNdjsonImportFromCheckpointAndRemapIds() throws Exception {
+        User source = User.builder().id(901L).familyId(90L).build();
+        User target = User.builder().id(902L).familyId(91L).build();
+        seed(source);
+        MockMultipartFile file = new MockMultipartFile("file", "backup.ndjson", "application/x-ndjson",
+            export(source, BackupExportService.Format.NDJSON, false));
+
+        Mockito.doCallRealMethod()
+            .doThrow(new IllegalStateException("connection reset"))
+            .doCallRealMethod()
+            .when(monthlyRollupService).applyInserts(ArgumentMatchers.anyCollection());
+
+        BackupImportService.ImportReport failed = backupImportService.importBackup(target, file);
+        Assertions.assertEquals(BackupImportStatus.FAILED, failed.status());
+        Assertions.assertEquals(BackupImportService.CHUNK_SIZE, failed.counts().get("transactions"));
+        Assertions.assertEquals(BackupImportService.CHUNK_SIZE, transactionRepository.countByUserId(902L));
+
+        BackupImportService.ImportReport resumed = backupImportService.importBackup(target, file);
+        Assertions.assertEquals(BackupImportStatus.COMPLETED, resumed.status(), resumed.error());
+        Assertions.assertTrue(resumed.resumed());
+        Assertions.assertEquals(BackupImportService.CHUNK_SIZE, resumed.skippedOnResume());
+        Assertions.assertEquals(ROW_COUNT + 2L, resumed.counts().get("transactions"));
+        Assertions.assertEquals(1L, resumed.counts().get("ledgers"));
+        Assertions.assertEquals(ROW_COUNT + 2L, transactionRepository.countByUserId(902L));
+        Assertions.assertTrue(resumed.rowsPerSecond() > 0);
+
+        Category pets = categoryRepository.findByFamilyIdOrderByIdAsc(91L).get(0);
+        Ledger ledger = ledgerRepository.findByOwnerIdAndStatus(902L, 1).get(0);
+        Account account = accountRepository.findByUserIdAndStatus(902L, 1).get(0);
+        Budget budget = budgetRepository.findByUserIdAndStatus(902L, BudgetStatus.ACTIVE).get(0);
+        Assertions.assertEquals("Pets", pets.getName());
+        Assertions.assertEquals(ledger.getId(), account.getLedgerId());
+        Assertions.assertEquals(pets.getId(), budget.getCategoryId());
+        Assertions.assertEquals(0, budget.getSpent().compareTo(new BigDecimal("2500.00")));
+
+        List<Transaction> refunds = transactionRepository.findByUserIdAndTypeOrderByDateDesc(902L, 3,
+            PageRequest.of(0, 10)).getContent();
+        Transaction original = transactionRepository.findById(refunds.get(0).getOriginalTransactionId()).orElseThrow();
+        Assertions.assertEquals(902L, original.getUserId());
+        Assertions.assertEquals(0, original.getRefundedAmount().compareTo(new BigDecimal("5.00")));
+
+        long rollupCount = monthlyRollupService.findRange(902L, YearMonth.from(base), YearMonth.now()).stream()
+            .mapToLong(row -> row.getTxCount())
+            .sum();
+        Assertions.assertEquals(ROW_COUNT + 2L, rollupCount);
+
+        BackupImportService.ImportReport again = backupImportService.importBackup(target, file);
+        Assertions.assertTrue(again.alreadyImported());
+        Assertions.assertEquals(ROW_COUNT + 2L, transactionRepository.countByUserId(902L));
+    }
+
+    @Test
+    void shouldImportGzipJsonDocument() throws Exception {
+        User source = User.builder().id(911L).familyId(92L).build();
+        User target = User.builder().id(912L).familyId(93L).build();
+        seed(source);
+        MockMultipartFile file = new MockMultipartFile("file", "backup.json.gz", "application/gzip",
+            export(source, BackupExportService.Format.JSON, true));
+
+        BackupImportService.ImportReport report = backupImportService.importBackup(target, file);
+
+        Assertions.assertEquals(BackupImportStatus.COMPLETED, report.status(), report.error());
+        Assertions.assertEquals(ROW_COUNT + 2L, report.counts().get("transactions"));
+        Assertions.assertEquals(1L, report.counts().get("accounts"));
+        Assertions.assertEquals(ROW_COUNT + 2L, transactionRepository.countByUserId(912L));
+    }
+
+    private void seed(User user) {
+        Category pets = categoryRepository.save(Category.builder()
+            .familyId(user.getFamilyId()).name("Pets").type(2).isSystem(0).build());
+        Ledger ledger = new Ledger();
+        ledger.setName("Home");
+        ledger.setOwnerId(user.getId());
+        ledger.setIsDefault(true);
+        ledger = ledgerRepository.save(ledger);
+        Account account = new Account();
+        account.setName("Card");
+        account.setType("bank");
+        account.setUserId(user.getId());
+        account.setLedgerId(ledger.getId());
+        account = accountRepository.save(account);
+        Budget budget = budgetRepository.save(Budget.builder()
+            .userId(user.getId())
+            .name("Pets")
+            .categoryId(pets.getId())
+            .amount(new BigDecimal("100000"))
+            .spent(BigDecimal.ZERO)
+            .startDate(base)
+            .endDate(LocalDate.now().plusMonths(1))
+            .warningThreshold(80)
+            .status(BudgetStatus.ACTIVE)
+            .build());
+
+        List<Transaction> rows = new ArrayList<>(ROW_COUNT);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            rows.add(Transaction.builder()
+                .userId(user.getId())
+                .familyId(user.getFamilyId())
+                .type(2)
+                .amount(BigDecimal.ONE)
+                .categoryId(pets.getId())
+                .accountId(account.getId())
+                .budgetId(budget.getId())
+                .date(base.plusDays(i % 300))
+                .build());
+        }
+        transactionRepository.saveAll(rows);
+
+        Transaction original = transactionRepository.save(Transaction.builder()
+            .userId(user.getId()).type(2).amount(new BigDecimal("20.00")).refundedAmount(new BigDecimal("5.00"))
+            .date(base.plusDays(10)).build());
+        transactionRepository.save(Transaction.builder()
+            .userId(user.getId()).type(3).amount(new BigDecimal("5.00")).originalTransactionId(original.getId())
+            .date(base.plusDays(11)).build());
+    }
+
+    private byte[] export(User user, BackupExportService.Format format, boolean gzip) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (gzip) {
+            try (GZIPOutputStream body = new GZIPOutputStream(out)) {
+                backupExportService.export(user, format, body);
+            }
+        } else {
+            backupExportService.export(user, format, out);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,63 @@
+package com.mamoji.service;
+
+import com.mamoji.ai.metrics.AiMetricsService;
+import com.mamoji.entity.Category;
+import com.mamoji.repository.CategoryRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Test suite for CategoryResolverTest.
+ */
+
+class CategoryResolverTest {
+
+    @Test
+    void shouldServeRepeatedLookupsFromCacheIncludingMissingIds() {
+        CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
+        AiMetricsService aiMetricsService = Mockito.mock(AiMetricsService.class);
+        CategoryResolver resolver = new CategoryResolver(categoryRepository, aiMetricsService);
+        Mockito.when(categoryRepository.findAllById(Set.of(1L, 2L)))
+            .thenReturn(List.of(Category.builder().id(1L).name("Food").build()));
+
+        Map<Long, Category> first = resolver.resolve(List.of(1L, 2L));
+        Map<Long, Category> second = resolver.resolve(List.of(2L, 1L));
+
+        Assertions.assertEquals("Food", first.get(1L).getName());
+        Assertions.assertEquals(first, second);
+        Assertions.assertFalse(second.containsKey(2L));
+        Mockito.verify(categoryRepository, Mockito.times(1)).findAllById(ArgumentMatchers.anyIterable());
+        Mockito.verify(aiMetricsService).recordCacheAccess("category", "by_id", false);
+        Mockito.verify(aiMetricsService).recordCacheAccess("category", "by_id", true);
+    }
+
+    @Test
+    void shouldMergeSharedAndFamilyScopesAndReloadOnlyEvictedScope() {
+        CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
+        CategoryResolver resolver = new CategoryResolver(categoryRepository, Mockito.mock(AiMetricsService.class));
+        Category preset = Category.builder().id(1L).name("Salary").isSystem(1).build();
+        Category custom = Category.builder().id(9L).familyId(3L).name("Pets").isSystem(0).build();
+        Mockito.when(categoryRepository.findByFamilyIdIsNullOrderByIdAsc()).thenReturn(List.of(preset));
+        Mockito.when(categoryRepository.findByFamilyIdOrderByIdAsc(3L)).thenReturn(List.of(custom));
+
+        Assertions.assertEquals(List.of(preset, custom), resolver.visibleTo(3L));
+        Assertions.assertEquals(List.of(preset, custom), resolver.visibleTo(3L));
+        Assertions.assertEquals("Pets", resolver.resolve(List.of(9L)).get(9L).getName());
+
+        Category renamed = Category.builder().id(9L).familyId(3L).name("Pet care").isSystem(0).build();
+        Mockito.when(categoryRepository.findByFamilyIdOrderByIdAsc(3L)).thenReturn(List.of(renamed));
+        resolver.evict(renamed);
+
+        Assertions.assertEquals(List.of(preset, renamed), resolver.visibleTo(3L));
+        Assertions.assertEquals("Pet care", resolver.resolve(List.of(9L)).get(9L).getName());
+        Mockito.verify(categoryRepository, Mockito.times(1)).findByFamilyIdIsNullOrderByIdAsc();
+        Mockito.verify(categoryRepository, Mockito.times(2)).findByFamilyIdOrderByIdAsc(3L);
+        Mockito.verify(categoryRepository, Mockito.never()).findAllById(ArgumentMatchers.anyIterable());
+    }
+}
@@ -0,0 +1,152 @@
+package com.mamoji.service;
+
+import com.mamoji.config.RecurringProperties;
+import com.mamoji.entity.RecurringTransaction;
+import com.mamoji.repository.RecurringTransactionRepository;
+import com.mamoji.repository.TransactionRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@DataJpaTest
+@Import({
+    RecurringTransactionService.class,
+    TransactionBatchImportService.class,
+    BudgetService.class,
+    MonthlyRollupService.class
+})
+@TestPropertySource(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "app.recurring.max-occurrences-per-claim=31"
+})
+/**
+ * Test suite for RecurringTransactionServiceTest.
+ */
+class RecurringTransactionServiceTest {
+
+    @Autowired
+    private RecurringTransactionService recurringTransactionService;
+
+    @Autowired
+    private RecurringTransactionRepository recurringTransactionRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RecurringProperties recurringProperties;
+
+    @Test
+    void shouldAnchorMonthEndSchedulesWithoutDrift() {
+        RecurringTransaction rent = item("MONTHLY", LocalDate.of(2026, 1, 31));
+
+        LocalDate february = recurringTransactionService.computeNextDate(rent, LocalDate.of(2026, 1, 31));
+        LocalDate march = recurringTransactionService.computeNextDate(rent, february);
+
+        Assertions.assertEquals(LocalDate.of(2026, 2, 28), february);
+        Assertions.assertEquals(LocalDate.of(2026, 3, 31), march);
+
+        RecurringTransaction weekly = item("WEEKLY", LocalDate.of(2026, 1, 1));
+        weekly.setDayOfWeek(1);
+        weekly.setIntervalCount(2);
+        Assertions.assertEquals(LocalDate.of(2026, 1, 5),
+            recurringTransactionService.initialNextDate(weekly, LocalDate.of(2025, 12, 1)));
+        Assertions.assertEquals(LocalDate.of(2026, 1, 19),
+            recurringTransactionService.computeNextDate(weekly, LocalDate.of(2026, 1, 5)));
+    }
+
+    @Test
+    void shouldCatchUpInBoundedBatchesAndNeverGenerateTwice() {
+        LocalDate today = LocalDate.of(2026, 6, 15);
+        RecurringTransaction coffee = item("DAILY", today.minusDays(40));
+        coffee.setNextExecutionDate(today.minusDays(40));
+        RecurringTransaction paused = item("DAILY", today.minusDays(40));
+        paused.setNextExecutionDate(today.minusDays(40));
+        paused.setStatus(0);
+        recurringTransactionRepository.saveAll(List.of(coffee, paused));
+        entityManager.flush();
+
+        RecurringTransactionService.BatchResult first = recurringTransactionService.executeDueBatch(today);
+        RecurringTransactionService.BatchResult second = recurringTransactionService.executeDueBatch(today);
+        RecurringTransactionService.BatchResult third = recurringTransactionService.executeDueBatch(today);
+        entityManager.flush();
+        entityManager.clear();
+
+        Assertions.assertEquals(31, first.generated());
+        Assertions.assertEquals(10, second.generated());
+        Assertions.assertEquals(0, third.claimed());
+        Assertions.assertEquals(41, transactionRepository.countByUserId(31L));
+
+        RecurringTransaction stored = recurringTransactionRepository.findById(coffee.getId()).orElseThrow();
+        Assertions.assertEquals(today, stored.getLastExecutionDate());
+        Assertions.assertEquals(today.plusDays(1), stored.getNextExecutionDate());
+        Assertions.assertEquals(41, stored.getExecutionCount());
+    }
+
+    @Test
+    void shouldStopAtEndDateAndKeepPendingOccurrenceOnEarlyManualRun() {
+        LocalDate today = LocalDate.of(2026, 6, 15);
+        RecurringTransaction salary = item("MONTHLY", LocalDate.of(2026, 1, 20));
+        salary.setType(1);
+        salary.setNextExecutionDate(LocalDate.of(2026, 6, 20));
+        salary.setEndDate(LocalDate.of(2026, 6, 30));
+        recurringTransactionRepository.save(salary);
+
+        recurringTransactionService.executeNow(salary.getId(), 31L, today);
+        Assertions.assertEquals(LocalDate.of(2026, 6, 20), salary.getNextExecutionDate());
+
+        recurringTransactionService.executeDueBatch(LocalDate.of(2026, 6, 20));
+        Assertions.assertNull(salary.getNextExecutionDate());
+        Assertions.assertEquals(2, salary.getExecutionCount());
+        Assertions.assertEquals(2, transactionRepository.countByUserId(31L));
+    }
+
+    @Test
+    void shouldClampNonPositiveOccurrenceLimitAndKeepDueDefinitionsActive() {
+        LocalDate today = LocalDate.of(2026, 6, 15);
+        RecurringTransaction coffee = item("DAILY", today.minusDays(3));
+        coffee.setNextExecutionDate(today.minusDays(3));
+        RecurringTransaction ended = item("DAILY", today.minusDays(10));
+        ended.setNextExecutionDate(today.minusDays(2));
+        ended.setEndDate(today.minusDays(5));
+        recurringTransactionRepository.saveAll(List.of(coffee, ended));
+        entityManager.flush();
+
+        int configured = recurringProperties.getMaxOccurrencesPerClaim();
+        recurringProperties.setMaxOccurrencesPerClaim(0);
+        try {
+            RecurringTransactionService.BatchResult result = recurringTransactionService.executeDueBatch(today);
+            Assertions.assertEquals(1, result.generated());
+        } finally {
+            recurringProperties.setMaxOccurrencesPerClaim(configured);
+        }
+
+        Assertions.assertEquals(today.minusDays(2), coffee.getNextExecutionDate());
+        Assertions.assertNull(ended.getNextExecutionDate());
+    }
+
+    private RecurringTransaction item(String recurrenceType, LocalDate startDate) {
+        return RecurringTransaction.builder()
+            .userId(31L)
+            .name("Recurring")
+            .type(2)
+            .amount(new BigDecimal("9.90"))
+            .recurrenceType(recurrenceType)
+            .intervalCount(1)
+            .startDate(startDate)
+            .status(RecurringTransactionService.ACTIVE)
+            .executionCount(0)
+            .build();
+    }
+}
@@ -0,0 +1,164 @@
+package com.mamoji.service;
+
+import com.mamoji.config.QuoteProperties;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Test suite for StockQuoteServiceTest.
+ *
+ * <p>Runs against a local stub of the Sina {@code /list=} endpoint; codes starting with {@code sz9} are unknown.
+ */
+class StockQuoteServiceTest {
+
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private QuoteProperties properties;
+    private StockQuoteService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getRawPath();
+            requests.add(path);
+            try {
+                Thread.sleep(150);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder body = new StringBuilder();
+            for (String code : path.substring("/list=".length()).split(",")) {
+                String data = code.startsWith("sz9") ? "" : "Name-" + code + ",10.00,9.50,10.20,10.50,9.80,10.19,10.21,123456" + ",0".repeat(24);
+                body.append("var hq_str_").append(code).append("=\"").append(data).append("\";\n");
+            }
+            byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.start();
+
+        properties = new QuoteProperties();
+        WebClient webClient = WebClient.builder().baseUrl("http://localhost:" + server.getAddress().getPort()).build();
+        service = new StockQuoteService(webClient, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void shouldCoalesceConcurrentRequestsForSameCode() throws Exception {
+        int callers = 20;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<StockQuoteService.StockQuote>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return service.getQuote("sh000001");
+                }));
+            }
+            start.countDown();
+            for (Future<StockQuoteService.StockQuote> result : results) {
+                Assertions.assertEquals("Name-sh000001", result.get().field(0));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Assertions.assertEquals(List.of("/list=sh000001"), requests);
+    }
+
+    @Test
+    void shouldBatchCodesIntoOneRequestAndSkipUnknownCodes() {
+        Map<String, StockQuoteService.StockQuote> quotes = service.getQuotes(List.of("sh600519", "SZ000001", "sz999999", "sh600519"));
+
+        Assertions.assertEquals(List.of("/list=sh600519,sz000001,sz999999"), requests);
+        Assertions.assertEquals(List.of("sh600519", "sz000001"), new ArrayList<>(quotes.keySet()));
+        Assertions.assertEquals(33, quotes.get("sh600519").fields().size());
+    }
+
+    @Test
+    void shouldServeFromCacheWithinTtlAndRefetchAfterwards() throws Exception {
+        properties.setCacheTtl(Duration.ofMillis(300));
+
+        service.getQuote("sh600519");
+        service.getQuotes(List.of("sh600519", "sz999999"));
+        service.getQuote("sz999999");
+        Thread.sleep(400);
+        service.getQuote("sh600519");
+
+        Assertions.assertEquals(List.of("/list=sh600519", "/list=sz999999", "/list=sh600519"), requests);
+    }
+
+    @Test
+    void shouldSplitLargeBatchesByMaxCodesPerRequest() {
+        properties.setMaxCodesPerRequest(2);
+
+        Map<String, StockQuoteService.StockQuote> quotes = service.getQuotes(List.of("sh600000", "sh600001", "sh600002"));
+
+        Assertions.assertEquals(List.of("/list=sh600000,sh600001", "/list=sh600002"), requests);
+        Assertions.assertEquals(3, quotes.size());
+    }
+
+    @Test
+    void shouldFetchBatchesConcurrently() {
+        properties.setMaxCodesPerRequest(1);
+
+        long start = System.nanoTime();
+        Map<String, StockQuoteService.StockQuote> quotes = service.getQuotes(List.of("sh600000", "sh600001", "sh600002", "sh600003"));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        Assertions.assertEquals(List.of("sh600000", "sh600001", "sh600002", "sh600003"), new ArrayList<>(quotes.keySet()));
+        Assertions.assertEquals(4, requests.size());
+        // Four sequential 150 ms requests would take at least 600 ms.
+        Assertions.assertTrue(elapsedMs < 450, "elapsed=" + elapsedMs + "ms");
+    }
+
+    @Test
+    void shouldReturnCompletedQuotesWhenDeadlineIsReached() {
+        properties.setMaxCodesPerRequest(1);
+        properties.setMaxConcurrentRequests(1);
+        properties.setRequestTimeout(Duration.ofMillis(250));
+
+        Map<String, StockQuoteService.StockQuote> quotes = service.getQuotes(List.of("sh600000", "sh600001", "sh600002"));
+
+        Assertions.assertEquals(List.of("sh600000"), new ArrayList<>(quotes.keySet()));
+    }
+
+    @Test
+    void snapshotShouldExposeSharedFields() {
+        StockSnapshot snapshot = StockSnapshot.from(service.getQuote("sh600519"));
+
+        Assertions.assertNotNull(snapshot);
+        Assertions.assertEquals("Name-sh600519", snapshot.name());
+        Assertions.assertEquals(10.20, snapshot.currentPrice(), 1e-9);
+        Assertions.assertEquals((10.20 - 9.50) / 9.50 * 100, snapshot.changePercent(), 1e-9);
+        Assertions.assertEquals(
+            "Name-sh600519: current=10.20 open=10.00 close=9.50 high=10.50 low=9.80 volume=123456", snapshot.toLine());
+    }
+}
@@ -0,0 +1,238 @@
+package com.mamoji.service;
+
+import com.mamoji.config.RollupProperties;
+import com.mamoji.entity.MonthlyRollup;
+import com.mamoji.entity.Transaction;
+import com.mamoji.repository.MonthlyRollupRepository;
+import com.mamoji.repository.TransactionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+@DataJpaTest
+@Import({TransactionAggregationService.class, MonthlyRollupService.class})
+@TestPropertySource(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+/**
+ * Test suite for TransactionAggregationServiceTest.
+ */
+class TransactionAggregationServiceTest {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionAggregationService transactionAggregationService;
+
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+
+    @Autowired
+    private MonthlyRollupRepository monthlyRollupRepository;
+
+    @Autowired
+    private RollupProperties rollupProperties;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void seedTransactions() {
+        List<Transaction> rows = new ArrayList<>();
+        YearMonth month = YearMonth.of(2021, 1);
+        for (int i = 0; i < 60; i++) {
+            rows.add(tx(7L, 1, "1000.00", month.atDay(5)));
+            rows.add(tx(7L, 2, "300.00", month.atDay(10)));
+            rows.add(tx(7L, 2, "200.50", month.atEndOfMonth()));
+            month = month.plusMonths(1);
+        }
+        rows.add(tx(8L, 2, "999.00", LocalDate.of(2022, 6, 1)));
+        transactionRepository.saveAll(rows);
+        transactionRepository.flush();
+        monthlyRollupService.rebuildUser(7L);
+        monthlyRollupService.rebuildUser(8L);
+    }
+
+    @AfterEach
+    void restoreRollupReads() {
+        rollupProperties.setReadEnabled(true);
+    }
+
+    @Test
+    void shouldAggregateMonthTypeMatrixFromOneGroupedQuery() {
+        TransactionAggregationService.MonthlyMatrix matrix = transactionAggregationService.monthlyMatrix(
+            7L, YearMonth.of(2022, 1), YearMonth.of(2022, 12));
+
+        Assertions.assertEquals(0, matrix.income(YearMonth.of(2022, 6)).compareTo(new BigDecimal("1000.00")));
+        Assertions.assertEquals(0, matrix.expense(YearMonth.of(2022, 6)).compareTo(new BigDecimal("500.50")));
+        Assertions.assertEquals(0, matrix.total(1).compareTo(new BigDecimal("12000.00")));
+        Assertions.assertEquals(0, matrix.total(2).compareTo(new BigDecimal("6006.00")));
+        Assertions.assertEquals(0, matrix.expense(YearMonth.of(2023, 1)).compareTo(BigDecimal.ZERO));
+    }
+
+    @Test
+    void shouldKeepQueryCountFlatAsMonthRangeGrows() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        YearMonth end = YearMonth.of(2025, 12);
+
+        for (int months : new int[] {1, 12, 60}) {
+            statistics.clear();
+            long startedAt = System.nanoTime();
+            TransactionAggregationService.MonthlyMatrix matrix =
+                transactionAggregationService.monthlyMatrix(7L, end.minusMonths(months - 1L), end);
+            long elapsedMicros = (System.nanoTime() - startedAt) / 1_000;
+
+            Assertions.assertEquals(1, statistics.getPrepareStatementCount(), "months=" + months);
+            Assertions.assertEquals(
+                0,
+                matrix.total(1).compareTo(new BigDecimal("1000.00").multiply(BigDecimal.valueOf(months))),
+                "months=" + months + " elapsedMicros=" + elapsedMicros
+            );
+        }
+    }
+
+    @Test
+    void shouldMatchRawGroupedQueryWhenRollupReadsAreDisabled() {
+        YearMonth start = YearMonth.of(2021, 6);
+        YearMonth end = YearMonth.of(2024, 3);
+        TransactionAggregationService.MonthlyMatrix fromRollup = transactionAggregationService.monthlyMatrix(7L, start, end);
+
+        rollupProperties.setReadEnabled(false);
+        TransactionAggregationService.MonthlyMatrix fromRaw = transactionAggregationService.monthlyMatrix(7L, start, end);
+
+        for (YearMonth month = start; !month.isAfter(end); month = month.plusMonths(1)) {
+            Assertions.assertEquals(0, fromRollup.income(month).compareTo(fromRaw.income(month)), month.toString());
+            Assertions.assertEquals(0, fromRollup.expense(month).compareTo(fromRaw.expense(month)), month.toString());
+        }
+    }
+
+    @Test
+    void shouldCombineRollupMonthsWithPartialEdgeRanges() {
+        LocalDate start = LocalDate.of(2022, 1, 7);
+        LocalDate end = LocalDate.of(2022, 3, 15);
+
+        BigDecimal expense = transactionAggregationService.sumByType(7L, 2, start, end);
+        long expenseCount = transactionAggregationService.countByType(7L, 2, start, end);
+        Map<Long, BigDecimal> byCategory = transactionAggregationService.sumByCategory(7L, 2, start, end);
+
+        rollupProperties.setReadEnabled(false);
+        Assertions.assertEquals(0, expense.compareTo(transactionAggregationService.sumByType(7L, 2, start, end)));
+        Assertions.assertEquals(transactionAggregationService.countByType(7L, 2, start, end), expenseCount);
+        Assertions.assertEquals(0, byCategory.get(1L).compareTo(transactionAggregationService.sumByCategory(7L, 2, start, end).get(1L)));
+        Assertions.assertEquals(0, expense.compareTo(new BigDecimal("1301.00")));
+        Assertions.assertEquals(5L, expenseCount);
+    }
+
+    @Test
+    void shouldKeepIncrementalRollupInSyncWithRebuild() {
+        Transaction first = transactionRepository.save(tx(9L, 2, "120.00", LocalDate.of(2026, 2, 3)));
+        monthlyRollupService.applyChange(null, first);
+        Transaction second = transactionRepository.save(tx(9L, 2, "80.00", LocalDate.of(2026, 2, 20)));
+        monthlyRollupService.applyChange(null, second);
+
+        Transaction before = copy(second);
+        second.setAmount(new BigDecimal("95.00"));
+        second.setCategoryId(null);
+        second.setDate(LocalDate.of(2026, 3, 1));
+        transactionRepository.save(second);
+        monthlyRollupService.applyChange(before, second);
+
+        Transaction removed = copy(first);
+        transactionRepository.delete(first);
+        monthlyRollupService.applyChange(removed, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> incremental = snapshot(9L);
+        monthlyRollupService.rebuildUser(9L);
+
+        Assertions.assertEquals(snapshot(9L), incremental);
+        Assertions.assertEquals(0, transactionAggregationService.sumByType(
+            9L, 2, LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31)).compareTo(new BigDecimal("95.00")));
+    }
+
+    @Test
+    void shouldDropCategoriesWhoseRollupCountReachedZero() {
+        Transaction only = transactionRepository.save(tx(10L, 2, "50.00", LocalDate.of(2026, 4, 2)));
+        monthlyRollupService.applyChange(null, only);
+        Transaction removed = copy(only);
+        transactionRepository.delete(only);
+        monthlyRollupService.applyChange(removed, null);
+        entityManager.flush();
+
+        Map<Long, BigDecimal> byCategory = transactionAggregationService.sumByCategory(
+            10L, 2, LocalDate.of(2026, 4, 1), LocalDate.of(2026, 4, 30));
+
+        Assertions.assertTrue(byCategory.isEmpty(), byCategory.toString());
+    }
+
+    @Test
+    void shouldBackfillEmptyRollupTableOnStartup() {
+        monthlyRollupRepository.deleteAll();
+        monthlyRollupRepository.flush();
+        MonthlyRollupRebuildJob job = new MonthlyRollupRebuildJob(
+            monthlyRollupService, transactionRepository, monthlyRollupRepository, rollupProperties);
+
+        job.rebuildOnStartup();
+
+        Assertions.assertEquals(0, transactionAggregationService.sumByType(
+            8L, 2, LocalDate.of(2022, 6, 1), LocalDate.of(2022, 6, 30)).compareTo(new BigDecimal("999.00")));
+    }
+
+    /**
+     * Returns non-empty rollup cells of user as comparable strings.
+     */
+    private List<String> snapshot(Long userId) {
+        return monthlyRollupRepository.findByUserIdAndYearMonthBetween(userId, "0000-01", "9999-12").stream()
+            .filter(row -> row.getTxCount() != 0 || row.getAmount().signum() != 0)
+            .sorted(Comparator.comparing(MonthlyRollup::getYearMonth)
+                .thenComparing(MonthlyRollup::getType)
+                .thenComparing(MonthlyRollup::getCategoryId))
+            .map(row -> row.getYearMonth() + "/" + row.getType() + "/" + row.getCategoryId()
+                + "=" + row.getAmount().stripTrailingZeros().toPlainString() + "x" + row.getTxCount())
+            .toList();
+    }
+
+    private Transaction copy(Transaction source) {
+        return Transaction.builder()
+            .userId(source.getUserId())
+            .type(source.getType())
+            .amount(source.getAmount())
+            .categoryId(source.getCategoryId())
+            .refundedAmount(source.getRefundedAmount())
+            .date(source.getDate())
+            .build();
+    }
+
+    private Transaction tx(Long userId, int type, String amount, LocalDate date) {
+        return Transaction.builder()
+            .userId(userId)
+            .type(type)
+            .amount(new BigDecimal(amount))
+            .categoryId(1L)
+            .date(date)
+            .build();
+    }
+}
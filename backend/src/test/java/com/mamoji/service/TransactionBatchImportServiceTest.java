@@ -0,0 +1,97 @@
+package com.mamoji.service;
+
+import com.mamoji.common.status.BudgetStatus;
+import com.mamoji.entity.Budget;
+import com.mamoji.entity.Transaction;
+import com.mamoji.repository.BudgetRepository;
+import com.mamoji.repository.TransactionRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@DataJpaTest
+@Import({TransactionBatchImportService.class, BudgetService.class, MonthlyRollupService.class})
+@TestPropertySource(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+/**
+ * Test suite for TransactionBatchImportServiceTest.
+ */
+class TransactionBatchImportServiceTest {
+
+    @Autowired
+    private TransactionBatchImportService transactionBatchImportService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void shouldInsertRowsMatchBudgetsAndResyncEachBudgetOnce() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        Budget food = budgetRepository.save(budget("Food", 13L, month));
+        Budget overall = budgetRepository.save(budget("Overall", null, month));
+
+        int rowCount = 3000;
+        List<Transaction> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            boolean foodRow = i % 2 == 0;
+            rows.add(Transaction.builder()
+                .userId(7L)
+                .familyId(3L)
+                .type(2)
+                .amount(new BigDecimal("1.50"))
+                .categoryId(foodRow ? 13L : 14L)
+                .date(month)
+                .remark("statement line " + i)
+                .build());
+        }
+
+        long startedAt = System.nanoTime();
+        Set<Long> synced = transactionBatchImportService.insertAll(7L, rows);
+        double rowsPerSecond = rowCount * 1_000_000_000.0 / Math.max(1L, System.nanoTime() - startedAt);
+        entityManager.clear();
+
+        Assertions.assertEquals(Set.of(food.getId(), overall.getId()), synced);
+        Assertions.assertEquals(rowCount, transactionRepository.countByUserIdAndTypeAndDateBetween(7L, 2, month, month),
+            "rowsPerSecond=" + rowsPerSecond);
+        Assertions.assertEquals(0, budgetRepository.findById(food.getId()).orElseThrow().getSpent()
+            .compareTo(new BigDecimal("2250.00")));
+
+        long rollupCount = monthlyRollupService.findRange(7L, YearMonth.from(month), YearMonth.from(month)).stream()
+            .mapToLong(row -> row.getTxCount())
+            .sum();
+        Assertions.assertEquals(rowCount, rollupCount);
+    }
+
+    private Budget budget(String name, Long categoryId, LocalDate month) {
+        return Budget.builder()
+            .userId(7L)
+            .name(name)
+            .categoryId(categoryId)
+            .amount(new BigDecimal("100000"))
+            .spent(BigDecimal.ZERO)
+            .startDate(month)
+            .endDate(month.plusMonths(1).minusDays(1))
+            .warningThreshold(80)
+            .status(BudgetStatus.ACTIVE)
+            .build();
+    }
+}
@@ -121,7 +121,7 @@ export default function BackupPage() {
           <label className="w-full py-2.5 rounded-lg bg-gray-100 text-gray-800 hover:bg-gray-200 flex items-center justify-center gap-2 cursor-pointer">
             <Upload className="w-4 h-4" />
             {importing ? '导入中...' : '导入备份文件'}
-            <input type="file" accept=".json,.zip" className="hidden" onChange={handleImport} disabled={importing} />
+            <input type="file" accept=".json,.ndjson,.gz,.zip" className="hidden" onChange={handleImport} disabled={importing} />
           </label>
         </div>
       </div>